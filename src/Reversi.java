@@ -1,4 +1,5 @@
 import java.io.File;
+import java.io.IOException;
 
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -8,6 +9,7 @@ import javax.swing.JOptionPane;
 import controller.AiController;
 import controller.HumanController;
 import controller.IPlayer;
+import metrics.MetricsServer;
 import model.Cell;
 import model.IReversiModel;
 import model.ReversiModel;
@@ -26,16 +28,27 @@ public class Reversi {
    * The main entry point of the Reversi game application. It creates the game model, wraps it
    * with a read-only interface, initializes the main frame of the game, and makes it visible.
    * Calls upon the reversi creator class to make players based on the commandline arguments.
+   * Run with -Dreversi.metrics.port=PORT to serve the metrics over HTTP while playing.
    *
    * @param args The command-line arguments passed to the application (not used).
    */
   public static void main(String[] args) {
+    try {
+      MetricsServer.startFromProperty(); //serves until the game's windows exit
+    } catch (IOException e) {
+      System.err.println("Cannot serve metrics: " + e.getMessage());
+    }
 
     IArgParsar ap = new ArgParser(args);
     ap.parseArguments();
     ReversiCreator creator = new ReversiCreator();
-    IPlayer player1 = creator.createPlayer(ap.getPlayer1(), Cell.BLACK, ap.getStrategiesPlayer1());
-    IPlayer player2 = creator.createPlayer(ap.getPlayer2(), Cell.WHITE, ap.getStrategiesPlayer2());
+    // AI players ponder while a human opponent is thinking
+    boolean ponder1 = ap.getPlayer2().equalsIgnoreCase("human");
+    boolean ponder2 = ap.getPlayer1().equalsIgnoreCase("human");
+    IPlayer player1 = creator.createPlayer(ap.getPlayer1(), Cell.BLACK, ap.getStrategiesPlayer1(),
+            ponder1);
+    IPlayer player2 = creator.createPlayer(ap.getPlayer2(), Cell.WHITE, ap.getStrategiesPlayer2(),
+            ponder2);
 
     //String filePath = "src/MC.wav";
     //playMusic(filePath);
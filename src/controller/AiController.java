@@ -4,6 +4,8 @@ import java.util.Optional;
 
 import model.IPosition;
 import model.IReversiModel;
+import model.MoveEvent;
+import strategy.SearchInfoListener;
 import view.IReversiFrameView;
 
 
@@ -17,7 +19,8 @@ public class AiController extends BasicController {
 
   /**
    * Constructs a new {@code AiController} with the given model, AI player, and view.
-   * Initializes the controller for an AI player in the Reversi game.
+   * Initializes the controller for an AI player in the Reversi game. A view that can show
+   * the progress of a search is told about the AI player's searches.
    *
    * @param model The game model to be managed by this controller.
    * @param player The AI player associated with this controller.
@@ -25,6 +28,25 @@ public class AiController extends BasicController {
    */
   public AiController(IReversiModel model, IPlayer player, IReversiFrameView view) {
     super(model, player, view);
+    if (player instanceof AiPlayer && view instanceof SearchInfoListener) {
+      ((AiPlayer) player).addSearchInfoListener((SearchInfoListener) view);
+    }
+  }
+
+  /**
+   * Updates the view as any controller does and, once the game is over, stops the AI
+   * player's pondering and closes it, since this controller has no more use for it.
+   *
+   * @param event What changed, and the state of the game afterwards.
+   */
+  @Override
+  public void moveMade(MoveEvent event) {
+    super.moveMade(event);
+    if (model.isGameOver() && player instanceof AiPlayer) {
+      AiPlayer aiPlayer = (AiPlayer) player;
+      aiPlayer.stopPondering();
+      aiPlayer.close();
+    }
   }
 
   /**
@@ -2,20 +2,49 @@ package controller;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import metrics.AiDecisionEvent;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import model.BoardLayout;
 import model.Cell;
+import model.CompactBoard;
 import model.IPosition;
 import model.IReversiModel;
 import strategy.IReversiStrategy;
+import strategy.ISearchStrategy;
+import strategy.SearchInfoListener;
+import strategy.SearchLimits;
+import strategy.TimeManager;
 
 /**
  * Represents an AI (Artificial Intelligence) player in the Reversi game.
  * This class implements the IPlayer interface and makes
  * decisions based on the provided strategy.
+ * A player with a searching strategy can ponder: after each move it guesses the
+ * opponent's reply and searches the resulting position in the background while the
+ * opponent thinks. If the guess was right (a ponder hit) the next search starts with
+ * everything the background search learned; otherwise that is discarded. A player that
+ * ponders owns a thread, so it should be closed once its game is over.
  */
-public class AiPlayer implements IPlayer {
+public class AiPlayer implements IPlayer, AutoCloseable {
+  private static final long PREDICT_MILLIS = 50; //time spent guessing the opponent's reply
+  private static final long MAX_PONDER_MILLIS = 60_000; //pondering stops by itself after
+
   private final Cell player;
   private final IReversiStrategy strategy;
+  private final GameClock clock; //null if the player is not timed
+  private final TimeManager timeManager;
+  private final ExecutorService ponderExecutor; //null if the player does not ponder
+  private final String strategyName; //the strategy's class, for metrics and events
+  private final LatencyHistogram decisionTimer; //time spent in choosePositions
+  private Ponder ponder; //the background search in progress, or null
+  private int ponderHits;
+  private int ponderMisses;
 
   /**
    * Constructs an AiPlayer with a specified cell color and strategy.
@@ -27,11 +56,67 @@ public class AiPlayer implements IPlayer {
   public AiPlayer(Cell player, IReversiStrategy strategy) {
     this.player = player;
     this.strategy = strategy;
+    this.clock = null;
+    this.timeManager = null;
+    this.ponderExecutor = null;
+    this.strategyName = nameOf(strategy);
+    this.decisionTimer = Metrics.histogram("strategy." + strategyName + ".choosePositions");
+  }
+
+  /**
+   * Constructs a timed AiPlayer. The clock runs while the player is choosing a move, and
+   * a searching strategy is given a share of the remaining time for each move.
+   *
+   * @param player   The color of the cell this AI player will use in the game.
+   * @param strategy The strategy that this AI player will use to make decisions.
+   * @param clock    The player's game clock.
+   */
+  public AiPlayer(Cell player, IReversiStrategy strategy, GameClock clock) {
+    this(player, strategy, clock, false);
+  }
+
+  /**
+   * Constructs an AiPlayer that may be timed and may ponder on the opponent's time.
+   *
+   * @param player   The color of the cell this AI player will use in the game.
+   * @param strategy The strategy that this AI player will use to make decisions.
+   * @param clock    The player's game clock, or null if the player is not timed.
+   * @param ponder   Whether to search on the opponent's time. Only searching strategies
+   *                 can ponder; for others this is ignored.
+   */
+  public AiPlayer(Cell player, IReversiStrategy strategy, GameClock clock, boolean ponder) {
+    this.player = player;
+    this.strategy = strategy;
+    this.clock = clock;
+    this.timeManager = clock == null ? null : new TimeManager();
+    if (ponder && strategy instanceof ISearchStrategy) {
+      this.ponderExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ponder-" + player);
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.ponderExecutor = null;
+    }
+    this.strategyName = nameOf(strategy);
+    this.decisionTimer = Metrics.histogram("strategy." + strategyName + ".choosePositions");
+  }
+
+  /**
+   * Names a strategy after its class, such as "AlphaBetaStrategy".
+   *
+   * @param strategy the strategy
+   * @return the name
+   */
+  private static String nameOf(IReversiStrategy strategy) {
+    Class<?> type = strategy.getClass();
+    return type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
   }
 
   /**
    * Plays a move based on the AI strategy. This method evaluates the possible moves and
-   * selects the best move according to the strategy defined.
+   * selects the best move according to the strategy defined. If the player is timed, the
+   * move is charged to its clock, and a searching strategy stops in time.
    *
    * @param model The current state of the Reversi game model.
    * @return An Optional containing the chosen Position for the next move,
@@ -39,8 +124,214 @@ public class AiPlayer implements IPlayer {
    */
   @Override
   public Optional<IPosition> play(IReversiModel model) {
-    List<IPosition> possibleMoves = strategy.choosePositions(model, player);
-    return strategy.chooseBestPosition(possibleMoves);
+    if (clock != null) {
+      clock.start();
+    }
+    try {
+      finishPondering(model);
+      List<IPosition> possibleMoves;
+      long start = Metrics.startTimer();
+      AiDecisionEvent decision = new AiDecisionEvent();
+      decision.begin();
+      if (clock != null && strategy instanceof ISearchStrategy) {
+        SearchLimits limits = timeManager.allocate(clock.getRemainingMillis(),
+                clock.getIncrementMillis(), countEmptyCells(model));
+        possibleMoves = ((ISearchStrategy) strategy).choosePositions(model, player, limits);
+      } else {
+        possibleMoves = strategy.choosePositions(model, player);
+      }
+      decisionTimer.stop(start);
+      if (strategy instanceof ISearchStrategy) {
+        ISearchStrategy search = (ISearchStrategy) strategy;
+        decision.finish(strategyName, search.getNodeCount(), search.getCompletedDepth());
+      } else {
+        decision.finish(strategyName, 0, 0);
+      }
+      Optional<IPosition> move = strategy.chooseBestPosition(possibleMoves);
+      startPondering(model, move);
+      return move;
+    } finally {
+      if (clock != null) {
+        clock.stop();
+      }
+    }
+  }
+
+  /**
+   * Stops any background search, for example because the game is over.
+   */
+  public void stopPondering() {
+    if (haltPondering() != null) {
+      ((ISearchStrategy) strategy).forget();
+    }
+  }
+
+  /**
+   * Checks whether a background search is in progress.
+   *
+   * @return True if the player is pondering.
+   */
+  public boolean isPondering() {
+    return ponder != null;
+  }
+
+  /**
+   * Stops any background search and the thread that runs them. The player can still
+   * play, but no longer ponders.
+   */
+  @Override
+  public void close() {
+    stopPondering();
+    if (ponderExecutor != null) {
+      ponderExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Registers a listener for the progress of this player's searches, including those made
+   * while pondering. Only a searching strategy reports progress; for any other the
+   * listener is never called.
+   *
+   * @param listener The listener, called on the searching thread.
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addSearchInfoListener(SearchInfoListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    if (strategy instanceof ISearchStrategy) {
+      ((ISearchStrategy) strategy).addSearchInfoListener(listener);
+    }
+  }
+
+  /**
+   * Retrieves how many times the opponent played the reply this player pondered on.
+   *
+   * @return The number of ponder hits.
+   */
+  public int getPonderHits() {
+    return ponderHits;
+  }
+
+  /**
+   * Retrieves how many times the opponent played something other than the reply this
+   * player pondered on.
+   *
+   * @return The number of ponder misses.
+   */
+  public int getPonderMisses() {
+    return ponderMisses;
+  }
+
+  /**
+   * Retrieves the game clock of this AI player.
+   *
+   * @return The clock, or empty if the player is not timed.
+   */
+  public Optional<GameClock> getClock() {
+    return Optional.ofNullable(clock);
+  }
+
+  /**
+   * Starts searching, in the background, the position the game is expected to reach after
+   * this player's move and the opponent's most likely reply. Nothing happens if the player
+   * does not ponder, has been closed or the game would be over.
+   *
+   * @param model The current state of the Reversi game model, before the move.
+   * @param move  The move this player is about to make, or empty for a pass.
+   */
+  private void startPondering(IReversiModel model, Optional<IPosition> move) {
+    if (ponderExecutor == null || ponderExecutor.isShutdown()) {
+      return;
+    }
+    CompactBoard board;
+    try {
+      board = CompactBoard.of(model);
+    } catch (IllegalStateException e) {
+      return;
+    }
+    board.setTurn(BoardLayout.colorOf(player));
+    if (move.isPresent()) {
+      board.play(board.getLayout().indexOf(move.get()));
+    } else {
+      board.pass();
+    }
+    if (board.isGameOver()) {
+      return;
+    }
+    ISearchStrategy search = (ISearchStrategy) strategy;
+    Ponder next = new Ponder();
+    next.task = ponderExecutor.submit(() -> {
+      int reply = search.search(board, new SearchLimits(PREDICT_MILLIS, PREDICT_MILLIS));
+      if (next.limits.isStopped()) {
+        return;
+      }
+      if (reply >= 0) {
+        board.play(reply);
+      } else {
+        board.pass();
+      }
+      next.expectedHash = board.getHash();
+      next.predicted = true;
+      search.search(board, next.limits);
+    });
+    ponder = next;
+  }
+
+  /**
+   * Stops the background search and waits for it, then keeps what it learned if the game
+   * reached the position it was searching, or discards it otherwise.
+   *
+   * @param model The current state of the Reversi game model.
+   */
+  private void finishPondering(IReversiModel model) {
+    Ponder last = haltPondering();
+    if (last == null) {
+      return;
+    }
+    if (last.predicted && last.expectedHash == BoardLayout.of(model).hash(model)) {
+      ponderHits++;
+    } else {
+      ponderMisses++;
+      ((ISearchStrategy) strategy).forget();
+    }
+  }
+
+  /**
+   * Stops the background search, if there is one, and waits for it to finish.
+   *
+   * @return The stopped search, or null if there was none.
+   */
+  private Ponder haltPondering() {
+    Ponder last = ponder;
+    if (last == null) {
+      return null;
+    }
+    ponder = null;
+    last.limits.stop();
+    try {
+      last.task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      last.predicted = false; //a failed background search counts as a miss
+    }
+    return last;
+  }
+
+  /**
+   * Counts the empty cells of the board, which bounds how many moves are left.
+   *
+   * @param model The current state of the Reversi game model.
+   * @return The number of empty cells, or every cell if the game has not started.
+   */
+  private static int countEmptyCells(IReversiModel model) {
+    int cells = BoardLayout.of(model).getCellCount();
+    try {
+      return cells - model.getScore(Cell.BLACK) - model.getScore(Cell.WHITE);
+    } catch (IllegalStateException e) {
+      return cells;
+    }
   }
 
   /**
@@ -63,5 +354,15 @@ public class AiPlayer implements IPlayer {
   public boolean isAI() {
     return true;
   }
+
+  /**
+   * A background search on the opponent's time.
+   */
+  private static final class Ponder {
+    private final SearchLimits limits = new SearchLimits(MAX_PONDER_MILLIS, MAX_PONDER_MILLIS);
+    private Future<?> task;
+    private volatile boolean predicted; //set once the opponent's reply has been guessed
+    private volatile long expectedHash; //hash of the position after the guessed reply
+  }
 }
 
@@ -5,6 +5,7 @@ import javax.swing.JOptionPane;
 
 import model.Cell;
 import model.IReversiModel;
+import model.MoveEvent;
 import view.IReversiFrameView;
 
 /**
@@ -14,8 +15,11 @@ import view.IReversiFrameView;
  * {@code ModelStatusListener} interfaces,
  * providing foundational control and response
  * capabilities for interacting with the game model and view.
+ * It listens to the model as a {@code MoveEventListener}, so each move
+ * updates the view once.
  */
-public abstract class BasicController implements Features, ModelStatusListener {
+public abstract class BasicController implements Features, ModelStatusListener,
+        MoveEventListener {
   protected final IReversiModel model; //the game model
   protected final IPlayer player; //the player controlled by this controller
   protected final IReversiFrameView view; //the game view
@@ -24,7 +28,7 @@ public abstract class BasicController implements Features, ModelStatusListener {
   /**
    * Constructs a new {@code BasicController} with the given model, player, and view.
    * This constructor initializes the controller, sets up model-view communication,
-   * and registers the controller as a listener for model status updates.
+   * and registers the controller as a listener for the model's move events.
    *
    * @param model The game model to be managed by this controller.
    * @param player The player (human or AI) associated with this controller.
@@ -36,7 +40,31 @@ public abstract class BasicController implements Features, ModelStatusListener {
     this.view = view;
     this.isHexPosition = true;
     view.addFeatures(this);
-    model.addModelStatusListener(this);
+    model.addMoveEventListener(this);
+  }
+
+  /**
+   * Responds to a start, move or pass with a single repaint, a turn indicator if
+   * it is now the controlled player's turn, and the new score if it changed.
+   * After a move only the cells that were played on or flipped are repainted.
+   *
+   * @param event What changed, and the state of the game afterwards.
+   */
+  @Override
+  public void moveMade(MoveEvent event) {
+    if (event.getKind() == MoveEvent.Kind.MOVE) {
+      view.repaintCells(event.getChangedCells());
+    } else {
+      view.repaintView();
+    }
+    if (this.player.getCell() == event.getTurn()) {
+      view.updateView(model);
+      view.showTurnIndicator("It's your turn!");
+    }
+    if (event.getKind() != MoveEvent.Kind.PASS) {
+      view.showScore("SCORE - Black: " + event.getScore(Cell.BLACK)
+              + " White: " + event.getScore(Cell.WHITE));
+    }
   }
 
   /**
@@ -0,0 +1,102 @@
+package controller;
+
+/**
+ * A player's chess clock: a total amount of time for the whole game, plus an increment
+ * added after every move. The clock runs between start() and stop(). A player whose
+ * clock reaches zero has run out of time.
+ */
+public class GameClock {
+  private final long incrementMillis;
+  private long remainingNanos; //time left, not counting the current run
+  private long startedAt; //System.nanoTime() of start(), only meaningful while running
+  private boolean running;
+
+  /**
+   * Constructs a stopped clock.
+   *
+   * @param totalMillis     the time for the whole game, in milliseconds
+   * @param incrementMillis the time added after each move, in milliseconds
+   * @throws IllegalArgumentException if a time is negative or the total is zero
+   */
+  public GameClock(long totalMillis, long incrementMillis) {
+    if (totalMillis <= 0 || incrementMillis < 0) {
+      throw new IllegalArgumentException("Invalid clock: " + totalMillis + " + "
+              + incrementMillis);
+    }
+    this.remainingNanos = totalMillis * 1_000_000L;
+    this.incrementMillis = incrementMillis;
+  }
+
+  /**
+   * Starts the clock at the beginning of the player's move.
+   *
+   * @throws IllegalStateException if the clock is already running
+   */
+  public void start() {
+    if (running) {
+      throw new IllegalStateException("Clock is already running");
+    }
+    running = true;
+    startedAt = System.nanoTime();
+  }
+
+  /**
+   * Stops the clock at the end of the player's move, taking off the time used and adding
+   * the increment if the player still had time left.
+   *
+   * @return the time the move took, in milliseconds
+   * @throws IllegalStateException if the clock is not running
+   */
+  public long stop() {
+    if (!running) {
+      throw new IllegalStateException("Clock is not running");
+    }
+    running = false;
+    long used = System.nanoTime() - startedAt;
+    remainingNanos -= used;
+    if (remainingNanos > 0) {
+      remainingNanos += incrementMillis * 1_000_000L;
+    }
+    return used / 1_000_000L;
+  }
+
+  /**
+   * Gets the time left, counting the current move if the clock is running.
+   *
+   * @return the time left in milliseconds, never negative
+   */
+  public long getRemainingMillis() {
+    long remaining = remainingNanos;
+    if (running) {
+      remaining -= System.nanoTime() - startedAt;
+    }
+    return Math.max(remaining, 0) / 1_000_000L;
+  }
+
+  /**
+   * Gets the time added after each move.
+   *
+   * @return the increment in milliseconds
+   */
+  public long getIncrementMillis() {
+    return incrementMillis;
+  }
+
+  /**
+   * Checks if the player has run out of time.
+   *
+   * @return true if no time is left
+   */
+  public boolean isFlagged() {
+    return getRemainingMillis() == 0;
+  }
+
+  /**
+   * Checks if the clock is running.
+   *
+   * @return true between start() and stop()
+   */
+  public boolean isRunning() {
+    return running;
+  }
+}
@@ -0,0 +1,19 @@
+package controller;
+
+import model.MoveEvent;
+
+/**
+ * The MoveEventListener interface is used to listen to the actions of a Reversi game.
+ * Unlike a {@link ModelStatusListener}, which hears about the board, the turn and the
+ * score separately, a MoveEventListener is told once per action, with everything that
+ * changed in a single {@link MoveEvent}.
+ */
+public interface MoveEventListener {
+
+  /**
+   * Called once after the game starts, a move is made or a turn is passed.
+   *
+   * @param event What changed, and the state of the game afterwards.
+   */
+  void moveMade(MoveEvent event);
+}
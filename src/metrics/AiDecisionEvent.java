@@ -0,0 +1,47 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one move chosen by an AI player, lasting as long as its
+ * strategy took to choose.
+ */
+@Name("reversi.AiDecision")
+@Label("AI Decision")
+@Category({"Reversi", "AI"})
+@Description("A move chosen by an AI player's strategy")
+@StackTrace(false)
+public final class AiDecisionEvent extends Event {
+  @Label("Strategy")
+  private String strategy;
+
+  @Label("Nodes Searched")
+  @Description("Positions visited, or 0 for a strategy that does not search")
+  private long nodes;
+
+  @Label("Depth Reached")
+  @Description("Plies of the deepest finished iteration, or 0 for a strategy that does not "
+          + "search")
+  private int depth;
+
+  /**
+   * Ends the event and records it, if Flight Recorder is recording it.
+   *
+   * @param strategy the name of the strategy
+   * @param nodes    the positions the search visited, or 0
+   * @param depth    the depth the search finished, or 0
+   */
+  public void finish(String strategy, long nodes, int depth) {
+    if (shouldCommit()) {
+      this.strategy = strategy;
+      this.nodes = nodes;
+      this.depth = depth;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The histograms and counters a model records to, named after its board, such as
+ * "hex3.executeMove" or "square4.isALegalMove", so models of the same board share them.
+ * There is one BoardMetrics per board, looked up with {@link #of}, so the many models a
+ * search copies cost no registry lookups.
+ */
+public final class BoardMetrics {
+  private static final Map<String, BoardMetrics> BOARDS = new ConcurrentHashMap<>();
+
+  private final String board;
+  private final LatencyHistogram executeMove;
+  private final LatencyHistogram isALegalMove;
+  private final LatencyHistogram hasLegalMove;
+  private final LatencyHistogram countCaptures;
+  private final Counter illegalMoves;
+
+  /**
+   * Constructs a BoardMetrics. Use {@link #of}.
+   *
+   * @param board the name of the board, such as "hex3"
+   */
+  private BoardMetrics(String board) {
+    this.board = board;
+    this.executeMove = Metrics.histogram(board + ".executeMove");
+    this.isALegalMove = Metrics.histogram(board + ".isALegalMove");
+    this.hasLegalMove = Metrics.histogram(board + ".hasLegalMove");
+    this.countCaptures = Metrics.histogram(board + ".countCaptures");
+    this.illegalMoves = Metrics.counter(board + ".illegalMoves");
+  }
+
+  /**
+   * Gets the metrics of a board, creating them the first time.
+   *
+   * @param board the name of the board, such as "hex3"
+   * @return the metrics, shared by every model of the board
+   */
+  public static BoardMetrics of(String board) {
+    return BOARDS.computeIfAbsent(board, BoardMetrics::new);
+  }
+
+  /**
+   * Gets the name of the board.
+   *
+   * @return the name, such as "hex3"
+   */
+  public String getBoard() {
+    return board;
+  }
+
+  /**
+   * Gets the time taken to make moves.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram executeMove() {
+    return executeMove;
+  }
+
+  /**
+   * Gets the time taken to check whether a move is legal.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram isALegalMove() {
+    return isALegalMove;
+  }
+
+  /**
+   * Gets the time taken to check whether a player has any legal move.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram hasLegalMove() {
+    return hasLegalMove;
+  }
+
+  /**
+   * Gets the time taken to count the discs a move would capture.
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram countCaptures() {
+    return countCaptures;
+  }
+
+  /**
+   * Gets the number of moves refused as illegal.
+   *
+   * @return the counter
+   */
+  public Counter illegalMoves() {
+    return illegalMoves;
+  }
+}
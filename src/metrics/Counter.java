@@ -0,0 +1,67 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A count of events, such as illegal moves tried, that many threads can add to without
+ * contending. Nothing is counted while metrics are disabled.
+ */
+public final class Counter {
+  private final String name;
+  private final LongAdder count;
+
+  /**
+   * Constructs a Counter. Use {@link Metrics#counter}.
+   *
+   * @param name the counter's name
+   */
+  Counter(String name) {
+    this.name = name;
+    this.count = new LongAdder();
+  }
+
+  /**
+   * Adds one, if metrics are enabled.
+   */
+  public void increment() {
+    if (Metrics.isEnabled()) {
+      count.increment();
+    }
+  }
+
+  /**
+   * Adds an amount, if metrics are enabled.
+   *
+   * @param amount the amount
+   */
+  public void add(long amount) {
+    if (Metrics.isEnabled()) {
+      count.add(amount);
+    }
+  }
+
+  /**
+   * Gets the count.
+   *
+   * @return the sum of everything added since the last reset
+   */
+  public long get() {
+    return count.sum();
+  }
+
+  /**
+   * Gets the counter's name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the count back to zero.
+   */
+  void reset() {
+    count.reset();
+  }
+}
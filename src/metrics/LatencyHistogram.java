@@ -0,0 +1,180 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with buckets in the style of HDR histograms:
+ * each power of two is split into 16 equal buckets, so any duration from a nanosecond to
+ * centuries is kept to within about 6% in a fixed 960 counters, and recording is a few
+ * lock-free additions. Nothing is recorded while metrics are disabled.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final String name;
+  private final AtomicLongArray buckets;
+  private final LongAdder count;
+  private final LongAdder sum;
+  private final LongAccumulator max;
+
+  /**
+   * Constructs a LatencyHistogram. Use {@link Metrics#histogram}.
+   *
+   * @param name the histogram's name
+   */
+  LatencyHistogram(String name) {
+    this.name = name;
+    this.buckets = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0);
+  }
+
+  /**
+   * Records the time since a start taken with {@link Metrics#startTimer}. A start of 0,
+   * which is what it gives while metrics are disabled, records nothing.
+   *
+   * @param startNanos the start
+   */
+  public void stop(long startNanos) {
+    if (startNanos != 0) {
+      record(System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Records a duration, if metrics are enabled.
+   *
+   * @param nanos the duration in nanoseconds; negative durations count as 0
+   */
+  public void record(long nanos) {
+    if (!Metrics.isEnabled()) {
+      return;
+    }
+    long value = Math.max(0, nanos);
+    buckets.incrementAndGet(bucketOf(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Finds the bucket of a duration.
+   *
+   * @param value the non-negative duration
+   * @return the bucket index
+   */
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Finds the smallest duration in a bucket.
+   *
+   * @param bucket the bucket index
+   * @return the duration
+   */
+  static long lowestIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  /**
+   * Gets the histogram's name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of durations recorded.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Gets the mean duration.
+   *
+   * @return the mean in nanoseconds, or 0 if nothing was recorded
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Gets the longest duration.
+   *
+   * @return the longest in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Estimates the duration below which a fraction of the durations fall.
+   *
+   * @param fraction the fraction, such as 0.99
+   * @return the middle of the bucket holding that duration, or the longest duration for a
+   *         fraction of 1, in nanoseconds, or 0 if nothing was recorded
+   * @throws IllegalArgumentException if the fraction is not between 0 and 1
+   */
+  public long getPercentile(double fraction) {
+    if (fraction < 0 || fraction > 1) {
+      throw new IllegalArgumentException("Fraction must be between 0 and 1");
+    }
+    long total = 0;
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+      total += counts[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * total));
+    if (rank >= total) {
+      return getMax();
+    }
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        long low = lowestIn(i);
+        long high = i + 1 < BUCKETS ? lowestIn(i + 1) : Long.MAX_VALUE;
+        return Math.min(low + (high - low) / 2, getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * Forgets everything recorded.
+   */
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+}
@@ -0,0 +1,46 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one start, move or pass being handed to a model's
+ * listeners, lasting as long as the listeners called directly took and the others took
+ * to be handed to their executors.
+ */
+@Name("reversi.ListenerFanOut")
+@Label("Listener Fan-Out")
+@Category({"Reversi", "Model"})
+@Description("A move event handed to a model's listeners")
+@StackTrace(false)
+public final class ListenerFanOutEvent extends Event {
+  @Label("Kind")
+  private String kind;
+
+  @Label("Listeners")
+  private int listeners;
+
+  @Label("Through Executors")
+  @Description("Listeners whose calls were handed to an executor instead of made directly")
+  private int queued;
+
+  /**
+   * Ends the event and records it, if Flight Recorder is recording it.
+   *
+   * @param kind      START, MOVE or PASS
+   * @param listeners the number of listeners told
+   * @param queued    how many of them were told through an executor
+   */
+  public void finish(Object kind, int listeners, int queued) {
+    if (shouldCommit()) {
+      this.kind = String.valueOf(kind);
+      this.listeners = listeners;
+      this.queued = queued;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The registry of counters and latency histograms kept for the model, the strategies and
+ * the views. Metrics are off unless the system property reversi.metrics is true or
+ * {@link #setEnabled} turns them on; while they are off, timing a call costs one read of a
+ * volatile flag and recording anything does nothing. A counter or histogram is looked up
+ * by name once and kept by whoever records to it, so the hot paths never touch the
+ * registry itself.
+ */
+public final class Metrics {
+  private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+  private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+  private static volatile boolean enabled = Boolean.getBoolean("reversi.metrics");
+
+  private Metrics() {
+  }
+
+  /**
+   * Tells whether metrics are being recorded.
+   *
+   * @return true if they are
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Turns recording on or off. What was recorded is kept either way.
+   *
+   * @param on whether to record
+   */
+  public static void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  /**
+   * Gets the counter of the given name, creating it the first time.
+   *
+   * @param name the name, such as "hex3.illegalMoves"
+   * @return the counter
+   */
+  public static Counter counter(String name) {
+    return COUNTERS.computeIfAbsent(name, Counter::new);
+  }
+
+  /**
+   * Gets the histogram of the given name, creating it the first time.
+   *
+   * @param name the name, such as "hex3.executeMove"
+   * @return the histogram
+   */
+  public static LatencyHistogram histogram(String name) {
+    return HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+  }
+
+  /**
+   * Starts timing something, to be stopped with {@link LatencyHistogram#stop}.
+   *
+   * @return the current time in nanoseconds, or 0 if metrics are disabled
+   */
+  public static long startTimer() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Forgets everything recorded, keeping the counters and histograms themselves.
+   */
+  public static void reset() {
+    COUNTERS.values().forEach(Counter::reset);
+    HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+  }
+
+  /**
+   * Describes every counter and every histogram that has recorded something, one to a
+   * line, with durations in microseconds.
+   *
+   * @return the description
+   */
+  public static String toText() {
+    StringBuilder text = new StringBuilder();
+    for (Counter counter : COUNTERS.values()) {
+      text.append(counter.getName()).append(' ').append(counter.get()).append('\n');
+    }
+    for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+      if (histogram.getCount() > 0) {
+        text.append(String.format(Locale.ROOT,
+                "%s count=%d mean=%.2fus p50=%.2fus p99=%.2fus p999=%.2fus max=%.2fus%n",
+                histogram.getName(), histogram.getCount(), histogram.getMean() / 1000,
+                histogram.getPercentile(0.5) / 1000.0, histogram.getPercentile(0.99) / 1000.0,
+                histogram.getPercentile(0.999) / 1000.0, histogram.getMax() / 1000.0));
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Describes every counter and every histogram that has recorded something as a JSON
+   * object, with durations in nanoseconds.
+   *
+   * @return the JSON text
+   */
+  public static String toJson() {
+    StringBuilder json = new StringBuilder("{\"enabled\":").append(enabled)
+            .append(",\"counters\":{");
+    String separator = "";
+    for (Counter counter : COUNTERS.values()) {
+      json.append(separator).append(quote(counter.getName())).append(':').append(counter.get());
+      separator = ",";
+    }
+    json.append("},\"histograms\":{");
+    separator = "";
+    for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+      if (histogram.getCount() > 0) {
+        json.append(separator).append(quote(histogram.getName()))
+                .append(String.format(Locale.ROOT,
+                        ":{\"count\":%d,\"mean\":%.1f,\"p50\":%d,\"p99\":%d,\"p999\":%d,"
+                                + "\"max\":%d}",
+                        histogram.getCount(), histogram.getMean(),
+                        histogram.getPercentile(0.5), histogram.getPercentile(0.99),
+                        histogram.getPercentile(0.999), histogram.getMax()));
+        separator = ",";
+      }
+    }
+    return json.append("}}").toString();
+  }
+
+  /**
+   * Quotes a name for JSON.
+   *
+   * @param name the name
+   * @return the name in double quotes, with quotes and backslashes escaped
+   */
+  private static String quote(String name) {
+    return '"' + name.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+}
@@ -0,0 +1,109 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Serves the metrics over HTTP: GET /metrics as text and GET /metrics.json as JSON. An
+ * application starts one with {@link #startFromProperty} when it is run with the system
+ * property reversi.metrics.port, such as -Dreversi.metrics.port=9090.
+ */
+public final class MetricsServer implements Closeable {
+  static final String PORT_PROPERTY = "reversi.metrics.port";
+
+  private final HttpServer server;
+
+  /**
+   * Starts serving on the given address.
+   *
+   * @param address the address to listen on; port 0 picks a free port
+   * @throws IOException if the address cannot be bound
+   */
+  public MetricsServer(InetSocketAddress address) throws IOException {
+    this.server = HttpServer.create(address, 0);
+    server.createContext("/metrics.json",
+        exchange -> respond(exchange, "application/json", Metrics::toJson));
+    server.createContext("/metrics",
+        exchange -> respond(exchange, "text/plain; charset=utf-8", Metrics::toText));
+    server.start();
+  }
+
+  /**
+   * Starts serving on the loopback interface, at the port named by the system property
+   * reversi.metrics.port, and turns recording on, if the property is set. Serving is not
+   * started otherwise, and recording is left as the reversi.metrics property set it.
+   *
+   * @return the server, or empty if the property is not set
+   * @throws IOException              if the port cannot be bound
+   * @throws IllegalArgumentException if the property is not a port number
+   */
+  public static Optional<MetricsServer> startFromProperty() throws IOException {
+    String port = System.getProperty(PORT_PROPERTY);
+    if (port == null) {
+      return Optional.empty();
+    }
+    int number;
+    try {
+      number = Integer.parseInt(port.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + PORT_PROPERTY + ": " + port, e);
+    }
+    if (number < 0 || number > 0xFFFF) {
+      throw new IllegalArgumentException("Invalid " + PORT_PROPERTY + ": " + port);
+    }
+    MetricsServer server = new MetricsServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), number));
+    Metrics.setEnabled(true);
+    return Optional.of(server);
+  }
+
+  /**
+   * Gets the address the server listens on.
+   *
+   * @return the address, with the actual port
+   */
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  /**
+   * Stops serving.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  /**
+   * Answers one request.
+   *
+   * @param exchange    the request
+   * @param contentType the type of the body
+   * @param body        makes the body
+   * @throws IOException if the answer cannot be sent
+   */
+  private static void respond(HttpExchange exchange, String contentType, Supplier<String> body)
+          throws IOException {
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+      byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", contentType);
+      exchange.sendResponseHeaders(200, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one move made on a model, lasting from the call to
+ * executeMove until the board, scores and turn are updated and the listeners told.
+ */
+@Name("reversi.MoveExecuted")
+@Label("Move Executed")
+@Category({"Reversi", "Model"})
+@Description("A move made on a model")
+@StackTrace(false)
+public final class MoveExecutedEvent extends Event {
+  @Label("Board")
+  private String board;
+
+  @Label("Player")
+  private String player;
+
+  @Label("Cells Flipped")
+  private int cellsFlipped;
+
+  /**
+   * Ends the event and records it, if Flight Recorder is recording it.
+   *
+   * @param board        the name of the board, such as "hex3"
+   * @param player       the player who moved, BLACK or WHITE
+   * @param cellsFlipped the number of discs the move turned over
+   */
+  public void finish(String board, String player, int cellsFlipped) {
+    if (shouldCommit()) {
+      this.board = board;
+      this.player = player;
+      this.cellsFlipped = cellsFlipped;
+      commit();
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event for one repaint of a board panel.
+ */
+@Name("reversi.Repaint")
+@Label("Panel Repaint")
+@Category({"Reversi", "View"})
+@Description("A board panel painted")
+@StackTrace(false)
+public final class RepaintEvent extends Event {
+  @Label("View")
+  private String view;
+
+  @Label("Cells Drawn")
+  @Description("Cells inside the clip, which were drawn over the cached grid")
+  private int cellsDrawn;
+
+  /**
+   * Ends the event and records it, if Flight Recorder is recording it.
+   *
+   * @param view       the kind of panel, such as "hex"
+   * @param cellsDrawn the number of cells drawn
+   */
+  public void finish(String view, int cellsDrawn) {
+    if (shouldCommit()) {
+      this.view = view;
+      this.cellsDrawn = cellsDrawn;
+      commit();
+    }
+  }
+}
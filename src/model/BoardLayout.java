@@ -0,0 +1,348 @@
+package model;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the valid cells of a hexagonal or square board as a dense range of
+ * indices 0 to getCellCount() - 1, in the same q-then-r order that the strategies
+ * iterate the board in. Each cell also has a fixed pair of Zobrist keys so that any
+ * position can be reduced to a 64-bit hash that is stable across runs.
+ * Layouts are immutable and shared, so they can be used from any thread.
+ */
+public final class BoardLayout {
+  //encoding of the contents of a cell used by compact positions
+  public static final int EMPTY = 0;
+  public static final int BLACK = 1;
+  public static final int WHITE = 2;
+
+  /**
+   * The shape of a board.
+   */
+  public enum Kind { HEXAGON, SQUARE }
+
+  //fixed seed so that hashes written to files stay valid between runs
+  private static final long ZOBRIST_SEED = 0x5EED_2E7E_251L;
+  private static final Map<String, BoardLayout> LAYOUTS = new ConcurrentHashMap<>();
+  private static final Optional<Cell> EMPTY_CELL = Optional.empty();
+  private static final Optional<Cell> BLACK_CELL = Optional.of(Cell.BLACK);
+  private static final Optional<Cell> WHITE_CELL = Optional.of(Cell.WHITE);
+
+  private static final int[][] HEX_DIRECTIONS = {
+          {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, -1}, {-1, 1}};
+  private static final int[][] SQUARE_DIRECTIONS = {
+          {0, -1}, {0, 1}, {-1, 0}, {1, 0}, {-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+
+  private final Kind kind;
+  private final int size;
+  private final int offset; //subtracted from q and r to index the model's board array
+  private final int gridLength; //length of the model's board array
+  private final int[] qs;
+  private final int[] rs;
+  private final int[] indexByGrid; //cell index for each grid slot, -1 if not on the board
+  private final IPosition[] positions;
+  private final int[][] directions;
+  private final int[] neighbors; //cell * directionCount + direction, -1 if off the board
+  private final long[] zobrist; //cell * 2 + (color - 1)
+  private final long turnKey; //xor-ed in when white is to move
+
+  /**
+   * Builds the layout for a board of the given shape and size.
+   *
+   * @param kind the shape of the board
+   * @param size the size of the board, as given to the model's constructor
+   */
+  private BoardLayout(Kind kind, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Size should always be positive");
+    }
+    this.kind = kind;
+    this.size = size;
+    this.offset = kind == Kind.HEXAGON ? -size : 0;
+    this.gridLength = 2 * size + (kind == Kind.HEXAGON ? 1 : 0);
+    this.directions = kind == Kind.HEXAGON ? HEX_DIRECTIONS : SQUARE_DIRECTIONS;
+    this.indexByGrid = new int[gridLength * gridLength];
+
+    int count = 0;
+    for (int q = offset; q < offset + gridLength; q++) {
+      for (int r = offset; r < offset + gridLength; r++) {
+        boolean valid = kind == Kind.SQUARE || Math.abs(-q - r) <= size;
+        indexByGrid[(q - offset) * gridLength + (r - offset)] = valid ? count++ : -1;
+      }
+    }
+    this.qs = new int[count];
+    this.rs = new int[count];
+    this.positions = new IPosition[count];
+    for (int q = offset; q < offset + gridLength; q++) {
+      for (int r = offset; r < offset + gridLength; r++) {
+        int cell = indexByGrid[(q - offset) * gridLength + (r - offset)];
+        if (cell >= 0) {
+          qs[cell] = q;
+          rs[cell] = r;
+          positions[cell] = kind == Kind.HEXAGON
+                  ? new Position(q, r, -q - r) : new SquarePosition(q, r);
+        }
+      }
+    }
+
+    this.neighbors = new int[count * directions.length];
+    for (int cell = 0; cell < count; cell++) {
+      for (int d = 0; d < directions.length; d++) {
+        neighbors[cell * directions.length + d] =
+                indexOf(qs[cell] + directions[d][0], rs[cell] + directions[d][1]);
+      }
+    }
+
+    SplittableRandom random = new SplittableRandom(ZOBRIST_SEED
+            ^ ((long) kind.ordinal() << 32) ^ size);
+    this.zobrist = new long[count * 2];
+    for (int i = 0; i < zobrist.length; i++) {
+      zobrist[i] = random.nextLong();
+    }
+    this.turnKey = random.nextLong();
+  }
+
+  /**
+   * Retrieves the shared layout for a board of the given shape and size.
+   *
+   * @param kind the shape of the board
+   * @param size the size of the board
+   * @return the layout
+   */
+  public static BoardLayout of(Kind kind, int size) {
+    return LAYOUTS.computeIfAbsent(kind + ":" + size, k -> new BoardLayout(kind, size));
+  }
+
+  /**
+   * Retrieves the shared layout matching the board of the given model.
+   *
+   * @param model the model whose board should be described
+   * @return the layout
+   */
+  public static BoardLayout of(ReadOnlyReversiModel model) {
+    Kind kind = model.createPosition(0, 0) instanceof SquarePosition
+            ? Kind.SQUARE : Kind.HEXAGON;
+    return of(kind, model.getSize());
+  }
+
+  /**
+   * Encodes a cell value as one of EMPTY, BLACK or WHITE.
+   *
+   * @param cell the contents of a cell
+   * @return the encoded color
+   */
+  public static int colorOf(Optional<Cell> cell) {
+    if (cell == null || cell.isEmpty()) {
+      return EMPTY;
+    }
+    return colorOf(cell.get());
+  }
+
+  /**
+   * Encodes a player as BLACK or WHITE.
+   *
+   * @param cell the player
+   * @return the encoded color
+   */
+  public static int colorOf(Cell cell) {
+    return cell == Cell.BLACK ? BLACK : WHITE;
+  }
+
+  /**
+   * Decodes a BLACK or WHITE color back into a player.
+   *
+   * @param color the encoded color
+   * @return the player
+   * @throws IllegalArgumentException if the color is not BLACK or WHITE
+   */
+  public static Cell cellOf(int color) {
+    if (color == BLACK) {
+      return Cell.BLACK;
+    } else if (color == WHITE) {
+      return Cell.WHITE;
+    }
+    throw new IllegalArgumentException("Color must be black or white");
+  }
+
+  /**
+   * Gets the color of the other player.
+   *
+   * @param color BLACK or WHITE
+   * @return WHITE or BLACK
+   */
+  public static int opponent(int color) {
+    return color == BLACK ? WHITE : BLACK;
+  }
+
+  /**
+   * Gets the shape of the board.
+   *
+   * @return the shape
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets the size of the board, as given to the model's constructor.
+   *
+   * @return the size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Gets the number of cells that are on the board.
+   *
+   * @return the number of valid cells
+   */
+  public int getCellCount() {
+    return qs.length;
+  }
+
+  /**
+   * Gets the number of directions a line of discs can run in, 6 for hexagons and 8 for squares.
+   *
+   * @return the number of directions
+   */
+  public int getDirectionCount() {
+    return directions.length;
+  }
+
+  /**
+   * Gets the q coordinate of a cell.
+   *
+   * @param cell the index of the cell
+   * @return q
+   */
+  public int getQ(int cell) {
+    return qs[cell];
+  }
+
+  /**
+   * Gets the r coordinate of a cell.
+   *
+   * @param cell the index of the cell
+   * @return r
+   */
+  public int getR(int cell) {
+    return rs[cell];
+  }
+
+  /**
+   * Gets the index of the cell at the given coordinates.
+   *
+   * @param q the q coordinate
+   * @param r the r coordinate
+   * @return the index of the cell, or -1 if the coordinates are not on the board
+   */
+  public int indexOf(int q, int r) {
+    int gq = q - offset;
+    int gr = r - offset;
+    if (gq < 0 || gr < 0 || gq >= gridLength || gr >= gridLength) {
+      return -1;
+    }
+    return indexByGrid[gq * gridLength + gr];
+  }
+
+  /**
+   * Gets the index of the cell at the given position.
+   *
+   * @param pos the position
+   * @return the index of the cell, or -1 if the position is not on the board
+   */
+  public int indexOf(IPosition pos) {
+    if (kind == Kind.HEXAGON && pos.getQ() + pos.getR() + pos.getS() != 0) {
+      return -1;
+    }
+    return indexOf(pos.getQ(), pos.getR());
+  }
+
+  /**
+   * Gets the position of a cell, of the type the matching model creates.
+   *
+   * @param cell the index of the cell
+   * @return the position of the cell
+   */
+  public IPosition position(int cell) {
+    return positions[cell];
+  }
+
+  /**
+   * Gets the neighbor of a cell in the given direction.
+   *
+   * @param cell      the index of the cell
+   * @param direction the direction, from 0 to getDirectionCount() - 1
+   * @return the index of the neighbor, or -1 if it is off the board
+   */
+  public int neighbor(int cell, int direction) {
+    return neighbors[cell * directions.length + direction];
+  }
+
+  /**
+   * Gets the Zobrist key for a disc of the given color on the given cell.
+   *
+   * @param cell  the index of the cell
+   * @param color BLACK or WHITE
+   * @return the key
+   */
+  public long key(int cell, int color) {
+    return zobrist[cell * 2 + color - 1];
+  }
+
+  /**
+   * Gets the key that is xor-ed into the hash when it is white's turn.
+   *
+   * @return the key
+   */
+  public long turnKey() {
+    return turnKey;
+  }
+
+  /**
+   * Reads the encoded color of a cell straight from the model's board array.
+   *
+   * @param board the board array of a model with this layout
+   * @param cell  the index of the cell
+   * @return EMPTY, BLACK or WHITE
+   */
+  public int colorAt(Optional<Cell>[][] board, int cell) {
+    return colorOf(board[qs[cell] - offset][rs[cell] - offset]);
+  }
+
+  /**
+   * Writes the encoded color of a cell straight into a model's board array. The Optional
+   * values are shared constants, so nothing is allocated.
+   *
+   * @param board the board array of a model with this layout
+   * @param cell  the index of the cell
+   * @param color EMPTY, BLACK or WHITE
+   */
+  public void setColorAt(Optional<Cell>[][] board, int cell, int color) {
+    board[qs[cell] - offset][rs[cell] - offset] = color == BLACK ? BLACK_CELL
+            : color == WHITE ? WHITE_CELL : EMPTY_CELL;
+  }
+
+  /**
+   * Computes the 64-bit hash of the model's current position, made up of the discs on
+   * the board and the player whose turn it is.
+   *
+   * @param model a started model with this layout
+   * @return the hash of the position
+   * @throws IllegalStateException if the game has not started
+   */
+  public long hash(ReadOnlyReversiModel model) {
+    Optional<Cell>[][] board = model.getBoard();
+    long hash = model.getCurrentTurn() == Cell.WHITE ? turnKey : 0L;
+    for (int cell = 0; cell < qs.length; cell++) {
+      int color = colorAt(board, cell);
+      if (color != EMPTY) {
+        hash ^= key(cell, color);
+      }
+    }
+    return hash;
+  }
+}
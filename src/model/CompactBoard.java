@@ -0,0 +1,409 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * A compact, mutable copy of a game position that searches can play moves on and take
+ * them back again without creating any objects. Cells are indexed by a {@link BoardLayout}
+ * and hold BoardLayout.EMPTY, BLACK or WHITE. The disc counts and the Zobrist hash of the
+ * position are kept up to date as moves are played, and the hash always equals
+ * layout.hash(model) for a model in the same position.
+ */
+public final class CompactBoard {
+  private final BoardLayout layout;
+  private final byte[] cells;
+  private int turn; //INVARIANT: BLACK or WHITE
+  private int blackCount;
+  private int whiteCount;
+  private int passCount; //consecutive passes, the game is over at 2
+  private long hash;
+
+  //undo information, one frame per move or pass played
+  private int ply;
+  private int[] frameMove = new int[16]; //cell played, or -1 for a pass
+  private int[] frameFlipStart = new int[16]; //where the frame's flips start in flips
+  private int[] framePassCount = new int[16]; //passCount before the frame was played
+  private int[] flips = new int[64];
+  private int flipTop;
+
+  /**
+   * Constructs an empty board with black to move.
+   *
+   * @param layout the layout of the board
+   */
+  public CompactBoard(BoardLayout layout) {
+    this.layout = layout;
+    this.cells = new byte[layout.getCellCount()];
+    this.turn = BoardLayout.BLACK;
+  }
+
+  /**
+   * Copies the position of a started model. The number of consecutive passes is not
+   * observable through a read-only model, so it starts at zero.
+   *
+   * @param model the model to copy
+   * @return a board in the same position as the model
+   * @throws IllegalStateException if the game has not started
+   */
+  public static CompactBoard of(ReadOnlyReversiModel model) {
+    BoardLayout layout = BoardLayout.of(model);
+    CompactBoard board = new CompactBoard(layout);
+    Optional<Cell>[][] cells = model.getBoard();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      board.set(cell, layout.colorAt(cells, cell));
+    }
+    board.setTurn(BoardLayout.colorOf(model.getCurrentTurn()));
+    return board;
+  }
+
+  /**
+   * Creates an independent copy of this board's position. The undo history is not copied.
+   *
+   * @return the copy
+   */
+  public CompactBoard copy() {
+    CompactBoard copy = new CompactBoard(layout);
+    System.arraycopy(cells, 0, copy.cells, 0, cells.length);
+    copy.turn = turn;
+    copy.blackCount = blackCount;
+    copy.whiteCount = whiteCount;
+    copy.passCount = passCount;
+    copy.hash = hash;
+    return copy;
+  }
+
+  /**
+   * Gets the layout of the board.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Gets the contents of a cell.
+   *
+   * @param cell the index of the cell
+   * @return BoardLayout.EMPTY, BLACK or WHITE
+   */
+  public int get(int cell) {
+    return cells[cell];
+  }
+
+  /**
+   * Puts a disc on a cell, or clears it, without flipping anything. Used to set up
+   * positions, not to play moves.
+   *
+   * @param cell  the index of the cell
+   * @param color BoardLayout.EMPTY, BLACK or WHITE
+   */
+  public void set(int cell, int color) {
+    int old = cells[cell];
+    if (old != BoardLayout.EMPTY) {
+      hash ^= layout.key(cell, old);
+      adjustCount(old, -1);
+    }
+    cells[cell] = (byte) color;
+    if (color != BoardLayout.EMPTY) {
+      hash ^= layout.key(cell, color);
+      adjustCount(color, 1);
+    }
+  }
+
+  /**
+   * Gets the player to move.
+   *
+   * @return BoardLayout.BLACK or WHITE
+   */
+  public int getTurn() {
+    return turn;
+  }
+
+  /**
+   * Sets the player to move.
+   *
+   * @param color BoardLayout.BLACK or WHITE
+   */
+  public void setTurn(int color) {
+    if (color != turn) {
+      turn = color;
+      hash ^= layout.turnKey();
+    }
+  }
+
+  /**
+   * Gets the number of discs of a color, which is that player's score.
+   *
+   * @param color BoardLayout.BLACK or WHITE
+   * @return the number of discs
+   */
+  public int getCount(int color) {
+    return color == BoardLayout.BLACK ? blackCount : whiteCount;
+  }
+
+  /**
+   * Gets the number of empty cells.
+   *
+   * @return the number of empty cells
+   */
+  public int getEmptyCount() {
+    return cells.length - blackCount - whiteCount;
+  }
+
+  /**
+   * Gets the number of consecutive passes.
+   *
+   * @return the number of consecutive passes
+   */
+  public int getPassCount() {
+    return passCount;
+  }
+
+  /**
+   * Sets the number of consecutive passes, for positions restored from elsewhere.
+   *
+   * @param passCount the number of consecutive passes
+   */
+  public void setPassCount(int passCount) {
+    this.passCount = passCount;
+  }
+
+  /**
+   * Gets the hash of the position, including the player to move.
+   *
+   * @return the 64-bit Zobrist hash
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Gets the number of moves and passes played on this board that can be taken back.
+   *
+   * @return the number of undoable plies
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  /**
+   * Counts the discs that a player would flip by playing on a cell.
+   *
+   * @param cell  the index of the cell
+   * @param color the player, BoardLayout.BLACK or WHITE
+   * @return the number of discs flipped, 0 if the move is not legal
+   */
+  public int countFlips(int cell, int color) {
+    if (cells[cell] != BoardLayout.EMPTY) {
+      return 0;
+    }
+    int opponent = BoardLayout.opponent(color);
+    int total = 0;
+    for (int d = 0; d < layout.getDirectionCount(); d++) {
+      int run = 0;
+      int next = layout.neighbor(cell, d);
+      while (next >= 0 && cells[next] == opponent) {
+        run++;
+        next = layout.neighbor(next, d);
+      }
+      if (run > 0 && next >= 0 && cells[next] == color) {
+        total += run;
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Checks if a player can legally play on a cell.
+   *
+   * @param cell  the index of the cell
+   * @param color the player, BoardLayout.BLACK or WHITE
+   * @return true if the move flips at least one disc
+   */
+  public boolean isLegal(int cell, int color) {
+    return countFlips(cell, color) > 0;
+  }
+
+  /**
+   * Writes the legal moves of the player to move into the buffer, in cell order.
+   *
+   * @param moves a buffer with room for getLayout().getCellCount() moves
+   * @return the number of moves written
+   */
+  public int generateMoves(int[] moves) {
+    int count = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (cells[cell] == BoardLayout.EMPTY && isLegal(cell, turn)) {
+        moves[count++] = cell;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Counts the legal moves of a player.
+   *
+   * @param color the player, BoardLayout.BLACK or WHITE
+   * @return the number of legal moves
+   */
+  public int countMoves(int color) {
+    int count = 0;
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (cells[cell] == BoardLayout.EMPTY && isLegal(cell, color)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks if a player has any legal move.
+   *
+   * @param color the player, BoardLayout.BLACK or WHITE
+   * @return true if the player can move
+   */
+  public boolean hasMove(int color) {
+    for (int cell = 0; cell < cells.length; cell++) {
+      if (cells[cell] == BoardLayout.EMPTY && isLegal(cell, color)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the game is over, because both players passed or neither can move.
+   *
+   * @return true if the game is over
+   */
+  public boolean isGameOver() {
+    return passCount >= 2 || (!hasMove(turn) && !hasMove(BoardLayout.opponent(turn)));
+  }
+
+  /**
+   * Plays a move for the player to move, flipping the captured discs and passing the
+   * turn to the other player.
+   *
+   * @param cell the index of the cell to play on
+   * @throws IllegalArgumentException if the move is not legal
+   */
+  public void play(int cell) {
+    if (cells[cell] != BoardLayout.EMPTY) {
+      throw new IllegalArgumentException("Invalid move");
+    }
+    pushFrame(cell);
+    int opponent = BoardLayout.opponent(turn);
+    for (int d = 0; d < layout.getDirectionCount(); d++) {
+      int run = 0;
+      int next = layout.neighbor(cell, d);
+      while (next >= 0 && cells[next] == opponent) {
+        run++;
+        next = layout.neighbor(next, d);
+      }
+      if (run > 0 && next >= 0 && cells[next] == turn) {
+        int flip = layout.neighbor(cell, d);
+        for (int i = 0; i < run; i++) {
+          flipDisc(flip);
+          flip = layout.neighbor(flip, d);
+        }
+      }
+    }
+    if (flipTop == frameFlipStart[ply - 1]) {
+      ply--;
+      throw new IllegalArgumentException("Invalid move");
+    }
+    set(cell, turn);
+    passCount = 0;
+    setTurn(opponent);
+  }
+
+  /**
+   * Passes the turn to the other player.
+   */
+  public void pass() {
+    pushFrame(-1);
+    passCount++;
+    setTurn(BoardLayout.opponent(turn));
+  }
+
+  /**
+   * Takes back the last move or pass played on this board.
+   *
+   * @throws IllegalStateException if there is nothing to take back
+   */
+  public void undo() {
+    if (ply == 0) {
+      throw new IllegalStateException("Nothing to undo");
+    }
+    ply--;
+    setTurn(BoardLayout.opponent(turn));
+    int move = frameMove[ply];
+    if (move >= 0) {
+      set(move, BoardLayout.EMPTY);
+      int opponent = BoardLayout.opponent(turn);
+      while (flipTop > frameFlipStart[ply]) {
+        set(flips[--flipTop], opponent);
+      }
+    }
+    passCount = framePassCount[ply];
+  }
+
+  /**
+   * Gets the cell played by the move that undo() would take back.
+   *
+   * @return the index of the cell, or -1 if it was a pass
+   * @throws IllegalStateException if nothing has been played
+   */
+  public int lastMove() {
+    if (ply == 0) {
+      throw new IllegalStateException("Nothing has been played");
+    }
+    return frameMove[ply - 1];
+  }
+
+  /**
+   * Records the undo information for a move or pass about to be played.
+   *
+   * @param cell the cell played, or -1 for a pass
+   */
+  private void pushFrame(int cell) {
+    if (ply == frameMove.length) {
+      frameMove = Arrays.copyOf(frameMove, ply * 2);
+      frameFlipStart = Arrays.copyOf(frameFlipStart, ply * 2);
+      framePassCount = Arrays.copyOf(framePassCount, ply * 2);
+    }
+    frameMove[ply] = cell;
+    frameFlipStart[ply] = flipTop;
+    framePassCount[ply] = passCount;
+    ply++;
+  }
+
+  /**
+   * Flips a disc to the player to move and records it for undo.
+   *
+   * @param cell the index of the cell to flip
+   */
+  private void flipDisc(int cell) {
+    if (flipTop == flips.length) {
+      flips = Arrays.copyOf(flips, flipTop * 2);
+    }
+    flips[flipTop++] = cell;
+    set(cell, turn);
+  }
+
+  /**
+   * Adds to the disc count of a color.
+   *
+   * @param color BoardLayout.BLACK or WHITE
+   * @param delta the amount to add
+   */
+  private void adjustCount(int color, int delta) {
+    if (color == BoardLayout.BLACK) {
+      blackCount += delta;
+    } else {
+      whiteCount += delta;
+    }
+  }
+}
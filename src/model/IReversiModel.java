@@ -2,8 +2,10 @@ package model;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
 
 /**
  * Interface for the Reversi game model, defining the main
@@ -129,6 +131,23 @@ public interface IReversiModel extends ReadOnlyReversiModel {
    */
   void addModelStatusListener(ModelStatusListener listener);
 
+  /**
+   * Adds a MoveEventListener that is told once about each start, move and pass,
+   * with everything that changed, on the thread that changed the model.
+   *
+   * @param listener The listener to be added.
+   */
+  void addMoveEventListener(MoveEventListener listener);
+
+  /**
+   * Adds a MoveEventListener that is told once about each start, move and pass,
+   * with everything that changed, through the given executor.
+   *
+   * @param listener The listener to be added.
+   * @param executor Runs the listener's calls.
+   */
+  void addMoveEventListener(MoveEventListener listener, Executor executor);
+
   /**
    * Creates a position.
    * @param q q coordinate.
@@ -0,0 +1,123 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Everything that changed in a game because of one action: the game starting, a move or
+ * a pass. Listeners get one event per action instead of separate board, turn and score
+ * notifications. Events are immutable, so they can be handed to other threads.
+ */
+public final class MoveEvent {
+
+  /**
+   * The kinds of actions that produce an event.
+   */
+  public enum Kind {
+    START, MOVE, PASS
+  }
+
+  private final Kind kind;
+  private final Cell player; //who made the move or pass, the first player for START
+  private final IPosition move; //null unless the kind is MOVE
+  private final List<IPosition> changedCells; //the move first, then the flipped cells
+  private final Cell turn; //whose turn it is after the action
+  private final int scoreBlack;
+  private final int scoreWhite;
+
+  /**
+   * Constructs a MoveEvent.
+   *
+   * @param kind         what happened
+   * @param player       who made the move or pass, or the first player for START
+   * @param move         the position played, or null unless the kind is MOVE
+   * @param changedCells the cells whose contents changed, the move first
+   * @param turn         whose turn it is after the action
+   * @param scoreBlack   black's score after the action
+   * @param scoreWhite   white's score after the action
+   * @throws IllegalArgumentException if a MOVE has no position or another kind has one
+   */
+  public MoveEvent(Kind kind, Cell player, IPosition move, List<IPosition> changedCells,
+                   Cell turn, int scoreBlack, int scoreWhite) {
+    if ((kind == Kind.MOVE) != (move != null)) {
+      throw new IllegalArgumentException("Only a MOVE has a position");
+    }
+    this.kind = kind;
+    this.player = player;
+    this.move = move;
+    this.changedCells = Collections.unmodifiableList(new ArrayList<>(changedCells));
+    this.turn = turn;
+    this.scoreBlack = scoreBlack;
+    this.scoreWhite = scoreWhite;
+  }
+
+  /**
+   * Gets what happened.
+   *
+   * @return START, MOVE or PASS
+   */
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Gets who made the move or pass.
+   *
+   * @return the player, or the player to move first for START
+   */
+  public Cell getPlayer() {
+    return player;
+  }
+
+  /**
+   * Gets the position played.
+   *
+   * @return the position, or empty unless the kind is MOVE
+   */
+  public Optional<IPosition> getMove() {
+    return Optional.ofNullable(move);
+  }
+
+  /**
+   * Gets the cells whose contents changed: the position played followed by the flipped
+   * cells, the starting discs for START, and nothing for PASS.
+   *
+   * @return an unmodifiable list of the changed cells
+   */
+  public List<IPosition> getChangedCells() {
+    return changedCells;
+  }
+
+  /**
+   * Gets whose turn it is after the action.
+   *
+   * @return the player to move
+   */
+  public Cell getTurn() {
+    return turn;
+  }
+
+  /**
+   * Gets a player's score after the action.
+   *
+   * @param hex Cell.BLACK or Cell.WHITE
+   * @return the player's score
+   * @throws IllegalArgumentException if the cell is not BLACK or WHITE
+   */
+  public int getScore(Cell hex) {
+    if (hex == Cell.BLACK) {
+      return scoreBlack;
+    } else if (hex == Cell.WHITE) {
+      return scoreWhite;
+    }
+    throw new IllegalArgumentException("Cell must be black or white");
+  }
+
+  @Override
+  public String toString() {
+    return kind + " " + player + (move == null ? "" : " " + move) + " changed "
+            + changedCells.size() + ", " + turn + " to move, " + scoreBlack + "-" + scoreWhite;
+  }
+}
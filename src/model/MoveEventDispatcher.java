@@ -0,0 +1,62 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import controller.MoveEventListener;
+import metrics.ListenerFanOutEvent;
+
+/**
+ * Holds the MoveEventListeners of a model and hands each event to them, either directly
+ * on the model's thread or through the executor a listener was registered with.
+ */
+final class MoveEventDispatcher {
+  private final List<MoveEventListener> listeners = new ArrayList<>();
+  private final List<Executor> executors = new ArrayList<>(); //null to call directly
+
+  /**
+   * Registers a listener.
+   *
+   * @param listener the listener to add
+   * @param executor runs the listener's calls, or null to call it on the model's thread
+   */
+  void add(MoveEventListener listener, Executor executor) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.add(listener);
+    executors.add(executor);
+  }
+
+  /**
+   * Checks if there is nobody to tell, so the model can skip building events.
+   *
+   * @return true if no listener is registered
+   */
+  boolean isEmpty() {
+    return listeners.isEmpty();
+  }
+
+  /**
+   * Hands an event to every listener, in the order they were registered.
+   *
+   * @param event the event
+   */
+  void dispatch(MoveEvent event) {
+    ListenerFanOutEvent fanOut = new ListenerFanOutEvent();
+    fanOut.begin();
+    int queued = 0;
+    for (int i = 0; i < listeners.size(); i++) {
+      MoveEventListener listener = listeners.get(i);
+      Executor executor = executors.get(i);
+      if (executor == null) {
+        listener.moveMade(event);
+      } else {
+        executor.execute(() -> listener.moveMade(event));
+        queued++;
+      }
+    }
+    fanOut.finish(event.getKind(), listeners.size(), queued);
+  }
+}
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * A model whose whole state can be saved to a small binary snapshot and put back later,
+ * such as to resume a game after a restart. Restoring sets the state directly instead of
+ * replaying the moves that led to it.
+ */
+public interface Restorable {
+
+  /**
+   * Saves the board, the player to move, the scores, the number of consecutive passes
+   * and whether the game has started.
+   *
+   * @return the snapshot; its size depends only on the board
+   */
+  byte[] snapshot();
+
+  /**
+   * Replaces the state of this model with a snapshot taken from a model of the same
+   * board. Listeners are not notified.
+   *
+   * @param snapshot the snapshot
+   * @throws IllegalArgumentException if the snapshot is malformed or from another board
+   */
+  void restore(byte[] snapshot);
+}
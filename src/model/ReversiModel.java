@@ -3,14 +3,19 @@ package model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
+import metrics.BoardMetrics;
+import metrics.Metrics;
+import metrics.MoveExecutedEvent;
 
 /**
  * This class represents the model for the Reversi game.
  * It maintains the current game state, manages player turns, scores, and board updates.
  */
-public class ReversiModel implements IReversiModel {
+public class ReversiModel implements IReversiModel, Restorable {
 
   //The game board which maintains the state of cells (hexagons) on the board.
   private final Board board;
@@ -49,6 +54,12 @@ public class ReversiModel implements IReversiModel {
   //holds the ModelStatusListeners that need to be updated when a move is made
   private List<ModelStatusListener> modelStatusListeners = new ArrayList<>();
 
+  //holds the MoveEventListeners that get one MoveEvent per start, move or pass
+  private final MoveEventDispatcher moveEventListeners = new MoveEventDispatcher();
+
+  //where the time taken by moves and move checks is recorded, shared by models of this board
+  private final BoardMetrics metrics;
+
   /**
    * Constructor for ReversiModel. Initializes the board with a size
    * sets the initial turns and scores
@@ -68,6 +79,7 @@ public class ReversiModel implements IReversiModel {
     this.hasGameStarted = false;
     this.passTurnCount = 0; //pass turn can only be non-negative and not greater than 2 (game is
     //over if the passTurnCount is 2)
+    this.metrics = BoardMetrics.of("hex" + size);
   }
 
   /**
@@ -84,6 +96,7 @@ public class ReversiModel implements IReversiModel {
     this.scoreWhite = 0; //score cannot be negative
     this.hasGameStarted = true;
     this.passTurnCount = 0;
+    this.metrics = BoardMetrics.of("hex" + size);
   }
 
   /**
@@ -108,6 +121,10 @@ public class ReversiModel implements IReversiModel {
     this.hasGameStarted = true; //other methods recognize that the game has started and can
     //be called
     notifyTurnChanged();
+    if (!moveEventListeners.isEmpty()) {
+      moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.START, currentTurn, null,
+              occupiedPositions(), currentTurn, scoreBlack, scoreWhite));
+    }
   }
 
   /**
@@ -131,9 +148,14 @@ public class ReversiModel implements IReversiModel {
       throw new IllegalStateException("Pass Turn Count cannot be greater than 2");
     }
     checkGameStarted();
+    Cell passer = currentTurn;
     nextTurn();
     notifyTurnChanged();
     passTurnCount++;
+    if (!moveEventListeners.isEmpty()) {
+      moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.PASS, passer, null,
+              new ArrayList<>(), currentTurn, scoreBlack, scoreWhite));
+    }
   }
 
   /**
@@ -189,30 +211,50 @@ public class ReversiModel implements IReversiModel {
    */
   @Override
   public void executeMove(IPosition pos) {
-    // INVARIANT maintained: Current turn changes, scores updated.
-    Cell hex = currentTurn;
-    checkGameStarted();
-    if (isPositionInvalid(pos)) {
-      throw new IllegalArgumentException("Cannot be an invalid position");
-    }
-    if (isGameOver()) {
-      throw new IllegalStateException("Cannot execute a move if game is over");
-    }
-    if (isALegalMove(pos, hex)) {
-      placeHexAt(pos, hex);
-      if (hex == Cell.BLACK) {
-        scoreBlack++; //Invariant maintained: scoreBlack is non-negative
+    long start = Metrics.startTimer();
+    MoveExecutedEvent event = new MoveExecutedEvent();
+    event.begin();
+    try {
+      // INVARIANT maintained: Current turn changes, scores updated.
+      Cell hex = currentTurn;
+      checkGameStarted();
+      if (isPositionInvalid(pos)) {
+        throw new IllegalArgumentException("Cannot be an invalid position");
+      }
+      if (isGameOver()) {
+        throw new IllegalStateException("Cannot execute a move if game is over");
+      }
+      if (isALegalMove(pos, hex)) {
+        int opponentScore = hex == Cell.BLACK ? scoreWhite : scoreBlack;
+        placeHexAt(pos, hex);
+        if (hex == Cell.BLACK) {
+          scoreBlack++; //Invariant maintained: scoreBlack is non-negative
+        } else {
+          scoreWhite++; //Invariant maintained: scoreWhite is non-negative
+        }
+        //only collect the changed cells when someone will be told about them
+        List<IPosition> changed = moveEventListeners.isEmpty() ? null : new ArrayList<>();
+        if (changed != null) {
+          changed.add(pos);
+        }
+        flipHex(pos, hex, changed);
+        nextTurn();
+        notifyGameStateChanged();
+        notifyTurnChanged();
+        notifyScoreChanged();
+        passTurnCount = 0; //Invariant maintained: resets the passs turn count to zero
+        if (changed != null) {
+          moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.MOVE, hex, pos, changed,
+                  currentTurn, scoreBlack, scoreWhite));
+        }
+        event.finish(metrics.getBoard(), hex.name(),
+                opponentScore - (hex == Cell.BLACK ? scoreWhite : scoreBlack));
       } else {
-        scoreWhite++; //Invariant maintained: scoreWhite is non-negative
+        metrics.illegalMoves().increment();
+        throw new IllegalArgumentException("Invalid move");
       }
-      flipHex(pos, hex);
-      nextTurn();
-      notifyGameStateChanged();
-      notifyTurnChanged();
-      notifyScoreChanged();
-      passTurnCount = 0; //Invariant maintained: resets the passs turn count to zero
-    } else {
-      throw new IllegalArgumentException("Invalid move");
+    } finally {
+      metrics.executeMove().stop(start);
     }
   }
 
@@ -224,22 +266,27 @@ public class ReversiModel implements IReversiModel {
    * @return if the move is legal, return true, if not, return false.
    */
   public boolean isALegalMove(IPosition pos, Cell hex) {
-    if (isPositionInvalid(pos)) {
-      return false;
-    }
-    if (board.getCell(pos).isPresent()) {
-      return false;
-    }
-    for (Position dir : getNeighbors()) {
-      Position neighbor = addPositions(pos, dir);
-      if (isPositionInvalid(neighbor)) { //for edge cases with less than 6 neighbors
-        continue;
+    long start = Metrics.startTimer();
+    try {
+      if (isPositionInvalid(pos)) {
+        return false;
       }
-      if (isHexOpposite(neighbor, hex) && consecutiveLineCheck(neighbor, dir, hex)) {
-        return true;
+      if (board.getCell(pos).isPresent()) {
+        return false;
       }
+      for (Position dir : getNeighbors()) {
+        Position neighbor = addPositions(pos, dir);
+        if (isPositionInvalid(neighbor)) { //for edge cases with less than 6 neighbors
+          continue;
+        }
+        if (isHexOpposite(neighbor, hex) && consecutiveLineCheck(neighbor, dir, hex)) {
+          return true;
+        }
+      }
+      return false;
+    } finally {
+      metrics.isALegalMove().stop(start);
     }
-    return false;
   }
 
   /**
@@ -267,8 +314,9 @@ public class ReversiModel implements IReversiModel {
    *
    * @param pos position of cell
    * @param hex cell that contains its state, black, white, or empty
+   * @param flipped collects the flipped positions, or null to skip collecting them
    */
-  private void flipHex(IPosition pos, Cell hex) {
+  private void flipHex(IPosition pos, Cell hex, List<IPosition> flipped) {
     for (Position dir : getNeighbors()) {
       Position p = addPositions(pos, dir);
       if (isPositionInvalid(p)) {
@@ -288,6 +336,9 @@ public class ReversiModel implements IReversiModel {
         if (cell.isPresent() && cell.get() == hex) {
           for (Position flipPos : toFlip) {
             board.placeHex(flipPos, hex);
+            if (flipped != null) {
+              flipped.add(flipPos);
+            }
             if (hex == Cell.BLACK) {
               scoreBlack++;
               scoreWhite--;
@@ -388,19 +439,24 @@ public class ReversiModel implements IReversiModel {
    */
   @Override
   public boolean hasLegalMove(Cell hex) {
-    Optional<Cell>[][] boardCells = getBoard();
-    for (int q = -size; q <= size; q++) {
-      int r1 = Math.max(-size, -q - size);
-      int r2 = Math.min(size, -q + size);
-      for (int r = r1; r <= r2; r++) {
-        int s = -q - r;
-        Position pos = new Position(q, r, s);
-        if (boardCells[q + size][r + size].isEmpty() && isALegalMove(pos, hex)) {
-          return true;
+    long start = Metrics.startTimer();
+    try {
+      Optional<Cell>[][] boardCells = getBoard();
+      for (int q = -size; q <= size; q++) {
+        int r1 = Math.max(-size, -q - size);
+        int r2 = Math.min(size, -q + size);
+        for (int r = r1; r <= r2; r++) {
+          int s = -q - r;
+          Position pos = new Position(q, r, s);
+          if (boardCells[q + size][r + size].isEmpty() && isALegalMove(pos, hex)) {
+            return true;
+          }
         }
       }
+      return false;
+    } finally {
+      metrics.hasLegalMove().stop(start);
     }
-    return false;
   }
 
   /**
@@ -504,24 +560,30 @@ public class ReversiModel implements IReversiModel {
    * @return     The number of captures that would result from the move.
    */
   public int countCaptures(IPosition pos, Cell hex) {
-    int captures = 0;
-    if (!isALegalMove(pos, hex)) {
-      return 0; // No captures possible if move is not legal
-    }
-    // Check each direction for potential captures
-    for (Position dir : getNeighbors()) {
-      Position p = addPositions(pos, dir);
-      List<Position> potentialFlips = new ArrayList<>();
-      while (!isPositionInvalid(p) && isHexOpposite(p, hex)) {
-        potentialFlips.add(p);
-        p = addPositions(p, dir);
+    long start = Metrics.startTimer();
+    try {
+      int captures = 0;
+      if (!isALegalMove(pos, hex)) {
+        return 0; // No captures possible if move is not legal
       }
-      // Check if the line ends with the player's own hex
-      if (!isPositionInvalid(p) && board.getCell(p).isPresent() && board.getCell(p).get() == hex) {
-        captures += potentialFlips.size(); // Add all potential flips to captures
+      // Check each direction for potential captures
+      for (Position dir : getNeighbors()) {
+        Position p = addPositions(pos, dir);
+        List<Position> potentialFlips = new ArrayList<>();
+        while (!isPositionInvalid(p) && isHexOpposite(p, hex)) {
+          potentialFlips.add(p);
+          p = addPositions(p, dir);
+        }
+        // Check if the line ends with the player's own hex
+        if (!isPositionInvalid(p) && board.getCell(p).isPresent()
+                && board.getCell(p).get() == hex) {
+          captures += potentialFlips.size(); // Add all potential flips to captures
+        }
       }
+      return captures;
+    } finally {
+      metrics.countCaptures().stop(start);
     }
-    return captures;
   }
 
   /**
@@ -536,6 +598,79 @@ public class ReversiModel implements IReversiModel {
     modelStatusListeners.add(listener);
   }
 
+  /**
+   * Adds a MoveEventListener that is told about each start, move and pass once, on the
+   * thread that changed the model.
+   *
+   * @param listener The listener to be added.
+   */
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    moveEventListeners.add(listener, null);
+  }
+
+  /**
+   * Adds a MoveEventListener that is told about each start, move and pass once, through
+   * the given executor.
+   *
+   * @param listener The listener to be added.
+   * @param executor Runs the listener's calls, for example on the listener's own thread.
+   */
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    moveEventListeners.add(listener, executor);
+  }
+
+  /**
+   * Saves the whole state of the game into a small fixed-layout snapshot.
+   *
+   * @return the snapshot
+   */
+  @Override
+  public byte[] snapshot() {
+    return Snapshot.encode(BoardLayout.of(this), board.getBoardCells(), hasGameStarted,
+            currentTurn, passTurnCount, scoreBlack, scoreWhite);
+  }
+
+  /**
+   * Replaces the state of the game with a snapshot, cell by cell, without replaying moves.
+   * Listeners are not notified.
+   *
+   * @param snapshot a snapshot taken from a game on the same board
+   * @throws IllegalArgumentException if the snapshot is malformed or from another board
+   */
+  @Override
+  public void restore(byte[] snapshot) {
+    Snapshot state = Snapshot.restore(snapshot, BoardLayout.of(this), board.getBoardCells());
+    this.hasGameStarted = state.isStarted();
+    this.currentTurn = state.getTurn();
+    this.passTurnCount = state.getPassCount();
+    this.scoreBlack = state.getScore(Cell.BLACK);
+    this.scoreWhite = state.getScore(Cell.WHITE);
+  }
+
+  /**
+   * Lists the positions that hold a disc.
+   *
+   * @return the occupied positions, in the order of createSize()
+   */
+  private List<IPosition> occupiedPositions() {
+    List<IPosition> occupied = new ArrayList<>();
+    List<Integer> range = createSize();
+    for (int q = range.get(0); q <= range.get(1); q++) {
+      for (int r = range.get(0); r <= range.get(1); r++) {
+        IPosition pos = createPosition(q, r);
+        if (!isPositionInvalid(pos) && board.getCell(pos).isPresent()) {
+          occupied.add(pos);
+        }
+      }
+    }
+    return occupied;
+  }
+
   /**
    * Notifies all registered ModelStatusListeners when the
    * current turn changes in the game.
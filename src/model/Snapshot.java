@@ -0,0 +1,145 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+/**
+ * The fixed-layout binary form of a model's state, shared by the models that are
+ * {@link Restorable}. The board takes two bits per cell in the order of the
+ * {@link BoardLayout}, so a snapshot of a hexagonal board of size 8 is 65 bytes.
+ * Layout (big-endian): byte version, byte board kind, short board size, byte flags (1 if
+ * the game has started, 2 if white is to move), byte pass count, short black score,
+ * short white score, then the cells, four to a byte, lowest bits first.
+ */
+final class Snapshot {
+  static final byte VERSION = 1;
+  static final int HEADER_BYTES = 10;
+  private static final int STARTED = 1;
+  private static final int WHITE_TO_MOVE = 2;
+
+  private final boolean started;
+  private final Cell turn;
+  private final int passCount;
+  private final int scoreBlack;
+  private final int scoreWhite;
+
+  /**
+   * Constructs the decoded header of a snapshot.
+   *
+   * @param started    whether the game has started
+   * @param turn       the player to move
+   * @param passCount  the number of consecutive passes
+   * @param scoreBlack black's score
+   * @param scoreWhite white's score
+   */
+  private Snapshot(boolean started, Cell turn, int passCount, int scoreBlack,
+                   int scoreWhite) {
+    this.started = started;
+    this.turn = turn;
+    this.passCount = passCount;
+    this.scoreBlack = scoreBlack;
+    this.scoreWhite = scoreWhite;
+  }
+
+  /**
+   * Encodes the state of a model.
+   *
+   * @param layout     the layout of the model's board
+   * @param board      the model's board array
+   * @param started    whether the game has started
+   * @param turn       the player to move
+   * @param passCount  the number of consecutive passes
+   * @param scoreBlack black's score
+   * @param scoreWhite white's score
+   * @return the snapshot
+   */
+  static byte[] encode(BoardLayout layout, Optional<Cell>[][] board, boolean started,
+                       Cell turn, int passCount, int scoreBlack, int scoreWhite) {
+    byte[] bytes = new byte[HEADER_BYTES + (layout.getCellCount() + 3) / 4];
+    ByteBuffer.wrap(bytes).put(VERSION).put((byte) layout.getKind().ordinal())
+            .putShort((short) layout.getSize())
+            .put((byte) ((started ? STARTED : 0) | (turn == Cell.WHITE ? WHITE_TO_MOVE : 0)))
+            .put((byte) passCount).putShort((short) scoreBlack).putShort((short) scoreWhite);
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      int color = layout.colorAt(board, cell);
+      bytes[HEADER_BYTES + (cell >> 2)] |= (byte) (color << ((cell & 3) * 2));
+    }
+    return bytes;
+  }
+
+  /**
+   * Checks a snapshot, writes its cells into a model's board array and decodes the rest.
+   *
+   * @param bytes  the snapshot
+   * @param layout the layout of the model's board
+   * @param board  the model's board array, overwritten with the snapshot's cells
+   * @return the rest of the model's state
+   * @throws IllegalArgumentException if the snapshot is malformed or from another board
+   */
+  static Snapshot restore(byte[] bytes, BoardLayout layout, Optional<Cell>[][] board) {
+    if (bytes == null || bytes.length != HEADER_BYTES + (layout.getCellCount() + 3) / 4) {
+      throw new IllegalArgumentException("Snapshot is not from this board");
+    }
+    ByteBuffer header = ByteBuffer.wrap(bytes);
+    if (header.get() != VERSION || header.get() != layout.getKind().ordinal()
+            || header.getShort() != layout.getSize()) {
+      throw new IllegalArgumentException("Snapshot is not from this board");
+    }
+    int flags = header.get();
+    int passCount = header.get();
+    int scoreBlack = header.getShort();
+    int scoreWhite = header.getShort();
+    if (passCount < 0 || passCount > 2 || scoreBlack < 0 || scoreWhite < 0) {
+      throw new IllegalArgumentException("Malformed snapshot");
+    }
+    //checked before anything is written, so a bad snapshot leaves the board alone
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      if (((bytes[HEADER_BYTES + (cell >> 2)] >> ((cell & 3) * 2)) & 3) > BoardLayout.WHITE) {
+        throw new IllegalArgumentException("Malformed snapshot");
+      }
+    }
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      layout.setColorAt(board, cell, (bytes[HEADER_BYTES + (cell >> 2)] >> ((cell & 3) * 2)) & 3);
+    }
+    return new Snapshot((flags & STARTED) != 0,
+            (flags & WHITE_TO_MOVE) != 0 ? Cell.WHITE : Cell.BLACK,
+            passCount, scoreBlack, scoreWhite);
+  }
+
+  /**
+   * Gets whether the game has started.
+   *
+   * @return true if it has started
+   */
+  boolean isStarted() {
+    return started;
+  }
+
+  /**
+   * Gets the player to move.
+   *
+   * @return BLACK or WHITE
+   */
+  Cell getTurn() {
+    return turn;
+  }
+
+  /**
+   * Gets the number of consecutive passes.
+   *
+   * @return 0, 1 or 2
+   */
+  int getPassCount() {
+    return passCount;
+  }
+
+  /**
+   * Gets a player's score.
+   *
+   * @param player Cell.BLACK or Cell.WHITE
+   * @return the score
+   */
+  int getScore(Cell player) {
+    return player == Cell.BLACK ? scoreBlack : scoreWhite;
+  }
+}
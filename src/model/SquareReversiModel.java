@@ -3,14 +3,19 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
+import metrics.BoardMetrics;
+import metrics.Metrics;
+import metrics.MoveExecutedEvent;
 
 /**
  * This class represents the model for the SquareReversi game.
  * It maintains the current game state, manages player turns, scores, and board updates.
  */
-public class SquareReversiModel implements IReversiModel {
+public class SquareReversiModel implements IReversiModel, Restorable {
   //The game board which maintains the state of cells (hexagons) on the board.
   private final SquareBoard board;
 
@@ -48,6 +53,12 @@ public class SquareReversiModel implements IReversiModel {
   //holds the ModelStatusListeners that need to be updated when a move is made
   private List<ModelStatusListener> modelStatusListeners = new ArrayList<>();
 
+  //holds the MoveEventListeners that get one MoveEvent per start, move or pass
+  private final MoveEventDispatcher moveEventListeners = new MoveEventDispatcher();
+
+  //where the time taken by moves and move checks is recorded, shared by models of this board
+  private final BoardMetrics metrics;
+
   /**
    * Constructor for SquareReversiModel. Initializes the board with a size
    * sets the initial turns and scores
@@ -67,6 +78,7 @@ public class SquareReversiModel implements IReversiModel {
     this.hasGameStarted = false;
     this.passTurnCount = 0; //pass turn can only be non-negative and not greater than 2 (game is
     //over if the passTurnCount is 2)
+    this.metrics = BoardMetrics.of("square" + size);
   }
 
   /**
@@ -82,6 +94,10 @@ public class SquareReversiModel implements IReversiModel {
     this.hasGameStarted = true; //other methods recognize that the game has started and can
     //be called
     notifyTurnChanged();
+    if (!moveEventListeners.isEmpty()) {
+      moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.START, currentTurn, null,
+              occupiedPositions(), currentTurn, scoreBlack, scoreWhite));
+    }
   }
 
   /**
@@ -128,30 +144,50 @@ public class SquareReversiModel implements IReversiModel {
    */
   @Override
   public void executeMove(IPosition pos) {
-    // INVARIANT maintained: Current turn changes, scores updated.
-    Cell hex = currentTurn;
-    checkGameStarted();
-    if (this.isPositionInvalid(pos)) {
-      throw new IllegalArgumentException("Cannot be an invalid position");
-    }
-    if (isGameOver()) { //need to make own?
-      throw new IllegalStateException("Cannot execute a move if game is over");
-    }
-    if (this.isALegalMove(pos, hex)) {
-      this.placeHexAt(pos, hex);
-      if (hex == Cell.BLACK) {
-        scoreBlack++; //Invariant maintained: scoreBlack is non-negative
+    long start = Metrics.startTimer();
+    MoveExecutedEvent event = new MoveExecutedEvent();
+    event.begin();
+    try {
+      // INVARIANT maintained: Current turn changes, scores updated.
+      Cell hex = currentTurn;
+      checkGameStarted();
+      if (this.isPositionInvalid(pos)) {
+        throw new IllegalArgumentException("Cannot be an invalid position");
+      }
+      if (isGameOver()) { //need to make own?
+        throw new IllegalStateException("Cannot execute a move if game is over");
+      }
+      if (this.isALegalMove(pos, hex)) {
+        int opponentScore = hex == Cell.BLACK ? scoreWhite : scoreBlack;
+        this.placeHexAt(pos, hex);
+        if (hex == Cell.BLACK) {
+          scoreBlack++; //Invariant maintained: scoreBlack is non-negative
+        } else {
+          scoreWhite++; //Invariant maintained: scoreWhite is non-negative
+        }
+        //only collect the changed cells when someone will be told about them
+        List<IPosition> changed = moveEventListeners.isEmpty() ? null : new ArrayList<>();
+        if (changed != null) {
+          changed.add(pos);
+        }
+        flipHex(pos, hex, changed);
+        nextTurn();
+        notifyGameStateChanged();
+        notifyTurnChanged();
+        notifyScoreChanged();
+        passTurnCount = 0; //Invariant maintained: resets the pass turn count to zero
+        if (changed != null) {
+          moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.MOVE, hex, pos, changed,
+                  currentTurn, scoreBlack, scoreWhite));
+        }
+        event.finish(metrics.getBoard(), hex.name(),
+                opponentScore - (hex == Cell.BLACK ? scoreWhite : scoreBlack));
       } else {
-        scoreWhite++; //Invariant maintained: scoreWhite is non-negative
+        metrics.illegalMoves().increment();
+        throw new IllegalArgumentException("Invalid move");
       }
-      flipHex(pos, hex);
-      nextTurn();
-      notifyGameStateChanged();
-      notifyTurnChanged();
-      notifyScoreChanged();
-      passTurnCount = 0; //Invariant maintained: resets the pass turn count to zero
-    } else {
-      throw new IllegalArgumentException("Invalid move");
+    } finally {
+      metrics.executeMove().stop(start);
     }
   }
 
@@ -161,8 +197,9 @@ public class SquareReversiModel implements IReversiModel {
    *
    * @param pos position of cell
    * @param hex cell that contains its state, black, white, or empty
+   * @param flipped collects the flipped positions, or null to skip collecting them
    */
-  private void flipHex(IPosition pos, Cell hex) {
+  private void flipHex(IPosition pos, Cell hex, List<IPosition> flipped) {
     for (SquarePosition dir : getSquareNeighbors()) {
       SquarePosition p = addSquarePositions(pos, dir);
       if (isPositionInvalid(p)) {
@@ -181,6 +218,9 @@ public class SquareReversiModel implements IReversiModel {
         if (cell.isPresent() && cell.get() == hex) {
           for (SquarePosition flipPos : toFlip) {
             board.placeHex(flipPos, hex);
+            if (flipped != null) {
+              flipped.add(flipPos);
+            }
             if (hex == Cell.BLACK) {
               scoreBlack++;
               scoreWhite--;
@@ -245,9 +285,14 @@ public class SquareReversiModel implements IReversiModel {
       throw new IllegalStateException("Pass Turn Count cannot be greater than 2");
     }
     checkGameStarted();
+    Cell passer = currentTurn;
     nextTurn();
     notifyTurnChanged();
     passTurnCount++;
+    if (!moveEventListeners.isEmpty()) {
+      moveEventListeners.dispatch(new MoveEvent(MoveEvent.Kind.PASS, passer, null,
+              new ArrayList<>(), currentTurn, scoreBlack, scoreWhite));
+    }
   }
 
   /**
@@ -391,16 +436,21 @@ public class SquareReversiModel implements IReversiModel {
    */
   @Override
   public boolean hasLegalMove(Cell hex) {
-    Optional<Cell>[][] boardCells = getBoard();
-    for (int q = 0; q < size * 2; q++) {
-      for (int r = 0; r < size * 2; r++) {
-        SquarePosition pos = new SquarePosition(q, r);
-        if (boardCells[q][r].isEmpty() && isALegalMove(pos, hex)) {
-          return true;
+    long start = Metrics.startTimer();
+    try {
+      Optional<Cell>[][] boardCells = getBoard();
+      for (int q = 0; q < size * 2; q++) {
+        for (int r = 0; r < size * 2; r++) {
+          SquarePosition pos = new SquarePosition(q, r);
+          if (boardCells[q][r].isEmpty() && isALegalMove(pos, hex)) {
+            return true;
+          }
         }
       }
+      return false;
+    } finally {
+      metrics.hasLegalMove().stop(start);
     }
-    return false;
   }
 
   /**
@@ -412,23 +462,28 @@ public class SquareReversiModel implements IReversiModel {
    */
   @Override
   public boolean isALegalMove(IPosition pos, Cell hex) {
-    if (this.isPositionInvalid(pos)) { //may need to make own isPositionInvalid for SquareBoard
-      return false;
-    }
-    if (this.board.getCell(pos).isPresent()) {
-      return false;
-    }
-    for (SquarePosition neighbor : this.getNeighbors(pos)) {
-      if (this.isPositionInvalid(neighbor)) { //for edge cases with less than 6 neighbors
-        continue;
+    long start = Metrics.startTimer();
+    try {
+      if (this.isPositionInvalid(pos)) { //may need to make own isPositionInvalid for SquareBoard
+        return false;
       }
-      IPosition dir = new SquarePosition(
-              neighbor.getQ() - pos.getQ(), neighbor.getR() - pos.getR());
-      if (isHexOpposite(neighbor, hex) && consecutiveLineCheck(neighbor, dir, hex)) {
-        return true;
+      if (this.board.getCell(pos).isPresent()) {
+        return false;
+      }
+      for (SquarePosition neighbor : this.getNeighbors(pos)) {
+        if (this.isPositionInvalid(neighbor)) { //for edge cases with less than 6 neighbors
+          continue;
+        }
+        IPosition dir = new SquarePosition(
+                neighbor.getQ() - pos.getQ(), neighbor.getR() - pos.getR());
+        if (isHexOpposite(neighbor, hex) && consecutiveLineCheck(neighbor, dir, hex)) {
+          return true;
+        }
       }
+      return false;
+    } finally {
+      metrics.isALegalMove().stop(start);
     }
-    return false;
   }
 
   /**
@@ -469,27 +524,32 @@ public class SquareReversiModel implements IReversiModel {
    * @return     The number of captures that would result from the move.
    */
   public int countCaptures(IPosition pos, Cell hex) {
-    int captures = 0;
-    if (!isALegalMove(pos, hex)) {
-      return 0; // No captures possible if move is not legal
-    }
-    // Check each direction for potential captures
-    for (SquarePosition neighbor : getNeighbors(pos)) {
-      IPosition dir = new SquarePosition(
-              neighbor.getQ() - pos.getQ(), neighbor.getR() - pos.getR());
-      //SquarePosition p = addPositions(pos, dir);
-      List<SquarePosition> potentialFlips = new ArrayList<>();
-      while (!isPositionInvalid(neighbor) && isHexOpposite(neighbor, hex)) {
-        potentialFlips.add(neighbor);
-        neighbor = addPositions(neighbor, dir);
+    long start = Metrics.startTimer();
+    try {
+      int captures = 0;
+      if (!isALegalMove(pos, hex)) {
+        return 0; // No captures possible if move is not legal
       }
-      // Check if the line ends with the player's own hex
-      if (!isPositionInvalid(neighbor) && board.getCell(neighbor).isPresent()
-              && board.getCell(neighbor).get() == hex) {
-        captures += potentialFlips.size(); // Add all potential flips to captures
+      // Check each direction for potential captures
+      for (SquarePosition neighbor : getNeighbors(pos)) {
+        IPosition dir = new SquarePosition(
+                neighbor.getQ() - pos.getQ(), neighbor.getR() - pos.getR());
+        //SquarePosition p = addPositions(pos, dir);
+        List<SquarePosition> potentialFlips = new ArrayList<>();
+        while (!isPositionInvalid(neighbor) && isHexOpposite(neighbor, hex)) {
+          potentialFlips.add(neighbor);
+          neighbor = addPositions(neighbor, dir);
+        }
+        // Check if the line ends with the player's own hex
+        if (!isPositionInvalid(neighbor) && board.getCell(neighbor).isPresent()
+                && board.getCell(neighbor).get() == hex) {
+          captures += potentialFlips.size(); // Add all potential flips to captures
+        }
       }
+      return captures;
+    } finally {
+      metrics.countCaptures().stop(start);
     }
-    return captures;
   }
 
   /**
@@ -543,6 +603,79 @@ public class SquareReversiModel implements IReversiModel {
     modelStatusListeners.add(listener);
   }
 
+  /**
+   * Adds a MoveEventListener that is told about each start, move and pass once, on the
+   * thread that changed the model.
+   *
+   * @param listener The listener to be added.
+   */
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    moveEventListeners.add(listener, null);
+  }
+
+  /**
+   * Adds a MoveEventListener that is told about each start, move and pass once, through
+   * the given executor.
+   *
+   * @param listener The listener to be added.
+   * @param executor Runs the listener's calls, for example on the listener's own thread.
+   */
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    moveEventListeners.add(listener, executor);
+  }
+
+  /**
+   * Saves the whole state of the game into a small fixed-layout snapshot.
+   *
+   * @return the snapshot
+   */
+  @Override
+  public byte[] snapshot() {
+    return Snapshot.encode(BoardLayout.of(this), board.getBoardCells(), hasGameStarted,
+            currentTurn, passTurnCount, scoreBlack, scoreWhite);
+  }
+
+  /**
+   * Replaces the state of the game with a snapshot, cell by cell, without replaying moves.
+   * Listeners are not notified.
+   *
+   * @param snapshot a snapshot taken from a game on the same board
+   * @throws IllegalArgumentException if the snapshot is malformed or from another board
+   */
+  @Override
+  public void restore(byte[] snapshot) {
+    Snapshot state = Snapshot.restore(snapshot, BoardLayout.of(this), board.getBoardCells());
+    this.hasGameStarted = state.isStarted();
+    this.currentTurn = state.getTurn();
+    this.passTurnCount = state.getPassCount();
+    this.scoreBlack = state.getScore(Cell.BLACK);
+    this.scoreWhite = state.getScore(Cell.WHITE);
+  }
+
+  /**
+   * Lists the positions that hold a disc.
+   *
+   * @return the occupied positions, in the order of createSize()
+   */
+  private List<IPosition> occupiedPositions() {
+    List<IPosition> occupied = new ArrayList<>();
+    List<Integer> range = createSize();
+    for (int q = range.get(0); q <= range.get(1); q++) {
+      for (int r = range.get(0); r <= range.get(1); r++) {
+        IPosition pos = createPosition(q, r);
+        if (!isPositionInvalid(pos) && board.getCell(pos).isPresent()) {
+          occupied.add(pos);
+        }
+      }
+    }
+    return occupied;
+  }
+
   /**
    * Notifies all registered ModelStatusListeners when the
    * current turn changes in the game.
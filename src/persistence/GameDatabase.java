@@ -0,0 +1,620 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReadOnlyReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * A directory of game records with an index from positions to the games that reached
+ * them. Games are appended to segment files in the {@link GameRecordWriter} format, and a
+ * new segment is started when the current one reaches the segment size. buildIndex()
+ * replays every game and writes one entry per distinct position it reached: the position
+ * hash, where the game is stored, the move first played from the position and the game's
+ * winner. A position a game comes back to, as after two passes, is counted once. Entries
+ * are sorted by hash and the index is memory-mapped, so counting games or the results of
+ * each move from a position is a binary search plus a scan of the matching entries, and
+ * only the games asked for are decoded.
+ * Files: games-NNNNN.rvgr segments, and positions.idx laid out as int magic, short
+ * version, short unused, long entry count, then per entry long hash, int segment, int
+ * offset, short move (cell index, PASS, or END for the final position), byte winner
+ * (BoardLayout.EMPTY for a draw) and a byte unused, which allows about 100 million
+ * positions. While the index is built an entry is packed into a long with 14 bits for the
+ * move, so only boards of at most MAX_CELLS cells can be stored, such as square boards up
+ * to size 63 and hexagonal boards up to size 73. The index reflects the games stored when
+ * it was last built; games added since are found once it is rebuilt.
+ */
+public final class GameDatabase implements Closeable {
+  public static final int END = -2;
+  static final int INDEX_MAGIC = 0x52564749; //"RVGI"
+  static final short INDEX_VERSION = 1;
+  static final int INDEX_HEADER_BYTES = 16;
+  static final int ENTRY_BYTES = 20;
+  static final int MAX_CELLS = (1 << 14) - 2; //a cell index plus 2 fits a packed entry
+  private static final long DEFAULT_SEGMENT_BYTES = 256L << 20;
+  private static final String INDEX_FILE = "positions.idx";
+
+  private final Path directory; //where the segments and the index are
+  private final long segmentBytes; //size at which a new segment is started
+  private final List<MappedByteBuffer> segments; //mapped lazily, reset when games are added
+  private final Map<BoardLayout, CompactBoard> startingBoards; //by layout, copied per game
+  private int segmentCount;
+  private GameRecordWriter writer; //appends to the last segment, null until a game is added
+  private MappedByteBuffer index; //null if the index has not been built
+  private long entryCount;
+
+  /**
+   * Opens a database.
+   *
+   * @param directory    the directory of the database, created if it does not exist
+   * @param segmentBytes the size at which a new segment file is started
+   * @throws IOException if the directory or the index cannot be read
+   */
+  private GameDatabase(Path directory, long segmentBytes) throws IOException {
+    if (segmentBytes <= GameRecordWriter.HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid segment size");
+    }
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.segments = new ArrayList<>();
+    this.startingBoards = new HashMap<>();
+    Files.createDirectories(directory);
+    while (Files.exists(segmentPath(segmentCount))) {
+      segmentCount++;
+    }
+    if (Files.exists(directory.resolve(INDEX_FILE))) {
+      mapIndex();
+    }
+  }
+
+  /**
+   * Opens or creates a database with 256 MB segments.
+   *
+   * @param directory the directory of the database, created if it does not exist
+   * @return the database
+   * @throws IOException              if the directory or the index cannot be read
+   * @throws IllegalArgumentException if the index file is not a position index
+   */
+  public static GameDatabase open(Path directory) throws IOException {
+    return new GameDatabase(directory, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens or creates a database.
+   *
+   * @param directory    the directory of the database, created if it does not exist
+   * @param segmentBytes the size at which a new segment file is started
+   * @return the database
+   * @throws IOException              if the directory or the index cannot be read
+   * @throws IllegalArgumentException if the segment size is not between the size of a
+   *                                  file header and 2 GB, or the index file is not a
+   *                                  position index
+   */
+  public static GameDatabase open(Path directory, long segmentBytes) throws IOException {
+    return new GameDatabase(directory, segmentBytes);
+  }
+
+  /**
+   * Adds a game to the last segment, starting a new segment if it is full.
+   *
+   * @param game the game
+   * @throws IOException              if the game cannot be written
+   * @throws IllegalArgumentException if the game's board has more than MAX_CELLS cells
+   */
+  public void add(GameRecord game) throws IOException {
+    if (game.getLayout().getCellCount() > MAX_CELLS) {
+      throw new IllegalArgumentException("Board is too large to index: "
+              + game.getLayout().getCellCount() + " cells");
+    }
+    if (writer == null || writer.getBytesWritten() >= segmentBytes) {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+      }
+      int last = segmentCount - 1;
+      if (last < 0 || Files.size(segmentPath(last)) >= segmentBytes) {
+        last = segmentCount++;
+      }
+      writer = GameRecordWriter.append(segmentPath(last));
+    }
+    writer.write(game);
+    segments.clear();
+  }
+
+  /**
+   * Writes the games added so far to their segment.
+   *
+   * @throws IOException if writing fails
+   */
+  public void flush() throws IOException {
+    if (writer != null) {
+      writer.flush();
+    }
+  }
+
+  /**
+   * Replays every stored game and writes a new position index, replacing the old one.
+   * Each game has one entry for each position it reached, however often it reached it.
+   *
+   * @throws IOException              if a segment cannot be read or the index cannot be
+   *                                  written
+   * @throws IllegalArgumentException if a stored game's board has more than MAX_CELLS
+   *                                  cells, as can only happen if it was written without
+   *                                  add()
+   */
+  public void buildIndex() throws IOException {
+    flush();
+    long[] hashes = new long[1 << 12];
+    long[] entries = new long[hashes.length];
+    Set<Long> reached = new HashSet<>(); //positions the current game has an entry for
+    int count = 0;
+    for (int segment = 0; segment < segmentCount; segment++) {
+      ByteBuffer games = segment(segment);
+      for (int offset = GameRecordWriter.HEADER_BYTES; offset < games.limit();
+           offset = recordEnd(games, offset)) {
+        GameRecord game = readAt(games, offset);
+        if (game == null) {
+          break;
+        }
+        int winner = BoardLayout.colorOf(game.getWinner());
+        CompactBoard board = startingBoard(game.getLayout());
+        reached.clear();
+        for (int i = 0; i <= game.getMoveCount(); i++) {
+          int move = i < game.getMoveCount() ? game.getMove(i) : END;
+          if (reached.add(board.getHash())) {
+            if (count == hashes.length) {
+              hashes = Arrays.copyOf(hashes, count * 2);
+              entries = Arrays.copyOf(entries, count * 2);
+            }
+            hashes[count] = board.getHash();
+            entries[count++] = pack(segment, offset, move, winner);
+          }
+          if (move == GameRecord.PASS) {
+            board.pass();
+          } else if (move != END) {
+            board.play(move);
+          }
+        }
+      }
+    }
+    sortByHash(hashes, entries, count);
+    writeIndex(hashes, entries, count);
+    mapIndex();
+  }
+
+  /**
+   * Gets the number of positions in the index.
+   *
+   * @return the number of index entries, 0 if the index has not been built
+   */
+  public long getIndexedPositionCount() {
+    return entryCount;
+  }
+
+  /**
+   * Counts the indexed games that reached a position.
+   *
+   * @param hash the hash of the position, as computed by its BoardLayout
+   * @return the number of games
+   */
+  public int countGames(long hash) {
+    long first = firstEntry(hash);
+    int count = 0;
+    while (first + count < entryCount && entryHash(first + count) == hash) {
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Counts the indexed games that reached the current position of a game.
+   *
+   * @param model a started game
+   * @return the number of games
+   */
+  public int countGames(ReadOnlyReversiModel model) {
+    return countGames(BoardLayout.of(model).hash(model));
+  }
+
+  /**
+   * Gets how often each move was played from a position and how those games ended,
+   * read from the index alone.
+   *
+   * @param hash the hash of the position, as computed by its BoardLayout
+   * @return the statistics of each move, most played first; the final positions of games
+   *         are reported under the move END
+   */
+  public List<MoveStats> getMoveStats(long hash) {
+    Map<Integer, MoveStats> stats = new HashMap<>();
+    for (long entry = firstEntry(hash); entry < entryCount && entryHash(entry) == hash;
+         entry++) {
+      int at = (int) (INDEX_HEADER_BYTES + entry * ENTRY_BYTES);
+      int move = index.getShort(at + 16);
+      stats.computeIfAbsent(move, MoveStats::new).add(index.get(at + 18));
+    }
+    List<MoveStats> sorted = new ArrayList<>(stats.values());
+    sorted.sort(Comparator.comparingInt(MoveStats::getGames).reversed()
+            .thenComparingInt(MoveStats::getMove));
+    return Collections.unmodifiableList(sorted);
+  }
+
+  /**
+   * Reads the indexed games that reached a position.
+   *
+   * @param hash  the hash of the position, as computed by its BoardLayout
+   * @param limit the most games to return
+   * @return the games, in the order they are stored
+   * @throws IOException if a segment cannot be read
+   */
+  public List<GameRecord> findGames(long hash, int limit) throws IOException {
+    List<GameRecord> games = new ArrayList<>();
+    for (long entry = firstEntry(hash); entry < entryCount && entryHash(entry) == hash
+            && games.size() < limit; entry++) {
+      int at = (int) (INDEX_HEADER_BYTES + entry * ENTRY_BYTES);
+      games.add(readAt(segment(index.getInt(at + 8)), index.getInt(at + 12)));
+    }
+    return games;
+  }
+
+  /**
+   * Reads every stored game in order, such as to export training data.
+   *
+   * @param action what to do with each game
+   * @throws IOException if a segment cannot be read
+   */
+  public void forEachGame(Consumer<GameRecord> action) throws IOException {
+    flush();
+    for (int segment = 0; segment < segmentCount; segment++) {
+      ByteBuffer games = segment(segment);
+      for (int offset = GameRecordWriter.HEADER_BYTES; offset < games.limit();
+           offset = recordEnd(games, offset)) {
+        GameRecord game = readAt(games, offset);
+        if (game == null) {
+          break;
+        }
+        action.accept(game);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  /**
+   * The games played from one position with one move, by result.
+   */
+  public static final class MoveStats {
+    private final int move; //cell index, PASS or END
+    private int games;
+    private int blackWins;
+    private int whiteWins;
+
+    /**
+     * Constructs empty statistics for a move.
+     *
+     * @param move the cell index of the move, PASS or END
+     */
+    MoveStats(int move) {
+      this.move = move;
+    }
+
+    /**
+     * Counts one game.
+     *
+     * @param winner the encoded color of the winner, EMPTY for a draw
+     */
+    void add(int winner) {
+      games++;
+      if (winner == BoardLayout.BLACK) {
+        blackWins++;
+      } else if (winner == BoardLayout.WHITE) {
+        whiteWins++;
+      }
+    }
+
+    /**
+     * Gets the move.
+     *
+     * @return the cell index of the move, GameRecord.PASS or END
+     */
+    public int getMove() {
+      return move;
+    }
+
+    /**
+     * Gets the number of games.
+     *
+     * @return the number of games that played this move
+     */
+    public int getGames() {
+      return games;
+    }
+
+    /**
+     * Gets the number of games a player won.
+     *
+     * @param player Cell.BLACK or Cell.WHITE
+     * @return the number of wins
+     * @throws IllegalArgumentException if the cell is not BLACK or WHITE
+     */
+    public int getWins(Cell player) {
+      if (player == Cell.BLACK) {
+        return blackWins;
+      } else if (player == Cell.WHITE) {
+        return whiteWins;
+      }
+      throw new IllegalArgumentException("Cell must be black or white");
+    }
+
+    /**
+     * Gets the number of drawn games.
+     *
+     * @return the number of draws
+     */
+    public int getDraws() {
+      return games - blackWins - whiteWins;
+    }
+
+    /**
+     * Gets a player's score over these games, counting a draw as half a win.
+     *
+     * @param player Cell.BLACK or Cell.WHITE
+     * @return the score from 0 to 1
+     */
+    public double getWinRate(Cell player) {
+      return (getWins(player) + getDraws() / 2.0) / games;
+    }
+  }
+
+  /**
+   * Gets the file of a segment.
+   *
+   * @param segment the number of the segment
+   * @return the path of the segment file
+   */
+  private Path segmentPath(int segment) {
+    return directory.resolve(String.format("games-%05d.rvgr", segment));
+  }
+
+  /**
+   * Gets a segment mapped into memory, mapping it on first use.
+   *
+   * @param segment the number of the segment
+   * @return a buffer of the whole segment, with its own position
+   * @throws IOException if the segment cannot be mapped
+   */
+  private ByteBuffer segment(int segment) throws IOException {
+    while (segments.size() <= segment) {
+      segments.add(null);
+    }
+    MappedByteBuffer mapped = segments.get(segment);
+    if (mapped == null) {
+      try (FileChannel channel = FileChannel.open(segmentPath(segment),
+              StandardOpenOption.READ)) {
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+      segments.set(segment, mapped);
+    }
+    return mapped.duplicate();
+  }
+
+  /**
+   * Decodes the game stored at an offset of a segment. A game cut short, such as by a
+   * crash while it was written, is treated as the end of the segment.
+   *
+   * @param games  the segment
+   * @param offset the offset of the game's length
+   * @return the game, or null if the segment ends inside it
+   */
+  private static GameRecord readAt(ByteBuffer games, int offset) {
+    int end = recordEnd(games, offset);
+    if (end < 0) {
+      return null;
+    }
+    ByteBuffer body = games.slice();
+    body.limit(end - games.position());
+    return GameRecord.decode(body);
+  }
+
+  /**
+   * Finds where the game stored at an offset of a segment ends, leaving the buffer
+   * positioned after the game's length.
+   *
+   * @param games  the segment
+   * @param offset the offset of the game's length
+   * @return the offset after the game, or -1 if the segment ends inside it
+   */
+  private static int recordEnd(ByteBuffer games, int offset) {
+    games.position(offset);
+    try {
+      int length = Varints.read(games);
+      return length > games.remaining() ? -1 : games.position() + length;
+    } catch (BufferUnderflowException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Gets a copy of the starting position of a board.
+   *
+   * @param layout the board
+   * @return a board ready for the first move
+   */
+  private CompactBoard startingBoard(BoardLayout layout) {
+    return startingBoards.computeIfAbsent(layout, l -> {
+      IReversiModel model = l.getKind() == BoardLayout.Kind.HEXAGON
+              ? new ReversiModel(l.getSize()) : new SquareReversiModel(l.getSize());
+      model.startGame();
+      return CompactBoard.of(model);
+    }).copy();
+  }
+
+  /**
+   * Packs where a position was reached into a long, so it can be sorted with its hash.
+   *
+   * @param segment the segment of the game
+   * @param offset  the offset of the game
+   * @param move    the move played from the position, PASS or END
+   * @param winner  the encoded color of the winner
+   * @return the packed entry
+   * @throws IllegalArgumentException if the move does not fit the entry
+   */
+  private static long pack(int segment, int offset, int move, int winner) {
+    if (move > MAX_CELLS - 1) {
+      throw new IllegalArgumentException("Board is too large to index");
+    }
+    return (long) segment << 48 | (long) offset << 16 | (move + 2) << 2 | winner;
+  }
+
+  /**
+   * Sorts hashes and their entries together, by hash, with a radix sort over the bytes
+   * of the hash. The highest byte is sorted with its sign flipped so the order matches
+   * the signed order used by the binary search.
+   *
+   * @param hashes  the hashes
+   * @param entries the packed entry of each hash
+   * @param count   the number of hashes to sort
+   */
+  private static void sortByHash(long[] hashes, long[] entries, int count) {
+    long[] hashesOut = new long[count];
+    long[] entriesOut = new long[count];
+    int[] counts = new int[257];
+    for (int shift = 0; shift < 64; shift += 8) {
+      Arrays.fill(counts, 0);
+      long flip = shift == 56 ? Long.MIN_VALUE : 0L;
+      for (int i = 0; i < count; i++) {
+        counts[(int) (((hashes[i] ^ flip) >>> shift) & 0xFF) + 1]++;
+      }
+      for (int i = 0; i < 256; i++) {
+        counts[i + 1] += counts[i];
+      }
+      for (int i = 0; i < count; i++) {
+        int to = counts[(int) (((hashes[i] ^ flip) >>> shift) & 0xFF)]++;
+        hashesOut[to] = hashes[i];
+        entriesOut[to] = entries[i];
+      }
+      System.arraycopy(hashesOut, 0, hashes, 0, count);
+      System.arraycopy(entriesOut, 0, entries, 0, count);
+    }
+  }
+
+  /**
+   * Writes the sorted entries to a temporary file and moves it over the index.
+   *
+   * @param hashes  the sorted hashes
+   * @param entries the packed entry of each hash
+   * @param count   the number of entries
+   * @throws IOException if the index cannot be written
+   */
+  private void writeIndex(long[] hashes, long[] entries, int count) throws IOException {
+    Path temp = directory.resolve(INDEX_FILE + ".tmp");
+    try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.BIG_ENDIAN);
+      buffer.putInt(INDEX_MAGIC).putShort(INDEX_VERSION).putShort((short) 0)
+              .putLong(count);
+      for (int i = 0; i < count; i++) {
+        if (buffer.remaining() < ENTRY_BYTES) {
+          buffer.flip();
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          buffer.clear();
+        }
+        long entry = entries[i];
+        buffer.putLong(hashes[i]).putInt((int) (entry >>> 48))
+                .putInt((int) (entry >>> 16)).putShort((short) (((entry >>> 2) & 0x3FFF) - 2))
+                .put((byte) (entry & 3)).put((byte) 0);
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    Files.move(temp, directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Maps the index file and checks its header.
+   *
+   * @throws IOException              if the index cannot be mapped
+   * @throws IllegalArgumentException if the file is not a position index
+   */
+  private void mapIndex() throws IOException {
+    Path path = directory.resolve(INDEX_FILE);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (mapped.capacity() < INDEX_HEADER_BYTES || mapped.getInt(0) != INDEX_MAGIC
+              || mapped.getShort(4) != INDEX_VERSION) {
+        throw new IllegalArgumentException("Not a position index: " + path);
+      }
+      long count = mapped.getLong(8);
+      if (INDEX_HEADER_BYTES + count * ENTRY_BYTES > mapped.capacity()) {
+        throw new IllegalArgumentException("Position index is truncated: " + path);
+      }
+      this.index = mapped;
+      this.entryCount = count;
+    }
+  }
+
+  /**
+   * Gets the hash of an index entry.
+   *
+   * @param entry the number of the entry
+   * @return its hash
+   */
+  private long entryHash(long entry) {
+    return index.getLong((int) (INDEX_HEADER_BYTES + entry * ENTRY_BYTES));
+  }
+
+  /**
+   * Finds the first index entry with a hash, by binary search.
+   *
+   * @param hash the hash
+   * @return the number of the first entry whose hash is not less than the given hash
+   */
+  private long firstEntry(long hash) {
+    long low = 0;
+    long high = entryCount;
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (entryHash(mid) < hash) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,323 @@
+package persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * A finished game: the board it was played on, who played it, the moves in order and the
+ * final score. Moves are stored as cell indices in the board's {@link BoardLayout}, with
+ * {@link #PASS} for a pass, so a record can be replayed into a new model. A game whose
+ * players broke ties at random also keeps the seed they drew from, so it can be played
+ * again. Records are immutable.
+ * Encoded form, as written by GameRecordWriter after a varint length:
+ * - byte board kind, varint board size
+ * - varint-prefixed UTF-8 black player, then white player
+ * - varint black score, varint white score
+ * - varint move count, then per move varint (cell index + 1), with 0 for a pass
+ * - if the game has a seed, long seed; records written before seeds were kept end above
+ * Decoding checks every size and length against the bytes left before allocating, so a
+ * corrupt record is refused rather than building a huge board or array.
+ */
+public final class GameRecord {
+  public static final int PASS = -1;
+  public static final int MAX_BOARD_SIZE = 100; //far above any board played
+
+  private final BoardLayout layout; //the board the game was played on
+  private final String blackPlayer; //how the black player was created, such as "AlphaBeta"
+  private final String whitePlayer;
+  private final int[] moves; //cell indices in order, PASS for a pass
+  private final int scoreBlack;
+  private final int scoreWhite;
+  private final OptionalLong seed; //seed of the game's tie-breaks, if it had one
+
+  /**
+   * Constructs a GameRecord.
+   *
+   * @param layout      the board the game was played on
+   * @param blackPlayer a description of the black player, such as a strategy name
+   * @param whitePlayer a description of the white player
+   * @param moves       the cell index of each move in order, or PASS for a pass
+   * @param scoreBlack  black's final score
+   * @param scoreWhite  white's final score
+   * @throws IllegalArgumentException if an argument is null, the board's size is above
+   *                                  MAX_BOARD_SIZE, a score is negative or a move is not
+   *                                  a cell of the layout
+   */
+  public GameRecord(BoardLayout layout, String blackPlayer, String whitePlayer, int[] moves,
+                    int scoreBlack, int scoreWhite) {
+    this(layout, blackPlayer, whitePlayer, moves, scoreBlack, scoreWhite, OptionalLong.empty());
+  }
+
+  /**
+   * Constructs a GameRecord of a game whose players broke ties with a seed, such as with
+   * strategy.SeededTieBreakStrategy.
+   *
+   * @param layout      the board the game was played on
+   * @param blackPlayer a description of the black player, such as a strategy name
+   * @param whitePlayer a description of the white player
+   * @param moves       the cell index of each move in order, or PASS for a pass
+   * @param scoreBlack  black's final score
+   * @param scoreWhite  white's final score
+   * @param seed        the seed of the game, or empty if it had none
+   * @throws IllegalArgumentException if an argument is null, the board's size is above
+   *                                  MAX_BOARD_SIZE, a score is negative or a move is not
+   *                                  a cell of the layout
+   */
+  public GameRecord(BoardLayout layout, String blackPlayer, String whitePlayer, int[] moves,
+                    int scoreBlack, int scoreWhite, OptionalLong seed) {
+    if (layout == null || blackPlayer == null || whitePlayer == null || moves == null
+            || seed == null) {
+      throw new IllegalArgumentException("Arguments cannot be null");
+    }
+    if (layout.getSize() > MAX_BOARD_SIZE) {
+      throw new IllegalArgumentException("Board is too large: " + layout.getSize());
+    }
+    if (scoreBlack < 0 || scoreWhite < 0) {
+      throw new IllegalArgumentException("Scores cannot be negative");
+    }
+    for (int move : moves) {
+      if (move != PASS && (move < 0 || move >= layout.getCellCount())) {
+        throw new IllegalArgumentException("Invalid move: " + move);
+      }
+    }
+    this.layout = layout;
+    this.blackPlayer = blackPlayer;
+    this.whitePlayer = whitePlayer;
+    this.moves = moves.clone();
+    this.scoreBlack = scoreBlack;
+    this.scoreWhite = scoreWhite;
+    this.seed = seed;
+  }
+
+  /**
+   * Gets the board the game was played on.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Gets the description of a player.
+   *
+   * @param player Cell.BLACK or Cell.WHITE
+   * @return the description the player was recorded with
+   * @throws IllegalArgumentException if the cell is not BLACK or WHITE
+   */
+  public String getPlayer(Cell player) {
+    if (player == Cell.BLACK) {
+      return blackPlayer;
+    } else if (player == Cell.WHITE) {
+      return whitePlayer;
+    }
+    throw new IllegalArgumentException("Cell must be black or white");
+  }
+
+  /**
+   * Gets a player's final score.
+   *
+   * @param player Cell.BLACK or Cell.WHITE
+   * @return the score
+   * @throws IllegalArgumentException if the cell is not BLACK or WHITE
+   */
+  public int getScore(Cell player) {
+    if (player == Cell.BLACK) {
+      return scoreBlack;
+    } else if (player == Cell.WHITE) {
+      return scoreWhite;
+    }
+    throw new IllegalArgumentException("Cell must be black or white");
+  }
+
+  /**
+   * Gets the winner of the game.
+   *
+   * @return the player with the higher score, or empty for a draw
+   */
+  public Optional<Cell> getWinner() {
+    if (scoreBlack == scoreWhite) {
+      return Optional.empty();
+    }
+    return Optional.of(scoreBlack > scoreWhite ? Cell.BLACK : Cell.WHITE);
+  }
+
+  /**
+   * Gets the number of moves and passes in the game.
+   *
+   * @return the number of moves
+   */
+  public int getMoveCount() {
+    return moves.length;
+  }
+
+  /**
+   * Gets one move.
+   *
+   * @param index the index of the move, from 0
+   * @return the cell index of the move, or PASS
+   * @throws IndexOutOfBoundsException if there is no such move
+   */
+  public int getMove(int index) {
+    return moves[index];
+  }
+
+  /**
+   * Gets all the moves.
+   *
+   * @return a copy of the cell index of each move, PASS for a pass
+   */
+  public int[] getMoves() {
+    return moves.clone();
+  }
+
+  /**
+   * Gets the seed the players of the game broke ties with.
+   *
+   * @return the seed, or empty if the game was recorded without one
+   */
+  public OptionalLong getSeed() {
+    return seed;
+  }
+
+  /**
+   * Replays the game into a new model of the recorded board.
+   *
+   * @return a started model in the final position of the game
+   * @throws IllegalStateException if a recorded move is not legal
+   */
+  public IReversiModel replay() {
+    IReversiModel model = layout.getKind() == BoardLayout.Kind.HEXAGON
+            ? new ReversiModel(layout.getSize()) : new SquareReversiModel(layout.getSize());
+    replay(model);
+    return model;
+  }
+
+  /**
+   * Starts a model and plays the recorded moves in it, so its listeners see the game
+   * as it was played.
+   *
+   * @param model a model of the recorded board that has not started
+   * @throws IllegalArgumentException if the model has a different board
+   * @throws IllegalStateException    if a recorded move is not legal
+   */
+  public void replay(IReversiModel model) {
+    if (BoardLayout.of(model) != layout) {
+      throw new IllegalArgumentException("Model has a different board");
+    }
+    model.startGame();
+    for (int move : moves) {
+      if (move == PASS) {
+        model.passTurn();
+      } else {
+        try {
+          model.executeMove(layout.position(move));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalStateException("Recorded move is not legal: " + move, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the encoded form of this record, without its length.
+   *
+   * @param out where to write
+   * @throws IOException if writing fails
+   */
+  void encode(OutputStream out) throws IOException {
+    out.write(layout.getKind().ordinal());
+    Varints.write(out, layout.getSize());
+    Varints.writeString(out, blackPlayer);
+    Varints.writeString(out, whitePlayer);
+    Varints.write(out, scoreBlack);
+    Varints.write(out, scoreWhite);
+    Varints.write(out, moves.length);
+    for (int move : moves) {
+      Varints.write(out, move + 1);
+    }
+    if (seed.isPresent()) {
+      long value = seed.getAsLong();
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        out.write((int) (value >>> shift));
+      }
+    }
+  }
+
+  /**
+   * Reads the encoded form of a record, advancing the buffer past it.
+   *
+   * @param in the buffer, positioned at the start of the record and limited to its end
+   * @return the record
+   * @throws IllegalArgumentException if the bytes are not a valid record, such as one cut
+   *                                  short or with a size or length that does not fit
+   */
+  static GameRecord decode(ByteBuffer in) {
+    try {
+      int kind = in.get();
+      if (kind < 0 || kind >= BoardLayout.Kind.values().length) {
+        throw new IllegalArgumentException("Unknown board kind: " + kind);
+      }
+      int size = Varints.read(in);
+      if (size <= 0 || size > MAX_BOARD_SIZE) {
+        throw new IllegalArgumentException("Invalid board size: " + size);
+      }
+      BoardLayout layout = BoardLayout.of(BoardLayout.Kind.values()[kind], size);
+      String black = Varints.readString(in);
+      String white = Varints.readString(in);
+      int scoreBlack = Varints.read(in);
+      int scoreWhite = Varints.read(in);
+      int moveCount = Varints.read(in);
+      if (moveCount < 0 || moveCount > in.remaining()) { //a move takes at least a byte
+        throw new IllegalArgumentException("Invalid move count: " + moveCount);
+      }
+      int[] moves = new int[moveCount];
+      for (int i = 0; i < moves.length; i++) {
+        moves[i] = Varints.read(in) - 1;
+      }
+      OptionalLong seed = in.remaining() >= Long.BYTES ? OptionalLong.of(in.getLong())
+              : OptionalLong.empty();
+      return new GameRecord(layout, black, white, moves, scoreBlack, scoreWhite, seed);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Record is cut short", e);
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof GameRecord)) {
+      return false;
+    }
+    GameRecord other = (GameRecord) o;
+    return layout == other.layout && blackPlayer.equals(other.blackPlayer)
+            && whitePlayer.equals(other.whitePlayer) && Arrays.equals(moves, other.moves)
+            && scoreBlack == other.scoreBlack && scoreWhite == other.scoreWhite
+            && seed.equals(other.seed);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(moves) + layout.hashCode()) + scoreBlack * 1000
+            + scoreWhite;
+  }
+
+  @Override
+  public String toString() {
+    return blackPlayer + " vs " + whitePlayer + " on " + layout.getKind() + " "
+            + layout.getSize() + ", " + moves.length + " moves, " + scoreBlack + "-" + scoreWhite;
+  }
+}
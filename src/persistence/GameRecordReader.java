@@ -0,0 +1,90 @@
+package persistence;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads game records one at a time from a stream written by {@link GameRecordWriter}.
+ * Each record is read into a reused buffer and decoded from there, so reading a large
+ * file needs memory for one game at a time.
+ */
+public final class GameRecordReader implements Closeable {
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final InputStream in; //buffered source, positioned after the header
+  private byte[] record; //reused for each record, grown as needed
+
+  /**
+   * Constructs a reader and checks the file header.
+   *
+   * @param in where to read from; it is buffered by the reader and closed with it
+   * @throws IOException              if the header cannot be read
+   * @throws IllegalArgumentException if the stream is not a game record file
+   */
+  public GameRecordReader(InputStream in) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    this.in = new BufferedInputStream(in, BUFFER_BYTES);
+    this.record = new byte[256];
+    DataInputStream header = new DataInputStream(this.in);
+    try {
+      if (header.readInt() != GameRecordWriter.MAGIC
+              || header.readShort() != GameRecordWriter.VERSION) {
+        throw new IllegalArgumentException("Not a game record file");
+      }
+    } catch (EOFException e) {
+      throw new IllegalArgumentException("Not a game record file", e);
+    }
+  }
+
+  /**
+   * Opens a game record file.
+   *
+   * @param path the file
+   * @return a reader positioned at the first game
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not a game record file
+   */
+  public static GameRecordReader open(Path path) throws IOException {
+    return new GameRecordReader(Files.newInputStream(path));
+  }
+
+  /**
+   * Reads the next game.
+   *
+   * @return the game, or null if there are no more games
+   * @throws IOException              if reading fails or the last game is cut short
+   * @throws IllegalArgumentException if a game is not a valid record
+   */
+  public GameRecord next() throws IOException {
+    int length = Varints.read(in);
+    if (length < 0) {
+      return null;
+    }
+    if (length > record.length) {
+      //read in chunks rather than trusting the length, so a corrupt one ends at the end of
+      //the stream instead of allocating whatever it says
+      byte[] grown = in.readNBytes(length);
+      if (grown.length < length) {
+        throw new EOFException("Stream ended inside a game");
+      }
+      record = grown;
+    } else if (in.readNBytes(record, 0, length) < length) {
+      throw new EOFException("Stream ended inside a game");
+    }
+    return GameRecord.decode(ByteBuffer.wrap(record, 0, length));
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
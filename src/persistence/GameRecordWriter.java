@@ -0,0 +1,261 @@
+package persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+import controller.MoveEventListener;
+import model.BoardLayout;
+import model.Cell;
+import model.IReversiModel;
+import model.MoveEvent;
+
+/**
+ * Writes game records to a stream, one after another, behind a single file header. Each
+ * record is encoded into a reused buffer and written with its length in front, so a
+ * reader can skip records without decoding them, and writes go through a large buffer,
+ * so recording many games costs few system calls.
+ * Games can be written directly, or recorded as they are played by attaching the writer
+ * to a model with {@link #record}. A listener cannot throw checked exceptions, so an
+ * I/O error while recording is kept and thrown by the next write, flush or close.
+ * File layout: int magic, short version, then per game varint length and the encoded
+ * {@link GameRecord}. A writer is not safe for use by several threads at once.
+ */
+public final class GameRecordWriter implements Closeable, Flushable {
+  static final int MAGIC = 0x52564752; //"RVGR"
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 6;
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final OutputStream out; //buffered destination
+  private final ByteArrayOutputStream record; //reused to encode each record
+  private long gamesWritten;
+  private long bytesWritten; //size of the stream so far, including an existing file
+  private IOException deferred; //first error hit while recording, thrown later
+
+  /**
+   * Constructs a writer that starts a new stream, writing the file header first.
+   *
+   * @param out where to write; it is buffered by the writer and closed with it
+   * @throws IOException if the header cannot be written
+   */
+  public GameRecordWriter(OutputStream out) throws IOException {
+    this(out, 0);
+  }
+
+  /**
+   * Constructs a writer.
+   *
+   * @param out          where to write
+   * @param existingSize the bytes already in the stream; 0 to write the file header first
+   * @throws IOException if the header cannot be written
+   */
+  private GameRecordWriter(OutputStream out, long existingSize) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    this.out = new BufferedOutputStream(out, BUFFER_BYTES);
+    this.record = new ByteArrayOutputStream(256);
+    this.bytesWritten = existingSize;
+    if (existingSize == 0) {
+      DataOutputStream header = new DataOutputStream(this.out);
+      header.writeInt(MAGIC);
+      header.writeShort(VERSION);
+      bytesWritten = HEADER_BYTES;
+    }
+  }
+
+  /**
+   * Opens a file to add games to, creating it with a header if it does not exist or is
+   * empty.
+   *
+   * @param path the file
+   * @return a writer that appends to the file
+   * @throws IOException if the file cannot be opened
+   */
+  public static GameRecordWriter append(Path path) throws IOException {
+    long size = Files.exists(path) ? Files.size(path) : 0;
+    OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    return new GameRecordWriter(out, size);
+  }
+
+  /**
+   * Writes one game.
+   *
+   * @param game the game
+   * @throws IOException if writing fails now or failed while recording a game
+   */
+  public void write(GameRecord game) throws IOException {
+    throwDeferred();
+    record.reset();
+    game.encode(record);
+    Varints.write(out, record.size());
+    record.writeTo(out);
+    gamesWritten++;
+    bytesWritten += Varints.size(record.size()) + record.size();
+  }
+
+  /**
+   * Records a game as it is played: the moves and passes the model makes are collected,
+   * and the game is written when the model reports that it is over. Attach the writer
+   * before the game starts.
+   *
+   * @param model       the game to record
+   * @param blackPlayer a description of the black player, such as a strategy name
+   * @param whitePlayer a description of the white player
+   * @return the listener that was added to the model
+   */
+  public MoveEventListener record(IReversiModel model, String blackPlayer,
+                                  String whitePlayer) {
+    MoveEventListener recorder = new Recorder(model, blackPlayer, whitePlayer,
+            OptionalLong.empty());
+    model.addMoveEventListener(recorder);
+    return recorder;
+  }
+
+  /**
+   * Records a game as it is played, like {@link #record(IReversiModel, String, String)},
+   * keeping the seed its players broke ties with in the record.
+   *
+   * @param model       the game to record
+   * @param blackPlayer a description of the black player, such as a strategy name
+   * @param whitePlayer a description of the white player
+   * @param seed        the seed of the game
+   * @return the listener that was added to the model
+   */
+  public MoveEventListener record(IReversiModel model, String blackPlayer,
+                                  String whitePlayer, long seed) {
+    MoveEventListener recorder = new Recorder(model, blackPlayer, whitePlayer,
+            OptionalLong.of(seed));
+    model.addMoveEventListener(recorder);
+    return recorder;
+  }
+
+  /**
+   * Gets the size of the stream, counting buffered bytes and, for a writer that appends
+   * to a file, the bytes the file already had. This is the offset the next game will be
+   * written at.
+   *
+   * @return the size in bytes
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Gets the number of games written by this writer.
+   *
+   * @return the number of games
+   */
+  public long getGamesWritten() {
+    return gamesWritten;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    throwDeferred();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      throwDeferred();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Throws the error hit while recording a game, once.
+   *
+   * @throws IOException the error, if there was one
+   */
+  private void throwDeferred() throws IOException {
+    if (deferred != null) {
+      IOException e = deferred;
+      deferred = null;
+      throw e;
+    }
+  }
+
+  /**
+   * Collects the moves of one game from its MoveEvents.
+   */
+  private final class Recorder implements MoveEventListener {
+    private final IReversiModel model;
+    private final String blackPlayer;
+    private final String whitePlayer;
+    private final OptionalLong seed; //seed of the game, if it has one
+    private BoardLayout layout; //known once the game starts
+    private int[] moves = new int[64];
+    private int moveCount;
+    private boolean written; //the game is over and has been written
+
+    /**
+     * Constructs a Recorder.
+     *
+     * @param model       the game to record
+     * @param blackPlayer a description of the black player
+     * @param whitePlayer a description of the white player
+     * @param seed        the seed of the game, or empty
+     */
+    Recorder(IReversiModel model, String blackPlayer, String whitePlayer, OptionalLong seed) {
+      this.model = model;
+      this.blackPlayer = blackPlayer;
+      this.whitePlayer = whitePlayer;
+      this.seed = seed;
+    }
+
+    @Override
+    public void moveMade(MoveEvent event) {
+      switch (event.getKind()) {
+        case START:
+          layout = BoardLayout.of(model);
+          moveCount = 0;
+          written = false;
+          return;
+        case MOVE:
+          add(layout.indexOf(event.getMove().get()));
+          break;
+        default:
+          add(GameRecord.PASS);
+          break;
+      }
+      if (!written && model.isGameOver()) {
+        written = true;
+        try {
+          write(new GameRecord(layout, blackPlayer, whitePlayer,
+                  Arrays.copyOf(moves, moveCount), event.getScore(Cell.BLACK),
+                  event.getScore(Cell.WHITE), seed));
+        } catch (IOException e) {
+          if (deferred == null) {
+            deferred = e;
+          }
+        }
+      }
+    }
+
+    /**
+     * Adds a move, growing the array if needed.
+     *
+     * @param move the cell index, or PASS
+     */
+    private void add(int move) {
+      if (moveCount == moves.length) {
+        moves = Arrays.copyOf(moves, moveCount * 2);
+      }
+      moves[moveCount++] = move;
+    }
+  }
+}
@@ -0,0 +1,502 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import controller.MoveEventListener;
+import model.BoardLayout;
+import model.IReversiModel;
+import model.MoveEvent;
+import model.Restorable;
+
+/**
+ * A write-ahead log of one hosted game, so the game survives a crash without a snapshot
+ * after every move. Each start, move and pass the model makes is appended to a journal
+ * file; on open, the last snapshot is restored and the journal is replayed on top of it.
+ * Entries are collected into batches written with one channel write each, and the file is
+ * forced to disk at most once per commit interval (or by {@link #commit}), so the cost of
+ * syncing is bounded however many moves are made. An entry never waits longer than the
+ * interval: if no later move commits it, a timer shared by all journals does. Every so
+ * many entries the journal is compacted: a new snapshot is written and the journal starts
+ * over.
+ * Files, for a game called name: name.snap holds int magic, long generation, varint length
+ * and the model's snapshot, and is replaced atomically; name.journal holds int magic,
+ * short version, long generation, then batches of varint length, entries and a CRC-32 of
+ * the entries. An entry is a varint: 0 for START, 1 for PASS, or 2 plus the cell index of a
+ * MOVE. A journal whose generation is older than the snapshot's is already part of it, and
+ * a batch cut short by a crash is dropped. The journal must listen on the model's thread,
+ * which {@link #open} arranges.
+ */
+public final class MoveJournal implements MoveEventListener, Closeable, Flushable {
+  static final int JOURNAL_MAGIC = 0x52564a4c; //"RVJL"
+  static final int SNAPSHOT_MAGIC = 0x5256534e; //"RVSN"
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 14;
+  private static final int START = 0;
+  private static final int PASS = 1;
+  private static final int MOVE = 2;
+  private static final int BATCH_BYTES = 4096;
+  private static final long DEFAULT_COMMIT_MILLIS = 200;
+  private static final int DEFAULT_COMPACT_ENTRIES = 1000;
+  //commits the entries no later move has committed in time, for every journal
+  private static final ScheduledExecutorService TIMER =
+          Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-commit");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final IReversiModel model;
+  private final Restorable restorable; //the same model
+  private final BoardLayout layout;
+  private final Path journalPath;
+  private final Path snapshotPath;
+  private final long commitMillis; //longest time a written entry waits to be forced
+  private final int compactEntries; //entries after which the journal is compacted
+  private final ByteBuffer batch; //entries not yet written
+  private final ByteBuffer frame; //a batch with its length and checksum
+  private final CRC32 crc;
+  private FileChannel channel;
+  private long generation;
+  private int entries; //entries in the journal since the snapshot
+  private int replayed; //entries replayed when the journal was opened
+  private boolean dirty; //written to the channel but not yet forced
+  private long lastCommit; //when the journal was last forced, in nanoseconds
+  private ScheduledFuture<?> deadline; //the timed commit of the uncommitted entries, or null
+  private boolean closed;
+  private IOException deferred; //first error hit while listening, thrown later
+
+  /**
+   * Constructs a MoveJournal. Use {@link #open}.
+   *
+   * @param model          the game
+   * @param journalPath    the journal file
+   * @param snapshotPath   the snapshot file
+   * @param commitMillis   the commit interval
+   * @param compactEntries the entries between compactions
+   */
+  private MoveJournal(IReversiModel model, Path journalPath, Path snapshotPath,
+                      long commitMillis, int compactEntries) {
+    this.model = model;
+    this.restorable = (Restorable) model;
+    this.layout = BoardLayout.of(model);
+    this.journalPath = journalPath;
+    this.snapshotPath = snapshotPath;
+    this.commitMillis = commitMillis;
+    this.compactEntries = compactEntries;
+    this.batch = ByteBuffer.allocate(BATCH_BYTES);
+    this.frame = ByteBuffer.allocateDirect(BATCH_BYTES + 9);
+    this.crc = new CRC32();
+  }
+
+  /**
+   * Opens the journal of a game with the default commit interval of 200 milliseconds and
+   * compaction every 1000 entries.
+   *
+   * @param dir   the directory holding the game's files
+   * @param name  the game's name
+   * @param model a new model of the game's board, which is brought up to date
+   * @return the journal, listening to the model
+   * @throws IOException if the files cannot be read or written
+   */
+  public static MoveJournal open(Path dir, String name, IReversiModel model)
+          throws IOException {
+    return open(dir, name, model, DEFAULT_COMMIT_MILLIS, DEFAULT_COMPACT_ENTRIES);
+  }
+
+  /**
+   * Opens the journal of a game, creating its files if they do not exist. The model is
+   * brought up to date from the snapshot and the journal, and the journal then listens to
+   * it, on the model's thread, to record what it does next.
+   *
+   * @param dir            the directory holding the game's files
+   * @param name           the game's name
+   * @param model          a new model of the game's board, which must be Restorable
+   * @param commitMillis   the longest time, in milliseconds, an entry may wait before it is
+   *                       forced to disk; 0 to force after every entry
+   * @param compactEntries the number of entries after which a snapshot is written and the
+   *                       journal starts over
+   * @return the journal, listening to the model
+   * @throws IOException              if the files cannot be read or written
+   * @throws IllegalArgumentException if the model is not Restorable, the arguments are
+   *                                  out of range or the files are not from this board
+   */
+  public static MoveJournal open(Path dir, String name, IReversiModel model,
+                                 long commitMillis, int compactEntries) throws IOException {
+    if (!(model instanceof Restorable)) {
+      throw new IllegalArgumentException("Model cannot be restored");
+    }
+    if (commitMillis < 0 || compactEntries <= 0) {
+      throw new IllegalArgumentException("Invalid commit interval or compaction size");
+    }
+    Files.createDirectories(dir);
+    MoveJournal journal = new MoveJournal(model, dir.resolve(name + ".journal"),
+            dir.resolve(name + ".snap"), commitMillis, compactEntries);
+    try {
+      journal.recover();
+    } catch (IOException | RuntimeException e) {
+      if (journal.channel != null) {
+        journal.channel.close();
+      }
+      throw e;
+    }
+    model.addMoveEventListener(journal);
+    return journal;
+  }
+
+  /**
+   * Restores the snapshot, replays the journal and leaves the channel open at the end of
+   * its last whole batch.
+   *
+   * @throws IOException if the files cannot be read or written
+   */
+  private void recover() throws IOException {
+    long snapshotGeneration = 0;
+    if (Files.exists(snapshotPath)) {
+      try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotPath))) {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+          throw new IllegalArgumentException("Not a snapshot file: " + snapshotPath);
+        }
+        snapshotGeneration = in.readLong();
+        byte[] snapshot = new byte[Varints.read(in)];
+        in.readFully(snapshot);
+        restorable.restore(snapshot);
+      }
+    }
+    generation = snapshotGeneration;
+    channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long end = replay(snapshotGeneration);
+    if (end < 0) {
+      startJournal();
+    } else {
+      channel.truncate(end);
+      channel.position(end);
+    }
+    lastCommit = System.nanoTime();
+  }
+
+  /**
+   * Replays the whole batches of the journal, if it belongs to the snapshot.
+   *
+   * @param snapshotGeneration the generation of the snapshot
+   * @return the offset just past the last whole batch, or -1 if the journal is empty or
+   *         older than the snapshot
+   * @throws IOException if the journal cannot be read
+   */
+  private long replay(long snapshotGeneration) throws IOException {
+    if (channel.size() < HEADER_BYTES) {
+      return -1;
+    }
+    ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    if (file.getInt() != JOURNAL_MAGIC || file.getShort() != VERSION) {
+      throw new IllegalArgumentException("Not a journal file: " + journalPath);
+    }
+    if (file.getLong() != snapshotGeneration) {
+      return -1; //written before the snapshot was taken, so the snapshot has it all
+    }
+    long end = file.position();
+    byte[] entryBytes = new byte[BATCH_BYTES];
+    while (file.hasRemaining()) {
+      int length;
+      try {
+        length = Varints.read(file);
+      } catch (RuntimeException e) {
+        break;
+      }
+      if (length > BATCH_BYTES || file.remaining() < length + 4) {
+        break;
+      }
+      file.get(entryBytes, 0, length);
+      crc.reset();
+      crc.update(entryBytes, 0, length);
+      if ((int) crc.getValue() != file.getInt()) {
+        break;
+      }
+      ByteBuffer entryBuffer = ByteBuffer.wrap(entryBytes, 0, length);
+      while (entryBuffer.hasRemaining()) {
+        apply(Varints.read(entryBuffer));
+        entries++;
+        replayed++;
+      }
+      end = file.position();
+    }
+    return end;
+  }
+
+  /**
+   * Applies a journal entry to the model.
+   *
+   * @param entry the entry
+   * @throws IllegalStateException if the entry cannot be applied, so the journal does not
+   *                               belong to the snapshot
+   */
+  private void apply(int entry) {
+    try {
+      if (entry == START) {
+        model.startGame();
+      } else if (entry == PASS) {
+        model.passTurn();
+      } else {
+        model.executeMove(layout.position(entry - MOVE));
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IllegalStateException("Journal does not match the snapshot: "
+              + journalPath, e);
+    }
+  }
+
+  /**
+   * Empties the journal and writes its header with the current generation, forcing it.
+   *
+   * @throws IOException if the journal cannot be written
+   */
+  private void startJournal() throws IOException {
+    channel.truncate(0);
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(JOURNAL_MAGIC).putShort(VERSION).putLong(generation).flip();
+    channel.write(header, 0);
+    channel.position(HEADER_BYTES);
+    channel.force(false);
+    entries = 0;
+    dirty = false;
+  }
+
+  @Override
+  public synchronized void moveMade(MoveEvent event) {
+    if (closed) {
+      return;
+    }
+    switch (event.getKind()) {
+      case START:
+        append(START);
+        break;
+      case MOVE:
+        append(MOVE + layout.indexOf(event.getMove().get()));
+        break;
+      default:
+        append(PASS);
+        break;
+    }
+    try {
+      if (entries >= compactEntries) {
+        compact();
+      } else if (System.nanoTime() - lastCommit >= commitMillis * 1_000_000L) {
+        commit();
+      } else if (deadline == null) {
+        deadline = TIMER.schedule(this::commitOnTime, commitMillis, TimeUnit.MILLISECONDS);
+      }
+    } catch (IOException e) {
+      if (deferred == null) {
+        deferred = e;
+      }
+    }
+  }
+
+  /**
+   * Commits the entries that have waited a whole commit interval, run by the timer.
+   */
+  private synchronized void commitOnTime() {
+    deadline = null;
+    if (closed) {
+      return;
+    }
+    try {
+      commit();
+    } catch (IOException e) {
+      if (deferred == null) {
+        deferred = e;
+      }
+    }
+  }
+
+  /**
+   * Adds an entry to the batch, writing the batch first if it is full.
+   *
+   * @param entry the entry
+   */
+  private void append(int entry) {
+    if (batch.remaining() < 5) {
+      try {
+        writeBatch();
+      } catch (IOException e) {
+        if (deferred == null) {
+          deferred = e;
+        }
+        return;
+      }
+    }
+    Varints.write(batch, entry);
+    entries++;
+  }
+
+  /**
+   * Writes the batch, framed with its length and checksum, in one channel write.
+   *
+   * @throws IOException if the journal cannot be written
+   */
+  private void writeBatch() throws IOException {
+    if (batch.position() == 0) {
+      return;
+    }
+    crc.reset();
+    crc.update(batch.array(), 0, batch.position());
+    frame.clear();
+    Varints.write(frame, batch.position());
+    batch.flip();
+    frame.put(batch).putInt((int) crc.getValue()).flip();
+    batch.clear();
+    while (frame.hasRemaining()) {
+      channel.write(frame);
+    }
+    dirty = true;
+  }
+
+  /**
+   * Writes the pending entries to the journal without waiting for them to reach the disk.
+   *
+   * @throws IOException if writing fails now or failed while listening
+   */
+  @Override
+  public synchronized void flush() throws IOException {
+    throwDeferred();
+    if (!closed) {
+      writeBatch();
+    }
+  }
+
+  /**
+   * Writes the pending entries and forces the journal to disk, so everything the model
+   * has done so far survives a crash. This can be called from a timer to commit the
+   * journals of many games together.
+   *
+   * @throws IOException if writing fails now or failed while listening
+   */
+  public synchronized void commit() throws IOException {
+    flush();
+    if (!closed && dirty) {
+      channel.force(false);
+      dirty = false;
+    }
+    lastCommit = System.nanoTime();
+    cancelDeadline();
+  }
+
+  /**
+   * Cancels the timed commit, once everything it was for is committed.
+   */
+  private void cancelDeadline() {
+    if (deadline != null) {
+      deadline.cancel(false);
+      deadline = null;
+    }
+  }
+
+  /**
+   * Writes a snapshot of the model and starts the journal over. The snapshot replaces the
+   * old one atomically, and the journal keeps the old generation until it is emptied, so
+   * the game can be recovered after a crash at any point. Call this on the model's thread.
+   *
+   * @throws IOException if writing fails now or failed while listening
+   */
+  public synchronized void compact() throws IOException {
+    throwDeferred();
+    if (closed) {
+      return;
+    }
+    batch.clear(); //everything in it is in the snapshot
+    byte[] snapshot = restorable.snapshot();
+    Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer bytes = ByteBuffer.allocate(12 + Varints.size(snapshot.length)
+              + snapshot.length);
+      bytes.putInt(SNAPSHOT_MAGIC).putLong(generation + 1);
+      Varints.write(bytes, snapshot.length);
+      bytes.put(snapshot).flip();
+      while (bytes.hasRemaining()) {
+        out.write(bytes);
+      }
+      out.force(true);
+    }
+    Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    generation++;
+    startJournal();
+    lastCommit = System.nanoTime();
+    cancelDeadline();
+  }
+
+  /**
+   * Gets the generation of the snapshot the journal is written against, which goes up by
+   * one with each compaction.
+   *
+   * @return the generation, 0 before the first compaction
+   */
+  public synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Gets the number of entries recorded since the last snapshot, including replayed ones.
+   *
+   * @return the number of entries
+   */
+  public synchronized int getEntryCount() {
+    return entries;
+  }
+
+  /**
+   * Gets the number of entries replayed onto the model when the journal was opened.
+   *
+   * @return the number of entries
+   */
+  public int getReplayedCount() {
+    return replayed;
+  }
+
+  /**
+   * Commits the journal and closes it. The journal ignores the model from then on.
+   *
+   * @throws IOException if writing fails now or failed while listening
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      commit();
+    } finally {
+      closed = true;
+      cancelDeadline();
+      channel.close();
+    }
+  }
+
+  /**
+   * Throws the error hit while listening, once.
+   *
+   * @throws IOException the error, if there was one
+   */
+  private void throwDeferred() throws IOException {
+    if (deferred != null) {
+      IOException e = deferred;
+      deferred = null;
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes the variable-length integers and strings used by the binary formats in
+ * this package. An integer is written seven bits at a time, lowest first, with the high
+ * bit of each byte set when more bytes follow, so small values take a single byte.
+ */
+final class Varints {
+
+  private Varints() {
+  }
+
+  /**
+   * Writes a non-negative integer.
+   *
+   * @param out   where to write
+   * @param value the value
+   * @throws IOException              if writing fails
+   * @throws IllegalArgumentException if the value is negative
+   */
+  static void write(OutputStream out, int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Varints cannot be negative");
+    }
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  /**
+   * Writes a non-negative integer to a buffer, advancing its position.
+   *
+   * @param out   where to write
+   * @param value the value
+   * @throws IllegalArgumentException if the value is negative
+   * @throws java.nio.BufferOverflowException if the buffer has too little room
+   */
+  static void write(ByteBuffer out, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Varints cannot be negative");
+    }
+    while ((value & ~0x7F) != 0) {
+      out.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.put((byte) value);
+  }
+
+  /**
+   * Counts the bytes a non-negative integer takes when written.
+   *
+   * @param value the value
+   * @return the number of bytes, from 1 to 5
+   */
+  static int size(int value) {
+    int bytes = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      bytes++;
+    }
+    return bytes;
+  }
+
+  /**
+   * Writes a string as its UTF-8 length followed by its UTF-8 bytes.
+   *
+   * @param out   where to write
+   * @param value the string
+   * @throws IOException if writing fails
+   */
+  static void writeString(OutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    write(out, bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a non-negative integer.
+   *
+   * @param in where to read from
+   * @return the value, or -1 if the stream ended before the first byte
+   * @throws IOException              if reading fails or the stream ends inside the value
+   * @throws IllegalArgumentException if the value is longer than an int
+   */
+  static int read(InputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        if (shift == 0) {
+          return -1;
+        }
+        throw new EOFException("Stream ended inside a varint");
+      }
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  /**
+   * Reads a non-negative integer from a buffer, advancing its position.
+   *
+   * @param in where to read from
+   * @return the value
+   * @throws IllegalArgumentException if the value is longer than an int
+   * @throws java.nio.BufferUnderflowException if the buffer ends inside the value
+   */
+  static int read(ByteBuffer in) {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.get() & 0xFF;
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  /**
+   * Reads a string written by writeString from a buffer, advancing its position.
+   *
+   * @param in where to read from
+   * @return the string
+   * @throws IllegalArgumentException if the length is malformed or longer than what is left
+   *                                  in the buffer
+   * @throws java.nio.BufferUnderflowException if the buffer ends inside the length
+   */
+  static String readString(ByteBuffer in) {
+    int length = read(in);
+    if (length < 0 || length > in.remaining()) {
+      throw new IllegalArgumentException("Invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,266 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+import model.Restorable;
+import model.ReversiModel;
+import model.SquareReversiModel;
+import strategy.Evaluator;
+import strategy.IReversiStrategy;
+import strategy.StrategySpec;
+
+/**
+ * Chooses moves for game hosts, so the search can run in a process, or on a machine, of its
+ * own. A host sends MOVE_REQUESTs of a position snapshot and a strategy spec in the syntax
+ * of the command line, as many as it likes without waiting; the worker runs them on its
+ * threads and answers each with the chosen cell as soon as it is found, so answers may
+ * come back in another order. Each thread keeps the strategies it has built, so a
+ * searching strategy keeps its tables from one request to the next.
+ * Specs come from the network, so "AlphaBeta:name" can only name one of the weight sets
+ * the worker was started with, never a file, and a failed request is answered with a
+ * failure code alone.
+ * Run it with {@code java server.AiWorker port [threads] [name=weights file ...]}.
+ */
+public final class AiWorker implements Closeable {
+  private final ServerSocketChannel serverChannel;
+  private final ExecutorService searchers;
+  private final ThreadLocal<Map<String, IReversiStrategy>> strategies;
+  private final Map<String, Evaluator> weights; //the weight sets specs may name
+  private final AtomicLong requests;
+  private final Thread acceptor;
+  private volatile boolean running;
+
+  /**
+   * Constructs an AiWorker listening on the given address. Call {@link #start} to begin
+   * answering.
+   *
+   * @param address the address to listen on; port 0 picks a free port
+   * @param threads the number of requests to work on at once
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if threads is not positive
+   */
+  public AiWorker(InetSocketAddress address, int threads) throws IOException {
+    this(address, threads, Map.of());
+  }
+
+  /**
+   * Constructs an AiWorker whose requests may search with the given weights by naming
+   * them, as in "AlphaBeta:tuned". Call {@link #start} to begin answering.
+   *
+   * @param address the address to listen on; port 0 picks a free port
+   * @param threads the number of requests to work on at once
+   * @param weights the weight sets requests may name, by name
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if threads is not positive
+   */
+  public AiWorker(InetSocketAddress address, int threads, Map<String, Evaluator> weights)
+          throws IOException {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Worker needs at least one thread");
+    }
+    this.serverChannel = ServerSocketChannel.open().bind(address);
+    this.searchers = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "ai-worker-search");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.strategies = ThreadLocal.withInitial(HashMap::new);
+    this.weights = Map.copyOf(weights);
+    this.requests = new AtomicLong();
+    this.acceptor = new Thread(this::accept, "ai-worker-accept");
+    acceptor.setDaemon(true);
+  }
+
+  /**
+   * Starts a worker from the command line and runs until the process is stopped.
+   *
+   * @param args the port to listen on, optionally the number of threads, which defaults
+   *             to the number of processors, then any weight sets requests may name, each
+   *             as name=file
+   * @throws IOException          if the port cannot be bound or a weights file read
+   * @throws InterruptedException if the process is interrupted
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1) {
+      throw new IllegalArgumentException("Usage: AiWorker port [threads] [name=file ...]");
+    }
+    int threads = args.length > 1 ? Integer.parseInt(args[1])
+            : Runtime.getRuntime().availableProcessors();
+    Map<String, Evaluator> weights = new HashMap<>();
+    for (int i = 2; i < args.length; i++) {
+      int equals = args[i].indexOf('=');
+      if (equals <= 0) {
+        throw new IllegalArgumentException("Weights must be given as name=file: " + args[i]);
+      }
+      weights.put(args[i].substring(0, equals),
+              Evaluator.read(Path.of(args[i].substring(equals + 1))));
+    }
+    AiWorker worker = new AiWorker(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+            Integer.parseInt(args[0])), threads, weights);
+    worker.start();
+    worker.acceptor.join();
+  }
+
+  /**
+   * Starts accepting hosts.
+   *
+   * @throws IllegalStateException if the worker was already started
+   */
+  public void start() {
+    if (running || acceptor.isAlive()) {
+      throw new IllegalStateException("Worker already started");
+    }
+    running = true;
+    acceptor.start();
+  }
+
+  /**
+   * Gets the address the worker listens on.
+   *
+   * @return the address, with the actual port
+   * @throws IOException if the worker has been closed
+   */
+  public InetSocketAddress getAddress() throws IOException {
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Gets the number of requests answered.
+   *
+   * @return the number of requests
+   */
+  public long getRequestCount() {
+    return requests.get();
+  }
+
+  /**
+   * Stops accepting hosts and stops the search threads. Hosts already connected are
+   * disconnected when their requests fail to be answered.
+   *
+   * @throws IOException if the worker cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    serverChannel.close();
+    searchers.shutdownNow();
+  }
+
+  /**
+   * Accepts hosts until the worker is closed, reading each on a thread of its own.
+   */
+  private void accept() {
+    while (running) {
+      try {
+        SocketChannel host = serverChannel.accept();
+        host.socket().setTcpNoDelay(true);
+        Thread reader = new Thread(() -> serve(host), "ai-worker-host");
+        reader.setDaemon(true);
+        reader.start();
+      } catch (IOException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Reads a host's requests and hands them to the search threads.
+   *
+   * @param host the host's channel
+   */
+  private void serve(SocketChannel host) {
+    ByteBuffer in = Protocol.frameBuffer();
+    try (host) {
+      ByteBuffer frame;
+      while ((frame = Protocol.readFrame(host, in)) != null) {
+        if (frame.get() != Protocol.MOVE_REQUEST) {
+          throw new IOException("Unexpected message type");
+        }
+        ByteBuffer request = frame;
+        searchers.execute(() -> reply(host, request));
+      }
+    } catch (IOException | RuntimeException e) {
+      //the host went away, sent something malformed or the worker is closing
+    }
+  }
+
+  /**
+   * Answers one request.
+   *
+   * @param host    the host's channel
+   * @param request the request's payload
+   */
+  private void reply(SocketChannel host, ByteBuffer request) {
+    int requestId = request.getInt();
+    ByteBuffer reply;
+    try {
+      reply = Protocol.moveReply(requestId, chooseMove(request));
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      reply = Protocol.requestFailed(requestId, Protocol.FAILED_BAD_REQUEST);
+    } catch (RuntimeException e) {
+      reply = Protocol.requestFailed(requestId, Protocol.FAILED_STRATEGY);
+    }
+    requests.incrementAndGet();
+    try {
+      synchronized (host) {
+        while (reply.hasRemaining()) {
+          host.write(reply);
+        }
+      }
+    } catch (IOException e) {
+      //the host went away; its reader will see the connection close
+    }
+  }
+
+  /**
+   * Rebuilds the position of a request and runs its strategy on it.
+   *
+   * @param request the request's payload, after the id
+   * @return the chosen cell, or -1 to pass
+   * @throws IllegalArgumentException if the request is malformed or names an unknown
+   *                                  strategy
+   */
+  private int chooseMove(ByteBuffer request) {
+    Cell player = BoardLayout.cellOf(request.get());
+    int kind = request.get();
+    int size = request.getShort();
+    if (!Protocol.isBoard(kind, size)) {
+      throw new IllegalArgumentException("No such board");
+    }
+    byte[] specBytes = new byte[request.getShort()];
+    request.get(specBytes);
+    String spec = new String(specBytes, StandardCharsets.UTF_8);
+    byte[] snapshot = new byte[request.remaining()];
+    request.get(snapshot);
+
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.values()[kind], size);
+    IReversiModel model = layout.getKind() == BoardLayout.Kind.HEXAGON
+            ? new ReversiModel(size) : new SquareReversiModel(size);
+    ((Restorable) model).restore(snapshot);
+    IReversiStrategy strategy = strategies.get().computeIfAbsent(spec,
+            s -> StrategySpec.parse(s, weights));
+    List<IPosition> choices = strategy.choosePositions(model, player);
+    Optional<IPosition> move = strategy.chooseBestPosition(choices);
+    return move.isPresent() ? layout.indexOf(move.get()) : -1;
+  }
+}
@@ -0,0 +1,269 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+import model.Restorable;
+import strategy.IReversiStrategy;
+
+/**
+ * Sends move requests from a game host to a set of {@link AiWorker}s. Requests are
+ * pipelined: each is sent without waiting for earlier ones to be answered, to the worker
+ * with the fewest unanswered requests, and whatever has queued up for a worker while the
+ * last batch was being written goes out together in one gathering write. Answers complete
+ * the future returned for each request.
+ */
+public final class AiWorkerPool implements Closeable {
+  private final List<WorkerLink> links;
+  private final AtomicInteger nextId;
+
+  /**
+   * Connects to the given workers.
+   *
+   * @param workers the workers' addresses
+   * @throws IOException              if a worker cannot be reached
+   * @throws IllegalArgumentException if there are no workers
+   */
+  public AiWorkerPool(List<InetSocketAddress> workers) throws IOException {
+    if (workers.isEmpty()) {
+      throw new IllegalArgumentException("Pool needs at least one worker");
+    }
+    this.links = new ArrayList<>();
+    this.nextId = new AtomicInteger();
+    try {
+      for (InetSocketAddress address : workers) {
+        links.add(new WorkerLink(SocketChannel.open(address)));
+      }
+    } catch (IOException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /**
+   * Asks a worker to choose a move.
+   *
+   * @param model  the position, which must be Restorable; it is copied before this returns
+   * @param player the player to choose for
+   * @param spec   the strategy, in the syntax of the command line, such as
+   *               "TryTwo ChooseCorners MaxCapture"
+   * @return the chosen position, or empty to pass; it fails if the worker cannot run the
+   *         strategy or the connection is lost
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  public CompletableFuture<Optional<IPosition>> requestMove(ReadOnlyReversiModel model,
+                                                           Cell player, String spec) {
+    if (!(model instanceof Restorable)) {
+      throw new IllegalArgumentException("Model cannot be restored");
+    }
+    BoardLayout layout = BoardLayout.of(model);
+    int requestId = nextId.getAndIncrement();
+    ByteBuffer request = Protocol.moveRequest(requestId, BoardLayout.colorOf(player), layout,
+            spec, ((Restorable) model).snapshot());
+    WorkerLink link = Collections.min(links,
+            (a, b) -> Integer.compare(a.pending.size(), b.pending.size()));
+    CompletableFuture<Optional<IPosition>> answer = new CompletableFuture<>();
+    link.pending.put(requestId, new Pending(layout, answer));
+    link.outbox.add(request);
+    if (!link.reader.isAlive()) {
+      link.fail(new IOException("Worker connection lost"));
+    }
+    return answer;
+  }
+
+  /**
+   * Makes a strategy that runs on the workers, so an AiPlayer can use it like a local one.
+   *
+   * @param spec the strategy, in the syntax of the command line
+   * @return the strategy; choosing a move waits for a worker's answer
+   */
+  public IReversiStrategy strategy(String spec) {
+    return new IReversiStrategy() {
+      @Override
+      public List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player) {
+        try {
+          Optional<IPosition> move = requestMove(model, player, spec).get();
+          return move.isPresent() ? List.of(move.get()) : List.of();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return List.of();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Worker could not choose a move", e.getCause());
+        }
+      }
+
+      @Override
+      public Optional<IPosition> chooseBestPosition(List<IPosition> positions) {
+        return positions.isEmpty() ? Optional.empty() : Optional.of(positions.get(0));
+      }
+    };
+  }
+
+  /**
+   * Gets the number of requests sent and not yet answered.
+   *
+   * @return the number of requests
+   */
+  public int getPendingCount() {
+    int count = 0;
+    for (WorkerLink link : links) {
+      count += link.pending.size();
+    }
+    return count;
+  }
+
+  /**
+   * Disconnects from every worker. Requests not yet answered fail.
+   */
+  @Override
+  public void close() {
+    for (WorkerLink link : links) {
+      try {
+        link.channel.close();
+      } catch (IOException e) {
+        //already closed
+      }
+      link.fail(new IOException("Pool closed"));
+    }
+  }
+
+  /**
+   * A request waiting for its answer.
+   */
+  private static final class Pending {
+    private final BoardLayout layout; //to turn the answer back into a position
+    private final CompletableFuture<Optional<IPosition>> answer;
+
+    /**
+     * Constructs a Pending.
+     *
+     * @param layout the board of the request
+     * @param answer the future to complete
+     */
+    Pending(BoardLayout layout, CompletableFuture<Optional<IPosition>> answer) {
+      this.layout = layout;
+      this.answer = answer;
+    }
+  }
+
+  /**
+   * The connection to one worker, with a thread writing batches of requests and a thread
+   * reading answers.
+   */
+  private static final class WorkerLink {
+    private static final ByteBuffer[] NO_BUFFERS = new ByteBuffer[0];
+
+    private final SocketChannel channel;
+    private final BlockingQueue<ByteBuffer> outbox;
+    private final Map<Integer, Pending> pending;
+    private final Thread writer;
+    private final Thread reader;
+
+    /**
+     * Constructs a WorkerLink and starts its threads.
+     *
+     * @param channel the connected channel
+     * @throws IOException if the channel cannot be configured
+     */
+    WorkerLink(SocketChannel channel) throws IOException {
+      this.channel = channel;
+      this.outbox = new LinkedBlockingQueue<>();
+      this.pending = new ConcurrentHashMap<>();
+      channel.socket().setTcpNoDelay(true);
+      this.writer = new Thread(this::write, "ai-pool-writer");
+      this.reader = new Thread(this::read, "ai-pool-reader");
+      writer.setDaemon(true);
+      reader.setDaemon(true);
+      writer.start();
+      reader.start();
+    }
+
+    /**
+     * Writes requests as they are queued, everything queued so far in one write.
+     */
+    private void write() {
+      List<ByteBuffer> batch = new ArrayList<>();
+      try {
+        while (channel.isOpen()) {
+          batch.add(outbox.take());
+          outbox.drainTo(batch);
+          ByteBuffer[] buffers = batch.toArray(NO_BUFFERS);
+          ByteBuffer last = buffers[buffers.length - 1];
+          while (last.hasRemaining()) {
+            channel.write(buffers);
+          }
+          batch.clear();
+        }
+      } catch (IOException e) {
+        fail(e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Reads answers and completes their requests until the connection closes.
+     */
+    private void read() {
+      ByteBuffer in = Protocol.frameBuffer();
+      IOException failure = new IOException("Worker connection lost");
+      try {
+        ByteBuffer frame;
+        while ((frame = Protocol.readFrame(channel, in)) != null) {
+          byte type = frame.get();
+          Pending request = pending.remove(frame.getInt());
+          if (request == null) {
+            continue;
+          }
+          if (type == Protocol.MOVE_REPLY) {
+            int cell = frame.getShort();
+            request.answer.complete(cell < 0 ? Optional.empty()
+                    : Optional.of(request.layout.position(cell)));
+          } else if (frame.get() == Protocol.FAILED_BAD_REQUEST) {
+            request.answer.completeExceptionally(
+                    new IllegalArgumentException("Worker refused the request"));
+          } else {
+            request.answer.completeExceptionally(
+                    new IllegalStateException("Worker's strategy failed"));
+          }
+        }
+      } catch (IOException e) {
+        failure = e;
+      }
+      writer.interrupt();
+      fail(failure);
+    }
+
+    /**
+     * Fails every request waiting on this worker.
+     *
+     * @param cause why
+     */
+    private void fail(IOException cause) {
+      for (Integer id : pending.keySet()) {
+        Pending request = pending.remove(id);
+        if (request != null) {
+          request.answer.completeExceptionally(cause);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,466 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+import model.Restorable;
+
+/**
+ * A player's connection to a {@link GameServer}. The client keeps a local copy of the game
+ * in a model of its own, which it changes only as the server reports moves and passes, so
+ * views and controllers can listen to that model as they would to a local game. Moves are
+ * sent to the server with {@link #sendMove} and {@link #sendPass}, and take effect when the
+ * server sends them back. A player who drops out of a game in progress can take its seat
+ * again with {@link #rejoin} and the token the server gave it.
+ */
+public final class GameClient implements Closeable {
+  private final SocketChannel channel;
+  private final IReversiModel model; //the local copy of the game
+  private final BoardLayout layout;
+  private final Executor executor; //applies the server's messages to the model
+  private final ByteBuffer in; //received bytes, ready to write into
+  private final List<Runnable> syncListeners;
+  private final Object sendLock;
+  private int gameId;
+  private Cell color;
+  private long token; //proves this client held its seat, to join again with
+  private Thread reader;
+  private boolean started; //guarded by this
+  private boolean gameOver; //guarded by this
+  private boolean pending; //a move was sent and not yet answered; guarded by this
+  private volatile String lastError;
+
+  /**
+   * Constructs a GameClient.
+   *
+   * @param channel  the connected channel
+   * @param model    the local copy of the game
+   * @param executor applies the server's messages to the model
+   */
+  private GameClient(SocketChannel channel, IReversiModel model, Executor executor) {
+    this.channel = channel;
+    this.model = model;
+    this.layout = BoardLayout.of(model);
+    this.executor = executor;
+    this.in = Protocol.frameBuffer();
+    this.syncListeners = new CopyOnWriteArrayList<>();
+    this.sendLock = new Object();
+  }
+
+  /**
+   * Connects to a server and joins a game, applying the server's messages to the local
+   * model on the thread that reads them.
+   *
+   * @param address the server's address
+   * @param gameId  the game to join, created if it does not exist
+   * @param model   a new model of the game's board, kept as the local copy of the game
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  public static GameClient connect(InetSocketAddress address, int gameId, IReversiModel model)
+          throws IOException {
+    return connect(address, gameId, model, Runnable::run);
+  }
+
+  /**
+   * Connects to a server and joins a game.
+   *
+   * @param address  the server's address
+   * @param gameId   the game to join, created if it does not exist
+   * @param model    a new model of the game's board, kept as the local copy of the game
+   * @param executor applies the server's messages to the model, in order, such as
+   *                 {@code SwingUtilities::invokeLater} for a model shown in a window
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  public static GameClient connect(InetSocketAddress address, int gameId, IReversiModel model,
+                                   Executor executor) throws IOException {
+    return connect(address, gameId, model, executor, Protocol.CONNECT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Connects to a server and joins a game, giving up if the server does not answer in
+   * time.
+   *
+   * @param address       the server's address
+   * @param gameId        the game to join, created if it does not exist
+   * @param model         a new model of the game's board, kept as the local copy of the game
+   * @param executor      applies the server's messages to the model, in order
+   * @param timeoutMillis the longest time to wait to connect, and then to be seated
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  static GameClient connect(InetSocketAddress address, int gameId, IReversiModel model,
+                            Executor executor, int timeoutMillis) throws IOException {
+    return join(address, gameId, 0, model, executor, timeoutMillis);
+  }
+
+  /**
+   * Connects to a server and takes back a seat this client's player held in a game in
+   * progress, applying the server's messages to the local model on the thread that reads
+   * them. The local model is brought up to date with the game before play goes on.
+   *
+   * @param address the server's address
+   * @param gameId  the game to join again
+   * @param token   the token from {@link #getRejoinToken} of the client that held the seat
+   * @param model   a new model of the game's board, kept as the local copy of the game
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join, such as when the game was
+   *                                  dropped or the seat is not free
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  public static GameClient rejoin(InetSocketAddress address, int gameId, long token,
+                                  IReversiModel model) throws IOException {
+    return rejoin(address, gameId, token, model, Runnable::run);
+  }
+
+  /**
+   * Connects to a server and takes back a seat this client's player held in a game in
+   * progress.
+   *
+   * @param address  the server's address
+   * @param gameId   the game to join again
+   * @param token    the token from {@link #getRejoinToken} of the client that held the seat
+   * @param model    a new model of the game's board, kept as the local copy of the game
+   * @param executor applies the server's messages to the model, in order
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join
+   * @throws IllegalArgumentException if the model is not Restorable or the token is 0
+   */
+  public static GameClient rejoin(InetSocketAddress address, int gameId, long token,
+                                  IReversiModel model, Executor executor) throws IOException {
+    if (token == 0) {
+      throw new IllegalArgumentException("No token");
+    }
+    return join(address, gameId, token, model, executor, Protocol.CONNECT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Connects to a server and takes a seat in a game.
+   *
+   * @param address       the server's address
+   * @param gameId        the game to join
+   * @param token         the seat's token, or 0 for a new seat
+   * @param model         a new model of the game's board, kept as the local copy of the game
+   * @param executor      applies the server's messages to the model, in order
+   * @param timeoutMillis the longest time to wait to connect, and then to be seated
+   * @return the client, seated at the game
+   * @throws IOException              if the server cannot be reached, does not answer in
+   *                                  time or refuses the join
+   * @throws IllegalArgumentException if the model is not Restorable
+   */
+  private static GameClient join(InetSocketAddress address, int gameId, long token,
+                                 IReversiModel model, Executor executor, int timeoutMillis)
+          throws IOException {
+    if (!(model instanceof Restorable)) {
+      throw new IllegalArgumentException("Model cannot be restored");
+    }
+    SocketChannel channel = Protocol.connect(address, timeoutMillis);
+    GameClient client = new GameClient(channel, model, executor);
+    try {
+      channel.socket().setTcpNoDelay(true);
+      client.send(Protocol.join(gameId, client.layout.getKind(), client.layout.getSize(),
+              token));
+      ByteBuffer frame = Protocol.readReply(channel, client.in, timeoutMillis);
+      if (frame == null) {
+        throw new IOException("Server closed the connection");
+      }
+      byte type = frame.get();
+      if (type == Protocol.ERROR) {
+        throw new IOException("Server refused to join: " + Protocol.text(frame));
+      }
+      if (type != Protocol.WELCOME) {
+        throw new IOException("Unexpected message type " + type);
+      }
+      client.gameId = frame.getInt();
+      client.color = BoardLayout.cellOf(frame.get());
+      client.token = frame.getLong();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    client.reader = new Thread(client::receive, "game-client-" + gameId);
+    client.reader.setDaemon(true);
+    client.reader.start();
+    return client;
+  }
+
+  /**
+   * Gets the id of the game the client joined.
+   *
+   * @return the id
+   */
+  public int getGameId() {
+    return gameId;
+  }
+
+  /**
+   * Gets the color this client plays.
+   *
+   * @return BLACK or WHITE
+   */
+  public Cell getColor() {
+    return color;
+  }
+
+  /**
+   * Gets the token the server gave this client's seat, with which the player can take the
+   * seat again after disconnecting. Whoever has it can play as this client.
+   *
+   * @return the token
+   */
+  public long getRejoinToken() {
+    return token;
+  }
+
+  /**
+   * Gets the local copy of the game, which changes as the server reports moves.
+   *
+   * @return the model given when connecting
+   */
+  public IReversiModel getModel() {
+    return model;
+  }
+
+  /**
+   * Adds a listener told each time the local model is replaced with the server's state,
+   * which is not reported as moves, such as when rejoining a game in progress.
+   *
+   * @param listener the listener, run by the executor after the model is updated
+   */
+  public void addSyncListener(Runnable listener) {
+    syncListeners.add(listener);
+  }
+
+  /**
+   * Asks the server to play a move for this client.
+   *
+   * @param pos the position to play
+   * @throws IOException if the request cannot be sent
+   */
+  public void sendMove(IPosition pos) throws IOException {
+    sendTurn(Protocol.move(layout.indexOf(pos)));
+  }
+
+  /**
+   * Asks the server to pass this client's turn.
+   *
+   * @throws IOException if the request cannot be sent
+   */
+  public void sendPass() throws IOException {
+    sendTurn(Protocol.pass());
+  }
+
+  /**
+   * Waits until it is this client's turn in the local model or the game is over. After a
+   * move is sent, it is not this client's turn again until the server has answered.
+   *
+   * @param timeoutMillis the longest time to wait
+   * @return true if it is this client's turn
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean awaitTurn(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (!isMyTurn() && !gameOver) {
+      long left = deadline - System.currentTimeMillis();
+      if (left <= 0 || !reader.isAlive()) {
+        return false;
+      }
+      wait(left);
+    }
+    return isMyTurn();
+  }
+
+  /**
+   * Waits until the server has answered the last move or pass this client sent, by
+   * playing it or refusing it, so that the local model shows what became of it.
+   *
+   * @param timeoutMillis the longest time to wait
+   * @return true if nothing sent is waiting for an answer
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean awaitAnswer(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (pending) {
+      long left = deadline - System.currentTimeMillis();
+      if (left <= 0 || !reader.isAlive()) {
+        return false;
+      }
+      wait(left);
+    }
+    return true;
+  }
+
+  /**
+   * Waits until the server reports that the game is over.
+   *
+   * @param timeoutMillis the longest time to wait
+   * @return true if the game is over
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean awaitGameOver(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (!gameOver) {
+      long left = deadline - System.currentTimeMillis();
+      if (left <= 0 || !reader.isAlive()) {
+        return false;
+      }
+      wait(left);
+    }
+    return true;
+  }
+
+  /**
+   * Takes this client's turn if it is its turn and no move it sent is waiting for an
+   * answer, so that a player is asked for one move a turn even when it is prompted both
+   * by a move and by a resync.
+   *
+   * @return true if the turn was taken, and a move or pass should now be sent
+   */
+  synchronized boolean claimTurn() {
+    if (!isMyTurn()) {
+      return false;
+    }
+    pending = true;
+    return true;
+  }
+
+  /**
+   * Gets the last error the server reported, such as a move out of turn.
+   *
+   * @return the error, or empty if there was none
+   */
+  public Optional<String> getLastError() {
+    return Optional.ofNullable(lastError);
+  }
+
+  /**
+   * Disconnects from the server. The game goes on without this client, which can join it
+   * again with {@link #rejoin}.
+   *
+   * @throws IOException if the connection cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Checks whether the local model says it is this client's turn.
+   *
+   * @return true if the game is in progress and this client is to move
+   */
+  private boolean isMyTurn() {
+    return started && !pending && !model.isGameOver() && model.getCurrentTurn() == color;
+  }
+
+  /**
+   * Sends a move or pass, marking it as waiting for the server's answer.
+   *
+   * @param message the message
+   * @throws IOException if writing fails
+   */
+  private void sendTurn(ByteBuffer message) throws IOException {
+    synchronized (this) {
+      pending = true;
+    }
+    send(message);
+  }
+
+  /**
+   * Writes a message.
+   *
+   * @param message the message
+   * @throws IOException if writing fails
+   */
+  private void send(ByteBuffer message) throws IOException {
+    synchronized (sendLock) {
+      while (message.hasRemaining()) {
+        channel.write(message);
+      }
+    }
+  }
+
+  /**
+   * Reads the server's messages until the connection closes, handing each to the
+   * executor.
+   */
+  private void receive() {
+    try {
+      ByteBuffer frame;
+      while ((frame = Protocol.readFrame(channel, in)) != null) {
+        ByteBuffer message = frame;
+        executor.execute(() -> apply(message));
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      //the connection is closed or broken; the game goes on without this client
+    }
+    synchronized (this) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Applies one message from the server to the local model.
+   *
+   * @param frame the message's type and payload
+   */
+  private void apply(ByteBuffer frame) {
+    boolean synced = false;
+    synchronized (this) {
+      byte type = frame.get();
+      switch (type) {
+        case Protocol.STATE:
+          byte[] snapshot = new byte[frame.remaining()];
+          frame.get(snapshot);
+          //the snapshot says the game has started, so a rejoined game is not restarted first
+          ((Restorable) model).restore(snapshot);
+          started = true;
+          synced = true;
+          break;
+        case Protocol.MOVE:
+          pending = false;
+          model.executeMove(layout.position(frame.getShort()));
+          break;
+        case Protocol.PASS:
+          pending = false;
+          model.passTurn();
+          break;
+        case Protocol.GAME_OVER:
+          gameOver = true;
+          break;
+        case Protocol.ERROR:
+          pending = false;
+          lastError = Protocol.text(frame);
+          break;
+        default:
+          break;
+      }
+      notifyAll();
+    }
+    if (synced) {
+      for (Runnable listener : syncListeners) {
+        listener.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,667 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import controller.MoveEventListener;
+import model.BoardLayout;
+import model.Cell;
+import model.IReversiModel;
+import model.MoveEvent;
+import model.ReadOnlyReversiModel;
+import model.Restorable;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Hosts many games for remote players on one thread, with a non-blocking selector loop,
+ * speaking the messages of {@link Protocol}. A game is created by the first client to join
+ * its id, which plays black; the second plays white, and the game starts when both have
+ * joined. The server's model of each game is the only one that decides what is legal:
+ * moves and passes from clients are checked and applied, and every change is sent to both
+ * players. Each seat is given a random token in its WELCOME, and a player who disconnects
+ * from a game in progress can join it again with that token and is sent its state; nobody
+ * else can take the seat. A game in progress that nobody is seated at is dropped once it
+ * has been abandoned for a while, and no more than a set number of games are hosted at
+ * once. Any number of clients can watch a game through its {@link SpectatorHub}. Each
+ * connection costs a small read buffer and whatever it has yet to be sent; a player that
+ * lets too much build up is disconnected, and a spectator is sent a keyframe instead.
+ */
+public final class GameServer implements Closeable {
+  private static final int READ_BYTES = 64; //longer than any message from a client
+  private static final int MAX_QUEUED_BYTES = 1 << 16;
+  private static final int SPECTATOR_LAG_BYTES = 1 << 12;
+  private static final int DEFAULT_MAX_GAMES = 10000;
+  private static final long DEFAULT_ABANDON_MILLIS = 5 * 60 * 1000;
+  private static final long MAX_SWEEP_MILLIS = 1000; //how often abandoned games are looked at
+
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final Map<Integer, HostedGame> games;
+  private final Map<Integer, HostedGame> abandoned; //oldest first; only used by the thread
+  private final SecureRandom tokens;
+  private final int maxGames;
+  private final long abandonNanos;
+  private final long sweepMillis;
+  private final Thread thread;
+  private volatile boolean running;
+  private volatile int connections; //only changed by the server thread
+
+  /**
+   * Constructs a GameServer listening on the given address, hosting up to 10000 games and
+   * dropping a game in progress five minutes after its last player leaves. Call
+   * {@link #start} to begin serving.
+   *
+   * @param address the address to listen on; port 0 picks a free port
+   * @throws IOException if the address cannot be bound
+   */
+  public GameServer(InetSocketAddress address) throws IOException {
+    this(address, DEFAULT_MAX_GAMES, DEFAULT_ABANDON_MILLIS);
+  }
+
+  /**
+   * Constructs a GameServer listening on the given address. Call {@link #start} to begin
+   * serving.
+   *
+   * @param address       the address to listen on; port 0 picks a free port
+   * @param maxGames      the most games hosted at once; a join that would create another is
+   *                      refused
+   * @param abandonMillis how long a game in progress is kept for its players to join again
+   *                      after the last of them leaves
+   * @throws IOException              if the address cannot be bound
+   * @throws IllegalArgumentException if maxGames or abandonMillis is not positive
+   */
+  public GameServer(InetSocketAddress address, int maxGames, long abandonMillis)
+          throws IOException {
+    if (maxGames <= 0 || abandonMillis <= 0) {
+      throw new IllegalArgumentException("Limits must be positive");
+    }
+    this.maxGames = maxGames;
+    this.abandonNanos = abandonMillis * 1000000;
+    this.sweepMillis = Math.min(abandonMillis, MAX_SWEEP_MILLIS);
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    try {
+      serverChannel.bind(address, 1024);
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      serverChannel.close();
+      selector.close();
+      throw e;
+    }
+    this.games = new ConcurrentHashMap<>();
+    this.abandoned = new LinkedHashMap<>();
+    this.tokens = new SecureRandom();
+    this.thread = new Thread(this::run, "game-server");
+  }
+
+  /**
+   * Starts serving on a thread of its own.
+   *
+   * @throws IllegalStateException if the server was already started
+   */
+  public void start() {
+    if (running || thread.isAlive()) {
+      throw new IllegalStateException("Server already started");
+    }
+    running = true;
+    thread.start();
+  }
+
+  /**
+   * Gets the address the server listens on.
+   *
+   * @return the address, with the actual port
+   * @throws IOException if the server has been closed
+   */
+  public InetSocketAddress getAddress() throws IOException {
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  /**
+   * Gets the number of games being hosted, started or waiting for a second player.
+   *
+   * @return the number of games
+   */
+  public int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * Gets the number of connected clients.
+   *
+   * @return the number of connections
+   */
+  public int getConnectionCount() {
+    return connections;
+  }
+
+  /**
+   * Gets the server's model of a game, such as for monitoring. The model is changed by the
+   * server thread.
+   *
+   * @param gameId the game's id
+   * @return the model, or empty if there is no such game
+   */
+  public Optional<ReadOnlyReversiModel> getGame(int gameId) {
+    HostedGame game = games.get(gameId);
+    return game == null ? Optional.empty() : Optional.of(game.model);
+  }
+
+  /**
+   * Stops serving and disconnects every client.
+   *
+   * @throws IOException if the server cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    selector.wakeup();
+    if (thread.isAlive() && Thread.currentThread() != thread) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    for (SelectionKey key : selector.keys()) {
+      key.channel().close();
+    }
+    selector.close();
+    serverChannel.close();
+  }
+
+  /**
+   * Runs the selector loop until the server is closed.
+   */
+  private void run() {
+    while (running) {
+      try {
+        selector.select(sweepMillis);
+      } catch (IOException e) {
+        return;
+      }
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+        if (!key.isValid()) {
+          continue;
+        }
+        if (key.isAcceptable()) {
+          accept();
+          continue;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+          if (key.isReadable()) {
+            read(connection);
+          }
+          if (key.isValid() && key.isWritable()) {
+            flush(connection);
+          }
+        } catch (IOException | RuntimeException e) {
+          disconnect(connection); //whatever went wrong, only this client is cut off
+        }
+      }
+      dropAbandoned();
+    }
+  }
+
+  /**
+   * Accepts the waiting connections.
+   */
+  private void accept() {
+    try {
+      SocketChannel channel;
+      while ((channel = serverChannel.accept()) != null) {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        connections++;
+      }
+    } catch (IOException e) {
+      //the client went away before it could be accepted; keep serving the others
+    }
+  }
+
+  /**
+   * Reads what a client sent and handles each whole message.
+   *
+   * @param connection the client
+   * @throws IOException if reading fails or the client sent something malformed
+   */
+  private void read(Connection connection) throws IOException {
+    ByteBuffer in = connection.in;
+    if (connection.channel.read(in) < 0) {
+      disconnect(connection);
+      return;
+    }
+    in.flip();
+    try {
+      ByteBuffer frame;
+      while (connection.key.isValid() && (frame = Protocol.nextFrame(in)) != null) {
+        handle(connection, frame);
+      }
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      throw new IOException("Malformed message", e);
+    }
+    in.compact();
+    if (!in.hasRemaining()) {
+      throw new IOException("Message is too long");
+    }
+  }
+
+  /**
+   * Handles one message from a client.
+   *
+   * @param connection the client
+   * @param frame      the message's type and payload
+   */
+  private void handle(Connection connection, ByteBuffer frame) {
+    byte type = frame.get();
+    if (type == Protocol.JOIN) {
+      join(connection, frame.getInt(), frame.get(), frame.getShort(), frame.getLong());
+      return;
+    }
+    if (type == Protocol.WATCH) {
+      watch(connection, frame.getInt());
+      return;
+    }
+    if (type != Protocol.MOVE && type != Protocol.PASS) {
+      throw new IllegalArgumentException("Unknown message type " + type);
+    }
+    HostedGame game = connection.game;
+    if (game == null || !game.started || game.model.isGameOver()) {
+      send(connection, Protocol.error("No game in progress"));
+      return;
+    }
+    if (game.model.getCurrentTurn() != connection.seat) {
+      send(connection, Protocol.error("Not your turn"));
+      return;
+    }
+    try {
+      if (type == Protocol.MOVE) {
+        int cell = frame.getShort();
+        if (cell < 0 || cell >= game.layout.getCellCount()) {
+          throw new IllegalArgumentException("No such cell");
+        }
+        game.model.executeMove(game.layout.position(cell));
+      } else {
+        game.model.passTurn();
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      send(connection, Protocol.error("Illegal move"));
+    }
+  }
+
+  /**
+   * Seats a client in a game, creating the game if it is new and starting it once both
+   * seats are taken. A seat of a game in progress is only given back to the client holding
+   * its token.
+   *
+   * @param connection the client
+   * @param gameId     the game's id
+   * @param kind       the ordinal of the board's kind
+   * @param size       the board's size
+   * @param token      the seat's token, or 0 for a new seat
+   */
+  private void join(Connection connection, int gameId, int kind, int size, long token) {
+    if (connection.game != null || connection.watching != null) {
+      send(connection, Protocol.error("Already in a game"));
+      return;
+    }
+    if (!Protocol.isBoard(kind, size)) {
+      send(connection, Protocol.error("No such board"));
+      return;
+    }
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.values()[kind], size);
+    HostedGame game = games.get(gameId);
+    if (game == null) {
+      if (token != 0) {
+        send(connection, Protocol.error("No such game"));
+        return;
+      }
+      if (games.size() >= maxGames) {
+        send(connection, Protocol.error("Server is full"));
+        return;
+      }
+      game = new HostedGame(gameId, layout);
+      games.put(gameId, game);
+    }
+    if (game.layout != layout) {
+      send(connection, Protocol.error("Game is on another board"));
+      return;
+    }
+    if (token != 0) {
+      if (token == game.blackToken && game.black == null) {
+        game.black = connection;
+        connection.seat = Cell.BLACK;
+      } else if (token == game.whiteToken && game.white == null) {
+        game.white = connection;
+        connection.seat = Cell.WHITE;
+      } else {
+        send(connection, Protocol.error("No free seat for that token"));
+        return;
+      }
+    } else if (game.started) {
+      send(connection, Protocol.error("Game is full")); //the seats are kept for their players
+      return;
+    } else if (game.black == null) {
+      game.black = connection;
+      game.blackToken = newToken();
+      connection.seat = Cell.BLACK;
+    } else if (game.white == null) {
+      game.white = connection;
+      game.whiteToken = newToken();
+      connection.seat = Cell.WHITE;
+    } else {
+      send(connection, Protocol.error("Game is full"));
+      return;
+    }
+    connection.game = game;
+    abandoned.remove(gameId);
+    send(connection, Protocol.welcome(gameId, connection.seat,
+            connection.seat == Cell.BLACK ? game.blackToken : game.whiteToken));
+    if (game.started) {
+      send(connection, Protocol.state(((Restorable) game.model).snapshot()));
+      if (game.model.isGameOver()) {
+        send(connection, Protocol.gameOver(game.model.getScore(Cell.BLACK),
+                game.model.getScore(Cell.WHITE)));
+      }
+    } else if (game.black != null && game.white != null) {
+      game.model.startGame();
+    }
+  }
+
+  /**
+   * Makes a token for a seat, which cannot be guessed and is never 0.
+   *
+   * @return the token
+   */
+  private long newToken() {
+    long token;
+    do {
+      token = tokens.nextLong();
+    } while (token == 0);
+    return token;
+  }
+
+  /**
+   * Adds a client to the spectators of a game.
+   *
+   * @param connection the client
+   * @param gameId     the game's id
+   */
+  private void watch(Connection connection, int gameId) {
+    if (connection.game != null || connection.watching != null) {
+      send(connection, Protocol.error("Already in a game"));
+      return;
+    }
+    HostedGame game = games.get(gameId);
+    if (game == null) {
+      send(connection, Protocol.error("No such game"));
+      return;
+    }
+    connection.watching = game;
+    send(connection, Protocol.watching(gameId, game.layout));
+    game.spectators.add(connection);
+  }
+
+  /**
+   * Sends a message to a client, queueing what the socket cannot take yet.
+   *
+   * @param connection the client
+   * @param message    the message, which is not changed
+   */
+  private void send(Connection connection, ByteBuffer message) {
+    if (!connection.key.isValid()) {
+      return;
+    }
+    ByteBuffer pending = message.duplicate();
+    try {
+      if (connection.out.isEmpty()) {
+        connection.channel.write(pending);
+      }
+      if (pending.hasRemaining()) {
+        connection.out.add(pending);
+        connection.queuedBytes += pending.remaining();
+        if (connection.queuedBytes > MAX_QUEUED_BYTES) {
+          throw new IOException("Client is not reading");
+        }
+        connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    } catch (IOException e) {
+      disconnect(connection);
+    }
+  }
+
+  /**
+   * Writes queued messages to a client that can take more.
+   *
+   * @param connection the client
+   * @throws IOException if writing fails
+   */
+  private void flush(Connection connection) throws IOException {
+    while (!connection.out.isEmpty()) {
+      ByteBuffer head = connection.out.peek();
+      int written = connection.channel.write(head);
+      connection.queuedBytes -= written;
+      if (head.hasRemaining()) {
+        return;
+      }
+      connection.out.poll();
+    }
+    connection.key.interestOps(SelectionKey.OP_READ);
+    if (connection.watching != null) {
+      connection.watching.spectators.drained(connection);
+    }
+  }
+
+  /**
+   * Closes a client's connection and frees its seat. A game nobody is seated at is dropped
+   * unless it is in progress, in which case it is kept for a while so it can be joined
+   * again.
+   *
+   * @param connection the client
+   */
+  private void disconnect(Connection connection) {
+    if (!connection.key.isValid()) {
+      return;
+    }
+    connection.key.cancel();
+    connections--;
+    try {
+      connection.channel.close();
+    } catch (IOException e) {
+      //already closed
+    }
+    if (connection.watching != null) {
+      connection.watching.spectators.remove(connection);
+      dropIfIdle(connection.watching);
+    }
+    HostedGame game = connection.game;
+    if (game == null) {
+      return;
+    }
+    if (game.black == connection) {
+      game.black = null;
+    } else if (game.white == connection) {
+      game.white = null;
+    }
+    dropIfIdle(game);
+  }
+
+  /**
+   * Drops a game that nobody is seated at or watching, unless it is in progress and so can
+   * be joined again, in which case it is marked as abandoned from now.
+   *
+   * @param game the game
+   */
+  private void dropIfIdle(HostedGame game) {
+    if (games.get(game.id) != game || game.black != null || game.white != null) {
+      return;
+    }
+    if (game.started && !game.model.isGameOver()) {
+      if (!abandoned.containsKey(game.id)) {
+        game.abandonedAt = System.nanoTime();
+        abandoned.put(game.id, game);
+      }
+    } else if (game.spectators.size() == 0) {
+      games.remove(game.id);
+    }
+  }
+
+  /**
+   * Drops the games that have been abandoned for too long, disconnecting their spectators.
+   */
+  private void dropAbandoned() {
+    long now = System.nanoTime();
+    Iterator<HostedGame> oldest = abandoned.values().iterator();
+    while (oldest.hasNext()) {
+      HostedGame game = oldest.next();
+      if (now - game.abandonedAt < abandonNanos) {
+        return;
+      }
+      oldest.remove();
+      games.remove(game.id);
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof Connection
+                && ((Connection) key.attachment()).watching == game) {
+          disconnect((Connection) key.attachment());
+        }
+      }
+    }
+  }
+
+  /**
+   * A connected client.
+   */
+  private final class Connection implements SpectatorHub.Subscriber {
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(READ_BYTES);
+    private final ArrayDeque<ByteBuffer> out = new ArrayDeque<>(2); //not yet written
+    private SelectionKey key;
+    private int queuedBytes;
+    private HostedGame game; //null until the client joins a game
+    private Cell seat;
+    private HostedGame watching; //null unless the client is a spectator
+
+    /**
+     * Constructs a Connection.
+     *
+     * @param channel the client's channel
+     */
+    Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public int getQueuedBytes() {
+      return queuedBytes;
+    }
+
+    @Override
+    public void send(ByteBuffer message) {
+      GameServer.this.send(this, message);
+    }
+
+    @Override
+    public void dropQueued() {
+      ByteBuffer head = out.peek();
+      out.clear();
+      queuedBytes = 0;
+      if (head != null && head.position() > 0) {
+        out.add(head); //partly written, so the rest must follow
+        queuedBytes = head.remaining();
+      }
+    }
+  }
+
+  /**
+   * A game and the clients seated at it. Its model is only changed by the server thread,
+   * which also hears its events and sends them to the players.
+   */
+  private final class HostedGame implements MoveEventListener {
+    private final int id;
+    private final BoardLayout layout;
+    private final IReversiModel model;
+    private final SpectatorHub spectators;
+    private boolean started;
+    private Connection black; //null while the seat is free
+    private Connection white;
+    private long blackToken; //0 until the seat is first taken
+    private long whiteToken;
+    private long abandonedAt; //System.nanoTime when the last player left a game in progress
+
+    /**
+     * Constructs a HostedGame with a new model of the given board.
+     *
+     * @param id     the game's id
+     * @param layout the board
+     */
+    HostedGame(int id, BoardLayout layout) {
+      this.id = id;
+      this.layout = layout;
+      this.model = layout.getKind() == BoardLayout.Kind.HEXAGON
+              ? new ReversiModel(layout.getSize()) : new SquareReversiModel(layout.getSize());
+      this.spectators = new SpectatorHub(layout, model, SPECTATOR_LAG_BYTES);
+      model.addMoveEventListener(this);
+    }
+
+    @Override
+    public void moveMade(MoveEvent event) {
+      ByteBuffer message;
+      switch (event.getKind()) {
+        case START:
+          started = true;
+          message = Protocol.state(((Restorable) model).snapshot());
+          break;
+        case MOVE:
+          message = Protocol.move(layout.indexOf(event.getMove().get()));
+          break;
+        default:
+          message = Protocol.pass();
+          break;
+      }
+      broadcast(message);
+      spectators.publish(event);
+      if (model.isGameOver()) {
+        ByteBuffer gameOver = Protocol.gameOver(event.getScore(Cell.BLACK),
+                event.getScore(Cell.WHITE));
+        broadcast(gameOver);
+        spectators.broadcast(gameOver);
+      }
+    }
+
+    /**
+     * Sends a message to both players.
+     *
+     * @param message the message
+     */
+    private void broadcast(ByteBuffer message) {
+      if (black != null) {
+        send(black, message);
+      }
+      if (white != null) {
+        send(white, message);
+      }
+    }
+  }
+}
@@ -0,0 +1,360 @@
+package server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+import model.BoardLayout;
+import model.Cell;
+
+/**
+ * The binary messages that game clients and the game server exchange. Every message is a
+ * frame: an unsigned short length, then a byte type and the payload, big-endian, so a move
+ * takes five bytes on the wire. Cells are indexes into the {@link BoardLayout} of the game.
+ * From a client: JOIN (int game id, byte board kind, short board size, long rejoin token, or
+ * 0 for a new seat), MOVE (short cell), PASS and WATCH (int game id). From the server:
+ * WELCOME (int game id, byte color, long rejoin token), STATE (a model snapshot), MOVE and
+ * PASS as made by either player, GAME_OVER (short black score, short white score) and
+ * ERROR (UTF-8 text). Spectators are sent WATCHING (int game id, byte board kind, short
+ * board size), then a KEYFRAME (byte color to move, then two bits per cell, four cells to
+ * a byte) and a DELTA per change (byte color to move, then a short per changed cell
+ * holding its index shifted left by two and its new color). The color to move is 0 before
+ * the game starts and after it ends. A board's size is at most MAX_BOARD_SIZE, and a JOIN
+ * for a larger one is refused with an ERROR.
+ * Between a game host and an {@link AiWorker}: MOVE_REQUEST (int request id, byte color to
+ * choose for, byte board kind, short board size, short spec length, the strategy spec in
+ * UTF-8, then a model snapshot) is answered by MOVE_REPLY (int request id, short cell, or
+ * -1 to pass) or REQUEST_FAILED (int request id, byte failure code). A failure carries a
+ * code rather than text, so nothing the worker reads or builds ever goes back to a host.
+ */
+final class Protocol {
+  static final byte JOIN = 1;
+  static final byte MOVE = 2;
+  static final byte PASS = 3;
+  static final byte WATCH = 4;
+  static final byte WELCOME = 16;
+  static final byte STATE = 17;
+  static final byte GAME_OVER = 18;
+  static final byte ERROR = 19;
+  static final byte WATCHING = 20;
+  static final byte KEYFRAME = 21;
+  static final byte DELTA = 22;
+  static final byte MOVE_REQUEST = 32;
+  static final byte MOVE_REPLY = 33;
+  static final byte REQUEST_FAILED = 34;
+  static final byte FAILED_BAD_REQUEST = 1; //malformed, or a strategy the worker cannot build
+  static final byte FAILED_STRATEGY = 2; //the strategy failed while choosing
+  static final int LENGTH_BYTES = 2;
+  static final int MAX_FRAME = 0xFFFF; //longest type and payload
+  //largest board of either kind whose cell indexes fit the 14 bits a DELTA entry has for
+  //them, which also keeps every message about the board well under MAX_FRAME
+  static final int MAX_BOARD_SIZE = 63;
+  static final int CONNECT_TIMEOUT_MILLIS = 10000; //to connect, and to be answered
+
+  private Protocol() {
+  }
+
+  /**
+   * Starts a frame.
+   *
+   * @param type        the message type
+   * @param payloadSize the size of the payload
+   * @return a buffer with the length and type written, and room for the payload
+   */
+  private static ByteBuffer frame(byte type, int payloadSize) {
+    if (payloadSize + 1 > MAX_FRAME) {
+      throw new IllegalArgumentException("Message is too long");
+    }
+    ByteBuffer frame = ByteBuffer.allocate(LENGTH_BYTES + 1 + payloadSize);
+    return frame.putShort((short) (payloadSize + 1)).put(type);
+  }
+
+  /**
+   * Checks that a board named in a message is one the protocol can describe.
+   *
+   * @param kind the ordinal of the board's kind
+   * @param size the board's size
+   * @return true if the kind exists and the size is from 1 to MAX_BOARD_SIZE
+   */
+  static boolean isBoard(int kind, int size) {
+    return kind >= 0 && kind < BoardLayout.Kind.values().length && size > 0
+            && size <= MAX_BOARD_SIZE;
+  }
+
+  /**
+   * Builds a JOIN message.
+   *
+   * @param gameId the game to join
+   * @param kind   the shape of the board
+   * @param size   the size of the board
+   * @param token  the token the seat was given when first taken, or 0 to take a new seat
+   * @return the message, ready to write
+   */
+  static ByteBuffer join(int gameId, BoardLayout.Kind kind, int size, long token) {
+    return frame(JOIN, 15).putInt(gameId).put((byte) kind.ordinal()).putShort((short) size)
+            .putLong(token).flip();
+  }
+
+  /**
+   * Builds a MOVE message.
+   *
+   * @param cell the cell played
+   * @return the message, ready to write
+   */
+  static ByteBuffer move(int cell) {
+    return frame(MOVE, 2).putShort((short) cell).flip();
+  }
+
+  /**
+   * Builds a PASS message.
+   *
+   * @return the message, ready to write
+   */
+  static ByteBuffer pass() {
+    return frame(PASS, 0).flip();
+  }
+
+  /**
+   * Builds a WATCH message.
+   *
+   * @param gameId the game to watch
+   * @return the message, ready to write
+   */
+  static ByteBuffer watch(int gameId) {
+    return frame(WATCH, 4).putInt(gameId).flip();
+  }
+
+  /**
+   * Builds a WELCOME message.
+   *
+   * @param gameId the game joined
+   * @param color  the color the client plays
+   * @param token  the token that proves the client held this seat, to join again with
+   * @return the message, ready to write
+   */
+  static ByteBuffer welcome(int gameId, Cell color, long token) {
+    return frame(WELCOME, 13).putInt(gameId).put((byte) BoardLayout.colorOf(color))
+            .putLong(token).flip();
+  }
+
+  /**
+   * Builds a STATE message.
+   *
+   * @param snapshot the snapshot of the game's model
+   * @return the message, ready to write
+   */
+  static ByteBuffer state(byte[] snapshot) {
+    return frame(STATE, snapshot.length).put(snapshot).flip();
+  }
+
+  /**
+   * Builds a GAME_OVER message.
+   *
+   * @param scoreBlack black's final score
+   * @param scoreWhite white's final score
+   * @return the message, ready to write
+   */
+  static ByteBuffer gameOver(int scoreBlack, int scoreWhite) {
+    return frame(GAME_OVER, 4).putShort((short) scoreBlack).putShort((short) scoreWhite)
+            .flip();
+  }
+
+  /**
+   * Builds an ERROR message.
+   *
+   * @param text what went wrong
+   * @return the message, ready to write
+   */
+  static ByteBuffer error(String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    return frame(ERROR, bytes.length).put(bytes).flip();
+  }
+
+  /**
+   * Builds a WATCHING message.
+   *
+   * @param gameId the game watched
+   * @param layout the game's board
+   * @return the message, ready to write
+   */
+  static ByteBuffer watching(int gameId, BoardLayout layout) {
+    return frame(WATCHING, 7).putInt(gameId).put((byte) layout.getKind().ordinal())
+            .putShort((short) layout.getSize()).flip();
+  }
+
+  /**
+   * Builds a KEYFRAME message.
+   *
+   * @param turn  the color to move, or 0
+   * @param cells the packed cells
+   * @return the message, ready to write
+   */
+  static ByteBuffer keyframe(int turn, byte[] cells) {
+    return frame(KEYFRAME, 1 + cells.length).put((byte) turn).put(cells).flip();
+  }
+
+  /**
+   * Starts a DELTA message.
+   *
+   * @param turn  the color to move, or 0
+   * @param cells the number of changed cells
+   * @return the message, with room for a short per cell, to be flipped once they are put
+   */
+  static ByteBuffer delta(int turn, int cells) {
+    return frame(DELTA, 1 + 2 * cells).put((byte) turn);
+  }
+
+  /**
+   * Builds a MOVE_REQUEST message.
+   *
+   * @param requestId the id the reply will carry
+   * @param color     the color to choose a move for
+   * @param layout    the board
+   * @param spec      the strategy spec
+   * @param snapshot  the snapshot of the position
+   * @return the message, ready to write
+   */
+  static ByteBuffer moveRequest(int requestId, int color, BoardLayout layout, String spec,
+                                byte[] snapshot) {
+    byte[] specBytes = spec.getBytes(StandardCharsets.UTF_8);
+    return frame(MOVE_REQUEST, 10 + specBytes.length + snapshot.length).putInt(requestId)
+            .put((byte) color).put((byte) layout.getKind().ordinal())
+            .putShort((short) layout.getSize()).putShort((short) specBytes.length)
+            .put(specBytes).put(snapshot).flip();
+  }
+
+  /**
+   * Builds a MOVE_REPLY message.
+   *
+   * @param requestId the id of the request
+   * @param cell      the chosen cell, or -1 to pass
+   * @return the message, ready to write
+   */
+  static ByteBuffer moveReply(int requestId, int cell) {
+    return frame(MOVE_REPLY, 6).putInt(requestId).putShort((short) cell).flip();
+  }
+
+  /**
+   * Builds a REQUEST_FAILED message.
+   *
+   * @param requestId the id of the request
+   * @param code      FAILED_BAD_REQUEST or FAILED_STRATEGY
+   * @return the message, ready to write
+   */
+  static ByteBuffer requestFailed(int requestId, byte code) {
+    return frame(REQUEST_FAILED, 5).putInt(requestId).put(code).flip();
+  }
+
+  /**
+   * Takes the next whole frame from received bytes.
+   *
+   * @param in the received bytes, ready to read; its position is moved past the frame
+   * @return the frame's type and payload, or null if the frame has not fully arrived
+   */
+  static ByteBuffer nextFrame(ByteBuffer in) {
+    if (in.remaining() < LENGTH_BYTES) {
+      return null;
+    }
+    int length = in.getShort(in.position()) & 0xFFFF;
+    if (length == 0) {
+      throw new IllegalArgumentException("Empty frame");
+    }
+    if (in.remaining() < LENGTH_BYTES + length) {
+      return null;
+    }
+    ByteBuffer frame = in.slice();
+    frame.position(LENGTH_BYTES).limit(LENGTH_BYTES + length);
+    in.position(in.position() + LENGTH_BYTES + length);
+    return frame.slice();
+  }
+
+  /**
+   * Reads from a blocking channel until a whole frame has arrived.
+   *
+   * @param channel the channel
+   * @param in      the bytes received so far, ready to write into, large enough for any
+   *                frame
+   * @return a copy of the frame's type and payload, or null if the channel closed
+   * @throws IOException if reading fails
+   */
+  static ByteBuffer readFrame(ReadableByteChannel channel, ByteBuffer in) throws IOException {
+    while (true) {
+      in.flip();
+      ByteBuffer frame = nextFrame(in);
+      if (frame != null) {
+        ByteBuffer copy = ByteBuffer.allocate(frame.remaining()).put(frame).flip();
+        in.compact();
+        return copy;
+      }
+      in.compact();
+      if (channel.read(in) < 0) {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Connects a blocking channel to a server, giving up if it takes too long.
+   *
+   * @param address       the server's address
+   * @param timeoutMillis the longest time to wait
+   * @return the connected channel
+   * @throws IOException if the server cannot be reached in time
+   */
+  static SocketChannel connect(InetSocketAddress address, int timeoutMillis)
+          throws IOException {
+    SocketChannel channel = SocketChannel.open();
+    try {
+      channel.socket().connect(address, timeoutMillis);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return channel;
+  }
+
+  /**
+   * Reads the frame a server answers a new connection with, giving up if it does not come
+   * in time.
+   *
+   * @param channel       the connected, blocking channel
+   * @param in            the bytes received so far, as for readFrame
+   * @param timeoutMillis the longest time to wait
+   * @return a copy of the frame's type and payload, or null if the channel closed
+   * @throws IOException if reading fails or the frame does not arrive in time
+   */
+  static ByteBuffer readReply(SocketChannel channel, ByteBuffer in, int timeoutMillis)
+          throws IOException {
+    Socket socket = channel.socket();
+    socket.setSoTimeout(timeoutMillis);
+    ByteBuffer frame = readFrame(Channels.newChannel(socket.getInputStream()), in);
+    socket.setSoTimeout(0);
+    return frame;
+  }
+
+  /**
+   * Allocates a buffer that can hold any frame, for readFrame.
+   *
+   * @return the buffer
+   */
+  static ByteBuffer frameBuffer() {
+    return ByteBuffer.allocate(LENGTH_BYTES + MAX_FRAME);
+  }
+
+  /**
+   * Reads the text of an ERROR message.
+   *
+   * @param payload the payload
+   * @return the text
+   */
+  static String text(ByteBuffer payload) {
+    byte[] bytes = new byte[payload.remaining()];
+    payload.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,118 @@
+package server;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import controller.BasicController;
+import controller.IPlayer;
+import model.IPosition;
+import model.MoveEvent;
+import view.IReversiFrameView;
+
+/**
+ * A controller for a player of a game hosted by a {@link GameServer}. It is wired to a view
+ * and to the local copy of the game kept by a {@link GameClient}, like a local controller,
+ * but the moves and passes it is given are sent to the server instead of being made on the
+ * model, and the view is updated when the server reports them. A human player's moves come
+ * from the view; an AI player is asked for its move whenever it becomes its turn.
+ */
+public class RemoteController extends BasicController {
+  private final GameClient client;
+
+  /**
+   * Constructs a RemoteController.
+   *
+   * @param client the connection to the game; its model is the model of this controller
+   * @param player the player at this end of the connection, of the client's color
+   * @param view   the view of the local copy of the game
+   * @throws IllegalArgumentException if the player does not play the client's color
+   */
+  public RemoteController(GameClient client, IPlayer player, IReversiFrameView view) {
+    super(client.getModel(), player, view);
+    if (player.getCell() != client.getColor()) {
+      throw new IllegalArgumentException("Player must play the client's color");
+    }
+    this.client = client;
+    client.addSyncListener(this::resynced);
+    playIfAiTurn(); //the game may have been synced before the listener was added
+  }
+
+  /**
+   * Sends a move to the server if it is this player's turn. An illegal move is reported
+   * by the server and leaves the game as it was.
+   *
+   * @param pos The position on the board where the player wants to move.
+   */
+  @Override
+  public void executeMove(IPosition pos) {
+    if (model.getCurrentTurn() == player.getCell() && !player.isAI()) {
+      try {
+        client.sendMove(pos);
+      } catch (IOException e) {
+        view.showTurnIndicator("Lost connection to the server");
+      }
+    }
+  }
+
+  /**
+   * Sends a pass to the server.
+   */
+  @Override
+  public void passTurn() {
+    try {
+      client.sendPass();
+    } catch (IOException e) {
+      view.showTurnIndicator("Lost connection to the server");
+    }
+  }
+
+  /**
+   * Updates the view as a local controller would, then, if it has become an AI player's
+   * turn, sends the move it chooses.
+   *
+   * @param event What changed, and the state of the game afterwards.
+   */
+  @Override
+  public void moveMade(MoveEvent event) {
+    super.moveMade(event);
+    playIfAiTurn();
+  }
+
+  /**
+   * Redraws the view after the local copy of the game was replaced with the server's
+   * state, such as when the game starts or is joined again, then plays if that made it an
+   * AI player's turn.
+   */
+  private void resynced() {
+    updateGameBoard();
+    playIfAiTurn();
+  }
+
+  /**
+   * Sends the move an AI player chooses if it is its turn and it has not yet been asked
+   * for a move this turn.
+   */
+  private void playIfAiTurn() {
+    if (player.isAI() && client.claimTurn()) {
+      Optional<IPosition> move = player.play(model);
+      if (move.isPresent()) {
+        executeAiMove(move.get());
+      } else {
+        passTurn();
+      }
+    }
+  }
+
+  /**
+   * Sends an AI player's move.
+   *
+   * @param pos the chosen position
+   */
+  private void executeAiMove(IPosition pos) {
+    try {
+      client.sendMove(pos);
+    } catch (IOException e) {
+      view.showTurnIndicator("Lost connection to the server");
+    }
+  }
+}
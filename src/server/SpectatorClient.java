@@ -0,0 +1,204 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Optional;
+
+import model.BoardLayout;
+import model.Cell;
+
+/**
+ * A spectator's connection to a game on a {@link GameServer}. It keeps the board as the
+ * server describes it: a keyframe of every cell when it starts watching or has fallen
+ * behind, and a delta of the changed cells after each move.
+ */
+public final class SpectatorClient implements Closeable {
+  private final SocketChannel channel;
+  private final ByteBuffer in; //received bytes, ready to write into
+  private final Thread reader;
+  private BoardLayout layout;
+  private byte[] colors; //the color of each cell; guarded by this
+  private int turn; //the color to move, or EMPTY; guarded by this
+  private boolean gameOver; //guarded by this
+  private int keyframes; //guarded by this
+  private int deltas; //guarded by this
+
+  /**
+   * Connects to a server and starts watching a game.
+   *
+   * @param address the server's address
+   * @param gameId  the game to watch
+   * @throws IOException if the server cannot be reached or answer in time, or there is no
+   *                     such game
+   */
+  public SpectatorClient(InetSocketAddress address, int gameId) throws IOException {
+    this.channel = Protocol.connect(address, Protocol.CONNECT_TIMEOUT_MILLIS);
+    this.in = Protocol.frameBuffer();
+    try {
+      channel.write(Protocol.watch(gameId));
+      ByteBuffer frame = Protocol.readReply(channel, in, Protocol.CONNECT_TIMEOUT_MILLIS);
+      if (frame == null) {
+        throw new IOException("Server closed the connection");
+      }
+      byte type = frame.get();
+      if (type == Protocol.ERROR) {
+        throw new IOException("Server refused to watch: " + Protocol.text(frame));
+      }
+      if (type != Protocol.WATCHING) {
+        throw new IOException("Unexpected message type " + type);
+      }
+      frame.getInt();
+      int kind = frame.get();
+      int size = frame.getShort();
+      if (!Protocol.isBoard(kind, size)) {
+        throw new IOException("Server sent no such board");
+      }
+      this.layout = BoardLayout.of(BoardLayout.Kind.values()[kind], size);
+      this.colors = new byte[layout.getCellCount()];
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    this.reader = new Thread(this::receive, "spectator-" + gameId);
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  /**
+   * Gets the board of the game.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Gets the color of a cell.
+   *
+   * @param cell the cell index
+   * @return BoardLayout.EMPTY, BLACK or WHITE
+   */
+  public synchronized int getColorAt(int cell) {
+    return colors[cell];
+  }
+
+  /**
+   * Gets the player to move.
+   *
+   * @return the player, or empty before the game starts and after it ends
+   */
+  public synchronized Optional<Cell> getTurn() {
+    return turn == BoardLayout.EMPTY ? Optional.empty() : Optional.of(BoardLayout.cellOf(turn));
+  }
+
+  /**
+   * Counts a player's discs.
+   *
+   * @param player BLACK or WHITE
+   * @return the number of cells of that color
+   */
+  public synchronized int getScore(Cell player) {
+    int color = BoardLayout.colorOf(player);
+    int count = 0;
+    for (byte c : colors) {
+      if (c == color) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of keyframes received.
+   *
+   * @return the number of keyframes
+   */
+  public synchronized int getKeyframeCount() {
+    return keyframes;
+  }
+
+  /**
+   * Gets the number of deltas received.
+   *
+   * @return the number of deltas
+   */
+  public synchronized int getDeltaCount() {
+    return deltas;
+  }
+
+  /**
+   * Waits until the server reports that the game is over.
+   *
+   * @param timeoutMillis the longest time to wait
+   * @return true if the game is over
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public synchronized boolean awaitGameOver(long timeoutMillis) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (!gameOver) {
+      long left = deadline - System.currentTimeMillis();
+      if (left <= 0 || !reader.isAlive()) {
+        return false;
+      }
+      wait(left);
+    }
+    return true;
+  }
+
+  /**
+   * Stops watching.
+   *
+   * @throws IOException if the connection cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Reads and applies the server's messages until the connection closes.
+   */
+  private void receive() {
+    try {
+      ByteBuffer frame;
+      while ((frame = Protocol.readFrame(channel, in)) != null) {
+        apply(frame);
+      }
+    } catch (IOException | RuntimeException e) {
+      //the connection is closed or broken
+    }
+    synchronized (this) {
+      notifyAll();
+    }
+  }
+
+  /**
+   * Applies one message to the board.
+   *
+   * @param frame the message's type and payload
+   */
+  private synchronized void apply(ByteBuffer frame) {
+    byte type = frame.get();
+    if (type == Protocol.KEYFRAME) {
+      turn = frame.get();
+      for (int cell = 0; cell < colors.length; cell++) {
+        colors[cell] = (byte) ((frame.get(1 + (cell >> 2)) >> ((cell & 3) * 2)) & 3);
+      }
+      keyframes++;
+    } else if (type == Protocol.DELTA) {
+      turn = frame.get();
+      while (frame.hasRemaining()) {
+        int entry = frame.getShort() & 0xFFFF;
+        colors[entry >> 2] = (byte) (entry & 3);
+      }
+      deltas++;
+    } else if (type == Protocol.GAME_OVER) {
+      gameOver = true;
+    }
+    notifyAll();
+  }
+}
@@ -0,0 +1,195 @@
+package server;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.MoveEvent;
+import model.ReadOnlyReversiModel;
+
+/**
+ * Sends the changes to one game to everyone watching it. Each start, move or pass is
+ * encoded once as a DELTA that lists only the cells that changed, and that one buffer is
+ * shared by every spectator, so the work per move does not grow with the board or with
+ * the audience beyond handing the buffer to each socket. A spectator that falls more than
+ * a set number of bytes behind has its backlog dropped and, once it has caught up with
+ * what was already on its way, is sent a KEYFRAME of the whole board instead, so a slow
+ * spectator costs bounded memory and still ends up with the right board.
+ */
+final class SpectatorHub {
+
+  /**
+   * Someone watching a game, as the hub sees them.
+   */
+  interface Subscriber {
+
+    /**
+     * Gets the bytes queued for this subscriber and not yet written.
+     *
+     * @return the number of bytes
+     */
+    int getQueuedBytes();
+
+    /**
+     * Queues a message for this subscriber.
+     *
+     * @param message the message, which may be shared with other subscribers and must not
+     *                be changed
+     */
+    void send(ByteBuffer message);
+
+    /**
+     * Drops the queued messages that have not started being written.
+     */
+    void dropQueued();
+  }
+
+  private final BoardLayout layout;
+  private final ReadOnlyReversiModel model;
+  private final int maxLagBytes; //how far behind a subscriber may fall
+  private final List<Subscriber> subscribers;
+  private final Set<Subscriber> behind; //dropped deltas and are owed a keyframe
+
+  /**
+   * Constructs a SpectatorHub for a game.
+   *
+   * @param layout      the board of the game
+   * @param model       the game
+   * @param maxLagBytes the most bytes a subscriber may have queued before it is sent a
+   *                    keyframe instead of more deltas
+   */
+  SpectatorHub(BoardLayout layout, ReadOnlyReversiModel model, int maxLagBytes) {
+    this.layout = layout;
+    this.model = model;
+    this.maxLagBytes = maxLagBytes;
+    this.subscribers = new ArrayList<>();
+    this.behind = Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  /**
+   * Adds a subscriber, sending it the board as it is now.
+   *
+   * @param subscriber the subscriber
+   */
+  void add(Subscriber subscriber) {
+    subscribers.add(subscriber);
+    subscriber.send(keyframe());
+  }
+
+  /**
+   * Removes a subscriber.
+   *
+   * @param subscriber the subscriber
+   */
+  void remove(Subscriber subscriber) {
+    subscribers.remove(subscriber);
+    behind.remove(subscriber);
+  }
+
+  /**
+   * Gets the number of subscribers.
+   *
+   * @return the number of subscribers
+   */
+  int size() {
+    return subscribers.size();
+  }
+
+  /**
+   * Sends a change to every subscriber that is keeping up.
+   *
+   * @param event the start, move or pass
+   */
+  void publish(MoveEvent event) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    ByteBuffer delta = delta(event);
+    ByteBuffer keyframe = null;
+    for (Subscriber subscriber : subscribers) {
+      if (behind.contains(subscriber)) {
+        continue;
+      }
+      if (subscriber.getQueuedBytes() + delta.remaining() <= maxLagBytes) {
+        subscriber.send(delta);
+        continue;
+      }
+      subscriber.dropQueued();
+      if (subscriber.getQueuedBytes() == 0) {
+        keyframe = keyframe == null ? keyframe() : keyframe;
+        subscriber.send(keyframe);
+      } else {
+        behind.add(subscriber);
+      }
+    }
+  }
+
+  /**
+   * Sends a message to every subscriber, however far behind, such as the end of the game.
+   *
+   * @param message the message
+   */
+  void broadcast(ByteBuffer message) {
+    for (Subscriber subscriber : subscribers) {
+      subscriber.send(message);
+    }
+  }
+
+  /**
+   * Tells the hub that a subscriber has written everything it had queued, so one that
+   * fell behind can be sent a keyframe.
+   *
+   * @param subscriber the subscriber
+   */
+  void drained(Subscriber subscriber) {
+    if (behind.remove(subscriber)) {
+      subscriber.send(keyframe());
+    }
+  }
+
+  /**
+   * Encodes a change as the cells it changed, each with its new color.
+   *
+   * @param event the start, move or pass
+   * @return the DELTA message
+   */
+  private ByteBuffer delta(MoveEvent event) {
+    List<IPosition> changed = event.getChangedCells();
+    int turn = model.isGameOver() ? BoardLayout.EMPTY : BoardLayout.colorOf(event.getTurn());
+    ByteBuffer delta = Protocol.delta(turn, changed.size());
+    Optional<Cell>[][] board = model.getBoard();
+    for (IPosition pos : changed) {
+      int cell = layout.indexOf(pos);
+      delta.putShort((short) (cell << 2 | layout.colorAt(board, cell)));
+    }
+    return delta.flip();
+  }
+
+  /**
+   * Encodes the whole board as it is now.
+   *
+   * @return the KEYFRAME message
+   */
+  private ByteBuffer keyframe() {
+    int turn;
+    try {
+      turn = model.isGameOver() ? BoardLayout.EMPTY
+              : BoardLayout.colorOf(model.getCurrentTurn());
+    } catch (IllegalStateException e) {
+      turn = BoardLayout.EMPTY; //not started
+    }
+    byte[] cells = new byte[(layout.getCellCount() + 3) / 4];
+    Optional<Cell>[][] board = model.getBoard();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      cells[cell >> 2] |= (byte) (layout.colorAt(board, cell) << ((cell & 3) * 2));
+    }
+    return Protocol.keyframe(turn, cells);
+  }
+}
@@ -0,0 +1,393 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * A Reversi strategy that looks ahead with an iterative deepening alpha-beta search.
+ * Positions are played out on a {@link CompactBoard}, scored by an {@link Evaluator},
+ * remembered in a {@link TranspositionTable}, and the moves at every node are tried in the
+ * order given by a {@link MoveOrderer}. Finished games are scored far above any evaluation,
+ * so a won ending is always preferred. The strategy chooses a single position, the best
+ * move of the deepest finished iteration. Searches stop at the depth limit or when their
+ * {@link SearchLimits} run out, whichever comes first; without explicit limits a search
+ * may take DEFAULT_MOVE_MILLIS.
+ */
+public class AlphaBetaStrategy extends BaseReversiStrategy implements ISearchStrategy {
+  public static final int MAX_DEPTH = 60;
+  public static final long DEFAULT_MOVE_MILLIS = 1000;
+
+  private static final int WIN_SCORE = 1_000_000;
+  private static final int INFINITY = Integer.MAX_VALUE - 1;
+  private static final int DEFAULT_TABLE_SLOTS = 1 << 18;
+  private static final int CHECK_INTERVAL = 1024; //nodes between looks at the clock
+
+  private final int maxDepth; //the depth of the last iteration
+  private final Evaluator evaluator;
+  private final TranspositionTable table;
+  private final List<SearchInfoListener> infoListeners;
+  private MoveOrderer orderer; //made for the layout of the last board searched
+  private int[][] moveBuffers; //one buffer of candidate moves per ply
+  private int rootMove; //best move found at the root by the current iteration
+  private int rootScore; //score of rootMove
+  private long nodes; //nodes visited by the last search
+  private int completedDepth; //depth of the last finished iteration of the last search
+  private SearchLimits limits; //limits of the search in progress
+  private boolean aborted; //the search in progress ran out of time
+
+  /**
+   * Constructs an AlphaBetaStrategy with the default evaluator.
+   *
+   * @param maxDepth how many plies to look ahead
+   * @throws IllegalArgumentException if the depth is not between 1 and MAX_DEPTH
+   */
+  public AlphaBetaStrategy(int maxDepth) {
+    this(maxDepth, new Evaluator());
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy.
+   *
+   * @param maxDepth  how many plies to look ahead
+   * @param evaluator scores the positions at the end of the search
+   * @throws IllegalArgumentException if the depth is not between 1 and MAX_DEPTH
+   */
+  public AlphaBetaStrategy(int maxDepth, Evaluator evaluator) {
+    this(maxDepth, evaluator, DEFAULT_TABLE_SLOTS);
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy with a transposition table of a given size, such as a
+   * small one for the many shallow searches of tuning.
+   *
+   * @param maxDepth   how many plies to look ahead
+   * @param evaluator  scores the positions at the end of the search
+   * @param tableSlots the minimum number of transposition table slots
+   * @throws IllegalArgumentException if the depth is not between 1 and MAX_DEPTH
+   */
+  AlphaBetaStrategy(int maxDepth, Evaluator evaluator, int tableSlots) {
+    if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+      throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+    }
+    this.maxDepth = maxDepth;
+    this.evaluator = evaluator;
+    this.table = new TranspositionTable(tableSlots);
+    this.infoListeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Chooses the move the search finds best for the player, searching for at most
+   * DEFAULT_MOVE_MILLIS.
+   *
+   * @param model  The current state of the Reversi game.
+   * @param player The cell representing the current player.
+   * @return A list holding only the best move, or an empty list if the player has no move.
+   */
+  @Override
+  public List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player) {
+    return choosePositions(model, player,
+            new SearchLimits(DEFAULT_MOVE_MILLIS, DEFAULT_MOVE_MILLIS));
+  }
+
+  /**
+   * Chooses the move the search finds best for the player within the limits.
+   *
+   * @param model  The current state of the Reversi game.
+   * @param player The cell representing the current player.
+   * @param limits How long the search may take.
+   * @return A list holding only the best move, or an empty list if the player has no move
+   *         or the game has not started.
+   */
+  @Override
+  public List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player,
+                                         SearchLimits limits) {
+    List<IPosition> moves = new ArrayList<>();
+    CompactBoard board;
+    try {
+      board = CompactBoard.of(model);
+    } catch (IllegalStateException e) {
+      return moves;
+    }
+    board.setTurn(BoardLayout.colorOf(player));
+    int best = search(board, limits);
+    if (best >= 0) {
+      moves.add(board.getLayout().position(best));
+    }
+    return moves;
+  }
+
+  /**
+   * Searches a position to the depth limit without a time limit.
+   *
+   * @param board the position, with the player to move set; it is restored afterwards
+   * @return the index of the best cell, or -1 if the player to move has no move
+   */
+  public int search(CompactBoard board) {
+    return search(board, SearchLimits.unlimited());
+  }
+
+  /**
+   * Searches a position with iterative deepening, one ply deeper each iteration, and
+   * returns the best move of the deepest finished iteration. Each iteration starts from
+   * the best move of the one before, which the transposition table hands back as the hash
+   * move. No new iteration starts once the soft limit, scaled by how stable the best move
+   * has been, has passed; an iteration still running at the hard limit is abandoned.
+   *
+   * @param board  the position, with the player to move set; it is restored afterwards
+   * @param limits how long the search may take
+   * @return the index of the best cell, or -1 if the player to move has no move
+   */
+  @Override
+  public int search(CompactBoard board, SearchLimits limits) {
+    prepare(board.getLayout());
+    orderer.age();
+    this.limits = limits;
+    nodes = 0;
+    completedDepth = 0;
+    aborted = false;
+    int[] moves = moveBuffers[0];
+    if (board.generateMoves(moves) == 0) {
+      return -1;
+    }
+    long start = System.nanoTime();
+    long probes = table.getProbes();
+    long hits = table.getHits();
+    int best = -1;
+    int stableIterations = 0;
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      rootMove = -1;
+      rootScore = negamax(board, depth, -INFINITY, INFINITY, 0);
+      if (aborted) {
+        break;
+      }
+      stableIterations = rootMove == best ? stableIterations + 1 : 0;
+      best = rootMove;
+      completedDepth = depth;
+      if (!infoListeners.isEmpty()) {
+        long probed = table.getProbes() - probes;
+        report(new SearchInfo(depth, nodes, System.nanoTime() - start,
+                probed == 0 ? 0 : (double) (table.getHits() - hits) / probed, rootScore,
+                principalVariation(board, depth)));
+      }
+      if (depth >= board.getEmptyCount()
+              || limits.isSoftExpired(TimeManager.stabilityScale(stableIterations))) {
+        break;
+      }
+    }
+    //any legal move if not even one iteration finished
+    return best >= 0 ? best : moves[0];
+  }
+
+  /**
+   * Empties the transposition table and forgets the killer moves and history.
+   */
+  @Override
+  public void forget() {
+    table.clear();
+    if (orderer != null) {
+      orderer.clear();
+    }
+  }
+
+  /**
+   * Gets the depth of the last finished iteration of the last search.
+   *
+   * @return the depth, 0 if no iteration finished
+   */
+  @Override
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Gets the number of positions visited by the last search.
+   *
+   * @return the number of nodes
+   */
+  @Override
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Registers a listener to be told about each finished iteration of every search.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  @Override
+  public void addSearchInfoListener(SearchInfoListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    infoListeners.add(listener);
+  }
+
+  /**
+   * Gets the transposition table shared by this strategy's searches.
+   *
+   * @return the table
+   */
+  TranspositionTable getTable() {
+    return table;
+  }
+
+  /**
+   * Makes sure the move orderer and buffers fit the board about to be searched, and
+   * forgets what was learned on a different board.
+   *
+   * @param layout the layout of the board
+   */
+  private void prepare(BoardLayout layout) {
+    if (orderer == null || orderer.getLayout() != layout) {
+      orderer = new MoveOrderer(layout);
+      moveBuffers = new int[2 * MAX_DEPTH + 2][layout.getCellCount()];
+      table.clear();
+    }
+  }
+
+  /**
+   * Scores a position for the player to move by searching it to a depth.
+   *
+   * @param board the position, restored before returning
+   * @param depth the number of plies left to search
+   * @param alpha the score the player to move is already guaranteed
+   * @param beta  the score the opponent is already guaranteed, negated
+   * @param ply   the distance from the root
+   * @return the score of the position, exact if it lies between alpha and beta
+   */
+  private int negamax(CompactBoard board, int depth, int alpha, int beta, int ply) {
+    nodes++;
+    if (nodes % CHECK_INTERVAL == 0 && limits.isStopped()) {
+      aborted = true;
+    }
+    if (aborted) {
+      return 0;
+    }
+    int color = board.getTurn();
+    if (depth == 0) {
+      return evaluator.evaluate(board, color);
+    }
+
+    long hash = board.getHash();
+    int hashMove = -1;
+    long entry = table.probe(hash);
+    if (entry != 0) {
+      hashMove = TranspositionTable.move(entry);
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        int score = TranspositionTable.score(entry);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+                || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    int[] moves = moveBuffers[ply];
+    int count = board.generateMoves(moves);
+    if (count == 0) {
+      if (!board.hasMove(BoardLayout.opponent(color))) {
+        return finalScore(board, color);
+      }
+      board.pass();
+      int score = -negamax(board, depth, -beta, -alpha, ply + 1);
+      board.undo();
+      return aborted ? 0 : score;
+    }
+
+    orderer.order(moves, count, ply, color, hashMove);
+    int originalAlpha = alpha;
+    int bestScore = -INFINITY;
+    int bestMove = moves[0];
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      board.play(move);
+      int score = -negamax(board, depth - 1, -beta, -alpha, ply + 1);
+      board.undo();
+      if (aborted) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = move;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        orderer.recordCutoff(move, ply, color, depth);
+        break;
+      }
+    }
+
+    int bound = TranspositionTable.EXACT;
+    if (bestScore <= originalAlpha) {
+      bound = TranspositionTable.UPPER_BOUND;
+    } else if (bestScore >= beta) {
+      bound = TranspositionTable.LOWER_BOUND;
+    }
+    table.store(hash, depth, bestScore, bound, bestMove);
+    if (ply == 0) {
+      rootMove = bestMove;
+    }
+    return bestScore;
+  }
+
+  /**
+   * Tells every listener about a finished iteration.
+   *
+   * @param info the report
+   */
+  private void report(SearchInfo info) {
+    for (SearchInfoListener listener : infoListeners) {
+      listener.searchProgress(info);
+    }
+  }
+
+  /**
+   * Follows the best moves the transposition table remembers from a position, which after
+   * a finished iteration are the line that iteration expects.
+   *
+   * @param board    the position, restored before returning
+   * @param maxMoves the most moves to follow
+   * @return the moves, stopping at a pass or a position the table no longer holds
+   */
+  private List<IPosition> principalVariation(CompactBoard board, int maxMoves) {
+    List<IPosition> line = new ArrayList<>();
+    while (line.size() < maxMoves) {
+      long entry = table.peek(board.getHash());
+      int move = entry == 0 ? -1 : TranspositionTable.move(entry);
+      if (move < 0 || !board.isLegal(move, board.getTurn())) {
+        break;
+      }
+      line.add(board.getLayout().position(move));
+      board.play(move);
+    }
+    for (int i = 0; i < line.size(); i++) {
+      board.undo();
+    }
+    return line;
+  }
+
+  /**
+   * Scores a finished game for a player: a win beats any evaluation, and a bigger margin
+   * beats a smaller one.
+   *
+   * @param board the finished position
+   * @param color the player to score for
+   * @return the score
+   */
+  private static int finalScore(CompactBoard board, int color) {
+    int margin = board.getCount(color) - board.getCount(BoardLayout.opponent(color));
+    return Integer.signum(margin) * WIN_SCORE + margin;
+  }
+}
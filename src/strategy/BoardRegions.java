@@ -0,0 +1,76 @@
+package strategy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import model.BoardLayout;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Sorts the cells of a board into regions that matter strategically: the corners given
+ * by the model's getCorners(), the cells next to those corners, the other edge cells,
+ * and the interior. The regions only depend on the board, so they are computed once per
+ * layout and shared.
+ */
+final class BoardRegions {
+  static final int NEXT_TO_CORNER = 0;
+  static final int INTERIOR = 1;
+  static final int EDGE = 2;
+  static final int CORNER = 3;
+
+  private static final Map<BoardLayout, BoardRegions> REGIONS = new ConcurrentHashMap<>();
+
+  private final int[] regions; //region of each cell
+
+  /**
+   * Classifies the cells of a board using a model of that board.
+   *
+   * @param layout the layout of the board
+   * @param model  a model of the same board, used for its corners
+   */
+  private BoardRegions(BoardLayout layout, ReadOnlyReversiModel model) {
+    this.regions = new int[layout.getCellCount()];
+    for (int cell = 0; cell < regions.length; cell++) {
+      regions[cell] = INTERIOR;
+      for (int d = 0; d < layout.getDirectionCount(); d++) {
+        if (layout.neighbor(cell, d) < 0) {
+          regions[cell] = EDGE;
+        }
+      }
+    }
+    for (IPosition corner : model.getCorners()) {
+      for (int cell = 0; cell < regions.length; cell++) {
+        if (model.isAdjacentToCorner(corner, layout.position(cell))
+                && regions[cell] != CORNER) {
+          regions[cell] = NEXT_TO_CORNER;
+        }
+      }
+      regions[layout.indexOf(corner)] = CORNER;
+    }
+  }
+
+  /**
+   * Retrieves the regions of a board.
+   *
+   * @param layout the layout of the board
+   * @return the shared regions of the board
+   */
+  static BoardRegions of(BoardLayout layout) {
+    return REGIONS.computeIfAbsent(layout, l -> new BoardRegions(l,
+            l.getKind() == BoardLayout.Kind.HEXAGON
+                    ? new ReversiModel(l.getSize()) : new SquareReversiModel(l.getSize())));
+  }
+
+  /**
+   * Gets the region of a cell.
+   *
+   * @param cell the index of the cell
+   * @return CORNER, EDGE, INTERIOR or NEXT_TO_CORNER
+   */
+  int regionOf(int cell) {
+    return regions[cell];
+  }
+}
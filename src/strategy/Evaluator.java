@@ -0,0 +1,156 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import model.BoardLayout;
+import model.CompactBoard;
+
+/**
+ * Scores a position from one player's point of view as a weighted sum of simple
+ * features, each measured as the player's count minus the opponent's count:
+ * discs, legal moves (mobility), corners held, cells next to corners held, and
+ * other edge cells held. The weights are plain numbers so they can be tuned, and they can
+ * be written to and read from a text file of one feature name and weight per line.
+ */
+public final class Evaluator {
+  //names of the features, in the order of the weights
+  public static final String[] FEATURES =
+          {"discs", "mobility", "corners", "nextToCorners", "edges"};
+
+  private static final int[] DEFAULT_WEIGHTS = {1, 4, 30, -12, 3};
+
+  private final int[] weights;
+
+  /**
+   * Constructs an evaluator with the default weights.
+   */
+  public Evaluator() {
+    this(DEFAULT_WEIGHTS);
+  }
+
+  /**
+   * Constructs an evaluator with the given weights, in the order of FEATURES.
+   *
+   * @param weights the weight of each feature
+   * @throws IllegalArgumentException if there is not one weight per feature
+   */
+  public Evaluator(int[] weights) {
+    if (weights.length != FEATURES.length) {
+      throw new IllegalArgumentException("Expected " + FEATURES.length + " weights");
+    }
+    this.weights = weights.clone();
+  }
+
+  /**
+   * Gets a copy of the weights, in the order of FEATURES.
+   *
+   * @return the weights
+   */
+  public int[] getWeights() {
+    return weights.clone();
+  }
+
+  /**
+   * Reads weights written by {@link #write}. Lines starting with # are ignored.
+   *
+   * @param file the weights file
+   * @return an evaluator with those weights
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a line is malformed, or a feature is unknown or
+   *                                  missing
+   */
+  public static Evaluator read(Path file) throws IOException {
+    Integer[] read = new Integer[FEATURES.length];
+    List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+    for (int number = 1; number <= lines.size(); number++) {
+      String trimmed = lines.get(number - 1).trim();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      String[] parts = trimmed.split("\\s+");
+      int feature = Arrays.asList(FEATURES).indexOf(parts[0]);
+      //the line itself is left out of the errors, since the file may not hold weights at all
+      if (parts.length != 2 || feature < 0) {
+        throw new IllegalArgumentException("Bad weight on line " + number);
+      }
+      try {
+        read[feature] = Integer.parseInt(parts[1]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Bad weight on line " + number);
+      }
+    }
+    int[] weights = new int[FEATURES.length];
+    for (int i = 0; i < FEATURES.length; i++) {
+      if (read[i] == null) {
+        throw new IllegalArgumentException("Missing weight for " + FEATURES[i]);
+      }
+      weights[i] = read[i];
+    }
+    return new Evaluator(weights);
+  }
+
+  /**
+   * Writes the weights, one feature name and weight per line.
+   *
+   * @param file the weights file
+   * @throws IOException if the file cannot be written
+   */
+  public void write(Path file) throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < FEATURES.length; i++) {
+      lines.add(FEATURES[i] + " " + weights[i]);
+    }
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Scores the position for a player. Higher is better for that player.
+   *
+   * @param board the position
+   * @param color the player, BoardLayout.BLACK or WHITE
+   * @return the score
+   */
+  public int evaluate(CompactBoard board, int color) {
+    int opponent = BoardLayout.opponent(color);
+    BoardRegions regions = BoardRegions.of(board.getLayout());
+    int corners = 0;
+    int nextToCorners = 0;
+    int edges = 0;
+    for (int cell = 0; cell < board.getLayout().getCellCount(); cell++) {
+      int disc = board.get(cell);
+      if (disc == BoardLayout.EMPTY) {
+        continue;
+      }
+      int sign = disc == color ? 1 : -1;
+      switch (regions.regionOf(cell)) {
+        case BoardRegions.CORNER:
+          corners += sign;
+          break;
+        case BoardRegions.NEXT_TO_CORNER:
+          nextToCorners += sign;
+          break;
+        case BoardRegions.EDGE:
+          edges += sign;
+          break;
+        default:
+          break;
+      }
+    }
+    return weights[0] * (board.getCount(color) - board.getCount(opponent))
+            + weights[1] * (board.countMoves(color) - board.countMoves(opponent))
+            + weights[2] * corners
+            + weights[3] * nextToCorners
+            + weights[4] * edges;
+  }
+
+  @Override
+  public String toString() {
+    return "Evaluator" + Arrays.toString(weights);
+  }
+}
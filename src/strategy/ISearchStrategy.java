@@ -0,0 +1,64 @@
+package strategy;
+
+import java.util.List;
+
+import model.Cell;
+import model.CompactBoard;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * A Reversi strategy that searches ahead and can be told how long it may search for.
+ * Searches are iterative: they look one ply deeper at a time, and when the limits run
+ * out they answer with what the deepest finished iteration found. What a search learns,
+ * such as transposition table entries, is kept for the next search until forget() is
+ * called, so searching a position ahead of time makes the real search faster.
+ */
+public interface ISearchStrategy extends IReversiStrategy {
+  /**
+   * Chooses positions for the next move within the given time limits.
+   *
+   * @param model  The current state of the Reversi game.
+   * @param player The cell representing the current player.
+   * @param limits How long the search may take. The search stops by the hard limit.
+   * @return A list of the chosen positions, empty if there is no legal move.
+   */
+  List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player, SearchLimits limits);
+
+  /**
+   * Searches a position for the player to move within the given time limits.
+   *
+   * @param board  the position, with the player to move set; it is restored afterwards
+   * @param limits how long the search may take
+   * @return the index of the best cell in the board's layout, or -1 if there is no move
+   */
+  int search(CompactBoard board, SearchLimits limits);
+
+  /**
+   * Discards everything learned by earlier searches.
+   */
+  void forget();
+
+  /**
+   * Gets the number of positions visited by the last search.
+   *
+   * @return the number of nodes
+   */
+  long getNodeCount();
+
+  /**
+   * Gets the depth of the last finished iteration of the last search.
+   *
+   * @return the depth, 0 if no iteration finished
+   */
+  int getCompletedDepth();
+
+  /**
+   * Registers a listener to be told about each finished iteration of every search from now
+   * on, including searches made while pondering.
+   *
+   * @param listener the listener
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addSearchInfoListener(SearchInfoListener listener);
+}
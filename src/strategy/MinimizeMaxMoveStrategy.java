@@ -22,9 +22,34 @@ import model.ReversiModel;
  * The strategy uses a combination of other strategies such as
  * prioritizing corner positions, avoiding neighboring
  * corners, and maximizing captures, assigning different
- * priority scores to each.
+ * priority scores to each. The scores are 3, 2 and 1
+ * unless others are given, for example by a tuning run.
  */
 public class MinimizeMaxMoveStrategy extends BaseReversiStrategy {
+  private final int cornerWeight; //the opponent can take a corner
+  private final int avoidWeight; //the opponent has a move not next to a corner
+  private final int captureWeight; //the opponent can capture more than one disc
+
+  /**
+   * Constructs a MinimizeMaxMoveStrategy with the default scores.
+   */
+  public MinimizeMaxMoveStrategy() {
+    this(3, 2, 1);
+  }
+
+  /**
+   * Constructs a MinimizeMaxMoveStrategy with the given scores for the opponent's
+   * advantages.
+   *
+   * @param cornerWeight  the score of the opponent being able to take a corner
+   * @param avoidWeight   the score of the opponent having a move not next to a corner
+   * @param captureWeight the score of the opponent being able to capture more than one disc
+   */
+  public MinimizeMaxMoveStrategy(int cornerWeight, int avoidWeight, int captureWeight) {
+    this.cornerWeight = cornerWeight;
+    this.avoidWeight = avoidWeight;
+    this.captureWeight = captureWeight;
+  }
 
   /**
    * Chooses positions for the next move by evaluating
@@ -124,14 +149,14 @@ public class MinimizeMaxMoveStrategy extends BaseReversiStrategy {
     List<IPosition> cornerMoves =
             new GoForCornersStrategy().choosePositions(model, opponent);
     if (!cornerMoves.isEmpty()) {
-      countAdvantage += 3; // Highest advantage score for corner move
+      countAdvantage += cornerWeight; // Highest advantage score for corner move
     }
 
     // Avoid Corners Strategy - Next Priority
     List<IPosition> avoidCornerMoves =
             new AvoidNeighboringCornersStrategy().choosePositions(model, opponent);
     if (!avoidCornerMoves.isEmpty()) {
-      countAdvantage += 2; // Second highest advantage score for avoiding corners
+      countAdvantage += avoidWeight; // Second highest advantage score for avoiding corners
     }
 
     // Maximum Capture Strategy - Lowest Priority
@@ -141,7 +166,7 @@ public class MinimizeMaxMoveStrategy extends BaseReversiStrategy {
       // If there are capture moves that result in capturing more than 1 piece
       for (IPosition pos : captureMoves) {
         if (model.countCaptures(pos, opponent) > 1) {
-          countAdvantage += 1;
+          countAdvantage += captureWeight;
           break; // Add advantage once for any capture move that captures more than 1 piece
         }
       }
@@ -0,0 +1,140 @@
+package strategy;
+
+import model.BoardLayout;
+
+/**
+ * Orders the candidate moves of a search so that the moves most likely to cause a cutoff
+ * are tried first, which is what makes alpha-beta pruning effective. In order:
+ * - the hash move, the best move stored for the position in the transposition table
+ * - corners, which can never be flipped back
+ * - the two killer moves of the ply, which caused cutoffs in sibling positions
+ * - everything else by region (edges, then the interior, then cells next to corners),
+ *   and within a region by the history table, which counts past cutoffs per cell and color
+ * Moves are sorted in place in the caller's int buffer; nothing is allocated per call.
+ */
+public final class MoveOrderer {
+  public static final int MAX_PLY = 128;
+
+  private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+  private static final int CORNER_SCORE = 3 << 24;
+  private static final int KILLER_SCORE = 2 << 24;
+  private static final int HISTORY_LIMIT = (1 << 20) - 1;
+
+  private final BoardLayout layout;
+  private final int[] staticScores; //score from the cell's region
+  private final int[] killers = new int[MAX_PLY * 2]; //two slots per ply, -1 if empty
+  private final int[] history; //(color - 1) * cellCount + cell
+  private final int[] scores; //scratch buffer for sorting
+
+  /**
+   * Constructs a move orderer for a board, using the corners of that board.
+   *
+   * @param layout the layout of the board
+   */
+  public MoveOrderer(BoardLayout layout) {
+    this.layout = layout;
+    BoardRegions regions = BoardRegions.of(layout);
+    this.staticScores = new int[layout.getCellCount()];
+    for (int cell = 0; cell < staticScores.length; cell++) {
+      int region = regions.regionOf(cell);
+      staticScores[cell] = region == BoardRegions.CORNER ? CORNER_SCORE : region << 20;
+    }
+    this.history = new int[layout.getCellCount() * 2];
+    this.scores = new int[layout.getCellCount()];
+    clear();
+  }
+
+  /**
+   * Gets the layout of the board this orderer is for.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Sorts the first count moves of the buffer, best first.
+   *
+   * @param moves    the candidate moves, as cell indices
+   * @param count    the number of candidate moves
+   * @param ply      the distance from the root of the search
+   * @param color    the player to move, BoardLayout.BLACK or WHITE
+   * @param hashMove the move from the transposition table, or -1 if there is none
+   */
+  public void order(int[] moves, int count, int ply, int color, int hashMove) {
+    int killerSlot = Math.min(ply, MAX_PLY - 1) * 2;
+    int historyBase = (color - 1) * staticScores.length;
+    for (int i = 0; i < count; i++) {
+      int move = moves[i];
+      int score;
+      if (move == hashMove) {
+        score = HASH_MOVE_SCORE;
+      } else if (staticScores[move] == CORNER_SCORE) {
+        score = CORNER_SCORE;
+      } else if (move == killers[killerSlot]) {
+        score = KILLER_SCORE + 1;
+      } else if (move == killers[killerSlot + 1]) {
+        score = KILLER_SCORE;
+      } else {
+        score = staticScores[move] + history[historyBase + move];
+      }
+      //insertion sort, stable so equal moves keep their board order
+      int j = i;
+      while (j > 0 && scores[j - 1] < score) {
+        scores[j] = scores[j - 1];
+        moves[j] = moves[j - 1];
+        j--;
+      }
+      scores[j] = score;
+      moves[j] = move;
+    }
+  }
+
+  /**
+   * Records that a move caused a beta cutoff, making it a killer at this ply and raising
+   * its history score. Deeper cutoffs count for more.
+   *
+   * @param move  the move that caused the cutoff
+   * @param ply   the distance from the root of the search
+   * @param color the player who made the move
+   * @param depth the remaining depth at which the cutoff happened
+   */
+  public void recordCutoff(int move, int ply, int color, int depth) {
+    int killerSlot = Math.min(ply, MAX_PLY - 1) * 2;
+    if (killers[killerSlot] != move) {
+      killers[killerSlot + 1] = killers[killerSlot];
+      killers[killerSlot] = move;
+    }
+    int index = (color - 1) * staticScores.length + move;
+    history[index] += depth * depth;
+    if (history[index] > HISTORY_LIMIT) {
+      age();
+    }
+  }
+
+  /**
+   * Halves the history table and forgets the killers, so that older searches count for
+   * less. Called between searches.
+   */
+  public void age() {
+    for (int i = 0; i < history.length; i++) {
+      history[i] /= 2;
+    }
+    for (int i = 0; i < killers.length; i++) {
+      killers[i] = -1;
+    }
+  }
+
+  /**
+   * Forgets all killers and history.
+   */
+  public void clear() {
+    for (int i = 0; i < history.length; i++) {
+      history[i] = 0;
+    }
+    for (int i = 0; i < killers.length; i++) {
+      killers[i] = -1;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import model.BoardLayout;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * A read-only opening book that maps position hashes to the move that should be played.
+ * The book file is a header followed by fixed-size entries sorted by hash, and it is
+ * memory-mapped rather than loaded, so a lookup is a binary search over the mapped file
+ * and a large book costs no heap.
+ * File layout (big-endian):
+ * - int magic, short version, byte board kind, byte unused, int board size, int entry count
+ * - per entry: long position hash, int cell index of the move
+ */
+public final class OpeningBook {
+  static final int MAGIC = 0x52564B42; //"RVKB"
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int ENTRY_BYTES = 12;
+
+  private final MappedByteBuffer entries;
+  private final BoardLayout layout;
+  private final int entryCount;
+
+  /**
+   * Constructs an opening book over an already mapped file.
+   *
+   * @param entries    the mapped file
+   * @param layout     the layout of the board the book was generated for
+   * @param entryCount the number of entries in the file
+   */
+  private OpeningBook(MappedByteBuffer entries, BoardLayout layout, int entryCount) {
+    this.entries = entries;
+    this.layout = layout;
+    this.entryCount = entryCount;
+  }
+
+  /**
+   * Opens and memory-maps a book file.
+   *
+   * @param path the book file
+   * @return the opening book
+   * @throws IOException if the file cannot be read
+   * @throws IllegalArgumentException if the file is not an opening book
+   */
+  public static OpeningBook open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+              || buffer.getShort(4) != VERSION) {
+        throw new IllegalArgumentException("Not an opening book: " + path);
+      }
+      BoardLayout.Kind kind = BoardLayout.Kind.values()[buffer.get(6)];
+      BoardLayout layout = BoardLayout.of(kind, buffer.getInt(8));
+      int count = buffer.getInt(12);
+      if ((long) HEADER_BYTES + (long) count * ENTRY_BYTES > buffer.capacity()) {
+        throw new IllegalArgumentException("Opening book is truncated: " + path);
+      }
+      return new OpeningBook(buffer, layout, count);
+    }
+  }
+
+  /**
+   * Writes a book file from entries that are already sorted by hash.
+   *
+   * @param path   the file to write
+   * @param layout the layout of the board the entries were generated for
+   * @param hashes the sorted position hashes
+   * @param cells  the move for each hash, as a cell index
+   * @param count  the number of entries to write
+   * @throws IOException if the file cannot be written
+   */
+  static void write(Path path, BoardLayout layout, long[] hashes, int[] cells, int count)
+          throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * ENTRY_BYTES);
+    buffer.putInt(MAGIC).putShort(VERSION).put((byte) layout.getKind().ordinal()).put((byte) 0)
+            .putInt(layout.getSize()).putInt(count);
+    for (int i = 0; i < count; i++) {
+      buffer.putLong(hashes[i]).putInt(cells[i]);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Gets the layout of the board this book was generated for.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return layout;
+  }
+
+  /**
+   * Gets the number of positions in the book.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entryCount;
+  }
+
+  /**
+   * Looks up the move stored for a position hash.
+   *
+   * @param hash the hash of the position, as computed by the book's layout
+   * @return the cell index of the move, or -1 if the position is not in the book
+   */
+  public int lookup(long hash) {
+    int low = 0;
+    int high = entryCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long midHash = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+      if (midHash < hash) {
+        low = mid + 1;
+      } else if (midHash > hash) {
+        high = mid - 1;
+      } else {
+        return entries.getInt(HEADER_BYTES + mid * ENTRY_BYTES + 8);
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Looks up the book move for the model's current position. The move is only returned
+   * if it is legal for the player to move, which also guards against hash collisions.
+   *
+   * @param model the current state of the game
+   * @return the book move, or empty if the board does not match this book, the game has
+   *         not started or the position is not in the book
+   */
+  public Optional<IPosition> lookup(ReadOnlyReversiModel model) {
+    if (BoardLayout.of(model) != layout) {
+      return Optional.empty();
+    }
+    try {
+      int cell = lookup(layout.hash(model));
+      if (cell < 0 || cell >= layout.getCellCount()) {
+        return Optional.empty();
+      }
+      IPosition move = layout.position(cell);
+      if (!model.isALegalMove(move, model.getCurrentTurn())) {
+        return Optional.empty();
+      }
+      return Optional.of(move);
+    } catch (IllegalStateException e) {
+      return Optional.empty(); //a game that has not started has no book position
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+
+/**
+ * Builds an opening book offline by self-play. Starting from the position set up by
+ * startGame, every line of play up to the given depth is explored, and for each position
+ * reached the strategy is asked for its best move. The resulting position-to-move entries
+ * are sorted by hash and written in the format read by {@link OpeningBook}.
+ */
+public class OpeningBookGenerator {
+  private final Supplier<IReversiModel> newGame; //creates a fresh, unstarted model
+  private final IReversiStrategy strategy; //the strategy whose choices fill the book
+  private final int depth; //number of plies from the start position to explore
+
+  /**
+   * Constructs a generator.
+   *
+   * @param newGame  creates a new, unstarted model of the board the book is for
+   * @param strategy the strategy that chooses the move stored for each position
+   * @param depth    the number of plies from the start position to cover
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  public OpeningBookGenerator(Supplier<IReversiModel> newGame, IReversiStrategy strategy,
+                              int depth) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth cannot be negative");
+    }
+    this.newGame = newGame;
+    this.strategy = strategy;
+    this.depth = depth;
+  }
+
+  /**
+   * Explores the opening tree and writes the book.
+   *
+   * @param out the book file to write
+   * @return the number of positions written to the book
+   * @throws IOException if the book cannot be written
+   */
+  public int generate(Path out) throws IOException {
+    IReversiModel start = replay(new ArrayList<>());
+    BoardLayout layout = BoardLayout.of(start);
+    Map<Long, Integer> book = new HashMap<>();
+    explore(layout, new ArrayList<>(), book);
+
+    long[] hashes = new long[book.size()];
+    int i = 0;
+    for (long hash : book.keySet()) {
+      hashes[i++] = hash;
+    }
+    Arrays.sort(hashes);
+    int[] cells = new int[hashes.length];
+    for (i = 0; i < hashes.length; i++) {
+      cells[i] = book.get(hashes[i]);
+    }
+    OpeningBook.write(out, layout, hashes, cells, hashes.length);
+    return hashes.length;
+  }
+
+  /**
+   * Records the strategy's move for the position reached by the given line, then
+   * explores every legal reply. A null entry in the line stands for a pass.
+   *
+   * @param layout the layout of the board
+   * @param line   the moves played from the start position
+   * @param book   the entries found so far
+   */
+  private void explore(BoardLayout layout, List<IPosition> line, Map<Long, Integer> book) {
+    IReversiModel model = replay(line);
+    if (model.isGameOver()) {
+      return;
+    }
+    long hash = layout.hash(model);
+    if (book.containsKey(hash)) {
+      return; //reached by a transposition, already explored
+    }
+    Cell turn = model.getCurrentTurn();
+    Optional<IPosition> best = strategy.chooseBestPosition(strategy.choosePositions(model, turn));
+    best.ifPresent(move -> book.put(hash, layout.indexOf(move)));
+    if (line.size() >= depth) {
+      return;
+    }
+
+    List<IPosition> moves = new ArrayList<>();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      if (model.isALegalMove(layout.position(cell), turn)) {
+        moves.add(layout.position(cell));
+      }
+    }
+    if (moves.isEmpty()) {
+      moves.add(null);
+    }
+    for (IPosition move : moves) {
+      line.add(move);
+      explore(layout, line, book);
+      line.remove(line.size() - 1);
+    }
+  }
+
+  /**
+   * Plays a line of moves on a fresh game.
+   *
+   * @param line the moves to play, where null stands for a pass
+   * @return the model after the moves
+   */
+  private IReversiModel replay(List<IPosition> line) {
+    IReversiModel model = newGame.get();
+    model.startGame();
+    for (IPosition move : line) {
+      if (move == null) {
+        model.passTurn();
+      } else {
+        model.executeMove(move);
+      }
+    }
+    return model;
+  }
+}
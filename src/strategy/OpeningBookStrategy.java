@@ -0,0 +1,60 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import model.Cell;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * A Reversi strategy that plays from an opening book first. If the current position
+ * is in the book, the book move is the only position chosen. Otherwise, the fallback
+ * strategy chooses the positions as it normally would.
+ */
+public class OpeningBookStrategy extends BaseReversiStrategy {
+  private final OpeningBook book; //the book to consult first
+  private final IReversiStrategy fallback; //used when the position is not in the book
+
+  /**
+   * Constructs an OpeningBookStrategy.
+   *
+   * @param book     the opening book to consult first
+   * @param fallback the strategy used once the game leaves the book
+   */
+  public OpeningBookStrategy(OpeningBook book, IReversiStrategy fallback) {
+    this.book = book;
+    this.fallback = fallback;
+  }
+
+  /**
+   * Chooses the book move if the position is in the book and it is the given player's
+   * turn, and otherwise defers to the fallback strategy.
+   *
+   * @param model  The current state of the Reversi game.
+   * @param player The cell representing the current player.
+   * @return A list holding only the book move, or the fallback strategy's positions.
+   */
+  @Override
+  public List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player) {
+    Optional<IPosition> bookMove = book.lookup(model);
+    if (bookMove.isPresent() && model.getCurrentTurn() == player) {
+      List<IPosition> moves = new ArrayList<>();
+      moves.add(bookMove.get());
+      return moves;
+    }
+    return fallback.choosePositions(model, player);
+  }
+
+  /**
+   * Selects the best position the same way the fallback strategy does.
+   *
+   * @param positions The list of positions to choose from.
+   * @return An Optional containing the best position, or empty if there is none.
+   */
+  @Override
+  public Optional<IPosition> chooseBestPosition(List<IPosition> positions) {
+    return fallback.chooseBestPosition(positions);
+  }
+}
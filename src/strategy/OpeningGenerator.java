@@ -0,0 +1,304 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+
+/**
+ * Generates varied starting positions for self-play, so that games between deterministic
+ * strategies are not the same game over and over. Each opening is a line of random legal
+ * moves from the position set up by startGame, optionally following an
+ * {@link OpeningBook} at random along the way. An opening is kept only if no earlier one
+ * reached the same position and a shallow search of the position it reaches scores it
+ * close to even, so neither side starts out with a won game.
+ * Openings are lines of cell indexes, with -1 for a pass, and are written compactly in
+ * this format (big-endian):
+ * - int magic, short version, byte board kind, byte unused, int board size, int count
+ * - per opening: byte number of plies, then a short per ply holding the cell or -1
+ * Run it with {@code java strategy.OpeningGenerator count plies out}.
+ */
+public final class OpeningGenerator {
+  static final int MAGIC = 0x52564B4F; //"RVKO"
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 16;
+  static final int PASS = -1;
+
+  private static final int TABLE_SLOTS = 1 << 12; //enough for the shallow balance searches
+  private static final int ATTEMPTS_PER_OPENING = 50; //rejected lines in a row before giving up
+
+  private final Supplier<IReversiModel> newGame; //creates a fresh, unstarted model
+  private final int plies; //moves in each opening
+  private final int balanceDepth; //plies of the search that checks the balance
+  private final int maxImbalance; //largest score, either way, of a balanced opening
+  private final OpeningBook book; //moves to follow now and then, or null
+
+  /**
+   * Constructs a generator of random openings.
+   *
+   * @param newGame      creates a new, unstarted model of the board to play on
+   * @param plies        the moves in each opening
+   * @param balanceDepth the plies searched to check that an opening is balanced
+   * @param maxImbalance the largest evaluator score, for either side, of an opening
+   *                     that is kept
+   * @throws IllegalArgumentException if plies is negative, balanceDepth is not positive
+   *                                  or maxImbalance is negative
+   */
+  public OpeningGenerator(Supplier<IReversiModel> newGame, int plies, int balanceDepth,
+                          int maxImbalance) {
+    this(newGame, plies, balanceDepth, maxImbalance, null);
+  }
+
+  /**
+   * Constructs a generator of openings that play the book's move, where it has one, half
+   * of the time and a random move otherwise.
+   *
+   * @param newGame      creates a new, unstarted model of the board to play on
+   * @param plies        the moves in each opening
+   * @param balanceDepth the plies searched to check that an opening is balanced
+   * @param maxImbalance the largest evaluator score, for either side, of an opening
+   *                     that is kept
+   * @param book         the book to follow, or null to play only random moves
+   * @throws IllegalArgumentException if plies is negative, balanceDepth is not positive,
+   *                                  maxImbalance is negative or the book is for another
+   *                                  board
+   */
+  public OpeningGenerator(Supplier<IReversiModel> newGame, int plies, int balanceDepth,
+                          int maxImbalance, OpeningBook book) {
+    if (plies < 0 || balanceDepth <= 0 || maxImbalance < 0) {
+      throw new IllegalArgumentException("Plies and imbalance cannot be negative, and "
+              + "the balance depth must be positive");
+    }
+    if (book != null && book.getLayout() != BoardLayout.of(newGame.get())) {
+      throw new IllegalArgumentException("Opening book is for another board");
+    }
+    this.newGame = newGame;
+    this.plies = plies;
+    this.balanceDepth = balanceDepth;
+    this.maxImbalance = maxImbalance;
+    this.book = book;
+  }
+
+  /**
+   * Generates openings on a hexagonal board of size 4 and writes them.
+   *
+   * @param args the number of openings, the plies in each and the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      throw new IllegalArgumentException("Usage: OpeningGenerator count plies out");
+    }
+    Supplier<IReversiModel> newGame = () -> new ReversiModel(4);
+    OpeningGenerator generator = new OpeningGenerator(newGame,
+            Integer.parseInt(args[1]), 2, 20);
+    List<int[]> openings = generator.generate(Integer.parseInt(args[0]), System.nanoTime());
+    write(Path.of(args[2]), BoardLayout.of(newGame.get()), openings);
+    System.out.println("Wrote " + openings.size() + " openings to " + args[2]);
+  }
+
+  /**
+   * Generates distinct, balanced openings. Fewer than asked for are returned if the
+   * board does not have that many, or if too many random lines in a row are rejected.
+   *
+   * @param count the number of openings wanted
+   * @param seed  the seed of the random moves
+   * @return the openings, each a line of cell indexes with -1 for a pass
+   * @throws IllegalArgumentException if count is negative
+   */
+  public List<int[]> generate(int count, long seed) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    IReversiModel model = newGame.get();
+    model.startGame();
+    CompactBoard start = CompactBoard.of(model);
+    SplittableRandom random = new SplittableRandom(seed);
+    AlphaBetaStrategy search = new AlphaBetaStrategy(balanceDepth, new Evaluator(),
+            TABLE_SLOTS);
+    int[] score = new int[1];
+    search.addSearchInfoListener(info -> score[0] = info.getScore());
+    Set<Long> seen = new HashSet<>();
+    List<int[]> openings = new ArrayList<>();
+    int[] moves = new int[start.getLayout().getCellCount()];
+    int rejected = 0;
+    while (openings.size() < count && rejected < ATTEMPTS_PER_OPENING) {
+      CompactBoard board = start.copy();
+      int[] line = playLine(board, random, moves);
+      if (line == null || seen.contains(board.getHash())) {
+        rejected++;
+        continue;
+      }
+      search.forget();
+      if (search.search(board) < 0 || Math.abs(score[0]) > maxImbalance) {
+        rejected++;
+        continue;
+      }
+      seen.add(board.getHash());
+      openings.add(line);
+      rejected = 0;
+    }
+    return openings;
+  }
+
+  /**
+   * Checks that openings can be played from the start of a game, as a user of openings
+   * read from a file should before playing them.
+   *
+   * @param newGame  creates a new, unstarted model of the board to play on
+   * @param openings the openings, each a line of cell indexes with -1 for a pass
+   * @throws IllegalArgumentException if there are no openings, or one names a cell that
+   *                                  is not on the board, plays an illegal move or goes on
+   *                                  after the game is over
+   */
+  public static void validate(Supplier<IReversiModel> newGame, List<int[]> openings) {
+    if (openings.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one opening");
+    }
+    IReversiModel model = newGame.get();
+    model.startGame();
+    CompactBoard start = CompactBoard.of(model);
+    for (int[] opening : openings) {
+      CompactBoard board = start.copy();
+      for (int cell : opening) {
+        if (board.isGameOver()) {
+          throw new IllegalArgumentException("Opening goes on after the game is over");
+        }
+        if (cell == PASS) {
+          board.pass();
+        } else if (cell >= 0 && cell < board.getLayout().getCellCount()
+                && board.isLegal(cell, board.getTurn())) {
+          board.play(cell);
+        } else {
+          throw new IllegalArgumentException("Opening has an illegal move: " + cell);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes openings to a file.
+   *
+   * @param path     the file to write
+   * @param layout   the board the openings are for
+   * @param openings the openings, each a line of cell indexes with -1 for a pass
+   * @throws IOException              if the file cannot be written
+   * @throws IllegalArgumentException if an opening is longer than 255 plies or names a
+   *                                  cell that is not on the board
+   */
+  public static void write(Path path, BoardLayout layout, List<int[]> openings)
+          throws IOException {
+    int bytes = HEADER_BYTES;
+    for (int[] line : openings) {
+      if (line.length > 0xFF) {
+        throw new IllegalArgumentException("Opening is too long: " + line.length);
+      }
+      for (int cell : line) {
+        if (cell < PASS || cell >= layout.getCellCount()) {
+          throw new IllegalArgumentException("No such cell: " + cell);
+        }
+      }
+      bytes += 1 + 2 * line.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(bytes);
+    buffer.putInt(MAGIC).putShort(VERSION).put((byte) layout.getKind().ordinal()).put((byte) 0)
+            .putInt(layout.getSize()).putInt(openings.size());
+    for (int[] line : openings) {
+      buffer.put((byte) line.length);
+      for (int cell : line) {
+        buffer.putShort((short) cell);
+      }
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Reads openings written by {@link #write}.
+   *
+   * @param path   the file to read
+   * @param layout the board the openings must be for
+   * @return the openings, each a line of cell indexes with -1 for a pass
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if the file is not an openings file, is truncated
+   *                                  or is for another board
+   */
+  public static List<int[]> read(Path path, BoardLayout layout) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC
+            || buffer.getShort() != VERSION) {
+      throw new IllegalArgumentException("Not an openings file: " + path);
+    }
+    int kind = buffer.get();
+    buffer.get();
+    if (kind != layout.getKind().ordinal() || buffer.getInt() != layout.getSize()) {
+      throw new IllegalArgumentException("Openings are for another board: " + path);
+    }
+    int count = buffer.getInt();
+    List<int[]> openings = new ArrayList<>();
+    try {
+      for (int i = 0; i < count; i++) {
+        int[] line = new int[buffer.get() & 0xFF];
+        for (int ply = 0; ply < line.length; ply++) {
+          line[ply] = buffer.getShort();
+        }
+        openings.add(line);
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Openings file is truncated: " + path);
+    }
+    return openings;
+  }
+
+  /**
+   * Plays one opening.
+   *
+   * @param board  the start position, which is played on
+   * @param random chooses the moves
+   * @param moves  a buffer for the legal moves
+   * @return the line played, or null if the game ended before it was over
+   */
+  private int[] playLine(CompactBoard board, SplittableRandom random, int[] moves) {
+    int[] line = new int[plies];
+    for (int ply = 0; ply < plies; ply++) {
+      if (board.isGameOver()) {
+        return null;
+      }
+      int count = board.generateMoves(moves);
+      int cell = PASS;
+      if (count > 0) {
+        cell = moves[random.nextInt(count)];
+        if (book != null && random.nextBoolean()) {
+          int bookMove = book.lookup(board.getHash());
+          cell = bookMove >= 0 && board.isLegal(bookMove, board.getTurn()) ? bookMove : cell;
+        }
+      }
+      if (cell == PASS) {
+        board.pass();
+      } else {
+        board.play(cell);
+      }
+      line[ply] = cell;
+    }
+    return board.isGameOver() ? null : line;
+  }
+}
@@ -0,0 +1,123 @@
+package strategy;
+
+import java.util.List;
+
+import model.IPosition;
+
+/**
+ * A report of a search in progress, made after each finished iteration: how deep it got,
+ * how much work it took, how often the transposition table helped, and the line of play
+ * it expects, the principal variation, with its score.
+ */
+public final class SearchInfo {
+  private final int depth;
+  private final long nodes;
+  private final long elapsedNanos;
+  private final double hashHitRate;
+  private final int score; //for the player to move at the root
+  private final List<IPosition> principalVariation;
+
+  /**
+   * Constructs a SearchInfo.
+   *
+   * @param depth              the depth of the finished iteration
+   * @param nodes              the positions visited since the search started
+   * @param elapsedNanos       the time since the search started
+   * @param hashHitRate        the fraction of table probes that found their position
+   * @param score              the score of the best move for the player to move
+   * @param principalVariation the expected line of play, starting with the best move
+   */
+  public SearchInfo(int depth, long nodes, long elapsedNanos, double hashHitRate, int score,
+                    List<IPosition> principalVariation) {
+    this.depth = depth;
+    this.nodes = nodes;
+    this.elapsedNanos = elapsedNanos;
+    this.hashHitRate = hashHitRate;
+    this.score = score;
+    this.principalVariation = List.copyOf(principalVariation);
+  }
+
+  /**
+   * Gets the depth of the finished iteration.
+   *
+   * @return the depth in plies
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Gets the number of positions visited since the search started.
+   *
+   * @return the number of nodes
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Gets the time since the search started.
+   *
+   * @return the time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return elapsedNanos / 1_000_000;
+  }
+
+  /**
+   * Gets the search speed.
+   *
+   * @return the nodes visited per second, or 0 if no time has been measured
+   */
+  public long getNodesPerSecond() {
+    return elapsedNanos <= 0 ? 0 : (long) (nodes * 1e9 / elapsedNanos);
+  }
+
+  /**
+   * Gets how often the transposition table knew the position asked about.
+   *
+   * @return the fraction of probes that hit, between 0 and 1
+   */
+  public double getHashHitRate() {
+    return hashHitRate;
+  }
+
+  /**
+   * Gets the score of the best move, from the point of view of the player to move; a won
+   * ending scores far above any evaluation.
+   *
+   * @return the score
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Gets the line of play the search expects, as far as the transposition table remembers
+   * it, stopping at the first pass.
+   *
+   * @return the moves, starting with the best move; empty if there is no move
+   */
+  public List<IPosition> getPrincipalVariation() {
+    return principalVariation;
+  }
+
+  /**
+   * Describes the report on one line, such as
+   * "depth 4 nodes 5210 nps 2605000 hash 31% score 12 pv (1,-2) (2,-1)".
+   *
+   * @return the description
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    text.append("depth ").append(depth).append(" nodes ").append(nodes)
+            .append(" nps ").append(getNodesPerSecond())
+            .append(" hash ").append(Math.round(hashHitRate * 100)).append('%')
+            .append(" score ").append(score).append(" pv");
+    for (IPosition move : principalVariation) {
+      text.append(" (").append(move.getQ()).append(',').append(move.getR()).append(')');
+    }
+    return text.toString();
+  }
+}
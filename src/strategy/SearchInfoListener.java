@@ -0,0 +1,16 @@
+package strategy;
+
+/**
+ * The SearchInfoListener interface is used to follow the progress of a searching strategy,
+ * for example to show it while the AI is thinking or to compare strategies while tuning
+ * them.
+ */
+public interface SearchInfoListener {
+
+  /**
+   * Called on the searching thread each time an iteration of a search finishes.
+   *
+   * @param info What the search has found and how much work it took so far.
+   */
+  void searchProgress(SearchInfo info);
+}
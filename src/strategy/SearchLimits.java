@@ -0,0 +1,99 @@
+package strategy;
+
+/**
+ * The time a single search may take. The soft limit is the time the search aims to use:
+ * once it has passed, no new iteration of an iterative deepening search is started. The
+ * hard limit is never exceeded: once it has passed, the search abandons the iteration it
+ * is in and answers with the best move of the last finished one. A search can also be
+ * stopped early from another thread.
+ */
+public final class SearchLimits {
+  private final long start; //System.nanoTime() when the limits were created
+  private final long softNanos;
+  private final long hardNanos;
+  private volatile boolean stopped;
+
+  /**
+   * Constructs limits that start counting now.
+   *
+   * @param softMillis the time the search aims to use, in milliseconds
+   * @param hardMillis the time the search must not exceed, in milliseconds
+   * @throws IllegalArgumentException if a limit is negative or the soft limit is
+   *                                  greater than the hard limit
+   */
+  public SearchLimits(long softMillis, long hardMillis) {
+    if (softMillis < 0 || softMillis > hardMillis) {
+      throw new IllegalArgumentException("Invalid limits: " + softMillis + ", " + hardMillis);
+    }
+    this.start = System.nanoTime();
+    this.softNanos = Math.min(softMillis, Long.MAX_VALUE / 1_000_000L) * 1_000_000L;
+    this.hardNanos = Math.min(hardMillis, Long.MAX_VALUE / 1_000_000L) * 1_000_000L;
+  }
+
+  /**
+   * Creates limits that never run out, so only the depth or a call to stop() ends the
+   * search.
+   *
+   * @return limits without a deadline
+   */
+  public static SearchLimits unlimited() {
+    return new SearchLimits(Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Asks the search to stop as soon as possible.
+   */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Checks if the search must stop now, because it was stopped or the hard limit passed.
+   *
+   * @return true if the search must stop
+   */
+  public boolean isStopped() {
+    if (!stopped && System.nanoTime() - start >= hardNanos) {
+      stopped = true;
+    }
+    return stopped;
+  }
+
+  /**
+   * Checks if the soft limit, scaled by a factor, has passed, meaning no new iteration
+   * should be started.
+   *
+   * @param scale how much of the soft limit to allow, 1.0 for all of it
+   * @return true if the scaled soft limit has passed or the search must stop
+   */
+  public boolean isSoftExpired(double scale) {
+    return isStopped() || System.nanoTime() - start >= (long) (softNanos * scale);
+  }
+
+  /**
+   * Gets the time since the limits were created.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return (System.nanoTime() - start) / 1_000_000L;
+  }
+
+  /**
+   * Gets the soft limit.
+   *
+   * @return the soft limit in milliseconds
+   */
+  public long getSoftMillis() {
+    return softNanos / 1_000_000L;
+  }
+
+  /**
+   * Gets the hard limit.
+   *
+   * @return the hard limit in milliseconds
+   */
+  public long getHardMillis() {
+    return hardNanos / 1_000_000L;
+  }
+}
@@ -0,0 +1,82 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import model.Cell;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * Wraps any strategy so that ties between the positions it chooses are broken at random
+ * instead of always towards the uppermost-leftmost one, so that self-play between
+ * deterministic strategies is varied. The choices are reproducible: they depend only on
+ * the seed of the game and the color played, so a game can be played again from the seed
+ * kept in its record. Each instance has a random generator of its own, split from the
+ * game's seed, so games played in parallel share nothing; an instance is meant for one
+ * player of one game and is not safe for use by several threads at once.
+ */
+public final class SeededTieBreakStrategy implements IReversiStrategy {
+  private static final Comparator<IPosition> BOARD_ORDER =
+          Comparator.comparingInt(IPosition::getR).thenComparingInt(IPosition::getQ);
+
+  private final IReversiStrategy strategy; //chooses the tied positions
+  private final long seed; //seed of the game
+  private final SplittableRandom random; //breaks the ties
+
+  /**
+   * Constructs a SeededTieBreakStrategy for one player of a game.
+   *
+   * @param strategy the strategy whose choices are tie-broken
+   * @param seed     the seed of the game
+   * @param player   the color the strategy plays; the two players of a game draw from
+   *                 different generators
+   * @throws IllegalArgumentException if the strategy or player is null
+   */
+  public SeededTieBreakStrategy(IReversiStrategy strategy, long seed, Cell player) {
+    if (strategy == null || player == null) {
+      throw new IllegalArgumentException("Strategy and player cannot be null");
+    }
+    this.strategy = strategy;
+    this.seed = seed;
+    SplittableRandom game = new SplittableRandom(seed);
+    this.random = player == Cell.BLACK ? game : game.split();
+  }
+
+  /**
+   * Gets the seed of the game this strategy was made for.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  @Override
+  public List<IPosition> choosePositions(ReadOnlyReversiModel model, Cell player) {
+    return strategy.choosePositions(model, player);
+  }
+
+  /**
+   * Picks one of the positions at random. The positions are put in board order first, so
+   * the pick does not depend on the order the wrapped strategy listed them in.
+   *
+   * @param positions the tied positions
+   * @return one of them, or empty if there are none
+   */
+  @Override
+  public Optional<IPosition> chooseBestPosition(List<IPosition> positions) {
+    if (positions == null || positions.isEmpty()) {
+      return Optional.empty();
+    }
+    if (positions.size() == 1) {
+      return Optional.of(positions.get(0));
+    }
+    List<IPosition> ordered = new ArrayList<>(positions);
+    ordered.sort(BOARD_ORDER);
+    return Optional.of(ordered.get(random.nextInt(ordered.size())));
+  }
+}
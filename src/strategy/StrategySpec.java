@@ -0,0 +1,214 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds strategies from their names, as given on the command line: a single name such as
+ * "MaxCapture", or "TryTwo" followed by the strategies to combine, where each may be a
+ * further TryTwo. "AlphaBeta:file" searches with the evaluator weights in the file, such as
+ * those written by {@link WeightTuner}. The same text can be sent to another process to
+ * run a strategy there; a spec from another process is parsed with
+ * {@link #parse(String, Map)}, where "AlphaBeta:name" only names one of a set of weights
+ * the receiving process was configured with, so a remote spec can never open a file.
+ */
+public final class StrategySpec {
+
+  private StrategySpec() {
+  }
+
+  /**
+   * Creates a strategy from a specification of names separated by spaces, such as
+   * "TryTwo ChooseCorners MaxCapture".
+   *
+   * @param spec the specification
+   * @return the strategy
+   * @throws IllegalArgumentException If the specification is empty or invalid.
+   */
+  public static IReversiStrategy parse(String spec) {
+    return parse(spec, StrategySpec::readEvaluator);
+  }
+
+  /**
+   * Creates a strategy from a specification received from another process, in which
+   * "AlphaBeta:name" names one of the given weights rather than a file.
+   *
+   * @param spec    the specification
+   * @param weights the weights a spec may name, by name
+   * @return the strategy
+   * @throws IllegalArgumentException If the specification is empty or invalid, or names
+   *                                  weights that are not given.
+   */
+  public static IReversiStrategy parse(String spec, Map<String, Evaluator> weights) {
+    return parse(spec, name -> {
+      Evaluator evaluator = weights.get(name);
+      if (evaluator == null) {
+        throw new IllegalArgumentException("Unknown weights: " + name);
+      }
+      return evaluator;
+    });
+  }
+
+  /**
+   * Creates a strategy from a specification of names separated by spaces.
+   *
+   * @param spec    the specification
+   * @param weights finds the evaluator an "AlphaBeta:" strategy names
+   * @return the strategy
+   * @throws IllegalArgumentException If the specification is empty or invalid.
+   */
+  private static IReversiStrategy parse(String spec, Function<String, Evaluator> weights) {
+    String trimmed = spec.trim();
+    if (trimmed.isEmpty()) {
+      throw new IllegalArgumentException("Strategy list cannot be empty.");
+    }
+    return create(Arrays.asList(trimmed.split("\\s+")), weights);
+  }
+
+  /**
+   * Returns an IReversiStrategy instance based on the given strategy name.
+   *
+   * @param strategyName The name of the strategy.
+   * @param weights      finds the evaluator an "AlphaBeta:" strategy names
+   * @return An instance of the specified strategy.
+   * @throws IllegalArgumentException If the strategy name is unknown.
+   */
+  private static IReversiStrategy getStrategyByName(String strategyName,
+                                                    Function<String, Evaluator> weights) {
+    switch (strategyName) {
+      case "ChooseCorners":
+        return new GoForCornersStrategy();
+      case "MaxCapture":
+        return new MaximumCaptureStrategy();
+      case "AvoidNextToCorners":
+        return new AvoidNeighboringCornersStrategy();
+      case "AlphaBeta":
+        return new AlphaBetaStrategy(AlphaBetaStrategy.MAX_DEPTH);
+      default:
+        if (strategyName.startsWith("AlphaBeta:")) {
+          return new AlphaBetaStrategy(AlphaBetaStrategy.MAX_DEPTH,
+                  weights.apply(strategyName.substring("AlphaBeta:".length())));
+        }
+        throw new IllegalArgumentException("Unknown strategy name: " + strategyName);
+    }
+  }
+
+  /**
+   * Reads the evaluator weights named in a strategy.
+   *
+   * @param file the path of the weights file
+   * @return the evaluator
+   * @throws IllegalArgumentException if the file cannot be read or is malformed
+   */
+  private static Evaluator readEvaluator(String file) {
+    try {
+      return Evaluator.read(Path.of(file));
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Cannot read weights from " + file, e);
+    }
+  }
+
+  /**
+   * Creates a strategy for AI players based on a list of strategy names.
+   *
+   * @param strategies A list of strategy names.
+   *                   Can include a special "TryTwo" strategy.
+   * @return An IReversiStrategy instance representing the combined strategy.
+   * @throws IllegalArgumentException If the strategy configuration is invalid.
+   */
+  public static IReversiStrategy create(List<String> strategies) {
+    return create(strategies, StrategySpec::readEvaluator);
+  }
+
+  /**
+   * Creates a strategy from a list of strategy names.
+   *
+   * @param strategies A list of strategy names.
+   * @param weights    finds the evaluator an "AlphaBeta:" strategy names
+   * @return An IReversiStrategy instance representing the combined strategy.
+   * @throws IllegalArgumentException If the strategy configuration is invalid.
+   */
+  private static IReversiStrategy create(List<String> strategies,
+                                         Function<String, Evaluator> weights) {
+    if (strategies.isEmpty()) {
+      throw new IllegalArgumentException("Strategy list cannot be empty.");
+    }
+
+    String firstStrategy = strategies.get(0);
+
+    if (firstStrategy.equalsIgnoreCase("TryTwo")) {
+      if (strategies.size() < 3) { // Minimum required for a valid TryTwo configuration
+        throw new IllegalArgumentException("TryTwo strategy requires at least two strategies.");
+      }
+      return processTryTwoStrategy(new ArrayList<>(strategies.subList(1, strategies.size())),
+              weights);
+    } else {
+      return getStrategyByName(firstStrategy, weights);
+    }
+  }
+
+  /**
+   * Processes and creates a TryTwo strategy using a list of remaining strategies.
+   *
+   * @param remainingStrategies A list containing the remaining strategies for processing.
+   * @param weights             finds the evaluator an "AlphaBeta:" strategy names
+   * @return An IReversiStrategy representing the TryTwo strategy.
+   * @throws IllegalArgumentException If the remaining strategies list is invalid for TryTwo.
+   */
+  private static IReversiStrategy processTryTwoStrategy(List<String> remainingStrategies,
+                                                        Function<String, Evaluator> weights) {
+    if (remainingStrategies.isEmpty()) {
+      throw new IllegalArgumentException("No strategies left to process for TryTwo.");
+    }
+    if (!remainingStrategies.get(0).equalsIgnoreCase("TryTwo")
+            && !remainingStrategies.get(1).equalsIgnoreCase("TryTwo")) {
+      return new TryTwo(getStrategyByName(remainingStrategies.get(0), weights),
+              getStrategyByName(remainingStrategies.get(1), weights));
+    }
+
+    List<String> strat1List = new ArrayList<>();
+    List<String> strat2List = new ArrayList<>();
+
+    // Split the remaining strategies into two lists for each TryTwo strategy
+    splitStrategyList(remainingStrategies, strat1List, strat2List);
+
+    IReversiStrategy strat1 = create(strat1List, weights);
+    IReversiStrategy strat2 = create(strat2List, weights);
+
+    return new TryTwo(strat1, strat2);
+  }
+
+  /**
+   * Splits the list of strategies into two separate lists, each for a nested TryTwo strategy.
+   *
+   * @param remainingStrategies The list of strategies to be split.
+   * @param strat1List          The list to hold the strategies for the first TryTwo.
+   * @param strat2List          The list to hold the strategies for the second TryTwo.
+   * @throws IllegalArgumentException If splitting results in invalid TryTwo configurations.
+   */
+  private static void splitStrategyList(List<String> remainingStrategies, List<String> strat1List,
+                                        List<String> strat2List) {
+    boolean isFirstStrategy = true;
+
+    for (String strategy : remainingStrategies) {
+      if (strategy.equalsIgnoreCase("TryTwo")) {
+        // Switch to the second strategy list when encountering another TryTwo
+        isFirstStrategy = false;
+        continue;
+      }
+      if (isFirstStrategy) {
+        strat1List.add(strategy);
+      } else {
+        strat2List.add(strategy);
+      }
+    }
+    if (strat1List.isEmpty() || strat2List.isEmpty()) {
+      throw new IllegalArgumentException("Invalid strategy configuration for TryTwo.");
+    }
+  }
+}
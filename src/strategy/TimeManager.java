@@ -0,0 +1,69 @@
+package strategy;
+
+/**
+ * Decides how long each move of a timed game may take. The remaining time is shared
+ * between the moves the player is still expected to make, which is about half the empty
+ * cells, and most of the increment is spent as it is earned. The hard limit lets a move
+ * run over its share when the search is unsure, but always leaves a safety margin on the
+ * clock so the player never runs out of time.
+ */
+public final class TimeManager {
+  private static final int RESERVE_MOVES = 2; //spread the time over a few extra moves
+  private static final int HARD_STRETCH = 4; //the hard limit is at most this many shares
+
+  private final long safetyMillis; //never planned to be used, covers the cost of moving
+
+  /**
+   * Constructs a TimeManager with a safety margin of 50 milliseconds.
+   */
+  public TimeManager() {
+    this(50);
+  }
+
+  /**
+   * Constructs a TimeManager.
+   *
+   * @param safetyMillis time always left on the clock, for the work around the search
+   * @throws IllegalArgumentException if the safety margin is negative
+   */
+  public TimeManager(long safetyMillis) {
+    if (safetyMillis < 0) {
+      throw new IllegalArgumentException("Safety margin cannot be negative");
+    }
+    this.safetyMillis = safetyMillis;
+  }
+
+  /**
+   * Allocates the limits of the next move's search.
+   *
+   * @param remainingMillis the time left on the player's clock
+   * @param incrementMillis the time added to the clock after each move
+   * @param emptyCells      the number of empty cells on the board
+   * @return the limits of the search, starting now
+   */
+  public SearchLimits allocate(long remainingMillis, long incrementMillis, int emptyCells) {
+    long usable = Math.max(remainingMillis - safetyMillis, 0);
+    int movesLeft = Math.max((emptyCells + 1) / 2, 1) + RESERVE_MOVES;
+    long share = usable / movesLeft + incrementMillis * 3 / 4;
+    long hard = Math.min(share * HARD_STRETCH, usable / 2 + incrementMillis * 3 / 4);
+    hard = Math.min(hard, usable);
+    long soft = Math.min(share, hard);
+    return new SearchLimits(soft, hard);
+  }
+
+  /**
+   * Scales the soft limit by how settled the search is. If the best move just changed,
+   * the search may use half as much time again to resolve it; each iteration in a row
+   * that agrees on the best move trims the limit, down to half.
+   *
+   * @param stableIterations how many finished iterations in a row had the same best move,
+   *                         0 if the last one changed it
+   * @return the factor to scale the soft limit by
+   */
+  public static double stabilityScale(int stableIterations) {
+    if (stableIterations == 0) {
+      return 1.5;
+    }
+    return Math.max(0.5, 1.0 - 0.125 * (stableIterations - 1));
+  }
+}
@@ -0,0 +1,154 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size, always-allocated table of search results keyed by position hash. Each
+ * slot stores the full hash, so a probe never returns another position's entry, together
+ * with one long that packs the best move, the depth searched, the kind of bound and the
+ * score. A slot is replaced when the new result was searched at least as
+ * deep, or when it holds a different position. The table is not thread-safe; each search
+ * owns its own table.
+ */
+public final class TranspositionTable {
+  public static final int EXACT = 0;
+  public static final int LOWER_BOUND = 1; //the score is at least this
+  public static final int UPPER_BOUND = 2; //the score is at most this
+
+  private final long[] keys;
+  private final long[] entries; //0 means the slot is empty
+  private final int mask;
+  private long probes;
+  private long hits;
+
+  /**
+   * Constructs a table with the given number of slots, rounded up to a power of two.
+   *
+   * @param slots the minimum number of slots
+   * @throws IllegalArgumentException if slots is not positive
+   */
+  public TranspositionTable(int slots) {
+    if (slots <= 0) {
+      throw new IllegalArgumentException("Slots must be positive");
+    }
+    int capacity = Integer.highestOneBit(slots - 1) << 1;
+    capacity = Math.max(capacity, 1);
+    this.keys = new long[capacity];
+    this.entries = new long[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Looks up the entry for a position.
+   *
+   * @param hash the hash of the position
+   * @return the packed entry, or 0 if the position is not in the table
+   */
+  public long probe(long hash) {
+    probes++;
+    int slot = (int) (hash ^ (hash >>> 32)) & mask;
+    if (entries[slot] != 0 && keys[slot] == hash) {
+      hits++;
+      return entries[slot];
+    }
+    return 0;
+  }
+
+  /**
+   * Looks up the entry for a position without counting it as a probe, for reporting on a
+   * search rather than searching.
+   *
+   * @param hash the hash of the position
+   * @return the packed entry, or 0 if the position is not in the table
+   */
+  long peek(long hash) {
+    int slot = (int) (hash ^ (hash >>> 32)) & mask;
+    return entries[slot] != 0 && keys[slot] == hash ? entries[slot] : 0;
+  }
+
+  /**
+   * Stores the result of searching a position.
+   *
+   * @param hash  the hash of the position
+   * @param depth the depth the position was searched to
+   * @param score the score found
+   * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+   * @param move  the best move found, or -1 if there is none
+   */
+  public void store(long hash, int depth, int score, int bound, int move) {
+    int slot = (int) (hash ^ (hash >>> 32)) & mask;
+    if (entries[slot] != 0 && keys[slot] == hash && depth(entries[slot]) > depth) {
+      return;
+    }
+    keys[slot] = hash;
+    entries[slot] = ((long) score << 32) | ((long) (move + 1) & 0xFFFFL) << 16
+            | (depth & 0xFFL) << 8 | (bound & 0x3L) << 1 | 1L;
+  }
+
+  /**
+   * Empties the table and resets its statistics.
+   */
+  public void clear() {
+    Arrays.fill(entries, 0L);
+    probes = 0;
+    hits = 0;
+  }
+
+  /**
+   * Gets the number of probes since the table was created or cleared.
+   *
+   * @return the number of probes
+   */
+  public long getProbes() {
+    return probes;
+  }
+
+  /**
+   * Gets the number of probes that found their position.
+   *
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Unpacks the best move of an entry.
+   *
+   * @param entry a packed entry
+   * @return the cell index of the move, or -1 if there is none
+   */
+  public static int move(long entry) {
+    return (int) ((entry >>> 16) & 0xFFFFL) - 1;
+  }
+
+  /**
+   * Unpacks the depth of an entry.
+   *
+   * @param entry a packed entry
+   * @return the depth searched
+   */
+  public static int depth(long entry) {
+    return (int) ((entry >>> 8) & 0xFFL);
+  }
+
+  /**
+   * Unpacks the kind of bound of an entry.
+   *
+   * @param entry a packed entry
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND
+   */
+  public static int bound(long entry) {
+    return (int) ((entry >>> 1) & 0x3L);
+  }
+
+  /**
+   * Unpacks the score of an entry.
+   *
+   * @param entry a packed entry
+   * @return the score
+   */
+  public static int score(long entry) {
+    return (int) (entry >> 32);
+  }
+}
@@ -0,0 +1,315 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+
+/**
+ * Tunes the weights of an {@link Evaluator} offline by self-play, with simultaneous
+ * perturbation stochastic approximation (SPSA). Each iteration nudges every weight up or
+ * down at random at once, plays the nudged-up weights against the nudged-down ones, and
+ * moves the weights towards whichever side scored better, by steps that shrink as the
+ * tuning goes on. The games of an iteration are played at a fixed depth by a fork-join
+ * pool, in pairs that start from the same few random opening moves, or the same given
+ * opening, with colors swapped, so an iteration scales with the cores of the machine and
+ * its result depends only on the seed.
+ * Run it with {@code java strategy.WeightTuner [iterations] [game pairs] [weights file]}.
+ */
+public final class WeightTuner {
+  private static final double ALPHA = 0.602; //decay of the step size
+  private static final double GAMMA = 0.101; //decay of the perturbation size
+  private static final double LEARNING_RATE = 2.0; //step, in perturbations, at a full score
+  private static final int TABLE_SLOTS = 1 << 12; //enough for the shallow tuning searches
+
+  private final Supplier<IReversiModel> newGame; //creates a fresh, unstarted model
+  private final int depth; //plies each player searches per move
+  private final int openingPlies; //random moves played before the searches take over
+  private final List<int[]> openings; //openings to play instead of random ones, or null
+  private final ForkJoinPool pool;
+  private final AtomicLong games;
+
+  /**
+   * Constructs a tuner.
+   *
+   * @param newGame      creates a new, unstarted model of the board to tune for
+   * @param depth        the plies each player searches per move
+   * @param openingPlies the random moves that start each pair of games
+   * @param threads      the number of games to play at once
+   * @throws IllegalArgumentException if depth or threads is not positive, or openingPlies
+   *                                  is negative
+   */
+  public WeightTuner(Supplier<IReversiModel> newGame, int depth, int openingPlies,
+                     int threads) {
+    this(newGame, depth, openingPlies, null, threads);
+  }
+
+  /**
+   * Constructs a tuner whose pairs of games start from given openings, such as those made
+   * by an {@link OpeningGenerator}. Each match starts at an opening picked by its seed
+   * and plays the ones after it in turn.
+   *
+   * @param newGame  creates a new, unstarted model of the board to tune for
+   * @param depth    the plies each player searches per move
+   * @param openings the openings, each a line of cell indexes with -1 for a pass
+   * @param threads  the number of games to play at once
+   * @throws IllegalArgumentException if depth or threads is not positive, or there are no
+   *                                  openings or one cannot be played on the board
+   */
+  public WeightTuner(Supplier<IReversiModel> newGame, int depth, List<int[]> openings,
+                     int threads) {
+    this(newGame, depth, 0, List.copyOf(openings), threads);
+  }
+
+  /**
+   * Constructs a tuner.
+   *
+   * @param newGame      creates a new, unstarted model of the board to tune for
+   * @param depth        the plies each player searches per move
+   * @param openingPlies the random moves that start each pair of games
+   * @param openings     the openings to play instead, or null
+   * @param threads      the number of games to play at once
+   * @throws IllegalArgumentException if depth or threads is not positive, openingPlies is
+   *                                  negative, or the openings are empty or cannot be played
+   */
+  private WeightTuner(Supplier<IReversiModel> newGame, int depth, int openingPlies,
+                      List<int[]> openings, int threads) {
+    if (depth <= 0 || threads <= 0 || openingPlies < 0) {
+      throw new IllegalArgumentException("Depth and threads must be positive");
+    }
+    if (openings != null) {
+      OpeningGenerator.validate(newGame, openings);
+    }
+    this.newGame = newGame;
+    this.depth = depth;
+    this.openingPlies = openingPlies;
+    this.openings = openings;
+    this.pool = new ForkJoinPool(threads);
+    this.games = new AtomicLong();
+  }
+
+  /**
+   * Tunes the default evaluator on a hexagonal board of size 4 and writes the weights.
+   *
+   * @param args the number of iterations (default 200), the pairs of games per iteration
+   *             (default 32) and the file to write (default weights.txt)
+   * @throws IOException if the weights cannot be written
+   */
+  public static void main(String[] args) throws IOException {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int gamePairs = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+    Path out = Path.of(args.length > 2 ? args[2] : "weights.txt");
+    WeightTuner tuner = new WeightTuner(() -> new ReversiModel(4), 2, 4,
+            Runtime.getRuntime().availableProcessors());
+    int[] weights = tuner.tune(new Evaluator().getWeights(), iterations, gamePairs,
+            System.nanoTime());
+    new Evaluator(weights).write(out);
+    System.out.println(new Evaluator(weights) + " after " + tuner.getGameCount() + " games");
+  }
+
+  /**
+   * Tunes weights from a starting point.
+   *
+   * @param start      the weights to start from, in the order of Evaluator.FEATURES
+   * @param iterations the number of iterations
+   * @param gamePairs  the pairs of games played per iteration
+   * @param seed       the seed of the perturbations and openings
+   * @return the tuned weights, rounded
+   * @throws IllegalArgumentException if the weights are not one per feature, or the
+   *                                  iterations or game pairs are not positive
+   */
+  public int[] tune(int[] start, int iterations, int gamePairs, long seed) {
+    if (start.length != Evaluator.FEATURES.length) {
+      throw new IllegalArgumentException("Expected " + Evaluator.FEATURES.length + " weights");
+    }
+    if (iterations <= 0 || gamePairs <= 0) {
+      throw new IllegalArgumentException("Iterations and game pairs must be positive");
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    double[] theta = new double[start.length];
+    double[] scale = new double[start.length]; //how far to perturb each weight at first
+    for (int i = 0; i < start.length; i++) {
+      theta[i] = start[i];
+      scale[i] = Math.max(1, Math.abs(start[i]) / 5.0);
+    }
+    double stability = iterations / 10.0;
+    for (int k = 0; k < iterations; k++) {
+      double step = LEARNING_RATE / Math.pow(k + 1 + stability, ALPHA)
+              * Math.pow(1 + stability, ALPHA);
+      double perturbation = 1 / Math.pow(k + 1, GAMMA);
+      int[] delta = new int[theta.length];
+      int[] plus = new int[theta.length];
+      int[] minus = new int[theta.length];
+      for (int i = 0; i < theta.length; i++) {
+        delta[i] = random.nextBoolean() ? 1 : -1;
+        double c = scale[i] * perturbation;
+        plus[i] = (int) Math.round(theta[i] + c * delta[i]);
+        minus[i] = (int) Math.round(theta[i] - c * delta[i]);
+      }
+      //from -1 if minus won every game to 1 if plus did
+      double result = 2 * playMatch(plus, minus, gamePairs, random.nextLong()) - 1;
+      for (int i = 0; i < theta.length; i++) {
+        theta[i] += step * result * scale[i] * perturbation * delta[i];
+      }
+    }
+    int[] tuned = new int[theta.length];
+    for (int i = 0; i < theta.length; i++) {
+      tuned[i] = (int) Math.round(theta[i]);
+    }
+    return tuned;
+  }
+
+  /**
+   * Plays pairs of games between two sets of weights, each pair from its own random
+   * opening with each side playing black once.
+   *
+   * @param first     the weights of one side
+   * @param second    the weights of the other side
+   * @param gamePairs the number of pairs of games
+   * @param seed      the seed of the openings
+   * @return the first side's share of the points, between 0 and 1, with a draw worth half
+   */
+  public double playMatch(int[] first, int[] second, int gamePairs, long seed) {
+    IReversiModel model = newGame.get();
+    model.startGame();
+    CompactBoard start = CompactBoard.of(model);
+    CompactBoard[] openingPositions = new CompactBoard[gamePairs];
+    for (int pair = 0; pair < gamePairs; pair++) {
+      openingPositions[pair] = start.copy();
+      playOpening(openingPositions[pair], seed, pair);
+    }
+    double points = pool.invoke(new Match(openingPositions, new Evaluator(first),
+            new Evaluator(second), depth, games, 0, gamePairs));
+    return points / (2.0 * gamePairs);
+  }
+
+  /**
+   * Gets the number of games played so far.
+   *
+   * @return the number of games
+   */
+  public long getGameCount() {
+    return games.get();
+  }
+
+  /**
+   * Plays the opening of a pair of games: the given opening the pair's turn comes to, or
+   * random legal moves.
+   *
+   * @param board the position, which is played on
+   * @param seed  the seed of the match
+   * @param pair  the index of the pair in the match
+   */
+  private void playOpening(CompactBoard board, long seed, int pair) {
+    if (openings != null) {
+      int[] opening = openings.get((int) Math.floorMod(seed + pair, (long) openings.size()));
+      for (int cell : opening) {
+        if (cell < 0) {
+          board.pass();
+        } else {
+          board.play(cell);
+        }
+      }
+      return;
+    }
+    SplittableRandom random = new SplittableRandom(seed + pair * 0x9E3779B97F4A7C15L);
+    int[] moves = new int[board.getLayout().getCellCount()];
+    for (int ply = 0; ply < openingPlies && !board.isGameOver(); ply++) {
+      int count = board.generateMoves(moves);
+      if (count == 0) {
+        board.pass();
+      } else {
+        board.play(moves[random.nextInt(count)]);
+      }
+    }
+  }
+
+  /**
+   * A range of game pairs, split in halves until each half is one pair. It holds only what
+   * its games need, not the tuner.
+   */
+  private static final class Match extends RecursiveTask<Double> {
+    private static final long serialVersionUID = 1L;
+
+    private final CompactBoard[] openingPositions; //where each pair starts, by pair
+    private final Evaluator first;
+    private final Evaluator second;
+    private final int depth; //plies each player searches per move
+    private final AtomicLong games; //the tuner's count of games played
+    private final int from; //first pair, inclusive
+    private final int to; //last pair, exclusive
+
+    /**
+     * Constructs a Match.
+     *
+     * @param openingPositions the position each pair starts from, after its opening
+     * @param first            the evaluator whose points are counted
+     * @param second           the other evaluator
+     * @param depth            the plies each player searches per move
+     * @param games            counts the games played
+     * @param from             the first pair
+     * @param to               the pair after the last
+     */
+    Match(CompactBoard[] openingPositions, Evaluator first, Evaluator second, int depth,
+          AtomicLong games, int from, int to) {
+      this.openingPositions = openingPositions;
+      this.first = first;
+      this.second = second;
+      this.depth = depth;
+      this.games = games;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Double compute() {
+      if (to - from > 1) {
+        int middle = (from + to) >>> 1;
+        Match left = new Match(openingPositions, first, second, depth, games, from, middle);
+        left.fork();
+        double right = new Match(openingPositions, first, second, depth, games, middle, to)
+                .compute();
+        return left.join() + right;
+      }
+      CompactBoard opening = openingPositions[from];
+      double points = playGame(opening.copy(), first, second);
+      points += 1 - playGame(opening.copy(), second, first);
+      return points;
+    }
+
+    /**
+     * Plays one game to the end.
+     *
+     * @param board the position to start from, which is played on
+     * @param black the evaluator of the black player
+     * @param white the evaluator of the white player
+     * @return black's points: 1 for a win, 0.5 for a draw and 0 for a loss
+     */
+    private double playGame(CompactBoard board, Evaluator black, Evaluator white) {
+      AlphaBetaStrategy blackSearch = new AlphaBetaStrategy(depth, black, TABLE_SLOTS);
+      AlphaBetaStrategy whiteSearch = new AlphaBetaStrategy(depth, white, TABLE_SLOTS);
+      while (!board.isGameOver()) {
+        AlphaBetaStrategy search = board.getTurn() == BoardLayout.BLACK ? blackSearch
+                : whiteSearch;
+        int move = search.search(board);
+        if (move < 0) {
+          board.pass();
+        } else {
+          board.play(move);
+        }
+      }
+      games.incrementAndGet();
+      int margin = board.getCount(BoardLayout.BLACK) - board.getCount(BoardLayout.WHITE);
+      return margin > 0 ? 1 : margin == 0 ? 0.5 : 0;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package tournament;
+
+/**
+ * Converts between scores and Elo rating differences. A score is the share of the points
+ * won, with a draw worth half a point, and a difference of d Elo means an expected score
+ * of 1 / (1 + 10^(-d / 400)).
+ */
+public final class Elo {
+  private static final double Z_95 = 1.959964; //two-sided 95% normal quantile
+  private static final double MAX_ELO = 1000; //reported for a score of 0 or 1
+
+  private Elo() {
+  }
+
+  /**
+   * Gets the rating difference that gives a score.
+   *
+   * @param score the share of the points, between 0 and 1
+   * @return the difference in Elo, capped at plus or minus 1000
+   */
+  public static double difference(double score) {
+    if (score <= 0) {
+      return -MAX_ELO;
+    }
+    if (score >= 1) {
+      return MAX_ELO;
+    }
+    return Math.max(-MAX_ELO, Math.min(MAX_ELO, -400 * Math.log10(1 / score - 1)));
+  }
+
+  /**
+   * Gets the score a rating difference gives.
+   *
+   * @param elo the difference in Elo
+   * @return the expected share of the points
+   */
+  public static double expectedScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  /**
+   * Gets the rating differences at the ends of the 95% confidence interval of a mean
+   * score, from the variance of the samples it averages.
+   *
+   * @param mean     the mean score
+   * @param variance the variance of one sample's score
+   * @param samples  the number of samples
+   * @return the lower and upper ends, in Elo
+   */
+  public static double[] interval(double mean, double variance, int samples) {
+    double error = samples == 0 ? 0.5 : Z_95 * Math.sqrt(variance / samples);
+    return new double[] {difference(mean - error), difference(mean + error)};
+  }
+}
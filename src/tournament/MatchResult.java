@@ -0,0 +1,179 @@
+package tournament;
+
+import java.util.Locale;
+
+/**
+ * The result of a match between two strategies, from the first one's point of view. The
+ * match is played in pairs of games from the same opening with colors swapped, and each
+ * pair's average score is one sample, which cancels most of the luck of the opening.
+ */
+public final class MatchResult {
+  private final String first;
+  private final String second;
+  private int wins;
+  private int draws;
+  private int losses;
+  private int pairs;
+  private double sum; //of the pair scores
+  private double sumOfSquares; //of the pair scores
+  private Sprt.Decision decision;
+
+  /**
+   * Constructs an empty MatchResult.
+   *
+   * @param first  the spec of the first strategy
+   * @param second the spec of the second strategy
+   */
+  MatchResult(String first, String second) {
+    this.first = first;
+    this.second = second;
+    this.decision = Sprt.Decision.CONTINUE;
+  }
+
+  /**
+   * Adds the result of a pair of games.
+   *
+   * @param asBlack the first strategy's points playing black: 1, 0.5 or 0
+   * @param asWhite the first strategy's points playing white: 1, 0.5 or 0
+   */
+  void addPair(double asBlack, double asWhite) {
+    for (double points : new double[] {asBlack, asWhite}) {
+      if (points == 1) {
+        wins++;
+      } else if (points == 0) {
+        losses++;
+      } else {
+        draws++;
+      }
+    }
+    double score = (asBlack + asWhite) / 2;
+    pairs++;
+    sum += score;
+    sumOfSquares += score * score;
+  }
+
+  /**
+   * Records what a sequential test decided.
+   *
+   * @param decision the decision
+   */
+  void setDecision(Sprt.Decision decision) {
+    this.decision = decision;
+  }
+
+  /**
+   * Gets the spec of the first strategy.
+   *
+   * @return the spec
+   */
+  public String getFirst() {
+    return first;
+  }
+
+  /**
+   * Gets the spec of the second strategy.
+   *
+   * @return the spec
+   */
+  public String getSecond() {
+    return second;
+  }
+
+  /**
+   * Gets the number of games the first strategy won.
+   *
+   * @return the number of wins
+   */
+  public int getWins() {
+    return wins;
+  }
+
+  /**
+   * Gets the number of games drawn.
+   *
+   * @return the number of draws
+   */
+  public int getDraws() {
+    return draws;
+  }
+
+  /**
+   * Gets the number of games the first strategy lost.
+   *
+   * @return the number of losses
+   */
+  public int getLosses() {
+    return losses;
+  }
+
+  /**
+   * Gets the number of pairs of games played.
+   *
+   * @return the number of pairs
+   */
+  public int getPairs() {
+    return pairs;
+  }
+
+  /**
+   * Gets the first strategy's share of the points.
+   *
+   * @return the score, between 0 and 1, or 0.5 before any game
+   */
+  public double getScore() {
+    return pairs == 0 ? 0.5 : sum / pairs;
+  }
+
+  /**
+   * Gets the variance of one pair's score.
+   *
+   * @return the variance
+   */
+  public double getVariance() {
+    if (pairs == 0) {
+      return 0;
+    }
+    double mean = sum / pairs;
+    return Math.max(0, sumOfSquares / pairs - mean * mean);
+  }
+
+  /**
+   * Gets how much stronger the first strategy played.
+   *
+   * @return the rating difference in Elo
+   */
+  public double getEloDifference() {
+    return Elo.difference(getScore());
+  }
+
+  /**
+   * Gets the 95% confidence interval of the rating difference.
+   *
+   * @return the lower and upper ends, in Elo
+   */
+  public double[] getEloInterval() {
+    return Elo.interval(getScore(), getVariance(), pairs);
+  }
+
+  /**
+   * Gets what the sequential test decided.
+   *
+   * @return the decision, or CONTINUE if the match ended without one or had no test
+   */
+  public Sprt.Decision getDecision() {
+    return decision;
+  }
+
+  /**
+   * Describes the result on one line.
+   *
+   * @return the description
+   */
+  @Override
+  public String toString() {
+    double[] interval = getEloInterval();
+    return String.format(Locale.ROOT, "%s vs %s: +%d =%d -%d, score %.3f, Elo %.1f [%.1f, %.1f]%s",
+            first, second, wins, draws, losses, getScore(), getEloDifference(), interval[0],
+            interval[1], decision == Sprt.Decision.CONTINUE ? "" : ", " + decision);
+  }
+}
@@ -0,0 +1,98 @@
+package tournament;
+
+/**
+ * A sequential probability ratio test between two hypotheses about the rating difference
+ * of two players, elo0 (usually no gain) and elo1 (the gain hoped for). After each sample
+ * the log-likelihood ratio of the scores so far is compared with bounds set by the error
+ * rates: once it crosses one the test stops, so a clear result needs far fewer games than
+ * a fixed-length match. The ratio uses the normal approximation of the scores, which
+ * holds for the averaged scores of color-swapped game pairs.
+ */
+public final class Sprt {
+
+  /**
+   * What the test has decided so far.
+   */
+  public enum Decision { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+  private static final double MIN_VARIANCE = 0.01; //so identical results are not certainty
+
+  private final double elo0;
+  private final double elo1;
+  private final double lowerBound; //log-likelihood ratio that accepts elo0
+  private final double upperBound; //log-likelihood ratio that accepts elo1
+
+  /**
+   * Constructs a test.
+   *
+   * @param elo0  the rating difference of the null hypothesis
+   * @param elo1  the rating difference of the alternative hypothesis
+   * @param alpha the chance of accepting elo1 when elo0 is true
+   * @param beta  the chance of accepting elo0 when elo1 is true
+   * @throws IllegalArgumentException if elo1 is not above elo0, or alpha or beta is not
+   *                                  between 0 and 1
+   */
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (elo1 <= elo0) {
+      throw new IllegalArgumentException("elo1 must be above elo0");
+    }
+    if (alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+      throw new IllegalArgumentException("Error rates must be between 0 and 1");
+    }
+    this.elo0 = elo0;
+    this.elo1 = elo1;
+    this.lowerBound = Math.log(beta / (1 - alpha));
+    this.upperBound = Math.log((1 - beta) / alpha);
+  }
+
+  /**
+   * Computes the log-likelihood ratio of the scores so far.
+   *
+   * @param mean     the mean score of the samples
+   * @param variance the variance of one sample's score, taken as at least 0.01
+   * @param samples  the number of samples
+   * @return the log of how much likelier the scores are under elo1 than under elo0
+   */
+  public double logLikelihoodRatio(double mean, double variance, int samples) {
+    if (samples == 0) {
+      return 0;
+    }
+    double score0 = Elo.expectedScore(elo0);
+    double score1 = Elo.expectedScore(elo1);
+    return samples * (score1 - score0) * (2 * mean - score0 - score1)
+            / (2 * Math.max(variance, MIN_VARIANCE));
+  }
+
+  /**
+   * Decides from the scores so far.
+   *
+   * @param mean     the mean score of the samples
+   * @param variance the variance of one sample's score
+   * @param samples  the number of samples
+   * @return whether to stop, and which hypothesis to accept if so
+   */
+  public Decision decide(double mean, double variance, int samples) {
+    double llr = logLikelihoodRatio(mean, variance, samples);
+    if (llr >= upperBound) {
+      return Decision.ACCEPT_H1;
+    }
+    if (llr <= lowerBound) {
+      return Decision.ACCEPT_H0;
+    }
+    return Decision.CONTINUE;
+  }
+
+  /**
+   * Gets the bounds of the log-likelihood ratio.
+   *
+   * @return the bound that accepts elo0 and the bound that accepts elo1
+   */
+  public double[] getBounds() {
+    return new double[] {lowerBound, upperBound};
+  }
+
+  @Override
+  public String toString() {
+    return "SPRT[elo0=" + elo0 + ", elo1=" + elo1 + "]";
+  }
+}
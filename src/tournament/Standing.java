@@ -0,0 +1,101 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One strategy's line in the table of a tournament: the points it won against everyone it
+ * played, and the rating that score is worth against the average of its opponents.
+ */
+public final class Standing {
+  private final String spec;
+  private double points;
+  private int games;
+
+  /**
+   * Constructs an empty Standing.
+   *
+   * @param spec the strategy's spec
+   */
+  private Standing(String spec) {
+    this.spec = spec;
+  }
+
+  /**
+   * Builds the table of a tournament from its matches.
+   *
+   * @param matches the matches
+   * @return a standing per strategy, best score first
+   */
+  public static List<Standing> of(List<MatchResult> matches) {
+    Map<String, Standing> table = new LinkedHashMap<>();
+    for (MatchResult match : matches) {
+      int games = match.getWins() + match.getDraws() + match.getLosses();
+      double firstPoints = match.getWins() + match.getDraws() / 2.0;
+      Standing first = table.computeIfAbsent(match.getFirst(), Standing::new);
+      Standing second = table.computeIfAbsent(match.getSecond(), Standing::new);
+      first.points += firstPoints;
+      first.games += games;
+      second.points += games - firstPoints;
+      second.games += games;
+    }
+    List<Standing> standings = new ArrayList<>(table.values());
+    standings.sort(Comparator.comparingDouble(Standing::getScore).reversed());
+    return standings;
+  }
+
+  /**
+   * Gets the strategy's spec.
+   *
+   * @return the spec
+   */
+  public String getSpec() {
+    return spec;
+  }
+
+  /**
+   * Gets the points won, a draw being worth half a point.
+   *
+   * @return the points
+   */
+  public double getPoints() {
+    return points;
+  }
+
+  /**
+   * Gets the number of games played.
+   *
+   * @return the number of games
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Gets the share of the points won.
+   *
+   * @return the score, between 0 and 1, or 0.5 before any game
+   */
+  public double getScore() {
+    return games == 0 ? 0.5 : points / games;
+  }
+
+  /**
+   * Gets the rating the score is worth against the average opponent.
+   *
+   * @return the rating difference in Elo
+   */
+  public double getElo() {
+    return Elo.difference(getScore());
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%-40s %6.1f / %-5d %+7.1f", spec, points, games,
+            getElo());
+  }
+}
@@ -0,0 +1,359 @@
+package tournament;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import model.BoardLayout;
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+import model.ReversiModel;
+import strategy.IReversiStrategy;
+import strategy.OpeningGenerator;
+import strategy.SeededTieBreakStrategy;
+import strategy.StrategySpec;
+
+/**
+ * Plays matches between strategies, given as specs in the syntax of the command line, on
+ * a pool of threads. Every match is played in pairs of games: each pair starts from its
+ * own few random opening moves, or from its own opening of a given set, and each strategy
+ * plays black once, and pair n of every match starts from the same opening, so the
+ * matches of a tournament are comparable.
+ * Every game gets new strategy instances, so searching strategies share nothing between
+ * games or threads, and each breaks ties between equally good moves at random from a
+ * seed of its pair, so deterministic strategies still play varied games. A match with a
+ * {@link Sprt} stops as soon as the test decides.
+ * Run it with {@code java tournament.Tournament roundrobin|gauntlet pairs spec spec ...};
+ * a gauntlet plays the first spec against each of the others with an SPRT of 0 against
+ * 10 Elo at 5% error rates.
+ */
+public final class Tournament implements Closeable {
+  private static final long SEED_STEP = 0x9E3779B97F4A7C15L; //spreads the seeds of the pairs
+
+  private final Supplier<IReversiModel> newGame; //creates a fresh, unstarted model
+  private final int openingPlies; //random moves that start each pair of games
+  private final List<int[]> openings; //openings of the pairs in turn, or null for random
+  private final long seed; //seed of the random openings
+  private final int threads;
+  private final ExecutorService pool;
+
+  /**
+   * Constructs a Tournament whose pairs start from random openings.
+   *
+   * @param newGame      creates a new, unstarted model of the board to play on
+   * @param openingPlies the random moves that start each pair of games
+   * @param threads      the number of games to play at once
+   * @param seed         the seed of the openings
+   * @throws IllegalArgumentException if threads is not positive or openingPlies is negative
+   */
+  public Tournament(Supplier<IReversiModel> newGame, int openingPlies, int threads,
+                    long seed) {
+    this(newGame, openingPlies, null, threads, seed);
+  }
+
+  /**
+   * Constructs a Tournament whose pairs start from given openings, such as those made by
+   * an {@link OpeningGenerator}; pair n of a match plays opening n, going round again if
+   * there are more pairs than openings.
+   *
+   * @param newGame  creates a new, unstarted model of the board to play on
+   * @param openings the openings, each a line of cell indexes with -1 for a pass
+   * @param threads  the number of games to play at once
+   * @throws IllegalArgumentException if threads is not positive, there are no openings or
+   *                                  an opening cannot be played on the board
+   */
+  public Tournament(Supplier<IReversiModel> newGame, List<int[]> openings, int threads) {
+    this(newGame, 0, List.copyOf(openings), threads, 0);
+  }
+
+  /**
+   * Constructs a Tournament.
+   *
+   * @param newGame      creates a new, unstarted model of the board to play on
+   * @param openingPlies the random moves that start each pair of games
+   * @param openings     the openings to play instead, or null
+   * @param threads      the number of games to play at once
+   * @param seed         the seed of the random openings
+   * @throws IllegalArgumentException if threads is not positive, openingPlies is negative,
+   *                                  or the openings are empty or cannot be played
+   */
+  private Tournament(Supplier<IReversiModel> newGame, int openingPlies, List<int[]> openings,
+                     int threads, long seed) {
+    if (threads <= 0 || openingPlies < 0) {
+      throw new IllegalArgumentException("Threads must be positive");
+    }
+    if (openings != null) {
+      OpeningGenerator.validate(newGame, openings); //fails now rather than during a match
+    }
+    this.newGame = newGame;
+    this.openingPlies = openingPlies;
+    this.openings = openings;
+    this.seed = seed;
+    this.threads = threads;
+    this.pool = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "tournament-game");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Runs a tournament from the command line on a hexagonal board of size 3 and prints
+   * the results.
+   *
+   * @param args "roundrobin" or "gauntlet", the pairs of games per match, then the specs
+   */
+  public static void main(String[] args) {
+    if (args.length < 4) {
+      throw new IllegalArgumentException(
+              "Usage: Tournament roundrobin|gauntlet pairs spec spec ...");
+    }
+    int pairs = Integer.parseInt(args[1]);
+    List<String> specs = Arrays.asList(args).subList(2, args.length);
+    try (Tournament tournament = new Tournament(() -> new ReversiModel(3), 4,
+            Runtime.getRuntime().availableProcessors(), System.nanoTime())) {
+      List<MatchResult> matches;
+      if (args[0].equalsIgnoreCase("gauntlet")) {
+        matches = tournament.gauntlet(specs.get(0), specs.subList(1, specs.size()), pairs,
+                new Sprt(0, 10, 0.05, 0.05));
+      } else if (args[0].equalsIgnoreCase("roundrobin")) {
+        matches = tournament.roundRobin(specs, pairs);
+      } else {
+        throw new IllegalArgumentException("Unknown kind of tournament: " + args[0]);
+      }
+      matches.forEach(System.out::println);
+      Standing.of(matches).forEach(System.out::println);
+    }
+  }
+
+  /**
+   * Plays every strategy against every other.
+   *
+   * @param specs the strategies
+   * @param pairs the pairs of games per match
+   * @return the result of each match
+   * @throws IllegalArgumentException if a spec is invalid or pairs is not positive
+   */
+  public List<MatchResult> roundRobin(List<String> specs, int pairs) {
+    List<MatchResult> matches = new ArrayList<>();
+    for (int i = 0; i < specs.size(); i++) {
+      for (int j = i + 1; j < specs.size(); j++) {
+        matches.add(match(specs.get(i), specs.get(j), pairs, null));
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Plays one strategy against each of the others.
+   *
+   * @param challenger the strategy being measured
+   * @param opponents  the strategies it plays
+   * @param maxPairs   the most pairs of games per match
+   * @param sprt       the test that may stop a match early, or null to play every pair
+   * @return the result of each match, from the challenger's point of view
+   * @throws IllegalArgumentException if a spec is invalid or maxPairs is not positive
+   */
+  public List<MatchResult> gauntlet(String challenger, List<String> opponents, int maxPairs,
+                                    Sprt sprt) {
+    List<MatchResult> matches = new ArrayList<>();
+    for (String opponent : opponents) {
+      matches.add(match(challenger, opponent, maxPairs, sprt));
+    }
+    return matches;
+  }
+
+  /**
+   * Plays a match. Pairs are handed to the pool a few at a time, and none are started
+   * once the test has decided; the pairs that were already running are abandoned.
+   *
+   * @param first    the spec of the first strategy
+   * @param second   the spec of the second strategy
+   * @param maxPairs the most pairs of games to play
+   * @param sprt     the test that may stop the match early, or null to play every pair
+   * @return the result, from the first strategy's point of view
+   * @throws IllegalArgumentException if a spec is invalid or maxPairs is not positive
+   * @throws IllegalStateException    if a strategy fails during a game
+   */
+  public MatchResult match(String first, String second, int maxPairs, Sprt sprt) {
+    if (maxPairs <= 0) {
+      throw new IllegalArgumentException("A match needs at least one pair of games");
+    }
+    StrategySpec.parse(first);
+    StrategySpec.parse(second);
+    MatchResult result = new MatchResult(first, second);
+    CompletionService<double[]> done = new ExecutorCompletionService<>(pool);
+    List<Future<double[]>> running = new ArrayList<>();
+    int submitted = 0;
+    try {
+      for (; submitted < Math.min(2 * threads, maxPairs); submitted++) {
+        int pair = submitted;
+        running.add(done.submit(() -> playPair(first, second, pair)));
+      }
+      for (int finished = 0; finished < submitted; finished++) {
+        double[] points = done.take().get();
+        result.addPair(points[0], points[1]);
+        if (sprt != null) {
+          Sprt.Decision decision = sprt.decide(result.getScore(), result.getVariance(),
+                  result.getPairs());
+          if (decision != Sprt.Decision.CONTINUE) {
+            result.setDecision(decision);
+            break;
+          }
+        }
+        if (submitted < maxPairs) {
+          int pair = submitted++;
+          running.add(done.submit(() -> playPair(first, second, pair)));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A game could not be played", e.getCause());
+    } finally {
+      running.forEach(future -> future.cancel(true));
+    }
+    return result;
+  }
+
+  /**
+   * Stops the threads. Games still running are abandoned.
+   */
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Plays one pair of games from the opening of its index.
+   *
+   * @param first  the spec of the first strategy
+   * @param second the spec of the second strategy
+   * @param pair   the index of the pair
+   * @return the first strategy's points as black and as white
+   */
+  private double[] playPair(String first, String second, int pair) {
+    SplittableRandom random = new SplittableRandom(seed + pair * SEED_STEP);
+    long gameSeed = random.nextLong();
+    List<IPosition> opening = openings != null
+            ? lineOf(openings.get(pair % openings.size())) : randomOpening(random);
+    double asBlack = playGame(opening, player(first, gameSeed, Cell.BLACK),
+            player(second, gameSeed, Cell.WHITE));
+    double asWhite = 1 - playGame(opening, player(second, gameSeed, Cell.BLACK),
+            player(first, gameSeed, Cell.WHITE));
+    return new double[] {asBlack, asWhite};
+  }
+
+  /**
+   * Makes a new instance of a strategy for one side of a game, breaking its ties with
+   * the game's seed. Both games of a pair have the same seed, so a strategy facing
+   * itself plays the same game twice with colors swapped.
+   *
+   * @param spec     the spec of the strategy
+   * @param gameSeed the seed of the game
+   * @param color    the color the strategy plays
+   * @return the strategy
+   */
+  private static IReversiStrategy player(String spec, long gameSeed, Cell color) {
+    return new SeededTieBreakStrategy(StrategySpec.parse(spec), gameSeed, color);
+  }
+
+  /**
+   * Chooses random legal moves from the start of a game.
+   *
+   * @param random chooses the moves
+   * @return the moves, where null stands for a pass
+   */
+  private List<IPosition> randomOpening(SplittableRandom random) {
+    IReversiModel model = replay(List.of());
+    BoardLayout layout = BoardLayout.of(model);
+    List<IPosition> opening = new ArrayList<>();
+    for (int ply = 0; ply < openingPlies && !model.isGameOver(); ply++) {
+      List<IPosition> moves = new ArrayList<>();
+      for (int cell = 0; cell < layout.getCellCount(); cell++) {
+        if (model.isALegalMove(layout.position(cell), model.getCurrentTurn())) {
+          moves.add(layout.position(cell));
+        }
+      }
+      IPosition move = moves.isEmpty() ? null : moves.get(random.nextInt(moves.size()));
+      if (move == null) {
+        model.passTurn();
+      } else {
+        model.executeMove(move);
+      }
+      opening.add(move);
+    }
+    return opening;
+  }
+
+  /**
+   * Turns an opening of cell indexes into moves.
+   *
+   * @param opening the cells, with -1 for a pass, already validated
+   * @return the moves, where null stands for a pass
+   */
+  private List<IPosition> lineOf(int[] opening) {
+    BoardLayout layout = BoardLayout.of(newGame.get());
+    List<IPosition> line = new ArrayList<>();
+    for (int cell : opening) {
+      line.add(cell < 0 ? null : layout.position(cell));
+    }
+    return line;
+  }
+
+  /**
+   * Plays a game to the end from an opening.
+   *
+   * @param opening the opening moves, where null stands for a pass
+   * @param black   the strategy playing black
+   * @param white   the strategy playing white
+   * @return black's points: 1 for a win, 0.5 for a draw and 0 for a loss
+   */
+  private double playGame(List<IPosition> opening, IReversiStrategy black,
+                          IReversiStrategy white) {
+    IReversiModel model = replay(opening);
+    while (!model.isGameOver()) {
+      Cell turn = model.getCurrentTurn();
+      IReversiStrategy strategy = turn == Cell.BLACK ? black : white;
+      Optional<IPosition> move = strategy.chooseBestPosition(
+              strategy.choosePositions(model, turn));
+      if (move.isPresent()) {
+        model.executeMove(move.get());
+      } else {
+        model.passTurn();
+      }
+    }
+    int margin = model.getScore(Cell.BLACK) - model.getScore(Cell.WHITE);
+    return margin > 0 ? 1 : margin == 0 ? 0.5 : 0;
+  }
+
+  /**
+   * Plays a line of moves on a fresh game.
+   *
+   * @param line the moves to play, where null stands for a pass
+   * @return the model after the moves
+   */
+  private IReversiModel replay(List<IPosition> line) {
+    IReversiModel model = newGame.get();
+    model.startGame();
+    for (IPosition move : line) {
+      if (move == null) {
+        model.passTurn();
+      } else {
+        model.executeMove(move);
+      }
+    }
+    return model;
+  }
+}
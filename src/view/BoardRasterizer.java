@@ -0,0 +1,205 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.ReadOnlyReversiModel;
+
+/**
+ * Draws Reversi boards into images without any window, so it works with
+ * {@code java.awt.headless=true}. Boards are drawn the way ReversiPanelView and
+ * SquareReversiPanelView draw them in a panel of the same size. The empty board of
+ * each layout is drawn once and shared, so a rasterizer can be used from many threads
+ * at once to render large batches of positions.
+ */
+public final class BoardRasterizer {
+  private static final Color BACKGROUND = Color.GREEN.darker().darker().darker();
+
+  private final int width; //size of the images, in pixels
+  private final int height;
+  private final Map<BoardLayout, Background> backgrounds; //empty boards by layout
+
+  /**
+   * Constructs a rasterizer that draws images of the given size.
+   *
+   * @param width  the width of the images, in pixels
+   * @param height the height of the images, in pixels
+   * @throws IllegalArgumentException if the width or height is not positive
+   */
+  public BoardRasterizer(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Image size must be positive");
+    }
+    this.width = width;
+    this.height = height;
+    this.backgrounds = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Draws the current position of a game.
+   *
+   * @param model a started game
+   * @return a new image of the board
+   * @throws IllegalStateException if the game has not started
+   */
+  public BufferedImage render(ReadOnlyReversiModel model) {
+    return render(CompactBoard.of(model));
+  }
+
+  /**
+   * Draws a stored position.
+   *
+   * @param board the position
+   * @return a new image of the board
+   */
+  public BufferedImage render(CompactBoard board) {
+    Background background = backgrounds.computeIfAbsent(board.getLayout(), Background::new);
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.drawImage(background.image, 0, 0, null);
+    BoardLayout layout = board.getLayout();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      int color = board.get(cell);
+      if (color != BoardLayout.EMPTY) {
+        g2d.setColor(color == BoardLayout.BLACK ? Color.BLACK : Color.WHITE);
+        background.drawDisc(g2d, layout.getQ(cell), layout.getR(cell));
+      }
+    }
+    g2d.dispose();
+    return image;
+  }
+
+  /**
+   * Draws a stored position and writes it as a PNG file.
+   *
+   * @param board the position
+   * @param file  the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public void writePng(CompactBoard board, Path file) throws IOException {
+    if (!ImageIO.write(render(board), "png", file.toFile())) {
+      throw new IOException("No PNG writer available");
+    }
+  }
+
+  /**
+   * Draws many positions on parallel threads.
+   *
+   * @param boards the positions; each must not be changed until this returns
+   * @return the images, in the same order as the positions
+   */
+  public List<BufferedImage> renderAll(List<CompactBoard> boards) {
+    BufferedImage[] images = new BufferedImage[boards.size()];
+    IntStream.range(0, images.length).parallel()
+            .forEach(i -> images[i] = render(boards.get(i)));
+    return Arrays.asList(images);
+  }
+
+  /**
+   * Draws many positions on parallel threads and writes each as a PNG file named by its
+   * index, such as {@code game-00042.png} for the prefix {@code game-}.
+   *
+   * @param boards    the positions; each must not be changed until this returns
+   * @param directory the directory to write to, created if it does not exist
+   * @param prefix    the start of each file name
+   * @throws IOException if a file cannot be written
+   */
+  public void writeAll(List<CompactBoard> boards, Path directory, String prefix)
+          throws IOException {
+    Files.createDirectories(directory);
+    try {
+      IntStream.range(0, boards.size()).parallel().forEach(i -> {
+        try {
+          writePng(boards.get(i), directory.resolve(String.format("%s%05d.png", prefix, i)));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * The empty board of one layout at this rasterizer's image size, with the geometry
+   * used to place discs on it. It is only read once built, so threads can share it.
+   */
+  private final class Background {
+    private final BufferedImage image; //the background and every empty cell
+    private final HexGeometry hexes; //null for square boards
+    private final int discRadius; //radius of a disc on a hexagonal board
+    private final int cellSize; //side of a square cell, 0 for hexagonal boards
+
+    /**
+     * Draws the empty board of a layout.
+     *
+     * @param layout the layout of the board
+     */
+    Background(BoardLayout layout) {
+      this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g2d = image.createGraphics();
+      g2d.setColor(BACKGROUND);
+      g2d.fillRect(0, 0, width, height);
+      if (layout.getKind() == BoardLayout.Kind.HEXAGON) {
+        int radius = layout.getSize();
+        int hexSize = HexGeometry.hexagonSize(width, height, 2 * radius + 1);
+        this.hexes = new HexGeometry(hexSize, width / 2, height / 2, radius, width, height);
+        this.discRadius = hexSize / 2;
+        this.cellSize = 0;
+        for (int cell = 0; cell < layout.getCellCount(); cell++) {
+          Polygon hexagon = hexes.hexagon(layout.getQ(cell), layout.getR(cell));
+          g2d.setColor(Color.RED.darker());
+          g2d.fill(hexagon);
+          g2d.setColor(Color.WHITE);
+          g2d.draw(hexagon);
+        }
+      } else {
+        this.hexes = null;
+        this.discRadius = 0;
+        this.cellSize = SquareReversiPanelView.squareSize(width, height,
+                layout.getSize() * 2) + 1;
+        for (int cell = 0; cell < layout.getCellCount(); cell++) {
+          int x = layout.getQ(cell) * cellSize;
+          int y = layout.getR(cell) * cellSize;
+          g2d.setColor(Color.GRAY);
+          g2d.fillRect(x, y, cellSize, cellSize);
+          g2d.setColor(Color.BLACK);
+          g2d.drawRect(x, y, cellSize, cellSize);
+        }
+      }
+      g2d.dispose();
+    }
+
+    /**
+     * Draws a disc in the current color of the graphics context.
+     *
+     * @param g2d the graphics context
+     * @param q   the q-coordinate of the cell
+     * @param r   the r-coordinate of the cell
+     */
+    void drawDisc(Graphics2D g2d, int q, int r) {
+      if (hexes != null) {
+        g2d.fillOval(hexes.centerX(q, r) - discRadius, hexes.centerY(r) - discRadius,
+                discRadius * 2, discRadius * 2);
+      } else {
+        int padding = cellSize / 10;
+        g2d.fillOval(q * cellSize + padding, r * cellSize + padding,
+                cellSize - padding * 2, cellSize - padding * 2);
+      }
+    }
+  }
+}
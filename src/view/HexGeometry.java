@@ -0,0 +1,201 @@
+package view;
+
+import java.awt.Polygon;
+
+import model.Position;
+
+/**
+ * The pixel geometry of a hexagonal board at one hexagon size and origin. The corners of
+ * a hexagon are computed once as a template and translated to each cell, and clicks are
+ * resolved to cells with a lookup table covering the panel. A HexGeometry never changes;
+ * the panel builds a new one when it is resized.
+ */
+final class HexGeometry {
+  private static final double SQRT3 = Math.sqrt(3);
+
+  private final int size; //distance from the center of a hexagon to a corner
+  private final int originX; //pixel center of the cell (0, 0, 0)
+  private final int originY;
+  private final int radius; //cells from the center to the edge of the board
+  private final int width; //panel size the lookup table covers
+  private final int height;
+  private final int[] cornersX; //corners of a hexagon centered at (0, 0)
+  private final int[] cornersY;
+  private final Position[] cells; //every cell of the board, indexed by the lookup table
+  private short[] hitTable; //index into cells for every pixel, -1 off the board; lazy
+
+  /**
+   * Constructs the geometry of a board.
+   *
+   * @param size    the distance from the center of a hexagon to a corner, in pixels
+   * @param originX the x pixel coordinate of the center cell
+   * @param originY the y pixel coordinate of the center cell
+   * @param radius  the number of cells from the center to the edge of the board
+   * @param width   the width of the panel, in pixels
+   * @param height  the height of the panel, in pixels
+   * @throws IllegalArgumentException if the radius is negative or the board has more
+   *                                  cells than the lookup table can index
+   */
+  HexGeometry(int size, int originX, int originY, int radius, int width, int height) {
+    if (radius < 0 || 3 * radius * (radius + 1) + 1 > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid board radius");
+    }
+    this.size = size;
+    this.originX = originX;
+    this.originY = originY;
+    this.radius = radius;
+    this.width = Math.max(0, width);
+    this.height = Math.max(0, height);
+    this.cornersX = new int[6];
+    this.cornersY = new int[6];
+    for (int i = 0; i < 6; i++) {
+      double angle = Math.toRadians(60 * i - 30);
+      cornersX[i] = (int) Math.round(size * Math.cos(angle));
+      cornersY[i] = (int) Math.round(size * Math.sin(angle));
+    }
+    this.cells = new Position[3 * radius * (radius + 1) + 1];
+    int index = 0;
+    for (int q = -radius; q <= radius; q++) {
+      int r1 = Math.max(-radius, -q - radius);
+      int r2 = Math.min(radius, -q + radius);
+      for (int r = r1; r <= r2; r++) {
+        cells[index++] = new Position(q, r, -q - r);
+      }
+    }
+  }
+
+  /**
+   * Calculates the size of a hexagon so that a board fits a panel of the given size.
+   *
+   * @param width       the width of the panel, in pixels
+   * @param height      the height of the panel, in pixels
+   * @param boardLength the number of cells across the board
+   * @return the distance from the center of a hexagon to a corner, in pixels
+   */
+  static int hexagonSize(int width, int height, int boardLength) {
+    double horizontalSize = width / ((boardLength * 1.5) * 2);
+    double verticalSize = height / ((boardLength * SQRT3) + 0.5) + 1.25;
+
+    return (int) Math.max(horizontalSize, verticalSize);
+  }
+
+  /**
+   * Checks if this geometry was built for the given panel layout.
+   *
+   * @param size   the hexagon size
+   * @param width  the width of the panel
+   * @param height the height of the panel
+   * @return true if nothing has changed since this geometry was built
+   */
+  boolean matches(int size, int width, int height) {
+    return this.size == size && this.width == Math.max(0, width)
+            && this.height == Math.max(0, height);
+  }
+
+  /**
+   * Gets the x pixel coordinate of the center of a cell.
+   *
+   * @param q the q-coordinate of the cell
+   * @param r the r-coordinate of the cell
+   * @return the x pixel coordinate
+   */
+  int centerX(int q, int r) {
+    return (int) Math.round(originX + size * (SQRT3 * q + SQRT3 / 2 * r));
+  }
+
+  /**
+   * Gets the y pixel coordinate of the center of a cell.
+   *
+   * @param r the r-coordinate of the cell
+   * @return the y pixel coordinate
+   */
+  int centerY(int r) {
+    return (int) Math.round(originY + size * 1.5 * r);
+  }
+
+  /**
+   * Builds the outline of a cell by translating the hexagon template to its center.
+   *
+   * @param q the q-coordinate of the cell
+   * @param r the r-coordinate of the cell
+   * @return a new polygon of the cell's six corners
+   */
+  Polygon hexagon(int q, int r) {
+    Polygon hexagon = new Polygon(cornersX, cornersY, 6);
+    hexagon.translate(centerX(q, r), centerY(r));
+    return hexagon;
+  }
+
+  /**
+   * Finds the cell under a pixel. The lookup table is filled on the first call, so a
+   * panel that is resized several times before it is clicked only fills it once.
+   *
+   * @param x the x pixel coordinate
+   * @param y the y pixel coordinate
+   * @return the cell, or null if the pixel is not on the board
+   */
+  Position cellAt(int x, int y) {
+    if (x < 0 || y < 0 || x >= width || y >= height) {
+      return null;
+    }
+    if (hitTable == null) {
+      hitTable = buildHitTable();
+    }
+    short index = hitTable[y * width + x];
+    return index < 0 ? null : cells[index];
+  }
+
+  /**
+   * Resolves every pixel of the panel to the index of the cell under it, rounding the
+   * fractional cube coordinates of the pixel to the nearest cell.
+   *
+   * @return the lookup table, row by row
+   */
+  private short[] buildHitTable() {
+    short[] table = new short[width * height];
+    int diameter = 2 * radius + 1;
+    short[] indexOf = new short[diameter * diameter];
+    for (short i = 0; i < cells.length; i++) {
+      indexOf[(cells[i].getQ() + radius) * diameter + cells[i].getR() + radius] = i;
+    }
+    for (int y = 0; y < height; y++) {
+      double r = 2.0 / 3 * (y - originY) / size;
+      for (int x = 0; x < width; x++) {
+        double q = (SQRT3 / 3 * (x - originX) - 1.0 / 3 * (y - originY)) / size;
+        table[y * width + x] = lookup(indexOf, diameter, q, r);
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Rounds fractional cube coordinates to a cell and finds its index.
+   *
+   * @param indexOf  the index of each cell, by q then r offset by the radius
+   * @param diameter the number of cells across the board
+   * @param q        the fractional q-coordinate
+   * @param r        the fractional r-coordinate
+   * @return the index of the cell, or -1 if it is not on the board
+   */
+  private short lookup(short[] indexOf, int diameter, double q, double r) {
+    double s = -q - r;
+    int roundedQ = (int) Math.round(q);
+    int roundedR = (int) Math.round(r);
+    int roundedS = (int) Math.round(s);
+    double qDiff = Math.abs(roundedQ - q);
+    double rDiff = Math.abs(roundedR - r);
+    double sDiff = Math.abs(roundedS - s);
+    if (qDiff > rDiff && qDiff > sDiff) {
+      roundedQ = -roundedR - roundedS;
+    } else if (rDiff > sDiff) {
+      roundedR = -roundedQ - roundedS;
+    } else {
+      roundedS = -roundedQ - roundedR;
+    }
+    if (Math.abs(roundedQ) > radius || Math.abs(roundedR) > radius
+            || Math.abs(roundedS) > radius) {
+      return -1;
+    }
+    return indexOf[(roundedQ + radius) * diameter + roundedR + radius];
+  }
+}
@@ -5,17 +5,22 @@ import java.awt.Graphics2D;
 import java.awt.Font;
 import java.awt.FontMetrics;
 import java.awt.Color;
+import java.util.Map;
 
-import model.Cell;
 import model.IPosition;
 
 
 /**
  * The {@code HintDecorator} class represents the "hint" mode
  * that the user can enable. Using this decorator, the selected cell
- * shows how many discs would be flipped if that player chose that move.
+ * shows how many discs would be flipped if that player chose that move,
+ * or every legal move shows it at once. The counts come from a
+ * {@link HintService}, which computes them once per position.
  */
 public class HintDecorator extends PanelDecorator {
+  private final HintService hints; //capture counts of the current position
+  private final boolean showAll; //hint every legal move, not just the highlighted cell
+
   /**
    * Constructs a {@code HintDecorator} with the specified IReversiPanelView.
    * The HintDecorator is layered around the IReversiPanelView as a feature
@@ -24,25 +29,49 @@ public class HintDecorator extends PanelDecorator {
    * @param panelView the view that this HintDecorator visually wraps around
    */
   public HintDecorator(IReversiPanelView panelView) {
+    this(panelView, false);
+  }
+
+  /**
+   * Constructs a {@code HintDecorator} that hints either the highlighted
+   * cell or every legal move of the player to move.
+   *
+   * @param panelView the view that this HintDecorator visually wraps around
+   * @param showAll   true to hint every legal move at once
+   */
+  public HintDecorator(IReversiPanelView panelView, boolean showAll) {
     super(panelView);
+    this.hints = new HintService(panelView.getModel());
+    this.showAll = showAll;
+  }
+
+  /**
+   * Checks if every legal move is hinted, rather than just the highlighted cell.
+   *
+   * @return true if every legal move is hinted
+   */
+  public boolean isShowingAll() {
+    return this.showAll;
   }
 
   /**
    * Paints the features that change when the HintDecorator is used,
    * specifically text signifying how many discs would be flipped if
-   * the player chose the highlighted cell. The method is called
-   * automatically by Swing when the component needs to be redrawn.
+   * the player chose the highlighted cell, or each legal move when
+   * showing all hints. The method is called automatically by Swing
+   * when the component needs to be redrawn.
    *
    * @param g The {@code Graphics} context used for painting.
    */
   @Override
   public void paintComponent(Graphics g) {
-    if (getHighlightedCell().isPresent()) {
+    if (showAll) {
+      for (Map.Entry<IPosition, Integer> hint : hints.getHints().entrySet()) {
+        drawCaptureHint(g, hint.getKey(), hint.getValue());
+      }
+    } else if (getHighlightedCell().isPresent()) {
       IPosition pos = getHighlightedCell().get();
-      Cell currentPlayer = getModel().getCurrentTurn();
-      int captures = getModel().countCaptures(pos, currentPlayer);
-
-      drawCaptureHint(g, pos, captures);
+      drawCaptureHint(g, pos, hints.getCaptures(pos));
     }
   }
 
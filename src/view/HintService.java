@@ -0,0 +1,85 @@
+package view;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IPosition;
+import model.ReadOnlyReversiModel;
+
+/**
+ * Computes the hints for the player to move: how many discs each of their legal moves
+ * would flip. All the hints of a position are computed together the first time they are
+ * asked for and kept until the position changes, so painting the hints again, for the
+ * same or another cell, only costs a hash of the board.
+ */
+public class HintService {
+  private final ReadOnlyReversiModel model; //the game the hints are for
+  private BoardLayout layout; //created on first use, once the game has started
+  private long hintsHash; //hash of the position the hints were computed for
+  private Map<IPosition, Integer> hints; //null until computed
+
+  /**
+   * Constructs a HintService for a game.
+   *
+   * @param model the game to give hints for
+   * @throws IllegalArgumentException if the model is null
+   */
+  public HintService(ReadOnlyReversiModel model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+  }
+
+  /**
+   * Gets the number of discs each legal move of the player to move would flip.
+   *
+   * @return an unmodifiable map from each legal move to its number of captures, empty
+   *         if the game has not started or the player has no legal move
+   */
+  public Map<IPosition, Integer> getHints() {
+    long hash;
+    try {
+      if (layout == null) {
+        layout = BoardLayout.of(model);
+      }
+      hash = layout.hash(model);
+    } catch (IllegalStateException e) {
+      return Collections.emptyMap();
+    }
+    if (hints == null || hash != hintsHash) {
+      hints = computeHints();
+      hintsHash = hash;
+    }
+    return hints;
+  }
+
+  /**
+   * Gets the number of discs a move by the player to move would flip.
+   *
+   * @param pos the position of the move
+   * @return the number of captures, 0 if the move is not legal
+   */
+  public int getCaptures(IPosition pos) {
+    return getHints().getOrDefault(pos, 0);
+  }
+
+  /**
+   * Counts the flips of every legal move in the current position.
+   *
+   * @return the hints, in the layout's cell order
+   */
+  private Map<IPosition, Integer> computeHints() {
+    CompactBoard board = CompactBoard.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    int count = board.generateMoves(moves);
+    Map<IPosition, Integer> computed = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      computed.put(layout.position(moves[i]), board.countFlips(moves[i], board.getTurn()));
+    }
+    return Collections.unmodifiableMap(computed);
+  }
+}
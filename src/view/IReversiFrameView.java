@@ -1,8 +1,11 @@
 package view;
 
+import java.util.List;
+
 import javax.swing.KeyStroke;
 
 import controller.Features;
+import model.IPosition;
 import model.ReadOnlyReversiModel;
 
 /**
@@ -88,4 +91,12 @@ public interface IReversiFrameView {
    * without updating the entire game state.
    */
   void repaintView();
+
+  /**
+   * Repaints only the given cells of the game board, for
+   * example the cells played on and flipped by a move.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  void repaintCells(List<IPosition> cells);
 }
@@ -1,6 +1,7 @@
 package view;
 
 import java.awt.Graphics;
+import java.util.List;
 import java.util.Optional;
 
 import controller.Features;
@@ -57,6 +58,15 @@ public interface IReversiPanelView {
    */
   void repaintView();
 
+  /**
+   * Repaints only the given cells, along with the highlighted cell, whose hint may
+   * depend on whose turn it is. Used after a move, when only the cells that were
+   * played on or flipped have changed.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  void repaintCells(List<IPosition> cells);
+
   /**
    * Paints the Reversi board component. This includes the background, the hexagonal grid,
    * and the pieces on the board. The method is called automatically by Swing when the
@@ -1,6 +1,7 @@
 package view;
 
 import java.awt.Graphics;
+import java.util.List;
 import java.util.Optional;
 
 import controller.Features;
@@ -76,6 +77,16 @@ public abstract class PanelDecorator implements IReversiPanelView { //why abstra
     panelView.repaintView();
   }
 
+  /**
+   * Repaints only the given cells of the decorated view.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    panelView.repaintCells(cells);
+  }
+
   /**
    * Paints this PanelDecorator accordingly, with all of its
    * decorations. The method is called automatically by Swing
@@ -3,11 +3,15 @@ package view;
 
 import java.awt.Component;
 import java.awt.BorderLayout;
+import java.util.List;
 
 import javax.swing.*;
 
 import controller.Features;
+import model.IPosition;
 import model.ReadOnlyReversiModel;
+import strategy.SearchInfo;
+import strategy.SearchInfoListener;
 
 /**
  * The {@code ReversiFrameView} class is responsible
@@ -18,11 +22,14 @@ import model.ReadOnlyReversiModel;
  * initializes the game board for display.
  */
 
-public class ReversiFrameView extends JFrame implements IReversiFrameView {
+public class ReversiFrameView extends JFrame implements IReversiFrameView,
+        SearchInfoListener {
   private IReversiPanelView gameBoard;
   private final JLabel score;
+  private final JLabel searchInfo; //progress of the AI's search, empty for a human player
   private JButton hintToggleButton;
   private boolean hints;
+  private boolean allHints; //hints are shown for every legal move, not just the highlight
 
   /**
    * Constructs a {@code ReversiFrameView} which sets up
@@ -40,15 +47,20 @@ public class ReversiFrameView extends JFrame implements IReversiFrameView {
     gameBoard = new ReversiPanelView(model);
     this.add((Component) gameBoard, BorderLayout.CENTER);
     score = new JLabel();
+    searchInfo = new JLabel();
     JPanel scorePanel = new JPanel();
     scorePanel.add(score);
+    scorePanel.add(searchInfo);
     this.add(scorePanel, BorderLayout.SOUTH);
 
     hintToggleButton = new JButton("Toggle Hints");
     hintToggleButton.addActionListener(e -> toggleHints());
+    JButton allHintsButton = new JButton("Toggle All Hints");
+    allHintsButton.addActionListener(e -> toggleAllHints());
 
     JPanel controlPanel = new JPanel();
     controlPanel.add(hintToggleButton);
+    controlPanel.add(allHintsButton);
     this.add(controlPanel, BorderLayout.NORTH);
     hints = false;
     pack();
@@ -62,7 +74,7 @@ public class ReversiFrameView extends JFrame implements IReversiFrameView {
    * on the game board when the button is pressed.
    */
   private void toggleHints() {
-    if (hints) {
+    if (hints && !allHints) {
       hints = false;
       gameBoard.setDecorator(null);
     } else {
@@ -70,6 +82,19 @@ public class ReversiFrameView extends JFrame implements IReversiFrameView {
       System.out.print("Hints is true\n");
       gameBoard.setDecorator(new HintDecorator(gameBoard));
     }
+    allHints = false;
+    ((Component) gameBoard).repaint();
+    ((Component) gameBoard).requestFocusInWindow();
+  }
+
+  /**
+   * Displays the hints for every legal move at once, or hides
+   * them when the button is pressed.
+   */
+  private void toggleAllHints() {
+    allHints = !allHints;
+    hints = allHints;
+    gameBoard.setDecorator(allHints ? new HintDecorator(gameBoard, true) : null);
     ((Component) gameBoard).repaint();
     ((Component) gameBoard).requestFocusInWindow();
   }
@@ -146,6 +171,16 @@ public class ReversiFrameView extends JFrame implements IReversiFrameView {
     gameBoard.repaintView();
   }
 
+  /**
+   * Repaints only the given cells of the game board.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    gameBoard.repaintCells(cells);
+  }
+
   /**
    * Shows a turn indicator in the game view.
    * This method updates the view to notify the
@@ -171,4 +206,16 @@ public class ReversiFrameView extends JFrame implements IReversiFrameView {
   public void showScore(String s) {
     score.setText(s);
   }
-}
\ No newline at end of file
+
+  /**
+   * Shows the progress of an AI player's search next to the score, such as its depth,
+   * speed and expected line of play. May be called from the searching thread.
+   *
+   * @param info The latest report of the search.
+   */
+  @Override
+  public void searchProgress(SearchInfo info) {
+    String text = info.toString();
+    SwingUtilities.invokeLater(() -> searchInfo.setText(text));
+  }
+}
@@ -1,6 +1,7 @@
 package view;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.Dimension;
@@ -11,7 +12,8 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.Path2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +21,9 @@ import javax.swing.JPanel;
 
 
 import controller.Features;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.RepaintEvent;
 import model.Cell;
 import model.IPosition;
 import model.Position;
@@ -31,8 +36,16 @@ import model.ReadOnlyReversiModel;
  * user interactions such as mouse clicks
  * and keyboard events. The class maintains the game state
  * and updates the display accordingly.
+ * After a move or a change of highlight only the affected cells
+ * are repainted, and painting skips the cells outside the clip.
+ * The background and the empty hexagons are drawn once into an
+ * offscreen image, which is redrawn only after a resize.
+ * Hexagon outlines and click hit-testing come from a {@link HexGeometry}
+ * that is also rebuilt only after a resize.
  */
 public class ReversiPanelView extends JPanel implements IReversiPanelView {
+  private static final LatencyHistogram PAINT_TIMER = Metrics.histogram("view.hex.paint");
+
   private final ReadOnlyReversiModel model; //model that holds the game state
   private int size; //size of the board
   private final Point origin; //origin point for drawing the board
@@ -41,6 +54,8 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
   private Optional<IPosition> highlightedCell; //holds currently highlighted cell, if any
   private final List<Features> featureListeners;
   private IReversiPanelView decorator;
+  private BufferedImage grid; //background and empty hexagons, null until drawn or resized
+  private HexGeometry geometry; //pixel layout of the cells, null until used or resized
 
   //////////////// Initialization and Setup ////////////////
 
@@ -125,8 +140,8 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
     this.addMouseListener(new MouseAdapter() {
       @Override
       public void mouseClicked(MouseEvent e) {
-        Position pos = pixelToLogicalCoords(e.getX(), e.getY());
-        if (pos != null && boardLimits(pos)) {
+        Position pos = geometry().cellAt(e.getX(), e.getY());
+        if (pos != null) {
           if (highlightedCell.isPresent() && highlightedCell.get().equals(pos)) {
             unhighlightCell();
           } else {
@@ -135,7 +150,6 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
         } else {
           unhighlightCell();
         }
-        repaint();
       }
     });
   }
@@ -148,6 +162,26 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
     repaint();
   }
 
+  /**
+   * Repaints only the bounding rectangles of the given cells and of the
+   * highlighted cell. Swing merges the rectangles into a single paint.
+   * When every hint is shown the whole board is repainted, since the
+   * legal moves change everywhere.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    if (decorator instanceof HintDecorator && ((HintDecorator) decorator).isShowingAll()) {
+      repaint();
+      return;
+    }
+    for (IPosition pos : cells) {
+      repaint(cellBounds(pos));
+    }
+    highlightedCell.ifPresent(pos -> repaint(cellBounds(pos)));
+  }
+
   /**
    * Initializes the key listener to handle key press events for the Reversi game.
    * It allows players to make moves using keyboard input, such as placing a piece
@@ -176,8 +210,8 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * Removes the highlight from the currently highlighted cell.
    */
   private void unhighlightCell() {
+    highlightedCell.ifPresent(old -> repaint(cellBounds(old)));
     highlightedCell = Optional.empty();
-    repaint();
   }
 
   /**
@@ -186,21 +220,10 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * @param pos The position of the cell to highlight.
    */
   private void highlightCell(Position pos) {
+    highlightedCell.ifPresent(old -> repaint(cellBounds(old)));
     highlightedCell = Optional.of(pos);
     System.out.println("Highlighted Position: " + pos);
-    repaint();
-  }
-
-  /**
-   * Checks if the given position is within the board limits.
-   *
-   * @param pos The position to check.
-   * @return True if the position is within board limits, false otherwise.
-   */
-  private boolean boardLimits(Position pos) {
-    return pos.getQ() >= -radiusSize && pos.getQ() <= radiusSize
-            && pos.getR() >= -radiusSize && pos.getR() <= radiusSize
-            && pos.getS() >= -radiusSize && pos.getS() <= radiusSize;
+    repaint(cellBounds(pos));
   }
 
   /**
@@ -210,6 +233,8 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
     this.addComponentListener(new ComponentAdapter() {
       public void componentResized(ComponentEvent componentEvent) {
         size = calculateHexagonSize();
+        grid = null;
+        geometry = null;
         repaint();
       }
     });
@@ -228,26 +253,11 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * @param highlight A boolean indicating whether the hexagon should be highlighted.
    */
   private void drawPointyTopHexagon(Graphics2D g2d, int q, int r, boolean highlight) {
-    double x = origin.x + size * (Math.sqrt(3) * q + Math.sqrt(3) / 2 * r);
-    double y = origin.y + size * (3.0 / 2 * r);
-
-    Path2D.Double path = new Path2D.Double();
-    for (int i = 0; i < 6; i++) {
-      double angle = Math.toRadians(60 * i - 30);
-      double x_i = x + size * Math.cos(angle);
-      double y_i = y + size * Math.sin(angle);
-      if (i == 0) {
-        path.moveTo(x_i, y_i);
-      }
-      else {
-        path.lineTo(x_i, y_i);
-      }
-    }
-    path.closePath();
+    Polygon hexagon = geometry().hexagon(q, r);
     g2d.setColor(highlight ? Color.CYAN : Color.RED.darker());
-    g2d.fill(path);
+    g2d.fill(hexagon);
     g2d.setColor(Color.WHITE);
-    g2d.draw(path);
+    g2d.draw(hexagon);
   }
 
   /**
@@ -272,55 +282,108 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
   /**
    * Paints the Reversi board component. This includes the background, the hexagonal grid,
    * and the pieces on the board. The method is called automatically by Swing when the
-   * component needs to be redrawn.
+   * component needs to be redrawn. The background and grid are copied from the cached
+   * image, and only the highlight and pieces inside the clip are drawn on top.
    *
    * @param g The {@code Graphics} context used for painting.
    */
   @Override
   public void paintComponent(Graphics g) {
+    long start = Metrics.startTimer();
+    RepaintEvent event = new RepaintEvent();
+    event.begin();
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D) g;
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
 
-    g2d.setColor(Color.GREEN.darker().darker().darker());
-    g2d.fillRect(0, 0, getWidth(), getHeight());
+    geometry();
 
-    this.size = calculateHexagonSize();
-    updateOrigin();
+    if (grid == null || grid.getWidth() != Math.max(1, getWidth())
+            || grid.getHeight() != Math.max(1, getHeight())) {
+      grid = drawGrid();
+    }
+    g2d.drawImage(grid, 0, 0, null);
 
-    drawBoard(g2d);
+    int drawn = drawBoard(g2d, clip);
     if (decorator != null) {
       decorator.paintComponent(g);
-      repaint();
     }
     drawCirclesFromState(g2d);
+    PAINT_TIMER.stop(start);
+    event.finish("hex", drawn);
+  }
+
+  /**
+   * Computes the rectangle a cell is drawn in, with a pixel of margin
+   * for the outline.
+   *
+   * @param pos The position of the cell.
+   * @return The bounding rectangle of the cell, in pixels.
+   */
+  private Rectangle cellBounds(IPosition pos) {
+    int x = logicalToPixelCoordsX(pos.getQ(), pos.getR());
+    int y = logicalToPixelCoordsY(pos.getR());
+    return new Rectangle(x - size - 2, y - size - 2, 2 * size + 4, 2 * size + 4);
+  }
+
+  /**
+   * Draws the background and every hexagon, unhighlighted and empty,
+   * into a new image the size of the panel.
+   *
+   * @return The image of the empty board.
+   */
+  private BufferedImage drawGrid() {
+    BufferedImage image = new BufferedImage(Math.max(1, getWidth()),
+            Math.max(1, getHeight()), BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.setColor(Color.GREEN.darker().darker().darker());
+    g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+    int radius = (model.getBoard().length - 1) / 2;
+    for (int q = -radius; q <= radius; q++) {
+      int r1 = Math.max(-radius, -q - radius);
+      int r2 = Math.min(radius, -q + radius);
+      for (int r = r1; r <= r2; r++) {
+        drawPointyTopHexagon(g2d, q, r, false);
+      }
+    }
+    g2d.dispose();
+    return image;
   }
 
   /**
-   * Draws the graphical representation of the board by
-   * iterating through the board's axial
-   * coordinates and drawing hexagons and game pieces at
-   * each position. It uses the drawPointyTopHexagon
-   * method to draw each hexagon and optionally highlights
-   * them if they are the currently highlighted cell.
+   * Draws the changing parts of the board over the cached grid by
+   * iterating through the board's axial coordinates and drawing
+   * the highlighted hexagon and the game pieces at each position.
    *
-   * @param g2d The Graphics2D context on which to draw the
-   *            board.
+   * @param g2d  The Graphics2D context on which to draw the
+   *             board.
+   * @param clip The area to paint; cells outside it are skipped.
+   * @return The number of cells drawn.
    */
-  private void drawBoard(Graphics2D g2d) {
+  private int drawBoard(Graphics2D g2d, Rectangle clip) {
     int radius = (model.getBoard().length - 1) / 2;
+    int drawn = 0;
     for (int q = -radius; q <= radius; q++) {
       int r1 = Math.max(-radius, -q - radius);
       int r2 = Math.min(radius, -q + radius);
       for (int r = r1; r <= r2; r++) {
         if (q + r <= radius) {
           Position pos = new Position(q, r, -q - r);
-          boolean shouldHighlight = highlightedCell.isPresent()
-                  && highlightedCell.get().equals(pos);
-          drawPointyTopHexagon(g2d, q, r, shouldHighlight);
+          if (!clip.intersects(cellBounds(pos))) {
+            continue;
+          }
+          if (highlightedCell.isPresent() && highlightedCell.get().equals(pos)) {
+            drawPointyTopHexagon(g2d, q, r, true);
+          }
           drawModel(g2d, pos, q, r);
+          drawn++;
         }
       }
     }
+    return drawn;
   }
 
   /**
@@ -376,10 +439,7 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * @return The X pixel coordinate corresponding to the logical board coordinates.
    */
   public int logicalToPixelCoordsX(int q, int r) {
-    double x = (((q * size) + 1.0 / 3 * (logicalToPixelCoordsY(r) - origin.y))
-            * 3 / Math.sqrt(3)) + origin.x;
-
-    return (int) Math.round(x);
+    return geometry().centerX(q, r);
   }
 
   /**
@@ -389,51 +449,7 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * @return The Y pixel coordinate.
    */
   public int logicalToPixelCoordsY(int r) {
-    double y = (r * 3 * size / 2.0) + origin.y;
-
-    return (int) Math.round(y);
-  }
-
-  /**
-   * Converts pixel coordinates to logical board coordinates.
-   *
-   * @param x The X pixel coordinate.
-   * @param y The Y pixel coordinate.
-   * @return The logical position on the board.
-   */
-  private Position pixelToLogicalCoords(int x, int y) {
-    double q = (Math.sqrt(3) / 3 * (x - origin.x) - 1.0 / 3 * (y - origin.y)) / size;
-    double r = 2.0 / 3 * (y - origin.y) / size;
-    double s = -q - r;
-
-    return hexRound(q, r, s);
-  }
-
-  /**
-   * Rounds the position.
-   * @param q the q coordinate
-   * @param r the r coordinate
-   * @param s the s coordinate
-   * @return the position rounded.
-   */
-  private Position hexRound(double q, double r, double s) {
-    int roundedQ = (int) Math.round(q);
-    int roundedR = (int) Math.round(r);
-    int roundedS = (int) Math.round(s);
-
-    double qDiff = Math.abs(roundedQ - q);
-    double rDiff = Math.abs(roundedR - r);
-    double sDiff = Math.abs(roundedS - s);
-
-    if (qDiff > rDiff && qDiff > sDiff) {
-      roundedQ = -roundedR - roundedS;
-    } else if (rDiff > sDiff) {
-      roundedR = -roundedQ - roundedS;
-    } else {
-      roundedS = -roundedQ - roundedR;
-    }
-
-    return new Position(roundedQ, roundedR, roundedS);
+    return geometry().centerY(r);
   }
 
   //////////////// Board Size and Scaling ////////////////
@@ -457,10 +473,7 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
    * @return The calculated size of a single hexagon.
    */
   private int calculateHexagonSize() {
-    double horizontalSize = getWidth() / ((model.getBoard().length * 1.5) * 2);
-    double verticalSize = getHeight() / ((model.getBoard().length * Math.sqrt(3)) + 0.5) + 1.25;
-
-    return (int) Math.max(horizontalSize, verticalSize);
+    return HexGeometry.hexagonSize(getWidth(), getHeight(), model.getBoard().length);
   }
 
   /**
@@ -471,4 +484,22 @@ public class ReversiPanelView extends JPanel implements IReversiPanelView {
     origin.x = getWidth() / 2;
     origin.y = getHeight() / 2;
   }
+
+  /**
+   * Gets the pixel layout of the cells for the current size of the panel,
+   * building a new one, with the hexagon size and origin, if the panel has
+   * been resized since it was last built.
+   *
+   * @return The geometry of the board as it is drawn now.
+   */
+  private HexGeometry geometry() {
+    int hexSize = calculateHexagonSize();
+    if (geometry == null || !geometry.matches(hexSize, getWidth(), getHeight())) {
+      this.size = hexSize;
+      updateOrigin();
+      geometry = new HexGeometry(size, origin.x, origin.y, radiusSize,
+              getWidth(), getHeight());
+    }
+    return geometry;
+  }
 }
\ No newline at end of file
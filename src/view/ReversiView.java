@@ -1,8 +1,6 @@
 package view;
 
-import java.util.Optional;
-
-import model.Cell;
+import model.BoardLayout;
 import model.IReversiModel;
 
 /**
@@ -12,6 +10,7 @@ import model.IReversiModel;
  */
 public class ReversiView implements IView {
   private final IReversiModel model;
+  private TextBoardRenderer renderer; //created on first use
 
   /**
    * Constructs a new ReversiView given a game model.
@@ -42,41 +41,15 @@ public class ReversiView implements IView {
    * - `_` for empty cells.
    * - `O` for cells occupied by the white player.
    * - `X` for cells occupied by the black player.
+   * The text is written by a {@link TextBoardRenderer}.
    *
    * @throws IllegalStateException if the board cells sare not initialized
    */
   public String toString() {
-    StringBuilder boardView = new StringBuilder();
-    Optional<Cell>[][] boardCells = model.getBoard();
-    if (boardCells == null) {
-      throw new IllegalStateException("Board cells have not been initialized.");
-    }
-
-    int size = (boardCells.length - 1) / 2;
-
-    for (int i = 0; i < boardCells.length; i++) {
-      int padding = Math.abs(size - i);
-      for (int pad = 0; pad < padding; pad++) {
-        boardView.append(" ");
-      }
-
-      for (int j = 0; j < boardCells[i].length; j++) {
-        if (j < boardCells.length && i < boardCells[j].length) { // Check bounds
-          Optional<Cell> cell = boardCells[j][i];
-          if (cell == null) {
-            boardView.append(""); // Handle for null cells
-          } else if (cell.isEmpty()) {
-            boardView.append("_ "); //for the empty cells
-          } else if (cell.get() == Cell.WHITE) {
-            boardView.append("O ");  //O's are for the white cells
-          } else if (cell.get() == Cell.BLACK) {
-            boardView.append("X "); //X's are for the black cells
-          }
-        }
-      }
-      boardView.append("\n");
+    if (renderer == null) {
+      renderer = new TextBoardRenderer(BoardLayout.of(model));
     }
-    return boardView.toString();
+    return renderer.render(model);
   }
 
   //FOR THE TA: HOW TO PRODUCE THE VISUALIZATION
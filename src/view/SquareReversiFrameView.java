@@ -1,6 +1,7 @@
 package view;
 
 import java.awt.BorderLayout;
+import java.util.List;
 
 import javax.swing.JFrame;
 import javax.swing.JPanel;
@@ -9,9 +10,13 @@ import javax.swing.WindowConstants;
 import javax.swing.KeyStroke;
 import javax.swing.JComponent;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import controller.Features;
+import model.IPosition;
 import model.ReadOnlyReversiModel;
+import strategy.SearchInfo;
+import strategy.SearchInfoListener;
 
 /**
  * The {@code SquareReversiFrameView} class is responsible for creating the main window (frame)
@@ -19,9 +24,11 @@ import model.ReadOnlyReversiModel;
  * game board panel along with any other UI components that might be needed. This class sets up
  * the main window properties and initializes the game board for display.
  */
-public class SquareReversiFrameView extends JFrame implements IReversiFrameView {
+public class SquareReversiFrameView extends JFrame implements IReversiFrameView,
+        SearchInfoListener {
   private final SquareReversiPanelView gameBoard;
   private final JLabel score;
+  private final JLabel searchInfo; //progress of the AI's search, empty for a human player
 
   /**
    * Constructs a {@code SquareReversiFrameView} which sets up the main window properties
@@ -38,8 +45,10 @@ public class SquareReversiFrameView extends JFrame implements IReversiFrameView
     this.add(gameBoard, BorderLayout.CENTER);
 
     score = new JLabel();
+    searchInfo = new JLabel();
     JPanel scorePanel = new JPanel();
     scorePanel.add(score);
+    scorePanel.add(searchInfo);
     this.add(scorePanel, BorderLayout.SOUTH);
 
     pack();
@@ -96,6 +105,16 @@ public class SquareReversiFrameView extends JFrame implements IReversiFrameView
     gameBoard.repaintView();
   }
 
+  /**
+   * Repaints only the given cells of the game board.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    gameBoard.repaintCells(cells);
+  }
+
   /**
    * Displays a message indicating whose turn it is in the game.
    *
@@ -115,4 +134,16 @@ public class SquareReversiFrameView extends JFrame implements IReversiFrameView
   public void showScore(String s) {
     score.setText(s);
   }
-}
\ No newline at end of file
+
+  /**
+   * Shows the progress of an AI player's search next to the score, such as its depth,
+   * speed and expected line of play. May be called from the searching thread.
+   *
+   * @param info The latest report of the search.
+   */
+  @Override
+  public void searchProgress(SearchInfo info) {
+    String text = info.toString();
+    SwingUtilities.invokeLater(() -> searchInfo.setText(text));
+  }
+}
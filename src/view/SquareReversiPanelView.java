@@ -3,6 +3,7 @@ package view;
 import java.awt.Graphics;
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Graphics2D;
 import java.awt.Color;
 import java.awt.event.ComponentAdapter;
@@ -11,6 +12,7 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +20,9 @@ import java.util.Optional;
 import javax.swing.JPanel;
 
 import controller.Features;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.RepaintEvent;
 import model.Cell;
 import model.IPosition;
 import model.ReadOnlyReversiModel;
@@ -30,8 +35,14 @@ import model.SquarePosition;
  * user interactions such as mouse clicks
  * and keyboard events. The class maintains the game state
  * and updates the display accordingly.
+ * After a move or a change of highlight only the affected cells
+ * are repainted, and painting skips the cells outside the clip.
+ * The background and the empty squares are drawn once into an
+ * offscreen image, which is redrawn only after a resize.
  */
 public class SquareReversiPanelView extends JPanel implements IReversiPanelView {
+  private static final LatencyHistogram PAINT_TIMER = Metrics.histogram("view.square.paint");
+
   private final ReadOnlyReversiModel model; //model that holds the game state
   private int size; //size of the board
   private final Point origin; //origin point for drawing the board
@@ -39,6 +50,7 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
   private final Cell[][] boardState; //state of the board array
   private Optional<IPosition> highlightedCell; //holds currently highlighted cell, if any
   private final List<Features> featureListeners;
+  private BufferedImage grid; //background and empty squares, null until drawn or resized
 
 
   //////////////// Initialization and Setup ////////////////
@@ -103,7 +115,6 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
         } else {
           unhighlightCell();
         }
-        repaint();
       }
     });
   }
@@ -116,6 +127,20 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
     repaint();
   }
 
+  /**
+   * Repaints only the bounding rectangles of the given cells and of the
+   * highlighted cell. Swing merges the rectangles into a single paint.
+   *
+   * @param cells The cells whose contents changed.
+   */
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    for (IPosition pos : cells) {
+      repaint(cellBounds(pos));
+    }
+    highlightedCell.ifPresent(pos -> repaint(cellBounds(pos)));
+  }
+
   /**
    * Initializes the key listener to handle key press events for the Reversi game.
    * It allows players to make moves using keyboard input, such as placing a piece
@@ -144,8 +169,8 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
    * Removes the highlight from the currently highlighted cell.
    */
   private void unhighlightCell() {
+    highlightedCell.ifPresent(old -> repaint(cellBounds(old)));
     highlightedCell = Optional.empty();
-    repaint();
   }
 
   /**
@@ -154,9 +179,10 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
    * @param pos The position of the cell to highlight.
    */
   private void highlightCell(SquarePosition pos) {
+    highlightedCell.ifPresent(old -> repaint(cellBounds(old)));
     highlightedCell = Optional.of(pos);
     System.out.println("Highlighted Position: " + pos);
-    repaint();
+    repaint(cellBounds(pos));
   }
 
   /**
@@ -177,6 +203,7 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
     this.addComponentListener(new ComponentAdapter() {
       public void componentResized(ComponentEvent componentEvent) {
         size = calculateSquareSize();
+        grid = null;
         repaint();
       }
     });
@@ -187,22 +214,84 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
   /**
    * Paints the Reversi board component. This includes the background, the hexagonal grid,
    * and the pieces on the board. The method is called automatically by Swing when the
-   * component needs to be redrawn.
+   * component needs to be redrawn. The background and grid are copied from the cached
+   * image, and only the highlight and pieces inside the clip are drawn on top.
    *
    * @param g The {@code Graphics} context used for painting.
    */
 
   @Override
   public void paintComponent(Graphics g) {
+    long start = Metrics.startTimer();
+    RepaintEvent event = new RepaintEvent();
+    event.begin();
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D) g;
-
-    g2d.setColor(Color.GREEN.darker().darker().darker());
-    g2d.fillRect(0, 0, getWidth(), getHeight());
+    Rectangle clip = g.getClipBounds();
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
 
     this.size = calculateSquareSize();
     updateOrigin();
-    drawBoard(g2d);
+    if (grid == null || grid.getWidth() != Math.max(1, getWidth())
+            || grid.getHeight() != Math.max(1, getHeight())) {
+      grid = drawGrid();
+    }
+    g2d.drawImage(grid, 0, 0, null);
+    int drawn = drawBoard(g2d, clip);
+    PAINT_TIMER.stop(start);
+    event.finish("square", drawn);
+  }
+
+  /**
+   * Draws the background and every square, unhighlighted and empty,
+   * into a new image the size of the panel.
+   *
+   * @return The image of the empty board.
+   */
+  private BufferedImage drawGrid() {
+    BufferedImage image = new BufferedImage(Math.max(1, getWidth()),
+            Math.max(1, getHeight()), BufferedImage.TYPE_INT_RGB);
+    Graphics2D g2d = image.createGraphics();
+    g2d.setColor(Color.GREEN.darker().darker().darker());
+    g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+    int cellSize = calculateSquareSize() + 1;
+    for (int q = 0; q < model.getSize() * 2; q++) {
+      for (int r = 0; r < model.getSize() * 2; r++) {
+        drawSquare(g2d, q * cellSize, r * cellSize, cellSize, Color.GRAY);
+      }
+    }
+    g2d.dispose();
+    return image;
+  }
+
+  /**
+   * Draws one square of the grid with its outline.
+   *
+   * @param g2d      The Graphics2D context on which to draw the square.
+   * @param x        The x-coordinate of the top left corner of the cell.
+   * @param y        The y-coordinate of the top left corner of the cell.
+   * @param cellSize The size of the cell.
+   * @param color    The color to fill the square with.
+   */
+  private void drawSquare(Graphics2D g2d, int x, int y, int cellSize, Color color) {
+    g2d.setColor(color);
+    g2d.fillRect(x, y, cellSize, cellSize);
+    g2d.setColor(Color.BLACK);
+    g2d.drawRect(x, y, cellSize, cellSize);
+  }
+
+  /**
+   * Computes the rectangle a cell is drawn in, including its outline.
+   *
+   * @param pos The position of the cell.
+   * @return The bounding rectangle of the cell, in pixels.
+   */
+  private Rectangle cellBounds(IPosition pos) {
+    int cellSize = calculateSquareSize() + 1;
+    return new Rectangle(pos.getQ() * cellSize, pos.getR() * cellSize,
+            cellSize + 1, cellSize + 1);
   }
 
   @Override
@@ -221,46 +310,46 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
   }
 
   /**
-   * Draws the graphical representation of the board by
-   * iterating through the board's coordinates and
-   * drawing squares and game pieces at
-   * each position. It uses the drawSquare
-   * method to draw each hexagon and optionally highlights
-   * them if they are the currently highlighted cell.
+   * Draws the changing parts of the board over the cached grid by
+   * iterating through the board's coordinates and drawing
+   * the highlighted square and the game pieces at each position.
    *
-   * @param g2d The Graphics2D context on which to draw the
-   *            board.
+   * @param g2d  The Graphics2D context on which to draw the
+   *             board.
+   * @param clip The area to paint; cells outside it are skipped.
+   * @return The number of cells drawn.
    */
 
-  private void drawBoard(Graphics2D g2d) {
+  private int drawBoard(Graphics2D g2d, Rectangle clip) {
     int cellSize = calculateSquareSize() + 1;
+    int drawn = 0;
 
     for (int q = 0; q < model.getSize() * 2; q++) {
       for (int r = 0; r < model.getSize() * 2; r++) {
         // Calculate the top left corner of the cell
         int x = q * cellSize;
         int y = r * cellSize;
+        if (!clip.intersects(x, y, cellSize + 1, cellSize + 1)) {
+          continue;
+        }
 
         // Determine if this cell should be highlighted
         boolean isHighlighted = highlightedCell.isPresent() &&
                 highlightedCell.get().getQ() == q &&
                 highlightedCell.get().getR() == r;
-
-
-        g2d.setColor(isHighlighted ? Color.CYAN : Color.GRAY);
-        g2d.fillRect(x, y, cellSize, cellSize);
-
-
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(x, y, cellSize, cellSize);
+        if (isHighlighted) {
+          drawSquare(g2d, x, y, cellSize, Color.CYAN);
+        }
 
         // Check if the cell contains a disc and draw it
         Optional<Cell> cell = model.getHexAt(new SquarePosition(q, r));
         if (cell.isPresent()) {
           drawDisc(g2d, x, y, cellSize, cell.get());
         }
+        drawn++;
       }
     }
+    return drawn;
   }
 
   /**
@@ -271,9 +360,21 @@ public class SquareReversiPanelView extends JPanel implements IReversiPanelView
    * @return The size of each square cell to be drawn on the panel.
    */
   private int calculateSquareSize() {
-    int totalCells = model.getSize() * 2;
-    int horizontalSize = getWidth() / totalCells;
-    int verticalSize = getHeight() / totalCells;
+    return squareSize(getWidth(), getHeight(), model.getSize() * 2);
+  }
+
+  /**
+   * Calculates the size of each square cell so that a board fits a panel of the
+   * given size.
+   *
+   * @param width      The width of the panel, in pixels.
+   * @param height     The height of the panel, in pixels.
+   * @param totalCells The number of cells along each side of the board.
+   * @return The size of each square cell.
+   */
+  static int squareSize(int width, int height, int totalCells) {
+    int horizontalSize = width / totalCells;
+    int verticalSize = height / totalCells;
 
     return Math.min(horizontalSize, verticalSize);
   }
@@ -0,0 +1,173 @@
+package view;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.ReadOnlyReversiModel;
+
+/**
+ * Writes the textual form of hexagonal and square boards straight to an
+ * {@link Appendable}, such as a Writer or a StringBuilder. Each row is built in a buffer
+ * that is reused for every board, and only the cells of the layout are visited, so boards
+ * can be dumped in bulk without creating garbage. The notation matches ReversiView and
+ * SquareReversiView:
+ * - `_` for empty cells.
+ * - `O` for cells occupied by the white player.
+ * - `X` for cells occupied by the black player.
+ * A renderer keeps its buffer between calls, so each thread should use its own.
+ */
+public final class TextBoardRenderer {
+  private final BoardLayout layout; //the boards this renderer writes
+  private final int[][] rows; //cells of each row, left to right
+  private final int[] padding; //spaces before each row
+  private final StringBuilder line; //reused for every row
+
+  /**
+   * Constructs a renderer for boards of one layout.
+   *
+   * @param layout the layout of the boards
+   * @throws IllegalArgumentException if the layout is null
+   */
+  public TextBoardRenderer(BoardLayout layout) {
+    if (layout == null) {
+      throw new IllegalArgumentException("Layout cannot be null");
+    }
+    this.layout = layout;
+    boolean hexagon = layout.getKind() == BoardLayout.Kind.HEXAGON;
+    int size = layout.getSize();
+    int minR = hexagon ? -size : 0;
+    int rowCount = hexagon ? 2 * size + 1 : 2 * size;
+    int[] lengths = new int[rowCount];
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      lengths[layout.getR(cell) - minR]++;
+    }
+    this.rows = new int[rowCount][];
+    this.padding = new int[rowCount];
+    for (int row = 0; row < rowCount; row++) {
+      rows[row] = new int[lengths[row]];
+      padding[row] = hexagon ? Math.abs(size - row) : 0;
+      lengths[row] = 0;
+    }
+    //cells are indexed q first, so each row is filled left to right
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      int row = layout.getR(cell) - minR;
+      rows[row][lengths[row]++] = cell;
+    }
+    int longest = 0;
+    for (int row = 0; row < rowCount; row++) {
+      longest = Math.max(longest, padding[row] + 2 * rows[row].length + 1);
+    }
+    this.line = new StringBuilder(longest);
+  }
+
+  /**
+   * Gets the layout of the boards this renderer writes.
+   *
+   * @return the layout
+   */
+  public BoardLayout getLayout() {
+    return this.layout;
+  }
+
+  /**
+   * Writes a stored position.
+   *
+   * @param board the position, with this renderer's layout
+   * @param out   where to write the board
+   * @throws IOException              if writing fails
+   * @throws IllegalArgumentException if the board has another layout
+   */
+  public void render(CompactBoard board, Appendable out) throws IOException {
+    if (board.getLayout() != layout) {
+      throw new IllegalArgumentException("Board has a different layout");
+    }
+    for (int row = 0; row < rows.length; row++) {
+      startRow(row);
+      for (int cell : rows[row]) {
+        appendCell(board.get(cell));
+      }
+      endRow(out);
+    }
+  }
+
+  /**
+   * Writes the board of a game, which does not need to have started.
+   *
+   * @param model the game, with this renderer's layout
+   * @param out   where to write the board
+   * @throws IOException           if writing fails
+   * @throws IllegalStateException if the board cells are not initialized
+   */
+  public void render(ReadOnlyReversiModel model, Appendable out) throws IOException {
+    Optional<Cell>[][] board = model.getBoard();
+    if (board == null) {
+      throw new IllegalStateException("Board cells have not been initialized.");
+    }
+    for (int row = 0; row < rows.length; row++) {
+      startRow(row);
+      for (int cell : rows[row]) {
+        appendCell(layout.colorAt(board, cell));
+      }
+      endRow(out);
+    }
+  }
+
+  /**
+   * Renders the board of a game as a string.
+   *
+   * @param model the game, with this renderer's layout
+   * @return the textual board, one row per line
+   * @throws IllegalStateException if the board cells are not initialized
+   */
+  public String render(ReadOnlyReversiModel model) {
+    StringBuilder out = new StringBuilder(rows.length * line.capacity());
+    try {
+      render(model, out);
+    } catch (IOException e) {
+      throw new IllegalStateException("A StringBuilder cannot fail", e);
+    }
+    return out.toString();
+  }
+
+  /**
+   * Clears the row buffer and indents it.
+   *
+   * @param row the index of the row
+   */
+  private void startRow(int row) {
+    line.setLength(0);
+    for (int pad = 0; pad < padding[row]; pad++) {
+      line.append(' ');
+    }
+  }
+
+  /**
+   * Adds one cell to the row buffer.
+   *
+   * @param color the encoded color of the cell
+   */
+  private void appendCell(int color) {
+    if (color == BoardLayout.WHITE) {
+      line.append('O');
+    } else if (color == BoardLayout.BLACK) {
+      line.append('X');
+    } else {
+      line.append('_');
+    }
+    line.append(' ');
+  }
+
+  /**
+   * Ends the row buffer and writes it.
+   *
+   * @param out where to write the row
+   * @throws IOException if writing fails
+   */
+  private void endRow(Appendable out) throws IOException {
+    line.append('\n');
+    out.append(line);
+  }
+}
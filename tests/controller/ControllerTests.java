@@ -404,7 +404,7 @@ public class ControllerTests {
   }
 
   //using the mock model to test if input to executeMove is correct and goes through the correct
-  //steps of adding the controller as a ModelStatusListener, starting the game, and checking
+  //steps of adding the controller as a MoveEventListener, starting the game, and checking
   //the current turn for a human
   @Test
   public void testInputsExecuteMoveHuman() {
@@ -417,13 +417,13 @@ public class ControllerTests {
 
     controller.executeMove(new Position(2,-1,-1));
 
-    Assert.assertEquals("addModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\nstartGame\n"
                     + "getCurrentTurn\nexecuteMove Position[q=2, r=-1, s=-1]\n"
                     + "getCurrentTurn\nisGameOver\n", mockModel.getLog());
   }
 
   //using the mock model to test if the correct steps of adding the controller as a
-  //ModelStatusListener and starting the game are performed before passing the turn for a human
+  //MoveEventListener and starting the game are performed before passing the turn for a human
   @Test
   public void testInputsPassTurnHuman() {
     StringBuilder log = new StringBuilder();
@@ -435,7 +435,7 @@ public class ControllerTests {
 
     controller.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\nstartGame\npassTurn\nisGameOver\n",
+    Assert.assertEquals("addMoveEventListener\nstartGame\npassTurn\nisGameOver\n",
             mockModel.getLog());
 
   }
@@ -458,7 +458,7 @@ public class ControllerTests {
     controller.passTurn();
     controller2.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\naddModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\naddMoveEventListener\nstartGame\n"
                     + "passTurn\nisGameOver\npassTurn\nisGameOver\n", mockModel.getLog());
   }
 
@@ -480,7 +480,7 @@ public class ControllerTests {
     controller.passTurn();
     controller2.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\naddModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\naddMoveEventListener\nstartGame\n"
                     + "passTurn\nisGameOver\npassTurn\nisGameOver\n", mockModel.getLog());
   }
 
@@ -1,7 +1,10 @@
 package controller;
 
+import java.util.List;
+
 import javax.swing.KeyStroke;
 
+import model.IPosition;
 import model.ReadOnlyReversiModel;
 import view.IReversiFrameView;
 
@@ -50,6 +53,11 @@ public class MockReversiFrameView implements IReversiFrameView {
     log.append("repaintView: ").append("\n");
   }
 
+  @Override
+  public void repaintCells(List<IPosition> cells) {
+    log.append("repaintCells: ").append(cells.size()).append("\n");
+  }
+
   /**
    * Shows the log output.
    * @return the string of the log.
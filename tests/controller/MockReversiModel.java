@@ -3,6 +3,7 @@ package controller;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import model.Cell;
 import model.IPosition;
@@ -110,6 +111,16 @@ public class MockReversiModel implements IReversiModel {
     log.append("addModelStatusListener\n");
   }
 
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    log.append("addMoveEventListener\n");
+  }
+
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    log.append("addMoveEventListener with executor\n");
+  }
+
   @Override
   public IPosition createPosition(int q, int r) {
     log.append("createPosition: q = %d, r = %d", q, r);
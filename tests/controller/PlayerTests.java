@@ -6,9 +6,11 @@ import org.junit.Test;
 import java.util.Optional;
 
 import model.Cell;
+import model.IPosition;
 import model.IReversiModel;
 import model.Position;
 import model.ReversiModel;
+import strategy.AlphaBetaStrategy;
 import strategy.MaximumCaptureStrategy;
 
 /**
@@ -74,7 +76,97 @@ public class PlayerTests {
 
   }
 
+  //testing that a move is charged to the clock and earns the increment
+  @Test
+  public void testGameClock() {
+    GameClock clock = new GameClock(1000, 500);
+    clock.start();
+    Assert.assertTrue(clock.isRunning());
+    clock.stop();
+    Assert.assertFalse(clock.isRunning());
+    Assert.assertTrue(clock.getRemainingMillis() > 1000);
+    Assert.assertTrue(clock.getRemainingMillis() <= 1500);
+    Assert.assertFalse(clock.isFlagged());
+  }
 
+  //testing that a clock cannot be started twice
+  @Test(expected = IllegalStateException.class)
+  public void testGameClockStartedTwice() {
+    GameClock clock = new GameClock(1000, 0);
+    clock.start();
+    clock.start();
+  }
 
+  //testing that a timed ai player moves within its clock
+  @Test
+  public void testTimedPlay() {
+    IReversiModel model = new ReversiModel(5);
+    GameClock clock = new GameClock(2000, 0);
+    AiPlayer aiplayer = new AiPlayer(Cell.BLACK,
+            new AlphaBetaStrategy(AlphaBetaStrategy.MAX_DEPTH), clock);
+    model.startGame();
+    Optional<IPosition> move = aiplayer.play(model);
+    Assert.assertTrue(move.isPresent());
+    Assert.assertTrue(model.isALegalMove(move.get(), Cell.BLACK));
+    Assert.assertFalse(clock.isRunning());
+    Assert.assertFalse(clock.isFlagged());
+    Assert.assertTrue(clock.getRemainingMillis() < 2000);
+    Assert.assertEquals(Optional.of(clock), aiplayer.getClock());
+  }
 
+  //testing that a pondering ai player checks its guess on its next move
+  @Test
+  public void testPonder() {
+    IReversiModel model = new ReversiModel(3);
+    AiPlayer aiplayer = new AiPlayer(Cell.BLACK, new AlphaBetaStrategy(4), null, true);
+    AiPlayer opponent = new AiPlayer(Cell.WHITE, new MaximumCaptureStrategy());
+    model.startGame();
+    model.executeMove(aiplayer.play(model).get());
+    model.executeMove(opponent.play(model).get());
+    Optional<IPosition> move = aiplayer.play(model);
+    Assert.assertTrue(model.isALegalMove(move.get(), Cell.BLACK));
+    Assert.assertEquals(1, aiplayer.getPonderHits() + aiplayer.getPonderMisses());
+    aiplayer.stopPondering();
+    Assert.assertEquals(1, aiplayer.getPonderHits() + aiplayer.getPonderMisses());
+  }
+
+  //testing that a closed ai player stops pondering and does not ponder again
+  @Test
+  public void testCloseStopsPondering() {
+    IReversiModel model = new ReversiModel(3);
+    AiPlayer aiplayer = new AiPlayer(Cell.BLACK, new AlphaBetaStrategy(4), null, true);
+    model.startGame();
+    model.executeMove(aiplayer.play(model).get());
+    Assert.assertTrue(aiplayer.isPondering());
+    aiplayer.close();
+    Assert.assertFalse(aiplayer.isPondering());
+    IReversiModel next = new ReversiModel(3);
+    next.startGame();
+    Assert.assertTrue(aiplayer.play(next).isPresent());
+    Assert.assertFalse(aiplayer.isPondering());
+  }
+
+  //testing that an ai controller stops and closes its pondering player when the game ends
+  @Test
+  public void testControllerClosesPlayerAtGameOver() {
+    IReversiModel model = new ReversiModel(3);
+    AiPlayer aiplayer = new AiPlayer(Cell.WHITE, new AlphaBetaStrategy(2), null, true);
+    new AiController(model, aiplayer, new MockReversiFrameView());
+    AiPlayer opponent = new AiPlayer(Cell.BLACK, new MaximumCaptureStrategy());
+    model.startGame();
+    while (!model.isGameOver()) {
+      AiPlayer mover = model.getCurrentTurn() == Cell.WHITE ? aiplayer : opponent;
+      Optional<IPosition> move = mover.play(model);
+      if (move.isPresent()) {
+        model.executeMove(move.get());
+      } else {
+        model.passTurn();
+      }
+    }
+    Assert.assertFalse(aiplayer.isPondering());
+    IReversiModel next = new ReversiModel(3);
+    next.startGame();
+    aiplayer.play(next);
+    Assert.assertFalse(aiplayer.isPondering());
+  }
 }
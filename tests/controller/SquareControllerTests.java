@@ -418,7 +418,7 @@ public class SquareControllerTests {
   }
 
   //using the mock model to test if input to executeMove is correct and goes through the correct
-  //steps of adding the controller as a ModelStatusListener, starting the game, and checking
+  //steps of adding the controller as a MoveEventListener, starting the game, and checking
   //the current turn for a human
   @Test
   public void testInputsExecuteMoveHuman() {
@@ -431,13 +431,13 @@ public class SquareControllerTests {
 
     controller.executeMove(new SquarePosition(5,3));
 
-    Assert.assertEquals("addModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\nstartGame\n"
             + "getCurrentTurn\nexecuteMove Position[q=5, r=3]\n"
             + "getCurrentTurn\nisGameOver\n", mockModel.getLog());
   }
 
   //using the mock model to test if the correct steps of adding the controller as a
-  //ModelStatusListener and starting the game are performed before passing the turn for a human
+  //MoveEventListener and starting the game are performed before passing the turn for a human
   @Test
   public void testInputsPassTurnHuman() {
     StringBuilder log = new StringBuilder();
@@ -449,7 +449,7 @@ public class SquareControllerTests {
 
     controller.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\nstartGame\npassTurn\nisGameOver\n",
+    Assert.assertEquals("addMoveEventListener\nstartGame\npassTurn\nisGameOver\n",
             mockModel.getLog());
 
   }
@@ -472,7 +472,7 @@ public class SquareControllerTests {
     controller.passTurn();
     controller2.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\naddModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\naddMoveEventListener\nstartGame\n"
             + "passTurn\nisGameOver\npassTurn\nisGameOver\n", mockModel.getLog());
   }
 
@@ -494,7 +494,7 @@ public class SquareControllerTests {
     controller.passTurn();
     controller2.passTurn();
 
-    Assert.assertEquals("addModelStatusListener\naddModelStatusListener\nstartGame\n"
+    Assert.assertEquals("addMoveEventListener\naddMoveEventListener\nstartGame\n"
             + "passTurn\nisGameOver\npassTurn\nisGameOver\n", mockModel.getLog());
   }
 
@@ -0,0 +1,75 @@
+package metrics;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import controller.AiPlayer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.Cell;
+import model.IReversiModel;
+import model.Position;
+import model.ReversiModel;
+import strategy.AlphaBetaStrategy;
+
+/**
+ * Tests the Flight Recorder events of the model and the AI player.
+ */
+public class FlightEventsTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Finds the recorded events of one type.
+   *
+   * @param events every recorded event
+   * @param name   the event type's name
+   * @return the events of that type
+   */
+  private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+    return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+  }
+
+  //moves, fan-outs and AI decisions are recorded with their fields
+  @Test
+  public void testEventsRecorded() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("game.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(MoveExecutedEvent.class).withoutThreshold();
+      recording.enable(ListenerFanOutEvent.class).withoutThreshold();
+      recording.enable(AiDecisionEvent.class).withoutThreshold();
+      recording.start();
+      IReversiModel model = new ReversiModel(3);
+      model.addMoveEventListener(event -> { });
+      model.startGame();
+      model.executeMove(new Position(1, -2, 1));
+      new AiPlayer(Cell.WHITE, new AlphaBetaStrategy(2)).play(model);
+      recording.stop();
+      recording.dump(file);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+    List<RecordedEvent> moves = ofType(events, "reversi.MoveExecuted");
+    Assert.assertEquals(1, moves.size());
+    Assert.assertEquals("hex3", moves.get(0).getString("board"));
+    Assert.assertEquals("BLACK", moves.get(0).getString("player"));
+    Assert.assertEquals(1, moves.get(0).getInt("cellsFlipped"));
+
+    List<RecordedEvent> fanOuts = ofType(events, "reversi.ListenerFanOut");
+    Assert.assertEquals(2, fanOuts.size());
+    Assert.assertEquals("START", fanOuts.get(0).getString("kind"));
+    Assert.assertEquals(1, fanOuts.get(1).getInt("listeners"));
+
+    List<RecordedEvent> decisions = ofType(events, "reversi.AiDecision");
+    Assert.assertEquals(1, decisions.size());
+    Assert.assertEquals("AlphaBetaStrategy", decisions.get(0).getString("strategy"));
+    Assert.assertEquals(2, decisions.get(0).getInt("depth"));
+    Assert.assertTrue(decisions.get(0).getLong("nodes") > 0);
+  }
+}
@@ -0,0 +1,171 @@
+package metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import model.IReversiModel;
+import model.Position;
+import model.ReversiModel;
+
+/**
+ * Tests the metrics registry, its histograms and its HTTP endpoint.
+ */
+public class MetricsTests {
+
+  @After
+  public void tearDown() {
+    System.clearProperty(MetricsServer.PORT_PROPERTY);
+    Metrics.setEnabled(false);
+    Metrics.reset();
+  }
+
+  //every duration falls in a bucket whose bounds hold it, within a sixteenth
+  @Test
+  public void testBucketsHoldTheirValues() {
+    for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L,
+        Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      long low = LatencyHistogram.lowestIn(bucket);
+      Assert.assertTrue(value + " below its bucket", low <= value);
+      Assert.assertTrue(value + " above its bucket", value - low <= Math.max(0, low / 16));
+    }
+  }
+
+  //percentiles come out within the bucket resolution of the recorded durations
+  @Test
+  public void testPercentiles() {
+    Metrics.setEnabled(true);
+    LatencyHistogram histogram = Metrics.histogram("test.percentiles");
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    }
+    Assert.assertEquals(1000, histogram.getCount());
+    Assert.assertEquals(500_500, histogram.getMean(), 0.5);
+    Assert.assertEquals(1_000_000, histogram.getMax());
+    Assert.assertEquals(500_000, histogram.getPercentile(0.5), 500_000 / 16);
+    Assert.assertEquals(990_000, histogram.getPercentile(0.99), 990_000 / 16);
+    Assert.assertEquals(1_000_000, histogram.getPercentile(1));
+  }
+
+  //while metrics are disabled nothing is recorded and timers give 0
+  @Test
+  public void testDisabledRecordsNothing() {
+    LatencyHistogram histogram = Metrics.histogram("test.disabled");
+    Counter counter = Metrics.counter("test.disabled");
+    Assert.assertEquals(0, Metrics.startTimer());
+    histogram.record(5);
+    histogram.stop(Metrics.startTimer());
+    counter.increment();
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, counter.get());
+  }
+
+  //a model records its moves, move checks and refused moves under its board's name
+  @Test
+  public void testModelRecordsMoves() {
+    Metrics.setEnabled(true);
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    model.executeMove(new Position(1, -2, 1));
+    try {
+      model.executeMove(new Position(0, 0, 0));
+      Assert.fail("The center is occupied");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    Assert.assertEquals(2, Metrics.histogram("hex3.executeMove").getCount());
+    Assert.assertTrue(Metrics.histogram("hex3.isALegalMove").getCount() >= 2);
+    Assert.assertEquals(1, Metrics.counter("hex3.illegalMoves").get());
+  }
+
+  //models of one board, however many are made, share one BoardMetrics
+  @Test
+  public void testBoardMetricsShared() {
+    BoardMetrics hex = BoardMetrics.of("hex3");
+    Assert.assertSame(hex, BoardMetrics.of("hex3"));
+    Assert.assertNotSame(hex, BoardMetrics.of("square3"));
+    Assert.assertSame(Metrics.histogram("hex3.executeMove"), hex.executeMove());
+    Metrics.setEnabled(true);
+    IReversiModel first = new ReversiModel(3);
+    IReversiModel second = new ReversiModel(3);
+    first.startGame();
+    second.startGame();
+    first.executeMove(new Position(1, -2, 1));
+    second.executeMove(new Position(1, -2, 1));
+    Assert.assertEquals(2, hex.executeMove().getCount());
+  }
+
+  //the JSON lists counters and the histograms that recorded something
+  @Test
+  public void testJson() {
+    Metrics.setEnabled(true);
+    Metrics.counter("test.json").add(3);
+    Metrics.histogram("test.json").record(2000);
+    Metrics.histogram("test.unused");
+    String json = Metrics.toJson();
+    Assert.assertTrue(json, json.startsWith("{\"enabled\":true,\"counters\":{"));
+    Assert.assertTrue(json, json.contains("\"test.json\":3"));
+    Assert.assertTrue(json, json.contains("\"test.json\":{\"count\":1,\"mean\":2000.0,"));
+    Assert.assertFalse(json, json.contains("test.unused"));
+    Assert.assertTrue(Metrics.toText().contains("test.json count=1 mean=2.00us"));
+  }
+
+  //the server answers GET /metrics.json with the JSON snapshot
+  @Test
+  public void testServer() throws Exception {
+    Metrics.setEnabled(true);
+    Metrics.counter("test.server").increment();
+    try (MetricsServer server = new MetricsServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+      URL url = new URL("http://" + server.getAddress().getHostString() + ":"
+              + server.getAddress().getPort() + "/metrics.json");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      Assert.assertEquals(200, connection.getResponseCode());
+      try (InputStream in = connection.getInputStream()) {
+        String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertTrue(body, body.contains("\"test.server\":1"));
+      }
+    }
+  }
+
+  //no server is started unless the port property is set
+  @Test
+  public void testNoServerWithoutProperty() throws Exception {
+    Assert.assertFalse(MetricsServer.startFromProperty().isPresent());
+    Assert.assertFalse(Metrics.isEnabled());
+  }
+
+  //the port property starts a server on the loopback interface and turns recording on
+  @Test
+  public void testServerFromProperty() throws Exception {
+    System.setProperty(MetricsServer.PORT_PROPERTY, "0");
+    try (MetricsServer server = MetricsServer.startFromProperty().get()) {
+      Assert.assertTrue(Metrics.isEnabled());
+      Assert.assertTrue(server.getAddress().getAddress().isLoopbackAddress());
+      Metrics.counter("test.property").increment();
+      URL url = new URL("http://" + server.getAddress().getHostString() + ":"
+              + server.getAddress().getPort() + "/metrics");
+      HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+      Assert.assertEquals(200, connection.getResponseCode());
+      try (InputStream in = connection.getInputStream()) {
+        String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        Assert.assertTrue(body, body.contains("test.property"));
+      }
+    }
+  }
+
+  //a port property that is not a port is refused
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPortProperty() throws Exception {
+    System.setProperty(MetricsServer.PORT_PROPERTY, "nine");
+    MetricsServer.startFromProperty();
+  }
+}
@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
 
 /**
  * Mock Model for Reversi that transcribes what positions
@@ -147,6 +149,18 @@ public class MockReversi1 implements IReversiModel {
     //irrelevant in this mock
   }
 
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
   @Override
   public IPosition createPosition(int q, int r) {
     int s = -q - r;
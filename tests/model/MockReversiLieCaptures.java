@@ -2,8 +2,10 @@ package model;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
 
 /**
  * Mock that lies about the amount of captures.
@@ -93,6 +95,18 @@ public class MockReversiLieCaptures implements IReversiModel {
     //irrelevant in this mock
   }
 
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
   @Override
   public IPosition createPosition(int q, int r) {
     return delegate.createPosition(q, r);
@@ -5,8 +5,10 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 
 import controller.ModelStatusListener;
+import controller.MoveEventListener;
 
 /**
  * Mock Model for SquareReversi that transcribes what positions
@@ -146,6 +148,18 @@ public class MockReversiSquare implements IReversiModel {
     //irrelevant in this mock
   }
 
+  @Override
+  public void addMoveEventListener(MoveEventListener listener) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
+  @Override
+  public void addMoveEventListener(MoveEventListener listener, Executor executor) {
+    //empty because public method, so needs to be implemented, but it is
+    //irrelevant in this mock
+  }
+
   @Override
   public IPosition createPosition(int q, int r) {
     return new SquarePosition(q, r);
@@ -0,0 +1,80 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Tests for the single MoveEvent sent per start, move and pass.
+ */
+public class MoveEventTests {
+
+  //one event per action, with the changed cells, turn and scores after it
+  @Test
+  public void testOneEventPerMove() {
+    IReversiModel model = new ReversiModel(3);
+    List<MoveEvent> events = new ArrayList<>();
+    model.addMoveEventListener(events::add);
+    model.startGame();
+    model.executeMove(new Position(2, -1, -1));
+    Assert.assertEquals(2, events.size());
+
+    MoveEvent start = events.get(0);
+    Assert.assertEquals(MoveEvent.Kind.START, start.getKind());
+    Assert.assertEquals(6, start.getChangedCells().size());
+
+    MoveEvent move = events.get(1);
+    Assert.assertEquals(MoveEvent.Kind.MOVE, move.getKind());
+    Assert.assertEquals(Cell.BLACK, move.getPlayer());
+    Assert.assertEquals(new Position(2, -1, -1), move.getMove().get());
+    Assert.assertEquals(new Position(2, -1, -1), move.getChangedCells().get(0));
+    Assert.assertEquals(2, move.getChangedCells().size());
+    Assert.assertEquals(Cell.WHITE, move.getTurn());
+    Assert.assertEquals(model.getScore(Cell.BLACK), move.getScore(Cell.BLACK));
+    Assert.assertEquals(model.getScore(Cell.WHITE), move.getScore(Cell.WHITE));
+  }
+
+  //a pass changes no cells but does change the turn
+  @Test
+  public void testPassEvent() {
+    IReversiModel model = new SquareReversiModel(2);
+    List<MoveEvent> events = new ArrayList<>();
+    model.addMoveEventListener(events::add);
+    model.startGame();
+    model.passTurn();
+    MoveEvent pass = events.get(1);
+    Assert.assertEquals(MoveEvent.Kind.PASS, pass.getKind());
+    Assert.assertEquals(Cell.BLACK, pass.getPlayer());
+    Assert.assertEquals(Cell.WHITE, pass.getTurn());
+    Assert.assertFalse(pass.getMove().isPresent());
+    Assert.assertTrue(pass.getChangedCells().isEmpty());
+  }
+
+  //a listener registered with an executor is called through it
+  @Test
+  public void testListenerExecutor() {
+    IReversiModel model = new SquareReversiModel(2);
+    List<Runnable> queued = new ArrayList<>();
+    Executor executor = queued::add;
+    List<MoveEvent> events = new ArrayList<>();
+    model.addMoveEventListener(events::add, executor);
+    model.startGame();
+    Assert.assertTrue(events.isEmpty());
+    Assert.assertEquals(1, queued.size());
+    queued.get(0).run();
+    Assert.assertEquals(MoveEvent.Kind.START, events.get(0).getKind());
+  }
+
+  //the changed cells cannot be modified by a listener
+  @Test(expected = UnsupportedOperationException.class)
+  public void testEventImmutable() {
+    IReversiModel model = new ReversiModel(3);
+    List<MoveEvent> events = new ArrayList<>();
+    model.addMoveEventListener(events::add);
+    model.startGame();
+    events.get(0).getChangedCells().clear();
+  }
+}
@@ -0,0 +1,152 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import strategy.GoForCornersStrategy;
+import strategy.IReversiStrategy;
+import strategy.MaximumCaptureStrategy;
+import strategy.OpeningBook;
+import strategy.OpeningBookGenerator;
+import strategy.OpeningBookStrategy;
+
+/**
+ * Tests for the board layout, position hashing and the opening book.
+ */
+public class OpeningBookTests {
+
+  //hexagonal boards of size n have 3n(n+1)+1 cells, square boards have (2n)^2
+  @Test
+  public void testLayoutCellCount() {
+    Assert.assertEquals(37, BoardLayout.of(BoardLayout.Kind.HEXAGON, 3).getCellCount());
+    Assert.assertEquals(16, BoardLayout.of(BoardLayout.Kind.SQUARE, 2).getCellCount());
+    Assert.assertEquals(6, BoardLayout.of(BoardLayout.Kind.HEXAGON, 3).getDirectionCount());
+    Assert.assertEquals(8, BoardLayout.of(BoardLayout.Kind.SQUARE, 2).getDirectionCount());
+  }
+
+  //the layout follows the same q-then-r order as the strategies
+  @Test
+  public void testLayoutMatchesModel() {
+    IReversiModel model = new ReversiModel(3);
+    BoardLayout layout = BoardLayout.of(model);
+    Assert.assertEquals(BoardLayout.Kind.HEXAGON, layout.getKind());
+    Assert.assertEquals(new Position(-3, 0, 3), layout.position(0));
+    Assert.assertEquals(-1, layout.indexOf(-3, -1));
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      Assert.assertEquals(cell, layout.indexOf(layout.position(cell)));
+    }
+    Assert.assertSame(layout, BoardLayout.of(new ReversiModel(3)));
+    Assert.assertEquals(BoardLayout.Kind.SQUARE,
+            BoardLayout.of(new SquareReversiModel(2)).getKind());
+  }
+
+  //neighbors off the edge of the board are -1
+  @Test
+  public void testLayoutNeighbors() {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.SQUARE, 2);
+    int corner = layout.indexOf(0, 0);
+    int offBoard = 0;
+    for (int d = 0; d < layout.getDirectionCount(); d++) {
+      if (layout.neighbor(corner, d) < 0) {
+        offBoard++;
+      }
+    }
+    Assert.assertEquals(5, offBoard);
+  }
+
+  //the same position gives the same hash, a different one does not
+  @Test
+  public void testHash() {
+    IReversiModel model1 = new ReversiModel(3);
+    IReversiModel model2 = new ReversiModel(3);
+    model1.startGame();
+    model2.startGame();
+    BoardLayout layout = BoardLayout.of(model1);
+    Assert.assertEquals(layout.hash(model1), layout.hash(model2));
+    model1.executeMove(new Position(2, -1, -1));
+    Assert.assertNotEquals(layout.hash(model1), layout.hash(model2));
+    model2.executeMove(new Position(2, -1, -1));
+    Assert.assertEquals(layout.hash(model1), layout.hash(model2));
+  }
+
+  //the side to move is part of the hash
+  @Test
+  public void testHashIncludesTurn() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    BoardLayout layout = BoardLayout.of(model);
+    long before = layout.hash(model);
+    model.passTurn();
+    Assert.assertEquals(before ^ layout.turnKey(), layout.hash(model));
+  }
+
+  //the generated book returns the strategy's own choice for the start position
+  @Test
+  public void testGenerateAndLookup() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    IReversiStrategy strategy = new MaximumCaptureStrategy();
+    int written = new OpeningBookGenerator(() -> new ReversiModel(3), strategy, 2)
+            .generate(file);
+    OpeningBook book = OpeningBook.open(file);
+    Assert.assertEquals(written, book.size());
+    Assert.assertTrue(book.size() > 1);
+
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    Optional<IPosition> expected = strategy.chooseBestPosition(
+            strategy.choosePositions(model, Cell.BLACK));
+    Assert.assertEquals(expected, book.lookup(model));
+    Files.delete(file);
+  }
+
+  //positions past the book depth are not found and fall back to the other strategy
+  @Test
+  public void testBookStrategyFallsBack() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    new OpeningBookGenerator(() -> new ReversiModel(3), new GoForCornersStrategy(), 0)
+            .generate(file);
+    OpeningBook book = OpeningBook.open(file);
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    IReversiStrategy strategy = new OpeningBookStrategy(book, new MaximumCaptureStrategy());
+    //go for corners has no move at the start, so the book is empty
+    Assert.assertEquals(0, book.size());
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK);
+    Assert.assertEquals(new MaximumCaptureStrategy().choosePositions(model, Cell.BLACK), moves);
+    Files.delete(file);
+  }
+
+  //a book move is the only position the book strategy chooses
+  @Test
+  public void testBookStrategyUsesBook() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    new OpeningBookGenerator(() -> new ReversiModel(3), new MaximumCaptureStrategy(), 1)
+            .generate(file);
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    IReversiStrategy strategy = new OpeningBookStrategy(OpeningBook.open(file),
+            new GoForCornersStrategy());
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK);
+    Assert.assertEquals(1, moves.size());
+    Assert.assertTrue(model.isALegalMove(moves.get(0), Cell.BLACK));
+    Files.delete(file);
+  }
+
+  //a book for another board does not match
+  @Test
+  public void testBookForOtherBoard() throws IOException {
+    Path file = Files.createTempFile("book", ".bin");
+    new OpeningBookGenerator(() -> new ReversiModel(3), new MaximumCaptureStrategy(), 1)
+            .generate(file);
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    Assert.assertEquals(Optional.empty(), OpeningBook.open(file).lookup(model));
+    Files.delete(file);
+  }
+}
@@ -0,0 +1,154 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import strategy.AlphaBetaStrategy;
+import strategy.Evaluator;
+import strategy.OpeningGenerator;
+import strategy.SearchInfo;
+import strategy.WeightTuner;
+import tournament.MatchResult;
+import tournament.Tournament;
+
+/**
+ * Tests for generating, storing and playing from varied opening positions.
+ */
+public class OpeningGeneratorTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  //the generator gives as many openings as asked for, each of the asked length, each
+  //reaching a different position, and the same ones again for the same seed
+  @Test
+  public void testOpeningsAreDistinct() {
+    OpeningGenerator generator = new OpeningGenerator(() -> new ReversiModel(3), 4, 1, 1000);
+    List<int[]> openings = generator.generate(20, 3);
+    Assert.assertEquals(20, openings.size());
+    Set<Long> positions = new HashSet<>();
+    for (int[] opening : openings) {
+      Assert.assertEquals(4, opening.length);
+      positions.add(play(opening).getHash());
+    }
+    Assert.assertEquals(20, positions.size());
+    List<int[]> again = generator.generate(20, 3);
+    for (int i = 0; i < openings.size(); i++) {
+      Assert.assertArrayEquals(openings.get(i), again.get(i));
+    }
+  }
+
+  //a board with few lines of play gives fewer openings than asked for rather than repeats
+  @Test
+  public void testStopsWhenOutOfOpenings() {
+    List<int[]> openings = new OpeningGenerator(() -> new ReversiModel(3), 1, 1, 1000)
+            .generate(50, 1);
+    Assert.assertTrue(openings.size() < 50);
+    Assert.assertFalse(openings.isEmpty());
+  }
+
+  //every opening kept scores within the bound in a search of the balance depth
+  @Test
+  public void testOpeningsAreBalanced() {
+    List<int[]> openings = new OpeningGenerator(() -> new ReversiModel(3), 5, 2, 6)
+            .generate(10, 9);
+    Assert.assertFalse(openings.isEmpty());
+    for (int[] opening : openings) {
+      AlphaBetaStrategy search = new AlphaBetaStrategy(2, new Evaluator());
+      int[] score = new int[1];
+      search.addSearchInfoListener((SearchInfo info) -> score[0] = info.getScore());
+      search.search(play(opening));
+      Assert.assertTrue(Math.abs(score[0]) <= 6);
+    }
+  }
+
+  //openings survive a round trip through a file at three bytes a ply or less
+  @Test
+  public void testWriteAndRead() throws IOException {
+    List<int[]> openings = new OpeningGenerator(() -> new ReversiModel(3), 6, 1, 1000)
+            .generate(8, 5);
+    openings.add(new int[] {});
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.HEXAGON, 3);
+    Path file = folder.getRoot().toPath().resolve("openings.bin");
+    OpeningGenerator.write(file, layout, openings);
+    Assert.assertEquals(9, openings.size());
+    Assert.assertEquals(16 + 8 * 13 + 1, Files.size(file));
+    List<int[]> read = OpeningGenerator.read(file, layout);
+    Assert.assertEquals(openings.size(), read.size());
+    for (int i = 0; i < openings.size(); i++) {
+      Assert.assertArrayEquals(openings.get(i), read.get(i));
+    }
+  }
+
+  //openings written for one board cannot be read for another
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadOtherBoard() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("openings.bin");
+    OpeningGenerator.write(file, BoardLayout.of(BoardLayout.Kind.HEXAGON, 3),
+            List.of(new int[] {0}));
+    OpeningGenerator.read(file, BoardLayout.of(BoardLayout.Kind.SQUARE, 2));
+  }
+
+  //a file that is not an openings file is refused
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadNotOpenings() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("openings.bin");
+    Files.write(file, new byte[] {1, 2, 3});
+    OpeningGenerator.read(file, BoardLayout.of(BoardLayout.Kind.HEXAGON, 3));
+  }
+
+  //a tournament and a tuner can play from the generated openings
+  @Test
+  public void testPlayFromOpenings() {
+    List<int[]> openings = new OpeningGenerator(() -> new ReversiModel(3), 4, 1, 1000)
+            .generate(3, 7);
+    try (Tournament tournament = new Tournament(() -> new ReversiModel(3), openings, 2)) {
+      MatchResult result = tournament.match("MaxCapture", "MaxCapture", 5, null);
+      Assert.assertEquals(5, result.getPairs());
+      Assert.assertEquals(0, result.getEloDifference(), 1e-9);
+    }
+    WeightTuner tuner = new WeightTuner(() -> new ReversiModel(3), 1, openings, 2);
+    int[] weights = new Evaluator().getWeights();
+    Assert.assertEquals(0.5, tuner.playMatch(weights, weights, 3, 1), 0.0);
+  }
+
+  //a tournament refuses an opening that is not legal on its board
+  @Test(expected = IllegalArgumentException.class)
+  public void testIllegalOpening() {
+    new Tournament(() -> new ReversiModel(3), List.of(new int[] {0}), 2);
+  }
+
+  //a tuner refuses the same openings a tournament does
+  @Test(expected = IllegalArgumentException.class)
+  public void testTunerIllegalOpening() {
+    new WeightTuner(() -> new ReversiModel(3), 1, List.of(new int[] {-1, 999}), 2);
+  }
+
+  /**
+   * Plays an opening from the start of a game of size 3.
+   *
+   * @param opening the cells, with -1 for a pass
+   * @return the position reached
+   */
+  private static CompactBoard play(int[] opening) {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    for (int cell : opening) {
+      if (cell < 0) {
+        board.pass();
+      } else {
+        board.play(cell);
+      }
+    }
+    return board;
+  }
+}
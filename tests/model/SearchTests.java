@@ -0,0 +1,219 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import strategy.AlphaBetaStrategy;
+import strategy.MoveOrderer;
+import strategy.SearchInfo;
+import strategy.SearchLimits;
+import strategy.TimeManager;
+
+/**
+ * Tests for the compact search board, move ordering and the alpha-beta strategy.
+ */
+public class SearchTests {
+
+  //the compact board agrees with the model after the same moves
+  @Test
+  public void testCompactBoardMatchesModel() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    BoardLayout layout = board.getLayout();
+    Assert.assertEquals(layout.hash(model), board.getHash());
+    IPosition move = new Position(2, -1, -1);
+    model.executeMove(move);
+    board.play(layout.indexOf(move));
+    Assert.assertEquals(layout.hash(model), board.getHash());
+    Assert.assertEquals(model.getScore(Cell.BLACK), board.getCount(BoardLayout.BLACK));
+    Assert.assertEquals(model.getScore(Cell.WHITE), board.getCount(BoardLayout.WHITE));
+    Assert.assertEquals(BoardLayout.colorOf(model.getCurrentTurn()), board.getTurn());
+  }
+
+  //undo puts back the discs, the turn and the hash
+  @Test
+  public void testCompactBoardUndo() {
+    IReversiModel model = new SquareReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    long hash = board.getHash();
+    int[] moves = new int[board.getLayout().getCellCount()];
+    board.play(moves[board.generateMoves(moves) - 1]);
+    board.pass();
+    Assert.assertNotEquals(hash, board.getHash());
+    board.undo();
+    board.undo();
+    Assert.assertEquals(hash, board.getHash());
+    Assert.assertEquals(2, board.getCount(BoardLayout.BLACK));
+    Assert.assertEquals(0, board.getPly());
+  }
+
+  //an illegal move is rejected and leaves the board as it was
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompactBoardIllegalMove() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    board.play(0);
+  }
+
+  //the generated moves are exactly the model's legal moves
+  @Test
+  public void testGenerateMovesMatchesModel() {
+    IReversiModel model = new ReversiModel(4);
+    model.startGame();
+    model.executeMove(new Position(2, -1, -1));
+    CompactBoard board = CompactBoard.of(model);
+    BoardLayout layout = board.getLayout();
+    int[] moves = new int[layout.getCellCount()];
+    int count = board.generateMoves(moves);
+    int legal = 0;
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      if (model.isALegalMove(layout.position(cell), model.getCurrentTurn())) {
+        Assert.assertEquals(cell, moves[legal]);
+        legal++;
+      }
+    }
+    Assert.assertEquals(legal, count);
+  }
+
+  //the hash move comes first, then corners, then everything else
+  @Test
+  public void testOrderHashMoveAndCorners() {
+    IReversiModel model = new SquareReversiModel(3);
+    BoardLayout layout = BoardLayout.of(model);
+    MoveOrderer orderer = new MoveOrderer(layout);
+    int corner = layout.indexOf(5, 5);
+    int nextToCorner = layout.indexOf(1, 1);
+    int edge = layout.indexOf(0, 2);
+    int[] moves = {nextToCorner, edge, corner};
+    orderer.order(moves, 3, 0, BoardLayout.BLACK, -1);
+    Assert.assertArrayEquals(new int[]{corner, edge, nextToCorner}, moves);
+    orderer.order(moves, 3, 0, BoardLayout.BLACK, nextToCorner);
+    Assert.assertArrayEquals(new int[]{nextToCorner, corner, edge}, moves);
+  }
+
+  //a move that caused a cutoff is tried before other non-corner moves at that ply
+  @Test
+  public void testOrderKillerMove() {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.SQUARE, 3);
+    MoveOrderer orderer = new MoveOrderer(layout);
+    int edge = layout.indexOf(0, 2);
+    int nextToCorner = layout.indexOf(1, 1);
+    orderer.recordCutoff(nextToCorner, 3, BoardLayout.WHITE, 2);
+    int[] moves = {edge, nextToCorner};
+    orderer.order(moves, 2, 3, BoardLayout.WHITE, -1);
+    Assert.assertArrayEquals(new int[]{nextToCorner, edge}, moves);
+    orderer.order(moves, 2, 4, BoardLayout.WHITE, -1);
+    Assert.assertArrayEquals(new int[]{edge, nextToCorner}, moves);
+  }
+
+  //the search picks one legal move
+  @Test
+  public void testAlphaBetaChoosesLegalMove() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(3);
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK);
+    Assert.assertEquals(1, moves.size());
+    Assert.assertTrue(model.isALegalMove(moves.get(0), Cell.BLACK));
+    Assert.assertTrue(strategy.getNodeCount() > 0);
+  }
+
+  //with a corner on offer, the search takes it
+  @Test
+  public void testAlphaBetaTakesCorner() {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    BoardLayout layout = board.getLayout();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      board.set(cell, BoardLayout.EMPTY);
+    }
+    board.set(layout.indexOf(1, 1), BoardLayout.WHITE);
+    board.set(layout.indexOf(2, 2), BoardLayout.BLACK);
+    board.set(layout.indexOf(1, 2), BoardLayout.WHITE);
+    board.set(layout.indexOf(2, 1), BoardLayout.BLACK);
+    board.setTurn(BoardLayout.BLACK);
+    Assert.assertEquals(layout.indexOf(0, 0), new AlphaBetaStrategy(2).search(board));
+  }
+
+  //more empty cells means a smaller share of the clock, and the hard limit stays on the clock
+  @Test
+  public void testTimeManagerAllocate() {
+    TimeManager manager = new TimeManager(50);
+    SearchLimits opening = manager.allocate(60_000, 0, 60);
+    SearchLimits endgame = manager.allocate(60_000, 0, 6);
+    Assert.assertTrue(opening.getSoftMillis() < endgame.getSoftMillis());
+    Assert.assertTrue(opening.getSoftMillis() <= opening.getHardMillis());
+    Assert.assertTrue(endgame.getHardMillis() <= 60_000 - 50);
+    SearchLimits flagging = manager.allocate(40, 1000, 10);
+    Assert.assertEquals(0, flagging.getHardMillis());
+  }
+
+  //a changed best move earns more time, a stable one less
+  @Test
+  public void testStabilityScale() {
+    Assert.assertTrue(TimeManager.stabilityScale(0) > TimeManager.stabilityScale(1));
+    Assert.assertTrue(TimeManager.stabilityScale(1) > TimeManager.stabilityScale(3));
+    Assert.assertEquals(0.5, TimeManager.stabilityScale(20), 0.0);
+  }
+
+  //a search out of time still answers with a legal move, and stops straight away
+  @Test
+  public void testSearchStoppedEarly() {
+    IReversiModel model = new ReversiModel(5);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(AlphaBetaStrategy.MAX_DEPTH);
+    SearchLimits limits = SearchLimits.unlimited();
+    limits.stop();
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK, limits);
+    Assert.assertEquals(1, moves.size());
+    Assert.assertTrue(model.isALegalMove(moves.get(0), Cell.BLACK));
+    Assert.assertTrue(strategy.getCompletedDepth() <= 1);
+  }
+
+  //a deep search on a big board stops by its hard limit
+  @Test
+  public void testSearchRespectsHardLimit() {
+    IReversiModel model = new ReversiModel(6);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(AlphaBetaStrategy.MAX_DEPTH);
+    SearchLimits limits = new SearchLimits(100, 200);
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK, limits);
+    Assert.assertEquals(1, moves.size());
+    Assert.assertTrue(limits.getElapsedMillis() < 400);
+    Assert.assertTrue(strategy.getCompletedDepth() >= 1);
+  }
+
+  //each finished iteration is reported, with a principal variation of legal moves that
+  //starts with the move chosen
+  @Test
+  public void testSearchInfoReported() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(4);
+    List<SearchInfo> reports = new ArrayList<>();
+    strategy.addSearchInfoListener(reports::add);
+    List<IPosition> moves = strategy.choosePositions(model, Cell.BLACK,
+            SearchLimits.unlimited());
+    Assert.assertEquals(4, reports.size());
+    for (int i = 0; i < reports.size(); i++) {
+      Assert.assertEquals(i + 1, reports.get(i).getDepth());
+    }
+    SearchInfo last = reports.get(3);
+    Assert.assertEquals(strategy.getNodeCount(), last.getNodes());
+    Assert.assertTrue(last.getHashHitRate() >= 0 && last.getHashHitRate() <= 1);
+    Assert.assertEquals(moves.get(0), last.getPrincipalVariation().get(0));
+    Assert.assertFalse(last.getPrincipalVariation().size() > 4);
+    for (IPosition move : last.getPrincipalVariation()) {
+      Assert.assertTrue(model.isALegalMove(move, model.getCurrentTurn()));
+      model.executeMove(move);
+    }
+    Assert.assertTrue(last.toString().startsWith("depth 4 nodes "));
+  }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests saving and restoring models through Restorable snapshots.
+ */
+public class SnapshotTests {
+
+  /**
+   * Plays the first legal move, or passes if there is none.
+   *
+   * @param model a started model
+   */
+  private static void playFirst(IReversiModel model) {
+    BoardLayout layout = BoardLayout.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    if (CompactBoard.of(model).generateMoves(moves) > 0) {
+      model.executeMove(layout.position(moves[0]));
+    } else {
+      model.passTurn();
+    }
+  }
+
+  //a restored game has the same position and plays on the same way
+  @Test
+  public void testRestoreHexagon() {
+    ReversiModel model = new ReversiModel(3);
+    model.startGame();
+    for (int i = 0; i < 5; i++) {
+      playFirst(model);
+    }
+    byte[] snapshot = model.snapshot();
+    Assert.assertEquals(10 + 10, snapshot.length);
+
+    ReversiModel restored = new ReversiModel(3);
+    restored.restore(snapshot);
+    Assert.assertEquals(model.getCurrentTurn(), restored.getCurrentTurn());
+    Assert.assertEquals(model.getScore(Cell.BLACK), restored.getScore(Cell.BLACK));
+    Assert.assertEquals(model.getScore(Cell.WHITE), restored.getScore(Cell.WHITE));
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(restored).getHash());
+    while (!model.isGameOver()) {
+      playFirst(model);
+      playFirst(restored);
+      Assert.assertEquals(CompactBoard.of(model).getHash(),
+              CompactBoard.of(restored).getHash());
+    }
+    Assert.assertTrue(restored.isGameOver());
+  }
+
+  //square games keep their pass count, and restoring overwrites a game in progress
+  @Test
+  public void testRestoreSquareOverGame() {
+    SquareReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    model.passTurn();
+    byte[] snapshot = model.snapshot();
+    SquareReversiModel other = new SquareReversiModel(2);
+    other.startGame();
+    playFirst(other);
+    other.restore(snapshot);
+    Assert.assertEquals(Cell.WHITE, other.getCurrentTurn());
+    other.passTurn();
+    Assert.assertTrue(other.isGameOver());
+    Assert.assertArrayEquals(model.getBoard()[1], other.getBoard()[1]);
+  }
+
+  //a game that has not started restores as not started
+  @Test(expected = IllegalStateException.class)
+  public void testRestoreNotStarted() {
+    ReversiModel restored = new ReversiModel(3);
+    restored.startGame();
+    restored.restore(new ReversiModel(3).snapshot());
+    restored.getCurrentTurn();
+  }
+
+  //snapshots only fit models of the same board
+  @Test(expected = IllegalArgumentException.class)
+  public void testRestoreOtherBoard() {
+    ReversiModel model = new ReversiModel(3);
+    model.startGame();
+    new ReversiModel(4).restore(model.snapshot());
+  }
+
+  //a malformed snapshot is rejected without changing the game
+  @Test
+  public void testMalformed() {
+    ReversiModel model = new ReversiModel(3);
+    model.startGame();
+    byte[] snapshot = model.snapshot();
+    snapshot[snapshot.length - 1] = (byte) 0xFF;
+    ReversiModel other = new ReversiModel(3);
+    other.startGame();
+    try {
+      other.restore(snapshot);
+      Assert.fail("Expected the snapshot to be rejected");
+    } catch (IllegalArgumentException e) {
+      Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(other).getHash());
+    }
+  }
+}
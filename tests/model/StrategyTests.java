@@ -3,14 +3,17 @@ package model;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import strategy.AvoidNeighboringCornersStrategy;
 import strategy.GoForCornersStrategy;
 import strategy.IReversiStrategy;
 import strategy.MaximumCaptureStrategy;
 import strategy.MinimizeMaxMoveStrategy;
+import strategy.SeededTieBreakStrategy;
 import strategy.TryTwo;
 import view.IView;
 import view.ReversiView;
@@ -469,4 +472,47 @@ public class StrategyTests {
             str.chooseBestPosition(posns));
 
   }
+
+  //seeded tie-breaks pick among the tied positions whatever order they come in, the same
+  //way for the same seed and color, and not always the same way across seeds
+  @Test
+  public void testSeededTieBreak() {
+    List<IPosition> tied = List.of(new Position(1, -1, 0), new Position(-1, 1, 0),
+            new Position(0, -1, 1), new Position(1, 0, -1));
+    List<IPosition> reversed = List.of(tied.get(3), tied.get(2), tied.get(1), tied.get(0));
+    Set<IPosition> picked = new HashSet<>();
+    for (long seed = 0; seed < 20; seed++) {
+      IReversiStrategy one = new SeededTieBreakStrategy(new MaximumCaptureStrategy(), seed,
+              Cell.BLACK);
+      IReversiStrategy two = new SeededTieBreakStrategy(new MaximumCaptureStrategy(), seed,
+              Cell.BLACK);
+      for (int i = 0; i < 3; i++) {
+        IPosition pick = one.chooseBestPosition(tied).get();
+        Assert.assertTrue(tied.contains(pick));
+        Assert.assertEquals(pick, two.chooseBestPosition(reversed).get());
+        picked.add(pick);
+      }
+    }
+    Assert.assertEquals(4, picked.size());
+  }
+
+  //a seeded tie-break keeps the wrapped strategy's choices
+  @Test
+  public void testSeededTieBreakDelegates() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    IReversiStrategy strategy = new SeededTieBreakStrategy(new MaximumCaptureStrategy(), 5,
+            Cell.WHITE);
+    Assert.assertEquals(new MaximumCaptureStrategy().choosePositions(model, Cell.BLACK),
+            strategy.choosePositions(model, Cell.BLACK));
+    Assert.assertEquals(Optional.empty(), strategy.chooseBestPosition(List.of()));
+    Assert.assertEquals(Optional.of(new Position(0, 0, 0)),
+            strategy.chooseBestPosition(List.of(new Position(0, 0, 0))));
+  }
+
+  //tie-breaks are drawn for one of the players
+  @Test(expected = IllegalArgumentException.class)
+  public void testSeededTieBreakNoPlayer() {
+    new SeededTieBreakStrategy(new MaximumCaptureStrategy(), 5, null);
+  }
 }
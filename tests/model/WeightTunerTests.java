@@ -0,0 +1,91 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import strategy.AlphaBetaStrategy;
+import strategy.Evaluator;
+import strategy.IReversiStrategy;
+import strategy.MinimizeMaxMoveStrategy;
+import strategy.StrategySpec;
+import strategy.WeightTuner;
+
+/**
+ * Tests for tuning evaluator weights by self-play and for configurable strategy weights.
+ */
+public class WeightTunerTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  //weights playing themselves score exactly half, since each pair swaps colors
+  @Test
+  public void testMatchAgainstItself() {
+    WeightTuner tuner = new WeightTuner(() -> new ReversiModel(3), 1, 2, 2);
+    int[] weights = new Evaluator().getWeights();
+    Assert.assertEquals(0.5, tuner.playMatch(weights, weights, 4, 7), 0.0);
+    Assert.assertEquals(8, tuner.getGameCount());
+  }
+
+  //the default weights beat weights that want to give corners away
+  @Test
+  public void testMatchFavorsBetterWeights() {
+    WeightTuner tuner = new WeightTuner(() -> new ReversiModel(3), 2, 2, 2);
+    int[] good = new Evaluator().getWeights();
+    int[] bad = {0, 0, -30, 12, 0};
+    Assert.assertTrue(tuner.playMatch(good, bad, 8, 11) > 0.5);
+  }
+
+  //tuning gives one weight per feature and the same answer for the same seed
+  @Test
+  public void testTuneIsRepeatable() {
+    int[] start = new Evaluator().getWeights();
+    int[] once = new WeightTuner(() -> new ReversiModel(3), 1, 2, 2).tune(start, 3, 4, 5);
+    int[] again = new WeightTuner(() -> new ReversiModel(3), 1, 2, 4).tune(start, 3, 4, 5);
+    Assert.assertEquals(Evaluator.FEATURES.length, once.length);
+    Assert.assertArrayEquals(once, again);
+  }
+
+  //weights written to a file are read back, and a strategy spec can name the file
+  @Test
+  public void testWeightsFile() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("weights.txt");
+    int[] weights = {2, 5, 25, -10, 4};
+    new Evaluator(weights).write(file);
+    Assert.assertArrayEquals(weights, Evaluator.read(file).getWeights());
+    IReversiStrategy strategy = StrategySpec.parse("AlphaBeta:" + file);
+    Assert.assertTrue(strategy instanceof AlphaBetaStrategy);
+  }
+
+  //a weights file missing a feature is refused
+  @Test(expected = IllegalArgumentException.class)
+  public void testWeightsFileMissingFeature() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("weights.txt");
+    Files.writeString(file, "discs 1\nmobility 4\n");
+    Evaluator.read(file);
+  }
+
+  //with every advantage weighted 0, MinimizeMaxMove considers all legal moves equal
+  @Test
+  public void testMinimizeMaxMoveWeights() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    List<IPosition> all = new MinimizeMaxMoveStrategy(0, 0, 0)
+            .choosePositions(model, Cell.BLACK);
+    int legal = 0;
+    BoardLayout layout = BoardLayout.of(model);
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      if (model.isALegalMove(layout.position(cell), Cell.BLACK)) {
+        legal++;
+      }
+    }
+    Assert.assertEquals(legal, all.size());
+    Assert.assertFalse(new MinimizeMaxMoveStrategy().choosePositions(model, Cell.BLACK)
+            .isEmpty());
+  }
+}
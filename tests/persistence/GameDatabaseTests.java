@@ -0,0 +1,195 @@
+package persistence;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+
+/**
+ * Tests the segment files and the memory-mapped position index of GameDatabase.
+ */
+public class GameDatabaseTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Plays and records a game that opens with the given legal move and then always
+   * chooses the first legal move.
+   *
+   * @param opening which legal first move to play
+   * @return the record of the game
+   */
+  private static GameRecord game(int opening) {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    BoardLayout layout = BoardLayout.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    List<Integer> played = new ArrayList<>();
+    boolean first = true;
+    while (!model.isGameOver()) {
+      int count = CompactBoard.of(model).generateMoves(moves);
+      if (count == 0) {
+        model.passTurn();
+        played.add(GameRecord.PASS);
+      } else {
+        int move = moves[first ? opening % count : 0];
+        model.executeMove(layout.position(move));
+        played.add(move);
+      }
+      first = false;
+    }
+    return new GameRecord(layout, "b", "w", played.stream().mapToInt(i -> i).toArray(),
+            model.getScore(Cell.BLACK), model.getScore(Cell.WHITE));
+  }
+
+  /**
+   * Counts the positions a game reached, each once however often it came back to it.
+   *
+   * @param game the record of the game
+   * @return the number of distinct positions, including the start and the end
+   */
+  private static int distinctPositions(GameRecord game) {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    Set<Long> positions = new HashSet<>();
+    positions.add(board.getHash());
+    for (int i = 0; i < game.getMoveCount(); i++) {
+      if (game.getMove(i) == GameRecord.PASS) {
+        board.pass();
+      } else {
+        board.play(game.getMove(i));
+      }
+      positions.add(board.getHash());
+    }
+    return positions.size();
+  }
+
+  //the starting position is reached by every game, and each first move by its games
+  @Test
+  public void testIndexCountsAndStats() throws Exception {
+    Path directory = folder.getRoot().toPath().resolve("db");
+    long startHash;
+    int positions = 0;
+    try (GameDatabase database = GameDatabase.open(directory, 100)) {
+      for (int i = 0; i < 6; i++) {
+        GameRecord game = game(i % 3);
+        positions += distinctPositions(game);
+        database.add(game);
+      }
+      database.buildIndex();
+      IReversiModel start = new ReversiModel(3);
+      start.startGame();
+      startHash = BoardLayout.of(start).hash(start);
+      Assert.assertEquals(6, database.countGames(start));
+      Assert.assertEquals(positions, database.getIndexedPositionCount());
+
+      List<GameDatabase.MoveStats> stats = database.getMoveStats(startHash);
+      Assert.assertEquals(3, stats.size());
+      for (GameDatabase.MoveStats move : stats) {
+        Assert.assertEquals(2, move.getGames());
+        Assert.assertEquals(move.getGames(), move.getWins(Cell.BLACK)
+                + move.getWins(Cell.WHITE) + move.getDraws());
+      }
+      Assert.assertEquals(0, database.countGames(12345L));
+    }
+    //small segments roll over, and a reopened database maps the existing index
+    Assert.assertTrue(Files.exists(directory.resolve("games-00001.rvgr")));
+    try (GameDatabase database = GameDatabase.open(directory)) {
+      Assert.assertEquals(6, database.countGames(startHash));
+      List<GameRecord> games = database.findGames(startHash, 4);
+      Assert.assertEquals(4, games.size());
+      Assert.assertEquals(game(0), games.get(0));
+    }
+  }
+
+  //a game that comes back to a position, as after two passes, is counted there once
+  @Test
+  public void testRepeatedPositionCountedOnce() throws Exception {
+    try (GameDatabase database = GameDatabase.open(folder.getRoot().toPath())) {
+      IReversiModel start = new ReversiModel(3);
+      start.startGame();
+      BoardLayout layout = BoardLayout.of(start);
+      database.add(new GameRecord(layout, "b", "w",
+              new int[] {GameRecord.PASS, GameRecord.PASS}, 3, 3));
+      database.add(game(0));
+      database.buildIndex();
+      Assert.assertEquals(2, database.countGames(start));
+      Assert.assertEquals(2 + distinctPositions(game(0)),
+              database.getIndexedPositionCount());
+      List<GameDatabase.MoveStats> stats = database.getMoveStats(layout.hash(start));
+      Assert.assertEquals(2, stats.size());
+      for (GameDatabase.MoveStats move : stats) {
+        Assert.assertEquals(1, move.getGames());
+      }
+    }
+  }
+
+  //the largest hexagonal board the index can hold is indexed with its moves intact
+  @Test
+  public void testLargestBoardIndexed() throws Exception {
+    IReversiModel model = new ReversiModel(73);
+    model.startGame();
+    BoardLayout layout = BoardLayout.of(model);
+    Assert.assertTrue(layout.getCellCount() <= GameDatabase.MAX_CELLS);
+    long startHash = layout.hash(model);
+    int[] moves = new int[layout.getCellCount()];
+    int count = CompactBoard.of(model).generateMoves(moves);
+    int last = moves[count - 1];
+    try (GameDatabase database = GameDatabase.open(folder.getRoot().toPath())) {
+      database.add(new GameRecord(layout, "b", "w", new int[] {last}, 4, 1));
+      database.buildIndex();
+      List<GameDatabase.MoveStats> stats = database.getMoveStats(startHash);
+      Assert.assertEquals(1, stats.size());
+      Assert.assertEquals(last, stats.get(0).getMove());
+      Assert.assertEquals(1, stats.get(0).getWins(Cell.BLACK));
+    }
+  }
+
+  //a board with more cells than an index entry has room for is refused
+  @Test(expected = IllegalArgumentException.class)
+  public void testOversizedSquareBoardRefused() throws Exception {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.SQUARE, 64);
+    Assert.assertTrue(layout.getCellCount() > GameDatabase.MAX_CELLS);
+    try (GameDatabase database = GameDatabase.open(folder.getRoot().toPath())) {
+      database.add(new GameRecord(layout, "b", "w", new int[0], 2, 2));
+    }
+  }
+
+  //the next hexagonal board after the largest is refused too
+  @Test(expected = IllegalArgumentException.class)
+  public void testOversizedHexBoardRefused() throws Exception {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.HEXAGON, 74);
+    Assert.assertTrue(layout.getCellCount() > GameDatabase.MAX_CELLS);
+    try (GameDatabase database = GameDatabase.open(folder.getRoot().toPath())) {
+      database.add(new GameRecord(layout, "b", "w", new int[0], 3, 3));
+    }
+  }
+
+  //every stored game can be read back in order
+  @Test
+  public void testForEachGame() throws Exception {
+    try (GameDatabase database = GameDatabase.open(folder.getRoot().toPath())) {
+      database.add(game(0));
+      database.add(game(1));
+      List<GameRecord> games = new ArrayList<>();
+      database.forEachGame(games::add);
+      Assert.assertEquals(2, games.size());
+      Assert.assertEquals(game(1), games.get(1));
+      Assert.assertEquals(0, database.getIndexedPositionCount());
+    }
+  }
+}
@@ -0,0 +1,269 @@
+package persistence;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.IPosition;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+import strategy.IReversiStrategy;
+import strategy.MaximumCaptureStrategy;
+import strategy.SeededTieBreakStrategy;
+
+/**
+ * Tests writing, reading and replaying binary game records.
+ */
+public class GameRecordTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Plays a game to the end, always choosing the first legal move.
+   *
+   * @param model a started model
+   */
+  static void playOut(IReversiModel model) {
+    BoardLayout layout = BoardLayout.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    while (!model.isGameOver()) {
+      if (CompactBoard.of(model).generateMoves(moves) > 0) {
+        model.executeMove(layout.position(moves[0]));
+      } else {
+        model.passTurn();
+      }
+    }
+  }
+
+  //a recorded game is written when it ends and replays to the same result
+  @Test
+  public void testRecordAndReplay() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GameRecordWriter writer = new GameRecordWriter(bytes);
+    IReversiModel model = new ReversiModel(3);
+    writer.record(model, "first", "AlphaBeta");
+    model.startGame();
+    playOut(model);
+    writer.close();
+    Assert.assertEquals(1, writer.getGamesWritten());
+
+    GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+    GameRecord game = reader.next();
+    Assert.assertNull(reader.next());
+    Assert.assertEquals("first", game.getPlayer(Cell.BLACK));
+    Assert.assertEquals("AlphaBeta", game.getPlayer(Cell.WHITE));
+    Assert.assertEquals(model.getScore(Cell.BLACK), game.getScore(Cell.BLACK));
+    Assert.assertEquals(model.getScore(Cell.WHITE), game.getScore(Cell.WHITE));
+    //header, length, board, names, scores and count, then one byte per move
+    Assert.assertTrue(bytes.size() <= 6 + 2 + 2 + 16 + 3 + game.getMoveCount());
+
+    IReversiModel replayed = game.replay();
+    Assert.assertTrue(replayed.isGameOver());
+    Assert.assertEquals(model.getScore(Cell.BLACK), replayed.getScore(Cell.BLACK));
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(replayed).getHash());
+  }
+
+  //appending to a file adds games behind a single header
+  @Test
+  public void testAppend() throws Exception {
+    Path file = folder.getRoot().toPath().resolve("games.rvgr");
+    for (int i = 0; i < 2; i++) {
+      try (GameRecordWriter writer = GameRecordWriter.append(file)) {
+        IReversiModel model = new SquareReversiModel(2 + i);
+        writer.record(model, "a", "b");
+        model.startGame();
+        playOut(model);
+      }
+    }
+    try (GameRecordReader reader = GameRecordReader.open(file)) {
+      Assert.assertEquals(2, reader.next().getLayout().getSize());
+      Assert.assertEquals(3, reader.next().getLayout().getSize());
+      Assert.assertNull(reader.next());
+    }
+  }
+
+  //passes survive the round trip
+  @Test
+  public void testPass() throws Exception {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.SQUARE, 2);
+    GameRecord game = new GameRecord(layout, "", "", new int[] {GameRecord.PASS, 7}, 3, 1);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+      writer.write(game);
+    }
+    GameRecord read = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray())).next();
+    Assert.assertEquals(game, read);
+    Assert.assertEquals(GameRecord.PASS, read.getMove(0));
+    Assert.assertEquals(Cell.BLACK, read.getWinner().get());
+  }
+
+  //varints of every length round trip
+  @Test
+  public void testVarints() throws Exception {
+    int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (int value : values) {
+      Varints.write(bytes, value);
+    }
+    Assert.assertEquals(1 + 1 + 1 + 2 + 2 + 3 + 5, bytes.size());
+    ByteArrayInputStream in = new ByteArrayInputStream(bytes.toByteArray());
+    for (int value : values) {
+      Assert.assertEquals(value, Varints.read(in));
+    }
+    Assert.assertEquals(-1, Varints.read(in));
+  }
+
+  //every cut-short prefix of a record is refused as a bad record
+  @Test
+  public void testTruncatedRecordRefused() throws Exception {
+    BoardLayout layout = BoardLayout.of(BoardLayout.Kind.SQUARE, 2);
+    GameRecord game = new GameRecord(layout, "black", "white",
+            new int[] {GameRecord.PASS, 7, 3}, 3, 1);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    game.encode(bytes);
+    byte[] encoded = bytes.toByteArray();
+    Assert.assertEquals(game, GameRecord.decode(ByteBuffer.wrap(encoded)));
+    for (int length = 0; length < encoded.length; length++) {
+      try {
+        GameRecord.decode(ByteBuffer.wrap(encoded, 0, length));
+        Assert.fail("Expected a record cut to " + length + " bytes to be refused");
+      } catch (IllegalArgumentException e) {
+        //refused like any other bad record
+      }
+    }
+  }
+
+  //a board size far beyond any board is refused before a layout is built for it
+  @Test(expected = IllegalArgumentException.class)
+  public void testHugeBoardSizeRefused() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(BoardLayout.Kind.SQUARE.ordinal());
+    Varints.write(bytes, GameRecord.MAX_BOARD_SIZE + 1);
+    GameRecord.decode(ByteBuffer.wrap(bytes.toByteArray()));
+  }
+
+  //a string length longer than the record is refused before the string is allocated
+  @Test(expected = IllegalArgumentException.class)
+  public void testHugeStringLengthRefused() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(BoardLayout.Kind.SQUARE.ordinal());
+    Varints.write(bytes, 2);
+    Varints.write(bytes, Integer.MAX_VALUE);
+    GameRecord.decode(ByteBuffer.wrap(bytes.toByteArray()));
+  }
+
+  //a malformed string length that reads as negative is refused
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeStringLengthRefused() throws Exception {
+    byte[] bytes = {(byte) BoardLayout.Kind.SQUARE.ordinal(), 2,
+        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+    GameRecord.decode(ByteBuffer.wrap(bytes));
+  }
+
+  //a move count longer than the record is refused before the moves are allocated
+  @Test(expected = IllegalArgumentException.class)
+  public void testHugeMoveCountRefused() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(BoardLayout.Kind.SQUARE.ordinal());
+    Varints.write(bytes, 2);
+    Varints.writeString(bytes, "b");
+    Varints.writeString(bytes, "w");
+    Varints.write(bytes, 3);
+    Varints.write(bytes, 1);
+    Varints.write(bytes, Integer.MAX_VALUE);
+    GameRecord.decode(ByteBuffer.wrap(bytes.toByteArray()));
+  }
+
+  //a file whose last game claims to be huge ends as a cut-short game
+  @Test(expected = EOFException.class)
+  public void testHugeRecordLengthRefused() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new GameRecordWriter(bytes).close();
+    Varints.write(bytes, Integer.MAX_VALUE);
+    bytes.write(new byte[] {1, 2, 3});
+    new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray())).next();
+  }
+
+  //a game on a board above the largest size cannot be recorded
+  @Test(expected = IllegalArgumentException.class)
+  public void testOversizedBoardRefused() {
+    new GameRecord(BoardLayout.of(BoardLayout.Kind.HEXAGON, GameRecord.MAX_BOARD_SIZE + 1),
+            "b", "w", new int[0], 0, 0);
+  }
+
+  //other files are rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadHeader() throws Exception {
+    new GameRecordReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+  }
+
+  //a game's seed is kept in its record, so the game can be played again from it
+  @Test
+  public void testSeedReplaysGame() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+      writer.write(playSeeded(writer, 99));
+      playSeeded(writer, 99);
+    }
+    GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+    GameRecord first = reader.next();
+    GameRecord recorded = reader.next();
+    Assert.assertEquals(OptionalLong.of(99), recorded.getSeed());
+    Assert.assertEquals(first, recorded);
+    Assert.assertArrayEquals(playSeeded(null, recorded.getSeed().getAsLong()).getMoves(),
+            recorded.getMoves());
+    Assert.assertEquals(OptionalLong.empty(), new GameRecord(recorded.getLayout(), "", "",
+            recorded.getMoves(), 1, 1).getSeed());
+  }
+
+  /**
+   * Plays a game between two MaxCapture players breaking ties with a seed.
+   *
+   * @param writer records the game if not null
+   * @param seed   the seed of the game
+   * @return the record of the game
+   */
+  private static GameRecord playSeeded(GameRecordWriter writer, long seed) {
+    IReversiModel model = new ReversiModel(3);
+    if (writer != null) {
+      writer.record(model, "MaxCapture", "MaxCapture", seed);
+    }
+    IReversiStrategy black = new SeededTieBreakStrategy(new MaximumCaptureStrategy(), seed,
+            Cell.BLACK);
+    IReversiStrategy white = new SeededTieBreakStrategy(new MaximumCaptureStrategy(), seed,
+            Cell.WHITE);
+    BoardLayout layout = BoardLayout.of(model);
+    List<Integer> moves = new ArrayList<>();
+    model.startGame();
+    while (!model.isGameOver()) {
+      IReversiStrategy strategy = model.getCurrentTurn() == Cell.BLACK ? black : white;
+      Optional<IPosition> move = strategy.chooseBestPosition(
+              strategy.choosePositions(model, model.getCurrentTurn()));
+      if (move.isPresent()) {
+        model.executeMove(move.get());
+        moves.add(layout.indexOf(move.get()));
+      } else {
+        model.passTurn();
+        moves.add(GameRecord.PASS);
+      }
+    }
+    return new GameRecord(layout, "MaxCapture", "MaxCapture",
+            moves.stream().mapToInt(i -> i).toArray(), model.getScore(Cell.BLACK),
+            model.getScore(Cell.WHITE), OptionalLong.of(seed));
+  }
+}
@@ -0,0 +1,173 @@
+package persistence;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Tests recovering games from the snapshots and journals of MoveJournal.
+ */
+public class MoveJournalTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Plays the first legal move, or passes, a number of times.
+   *
+   * @param model a started model
+   * @param turns how many moves or passes to make
+   */
+  private static void play(IReversiModel model, int turns) {
+    BoardLayout layout = BoardLayout.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    for (int i = 0; i < turns && !model.isGameOver(); i++) {
+      if (CompactBoard.of(model).generateMoves(moves) > 0) {
+        model.executeMove(layout.position(moves[0]));
+      } else {
+        model.passTurn();
+      }
+    }
+  }
+
+  //a closed journal replays the start and every move onto a new model
+  @Test
+  public void testReplayAfterClose() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    IReversiModel model = new ReversiModel(3);
+    MoveJournal journal = MoveJournal.open(dir, "game", model);
+    Assert.assertEquals(0, journal.getReplayedCount());
+    model.startGame();
+    play(model, 6);
+    journal.close();
+
+    IReversiModel recovered = new ReversiModel(3);
+    MoveJournal reopened = MoveJournal.open(dir, "game", recovered);
+    Assert.assertEquals(7, reopened.getReplayedCount());
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(recovered).getHash());
+    Assert.assertEquals(model.getCurrentTurn(), recovered.getCurrentTurn());
+
+    //the reopened journal keeps recording where the old one stopped
+    play(recovered, 2);
+    reopened.close();
+    IReversiModel again = new ReversiModel(3);
+    MoveJournal.open(dir, "game", again).close();
+    Assert.assertEquals(CompactBoard.of(recovered).getHash(), CompactBoard.of(again).getHash());
+  }
+
+  //a batch cut short by a crash is dropped and the committed moves are kept
+  @Test
+  public void testTornBatchDropped() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    IReversiModel model = new SquareReversiModel(2);
+    MoveJournal journal = MoveJournal.open(dir, "game", model);
+    model.startGame();
+    play(model, 3);
+    journal.close();
+    long committed = CompactBoard.of(model).getHash();
+    Path file = dir.resolve("game.journal");
+    long size = Files.size(file);
+    Files.write(file, new byte[] {5, 7, 9}, StandardOpenOption.APPEND);
+
+    IReversiModel recovered = new SquareReversiModel(2);
+    MoveJournal reopened = MoveJournal.open(dir, "game", recovered);
+    Assert.assertEquals(committed, CompactBoard.of(recovered).getHash());
+    Assert.assertEquals(size, Files.size(file));
+    reopened.close();
+  }
+
+  //an entry reaches the disk within the commit interval even when no move follows it
+  @Test(timeout = 10000)
+  public void testCommittedOnTime() throws Exception {
+    Path dir = folder.newFolder("live").toPath();
+    IReversiModel model = new ReversiModel(3);
+    MoveJournal journal = MoveJournal.open(dir, "game", model, 100, 1000);
+    journal.commit();
+    model.startGame();
+    play(model, 2);
+
+    //what is on disk, read while the journal is still open, as after a crash; the entries
+    //may reach it in more than one timed commit, so read until all three have
+    Path file = dir.resolve("game.journal");
+    Path copy = folder.newFolder("crashed").toPath();
+    IReversiModel recovered;
+    int replayed;
+    do {
+      Thread.sleep(10);
+      Files.copy(file, copy.resolve("game.journal"), StandardCopyOption.REPLACE_EXISTING);
+      recovered = new ReversiModel(3);
+      MoveJournal reopened = MoveJournal.open(copy, "game", recovered);
+      replayed = reopened.getReplayedCount();
+      reopened.close();
+    } while (replayed < 3);
+    Assert.assertEquals(3, replayed);
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(recovered).getHash());
+    journal.close();
+  }
+
+  //compaction writes a snapshot, so only the entries after it are replayed
+  @Test
+  public void testCompaction() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    IReversiModel model = new ReversiModel(3);
+    MoveJournal journal = MoveJournal.open(dir, "game", model, 0, 3);
+    model.startGame();
+    play(model, 7);
+    Assert.assertEquals(2, journal.getGeneration());
+    Assert.assertEquals(2, journal.getEntryCount());
+    journal.close();
+
+    IReversiModel recovered = new ReversiModel(3);
+    MoveJournal reopened = MoveJournal.open(dir, "game", recovered);
+    Assert.assertEquals(2, reopened.getReplayedCount());
+    Assert.assertEquals(2, reopened.getGeneration());
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(recovered).getHash());
+    reopened.close();
+  }
+
+  //a journal left over from before the snapshot is already in it, so it is not replayed
+  @Test
+  public void testStaleJournalIgnored() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    IReversiModel model = new ReversiModel(3);
+    MoveJournal journal = MoveJournal.open(dir, "game", model);
+    model.startGame();
+    play(model, 4);
+    journal.commit();
+    Path file = dir.resolve("game.journal");
+    Path copy = dir.resolve("old.journal");
+    Files.copy(file, copy);
+    journal.compact();
+    journal.close();
+    //as if the process died after the snapshot was replaced but before the journal was reset
+    Files.move(copy, file, StandardCopyOption.REPLACE_EXISTING);
+
+    IReversiModel recovered = new ReversiModel(3);
+    MoveJournal reopened = MoveJournal.open(dir, "game", recovered);
+    Assert.assertEquals(0, reopened.getReplayedCount());
+    Assert.assertEquals(CompactBoard.of(model).getHash(), CompactBoard.of(recovered).getHash());
+    reopened.close();
+  }
+
+  //a journal only fits a model of the same board
+  @Test(expected = IllegalArgumentException.class)
+  public void testOtherBoard() throws Exception {
+    Path dir = folder.getRoot().toPath();
+    IReversiModel model = new ReversiModel(3);
+    MoveJournal journal = MoveJournal.open(dir, "game", model, 0, 1);
+    model.startGame();
+    journal.close();
+    MoveJournal.open(dir, "game", new ReversiModel(4));
+  }
+}
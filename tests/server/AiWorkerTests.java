@@ -0,0 +1,225 @@
+package server;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import controller.AiPlayer;
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+import model.Restorable;
+import model.ReversiModel;
+import model.SquareReversiModel;
+import strategy.Evaluator;
+import strategy.IReversiStrategy;
+import strategy.StrategySpec;
+
+/**
+ * Tests answering move requests with AiWorkers running in this process over loopback.
+ */
+public class AiWorkerTests {
+  private List<AiWorker> workers;
+  private AiWorkerPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    workers = new ArrayList<>();
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      AiWorker worker = new AiWorker(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+              2);
+      worker.start();
+      workers.add(worker);
+      addresses.add(worker.getAddress());
+    }
+    pool = new AiWorkerPool(addresses);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    pool.close();
+    for (AiWorker worker : workers) {
+      worker.close();
+    }
+  }
+
+  /**
+   * Chooses a move with a local strategy.
+   *
+   * @param model  the position
+   * @param player the player to move
+   * @param spec   the strategy spec
+   * @return the chosen move, or empty to pass
+   */
+  private static Optional<IPosition> local(IReversiModel model, Cell player, String spec) {
+    IReversiStrategy strategy = StrategySpec.parse(spec);
+    return strategy.chooseBestPosition(strategy.choosePositions(model, player));
+  }
+
+  //many pipelined requests, spread over both workers, match the local strategy
+  @Test(timeout = 20000)
+  public void testPipelinedRequestsMatchLocal() throws Exception {
+    String spec = "TryTwo ChooseCorners MaxCapture";
+    List<IReversiModel> positions = new ArrayList<>();
+    List<CompletableFuture<Optional<IPosition>>> answers = new ArrayList<>();
+    IReversiModel game = new ReversiModel(3);
+    game.startGame();
+    while (!game.isGameOver()) {
+      IReversiModel position = new ReversiModel(3);
+      position.startGame();
+      ((Restorable) position).restore(((Restorable) game).snapshot());
+      positions.add(position);
+      answers.add(pool.requestMove(position, position.getCurrentTurn(), spec));
+      Optional<IPosition> move = local(game, game.getCurrentTurn(), "MaxCapture");
+      if (move.isPresent()) {
+        game.executeMove(move.get());
+      } else {
+        game.passTurn();
+      }
+    }
+    for (int i = 0; i < positions.size(); i++) {
+      IReversiModel position = positions.get(i);
+      Assert.assertEquals(local(position, position.getCurrentTurn(), spec), answers.get(i).get());
+    }
+    Assert.assertEquals(0, pool.getPendingCount());
+    Assert.assertEquals(positions.size(),
+            workers.get(0).getRequestCount() + workers.get(1).getRequestCount());
+    Assert.assertTrue(workers.get(0).getRequestCount() > 0);
+    Assert.assertTrue(workers.get(1).getRequestCount() > 0);
+  }
+
+  //an AiPlayer with a remote strategy plays a whole square game
+  @Test(timeout = 20000)
+  public void testRemoteStrategyPlaysGame() {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    AiPlayer black = new AiPlayer(Cell.BLACK, pool.strategy("MaxCapture"));
+    AiPlayer white = new AiPlayer(Cell.WHITE, pool.strategy("AvoidNextToCorners"));
+    while (!model.isGameOver()) {
+      AiPlayer player = model.getCurrentTurn() == Cell.BLACK ? black : white;
+      Optional<IPosition> move = player.play(model);
+      if (move.isPresent()) {
+        model.executeMove(move.get());
+      } else {
+        model.passTurn();
+      }
+    }
+    Assert.assertTrue(model.getScore(Cell.BLACK) + model.getScore(Cell.WHITE) > 4);
+    Assert.assertEquals(0, pool.getPendingCount());
+  }
+
+  //a request for an unknown strategy is refused
+  @Test(timeout = 10000)
+  public void testUnknownStrategyFails() throws Exception {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    try {
+      pool.requestMove(model, Cell.BLACK, "NoSuchStrategy").get();
+      Assert.fail("Expected the request to fail");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+      Assert.assertEquals("Worker refused the request", e.getCause().getMessage());
+    }
+  }
+
+  //a request for a board too big to describe is refused without building it
+  @Test(timeout = 10000)
+  public void testOversizedBoardFails() throws Exception {
+    IReversiModel model = new ReversiModel(Protocol.MAX_BOARD_SIZE + 1);
+    model.startGame();
+    try {
+      pool.requestMove(model, Cell.BLACK, "MaxCapture").get();
+      Assert.fail("Expected the request to fail");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  //a remote spec cannot make the worker read a file, and what the file holds never comes
+  //back in the failure
+  @Test(timeout = 10000)
+  public void testRemoteSpecCannotNameFile() throws Exception {
+    Path file = Files.createTempFile("secret", ".txt");
+    Files.writeString(file, "top secret line\n");
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    try {
+      pool.requestMove(model, Cell.BLACK, "AlphaBeta:" + file).get();
+      Assert.fail("Expected the request to fail");
+    } catch (ExecutionException e) {
+      Assert.assertFalse(e.getCause().getMessage().contains("secret"));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  //a remote spec can name a weight set the worker was started with
+  @Test(timeout = 20000)
+  public void testRemoteSpecNamesWeights() throws Exception {
+    Evaluator tuned = new Evaluator(new int[] {1, 5, 25, -10, 2});
+    try (AiWorker worker = new AiWorker(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+            0), 1, Map.of("tuned", tuned))) {
+      worker.start();
+      try (AiWorkerPool named = new AiWorkerPool(List.of(worker.getAddress()))) {
+        IReversiModel model = new ReversiModel(3);
+        model.startGame();
+        IPosition move = named.requestMove(model, Cell.BLACK, "AlphaBeta:tuned").get().get();
+        Assert.assertTrue(model.isALegalMove(move, Cell.BLACK));
+      }
+    }
+    Assert.assertEquals("AlphaBetaStrategy", StrategySpec.parse("AlphaBeta:tuned",
+            Map.of("tuned", tuned)).getClass().getSimpleName());
+  }
+
+  //a spec parsed for another process only names the weights it is given
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoteSpecUnknownWeights() {
+    StrategySpec.parse("TryTwo ChooseCorners AlphaBeta:weights.txt", Map.of());
+  }
+
+  //a spec is the command-line strategy list separated by spaces
+  @Test
+  public void testStrategySpecParse() {
+    Assert.assertEquals("MaximumCaptureStrategy",
+            StrategySpec.parse("  MaxCapture ").getClass().getSimpleName());
+    Assert.assertEquals("TryTwo",
+            StrategySpec.parse("TryTwo ChooseCorners MaxCapture").getClass().getSimpleName());
+  }
+
+  //a pool needs workers
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyPool() throws IOException {
+    new AiWorkerPool(new ArrayList<>());
+  }
+
+  //a player with no legal move is answered with a pass
+  @Test(timeout = 10000)
+  public void testPassAnswered() throws Exception {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    while (!model.isGameOver()) {
+      Optional<IPosition> move = local(model, model.getCurrentTurn(), "MaxCapture");
+      if (move.isPresent()) {
+        model.executeMove(move.get());
+      } else {
+        model.passTurn();
+      }
+    }
+    Assert.assertEquals(Optional.empty(),
+            pool.requestMove(model, Cell.BLACK, "MaxCapture").get());
+  }
+}
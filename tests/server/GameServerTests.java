@@ -0,0 +1,368 @@
+package server;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import controller.AiPlayer;
+import controller.MockReversiFrameView;
+import model.BoardLayout;
+import model.Cell;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+import strategy.MaximumCaptureStrategy;
+
+/**
+ * Tests the game server with clients connected over the loopback interface.
+ */
+public class GameServerTests {
+  private GameServer server;
+  private InetSocketAddress address;
+
+  @Before
+  public void setUp() throws IOException {
+    server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    server.start();
+    address = server.getAddress();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    server.close();
+  }
+
+  /**
+   * Plays the first legal move for a client, or passes.
+   *
+   * @param client a client whose turn it is
+   * @throws IOException if the move cannot be sent
+   */
+  private static void playFirst(GameClient client) throws IOException {
+    IReversiModel model = client.getModel();
+    BoardLayout layout = BoardLayout.of(model);
+    int[] moves = new int[layout.getCellCount()];
+    if (CompactBoard.of(model).generateMoves(moves) > 0) {
+      client.sendMove(layout.position(moves[0]));
+    } else {
+      client.sendPass();
+    }
+  }
+
+  /**
+   * Has two clients take turns until a number of turns have been played or the game ends.
+   *
+   * @param black the black client
+   * @param white the white client
+   * @param turns the most turns to play
+   * @throws Exception if a client fails
+   */
+  private static void play(GameClient black, GameClient white, int turns) throws Exception {
+    for (int i = 0; i < turns; i++) {
+      GameClient next = black.awaitTurn(20) ? black : white.awaitTurn(5000) ? white : null;
+      if (next == null) {
+        return;
+      }
+      playFirst(next);
+    }
+  }
+
+  //two loopback clients play a whole game, and all three copies of it agree
+  @Test(timeout = 20000)
+  public void testLoopbackGame() throws Exception {
+    try (GameClient black = GameClient.connect(address, 7, new ReversiModel(3));
+         GameClient white = GameClient.connect(address, 7, new ReversiModel(3))) {
+      Assert.assertEquals(Cell.BLACK, black.getColor());
+      Assert.assertEquals(Cell.WHITE, white.getColor());
+      play(black, white, 1000);
+      Assert.assertTrue(black.awaitGameOver(5000));
+      Assert.assertTrue(white.awaitGameOver(5000));
+      IReversiModel hosted = (IReversiModel) server.getGame(7).get();
+      Assert.assertTrue(hosted.isGameOver());
+      Assert.assertEquals(hosted.getScore(Cell.BLACK), black.getModel().getScore(Cell.BLACK));
+      Assert.assertEquals(CompactBoard.of(hosted).getHash(),
+              CompactBoard.of(white.getModel()).getHash());
+      Assert.assertFalse(black.getLastError().isPresent());
+    }
+  }
+
+  //a move out of turn is refused with an error and changes nothing
+  @Test(timeout = 10000)
+  public void testOutOfTurnRefused() throws Exception {
+    try (GameClient black = GameClient.connect(address, 1, new SquareReversiModel(2));
+         GameClient white = GameClient.connect(address, 1, new SquareReversiModel(2))) {
+      Assert.assertTrue(black.awaitTurn(5000));
+      long start = CompactBoard.of(black.getModel()).getHash();
+      white.sendPass();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!white.getLastError().isPresent() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      Assert.assertEquals("Not your turn", white.getLastError().get());
+      Assert.assertEquals(start, CompactBoard.of(black.getModel()).getHash());
+      Assert.assertTrue(black.awaitTurn(100));
+    }
+  }
+
+  //a player who leaves a game in progress can join again and is sent its state
+  @Test(timeout = 10000)
+  public void testRejoinSyncsState() throws Exception {
+    try (GameClient black = GameClient.connect(address, 2, new ReversiModel(3))) {
+      GameClient white = GameClient.connect(address, 2, new ReversiModel(3));
+      play(black, white, 4);
+      Assert.assertTrue(black.awaitTurn(5000));
+      white.close();
+      while (server.getConnectionCount() > 1) {
+        Thread.sleep(5);
+      }
+      try (GameClient rejoined = GameClient.rejoin(address, 2, white.getRejoinToken(),
+              new ReversiModel(3))) {
+        Assert.assertEquals(Cell.WHITE, rejoined.getColor());
+        playFirst(black);
+        Assert.assertTrue(rejoined.awaitTurn(5000));
+        //each client applies the server's answer on its own thread, so black's copy may
+        //not have the move yet when it is already white's turn in the rejoined copy
+        Assert.assertTrue(black.awaitAnswer(5000));
+        Assert.assertEquals(CompactBoard.of(black.getModel()).getHash(),
+                CompactBoard.of(rejoined.getModel()).getHash());
+      }
+    }
+  }
+
+  //only the player who held a seat can take it back, and only while it is free
+  @Test(timeout = 10000)
+  public void testRejoinNeedsToken() throws Exception {
+    try (GameClient black = GameClient.connect(address, 11, new ReversiModel(3))) {
+      GameClient white = GameClient.connect(address, 11, new ReversiModel(3));
+      Assert.assertNotEquals(black.getRejoinToken(), white.getRejoinToken());
+      Assert.assertTrue(black.awaitTurn(5000));
+      try {
+        GameClient.rejoin(address, 11, white.getRejoinToken(), new ReversiModel(3)).close();
+        Assert.fail("Expected a seat in use to be refused");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("No free seat"));
+      }
+      white.close();
+      while (server.getConnectionCount() > 1) {
+        Thread.sleep(5);
+      }
+      try {
+        GameClient.connect(address, 11, new ReversiModel(3)).close();
+        Assert.fail("Expected a stranger to be refused the free seat");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("Game is full"));
+      }
+      try {
+        GameClient.rejoin(address, 11, white.getRejoinToken() + 1, new ReversiModel(3))
+                .close();
+        Assert.fail("Expected a wrong token to be refused");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("No free seat"));
+      }
+      try (GameClient rejoined = GameClient.rejoin(address, 11, white.getRejoinToken(),
+              new ReversiModel(3))) {
+        Assert.assertEquals(Cell.WHITE, rejoined.getColor());
+        Assert.assertEquals(white.getRejoinToken(), rejoined.getRejoinToken());
+      }
+    }
+  }
+
+  //a game in progress that both players left is dropped once it has been abandoned a while
+  @Test(timeout = 10000)
+  public void testAbandonedGameDropped() throws Exception {
+    try (GameServer shortLived = new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 10, 100)) {
+      shortLived.start();
+      InetSocketAddress at = shortLived.getAddress();
+      GameClient black = GameClient.connect(at, 1, new ReversiModel(3));
+      GameClient white = GameClient.connect(at, 1, new ReversiModel(3));
+      Assert.assertTrue(black.awaitTurn(5000));
+      playFirst(black);
+      Assert.assertTrue(white.awaitTurn(5000));
+      black.close();
+      white.close();
+      while (shortLived.getGameCount() > 0) {
+        Thread.sleep(5);
+      }
+      try {
+        GameClient.rejoin(at, 1, black.getRejoinToken(), new ReversiModel(3)).close();
+        Assert.fail("Expected the dropped game to be gone");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("No such game"));
+      }
+    }
+  }
+
+  //a join that would host more games than the server allows is refused
+  @Test(timeout = 10000)
+  public void testGameLimit() throws Exception {
+    try (GameServer small = new GameServer(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 60000)) {
+      small.start();
+      InetSocketAddress at = small.getAddress();
+      try (GameClient black = GameClient.connect(at, 1, new ReversiModel(3))) {
+        Assert.assertEquals(Cell.BLACK, black.getColor());
+        try {
+          GameClient.connect(at, 2, new ReversiModel(3)).close();
+          Assert.fail("Expected a second game to be refused");
+        } catch (IOException e) {
+          Assert.assertTrue(e.getMessage().contains("Server is full"));
+        }
+        try (GameClient white = GameClient.connect(at, 1, new ReversiModel(3))) {
+          Assert.assertEquals(Cell.WHITE, white.getColor());
+        }
+      }
+    }
+  }
+
+  //a server's limits must be positive
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadLimits() throws Exception {
+    new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0, 1000);
+  }
+
+  //a third player, or one on another board, cannot join
+  @Test(timeout = 10000)
+  public void testJoinRefused() throws Exception {
+    try (GameClient black = GameClient.connect(address, 3, new ReversiModel(3));
+         GameClient white = GameClient.connect(address, 3, new ReversiModel(3))) {
+      Assert.assertEquals(Cell.BLACK, black.getColor());
+      Assert.assertEquals(Cell.WHITE, white.getColor());
+      Assert.assertEquals(1, server.getGameCount());
+      try {
+        GameClient.connect(address, 3, new ReversiModel(3)).close();
+        Assert.fail("Expected the full game to refuse");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("Game is full"));
+      }
+      try {
+        GameClient.connect(address, 3, new ReversiModel(4)).close();
+        Assert.fail("Expected another board to be refused");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("another board"));
+      }
+    }
+  }
+
+  //a join for a board too big to describe is refused, and the server goes on serving
+  @Test(timeout = 10000)
+  public void testOversizedBoardRefused() throws Exception {
+    try (SocketChannel raw = SocketChannel.open(address)) {
+      raw.write(Protocol.join(8, BoardLayout.Kind.HEXAGON, Short.MAX_VALUE, 0));
+      ByteBuffer reply = Protocol.readFrame(raw, Protocol.frameBuffer());
+      Assert.assertEquals(Protocol.ERROR, reply.get());
+      Assert.assertEquals("No such board", Protocol.text(reply));
+    }
+    try {
+      GameClient.connect(address, 8, new SquareReversiModel(Protocol.MAX_BOARD_SIZE + 1))
+              .close();
+      Assert.fail("Expected the board to be refused");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("No such board"));
+    }
+    try (GameClient black = GameClient.connect(address, 8, new ReversiModel(3))) {
+      Assert.assertEquals(Cell.BLACK, black.getColor());
+    }
+  }
+
+  //a client gives up on a server that accepts the connection but never answers
+  @Test(expected = IOException.class, timeout = 10000)
+  public void testConnectTimesOut() throws Exception {
+    try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      GameClient.connect((InetSocketAddress) silent.getLocalSocketAddress(), 1,
+              new ReversiModel(3), Runnable::run, 200).close();
+    }
+  }
+
+  //a remote AI controller plays its turns by itself against a loopback client
+  @Test(timeout = 20000)
+  public void testRemoteAiController() throws Exception {
+    try (GameClient black = GameClient.connect(address, 4, new ReversiModel(3));
+         GameClient white = GameClient.connect(address, 4, new ReversiModel(3))) {
+      new RemoteController(white, new AiPlayer(Cell.WHITE, new MaximumCaptureStrategy()),
+              new MockReversiFrameView());
+      while (black.awaitTurn(5000)) {
+        playFirst(black);
+      }
+      Assert.assertTrue(black.awaitGameOver(5000));
+      Assert.assertFalse(white.getLastError().isPresent());
+    }
+  }
+
+  //a remote AI controller that plays black makes the first move once the game starts
+  @Test(timeout = 20000)
+  public void testRemoteAiControllerStarts() throws Exception {
+    try (GameClient black = GameClient.connect(address, 9, new ReversiModel(3))) {
+      new RemoteController(black, new AiPlayer(Cell.BLACK, new MaximumCaptureStrategy()),
+              new MockReversiFrameView());
+      try (GameClient white = GameClient.connect(address, 9, new ReversiModel(3))) {
+        Assert.assertTrue(white.awaitTurn(5000));
+        Assert.assertEquals(Cell.WHITE, white.getModel().getCurrentTurn());
+      }
+    }
+  }
+
+  //a remote AI controller that joins a game again on its turn plays without being told
+  //of a move first
+  @Test(timeout = 20000)
+  public void testRemoteAiControllerRejoins() throws Exception {
+    try (GameClient black = GameClient.connect(address, 10, new ReversiModel(3))) {
+      GameClient white = GameClient.connect(address, 10, new ReversiModel(3));
+      Assert.assertTrue(black.awaitTurn(5000));
+      playFirst(black);
+      Assert.assertTrue(white.awaitTurn(5000));
+      white.close();
+      while (server.getConnectionCount() > 1) {
+        Thread.sleep(5);
+      }
+      try (GameClient rejoined = GameClient.rejoin(address, 10, white.getRejoinToken(),
+              new ReversiModel(3))) {
+        new RemoteController(rejoined,
+                new AiPlayer(Cell.WHITE, new MaximumCaptureStrategy()),
+                new MockReversiFrameView());
+        while (black.awaitTurn(5000)) {
+          playFirst(black);
+        }
+        Assert.assertTrue(black.awaitGameOver(5000));
+        Assert.assertFalse(rejoined.getLastError().isPresent());
+      }
+    }
+  }
+
+  //a spectator who starts watching before the game starts ends with the server's board
+  @Test(timeout = 20000)
+  public void testSpectatorFollowsGame() throws Exception {
+    try (GameClient black = GameClient.connect(address, 5, new ReversiModel(3));
+         SpectatorClient spectator = new SpectatorClient(address, 5)) {
+      try (GameClient white = GameClient.connect(address, 5, new ReversiModel(3))) {
+        play(black, white, 1000);
+        Assert.assertTrue(spectator.awaitGameOver(5000));
+      }
+      IReversiModel hosted = (IReversiModel) server.getGame(5).get();
+      BoardLayout layout = spectator.getLayout();
+      Assert.assertEquals(BoardLayout.of(hosted), layout);
+      for (int cell = 0; cell < layout.getCellCount(); cell++) {
+        Assert.assertEquals(layout.colorAt(hosted.getBoard(), cell), spectator.getColorAt(cell));
+      }
+      Assert.assertEquals(hosted.getScore(Cell.WHITE), spectator.getScore(Cell.WHITE));
+      Assert.assertFalse(spectator.getTurn().isPresent());
+      Assert.assertEquals(1, spectator.getKeyframeCount());
+      Assert.assertTrue(spectator.getDeltaCount() > 10);
+    }
+  }
+
+  //watching a game that does not exist is refused
+  @Test(expected = IOException.class, timeout = 10000)
+  public void testWatchMissingGame() throws Exception {
+    new SpectatorClient(address, 99).close();
+  }
+}
@@ -0,0 +1,135 @@
+package server;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.BoardLayout;
+import model.IReversiModel;
+import model.MoveEvent;
+import model.ReversiModel;
+
+/**
+ * Tests the deltas, keyframes and slow-spectator handling of SpectatorHub.
+ */
+public class SpectatorHubTests {
+  private IReversiModel model;
+  private BoardLayout layout;
+  private List<MoveEvent> events;
+
+  /**
+   * A subscriber that keeps what it is sent, with a backlog that can be set.
+   */
+  private static final class FakeSubscriber implements SpectatorHub.Subscriber {
+    private final List<ByteBuffer> sent = new ArrayList<>();
+    private int queued;
+    private int stuck; //bytes that dropping the backlog cannot remove
+    private int drops;
+
+    @Override
+    public int getQueuedBytes() {
+      return queued;
+    }
+
+    @Override
+    public void send(ByteBuffer message) {
+      sent.add(message);
+    }
+
+    @Override
+    public void dropQueued() {
+      drops++;
+      queued = stuck;
+    }
+
+    /**
+     * Gets the type of the last message sent.
+     *
+     * @return the type
+     */
+    private byte lastType() {
+      return sent.get(sent.size() - 1).get(Protocol.LENGTH_BYTES);
+    }
+  }
+
+  @Before
+  public void setUp() {
+    model = new ReversiModel(3);
+    layout = BoardLayout.of(model);
+    events = new ArrayList<>();
+    model.addMoveEventListener(events::add);
+    model.startGame();
+  }
+
+  //a new subscriber gets a keyframe of every cell
+  @Test
+  public void testKeyframeOnAdd() {
+    SpectatorHub hub = new SpectatorHub(layout, model, 1024);
+    FakeSubscriber subscriber = new FakeSubscriber();
+    hub.add(subscriber);
+    Assert.assertEquals(1, subscriber.sent.size());
+    Assert.assertEquals(Protocol.KEYFRAME, subscriber.lastType());
+    //length, type, turn and two bits per cell
+    Assert.assertEquals(2 + 1 + 1 + (layout.getCellCount() + 3) / 4,
+            subscriber.sent.get(0).remaining());
+  }
+
+  //one delta is encoded per move and shared by every subscriber
+  @Test
+  public void testDeltaSharedBySubscribers() {
+    SpectatorHub hub = new SpectatorHub(layout, model, 1024);
+    List<FakeSubscriber> subscribers = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      FakeSubscriber subscriber = new FakeSubscriber();
+      hub.add(subscriber);
+      subscribers.add(subscriber);
+    }
+    MoveEvent start = events.get(0);
+    hub.publish(start);
+    ByteBuffer delta = subscribers.get(0).sent.get(1);
+    Assert.assertEquals(Protocol.DELTA, delta.get(Protocol.LENGTH_BYTES));
+    Assert.assertEquals(2 + 1 + 1 + 2 * start.getChangedCells().size(), delta.remaining());
+    for (FakeSubscriber subscriber : subscribers) {
+      Assert.assertSame(delta, subscriber.sent.get(1));
+    }
+  }
+
+  //a subscriber too far behind has its backlog dropped and is sent a keyframe instead
+  @Test
+  public void testSlowSubscriberGetsKeyframe() {
+    SpectatorHub hub = new SpectatorHub(layout, model, 64);
+    FakeSubscriber fast = new FakeSubscriber();
+    FakeSubscriber slow = new FakeSubscriber();
+    hub.add(fast);
+    hub.add(slow);
+    slow.queued = 100;
+    hub.publish(events.get(0));
+    Assert.assertEquals(1, slow.drops);
+    Assert.assertEquals(Protocol.KEYFRAME, slow.lastType());
+    Assert.assertEquals(Protocol.DELTA, fast.lastType());
+  }
+
+  //a subscriber whose backlog cannot all be dropped gets no deltas until it drains
+  @Test
+  public void testStuckSubscriberWaitsForDrain() {
+    SpectatorHub hub = new SpectatorHub(layout, model, 64);
+    FakeSubscriber slow = new FakeSubscriber();
+    hub.add(slow);
+    slow.queued = 100;
+    slow.stuck = 10;
+    hub.publish(events.get(0));
+    Assert.assertEquals(1, slow.sent.size());
+    slow.queued = 0;
+    hub.publish(events.get(0));
+    Assert.assertEquals(1, slow.sent.size());
+    hub.drained(slow);
+    Assert.assertEquals(2, slow.sent.size());
+    Assert.assertEquals(Protocol.KEYFRAME, slow.lastType());
+    hub.drained(slow);
+    Assert.assertEquals(2, slow.sent.size());
+  }
+}
@@ -0,0 +1,92 @@
+package tournament;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import model.ReversiModel;
+
+/**
+ * Tests for Elo, the sequential test and tournaments between strategies.
+ */
+public class TournamentTests {
+  private Tournament tournament;
+
+  @Before
+  public void setUp() {
+    tournament = new Tournament(() -> new ReversiModel(3), 2, 4, 42);
+  }
+
+  @After
+  public void tearDown() {
+    tournament.close();
+  }
+
+  //Elo differences and expected scores are inverses, with even scores worth 0
+  @Test
+  public void testElo() {
+    Assert.assertEquals(0, Elo.difference(0.5), 1e-9);
+    Assert.assertEquals(0.75, Elo.expectedScore(Elo.difference(0.75)), 1e-9);
+    Assert.assertEquals(-191.0, Elo.difference(0.25), 0.5);
+    Assert.assertEquals(1000, Elo.difference(1), 0.0);
+    double[] interval = Elo.interval(0.6, 0.04, 100);
+    Assert.assertTrue(interval[0] < Elo.difference(0.6));
+    Assert.assertTrue(interval[1] > Elo.difference(0.6));
+  }
+
+  //the test accepts the gain after enough clear wins, rejects it after even scores, and
+  //keeps going while the evidence is thin
+  @Test
+  public void testSprt() {
+    Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+    Assert.assertEquals(Sprt.Decision.CONTINUE, sprt.decide(0.75, 0.06, 2));
+    Assert.assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(0.75, 0.06, 200));
+    Assert.assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(0.5, 0.06, 2000));
+  }
+
+  //a strategy against itself scores exactly half, since each pair swaps colors
+  @Test
+  public void testMatchAgainstItself() {
+    MatchResult result = tournament.match("MaxCapture", "MaxCapture", 6, null);
+    Assert.assertEquals(6, result.getPairs());
+    Assert.assertEquals(12, result.getWins() + result.getDraws() + result.getLosses());
+    Assert.assertEquals(result.getWins(), result.getLosses());
+    Assert.assertEquals(0, result.getEloDifference(), 1e-9);
+  }
+
+  //a one-sided match is stopped by the test well before its last pair
+  @Test
+  public void testSprtStopsEarly() {
+    MatchResult result = tournament.match("AlphaBeta", "ChooseCorners", 200,
+            new Sprt(0, 50, 0.05, 0.05));
+    Assert.assertEquals(Sprt.Decision.ACCEPT_H1, result.getDecision());
+    Assert.assertTrue(result.getPairs() < 200);
+    Assert.assertTrue(result.getEloDifference() > 0);
+  }
+
+  //a round robin plays each pairing once and the table counts every game twice
+  @Test
+  public void testRoundRobin() {
+    List<MatchResult> matches = tournament.roundRobin(
+            List.of("MaxCapture", "AvoidNextToCorners", "TryTwo ChooseCorners MaxCapture"), 2);
+    Assert.assertEquals(3, matches.size());
+    List<Standing> table = Standing.of(matches);
+    Assert.assertEquals(3, table.size());
+    double points = 0;
+    for (Standing standing : table) {
+      Assert.assertEquals(8, standing.getGames());
+      points += standing.getPoints();
+    }
+    Assert.assertEquals(12, points, 1e-9);
+    Assert.assertTrue(table.get(0).getScore() >= table.get(2).getScore());
+  }
+
+  //unknown strategies are refused before any game is played
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownSpec() {
+    tournament.match("MaxCapture", "Nonsense", 1, null);
+  }
+}
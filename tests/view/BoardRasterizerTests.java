@@ -0,0 +1,95 @@
+package view;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Tests the headless board images drawn by BoardRasterizer.
+ */
+public class BoardRasterizerTests {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  //the discs of a hexagonal board are drawn at the cell centers the panel uses
+  @Test
+  public void testHexagonDiscs() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    BufferedImage image = new BoardRasterizer(500, 500).render(model);
+    int size = HexGeometry.hexagonSize(500, 500, 7);
+    HexGeometry geometry = new HexGeometry(size, 250, 250, 3, 500, 500);
+    CompactBoard board = CompactBoard.of(model);
+    BoardLayout layout = board.getLayout();
+    for (int cell = 0; cell < layout.getCellCount(); cell++) {
+      int x = geometry.centerX(layout.getQ(cell), layout.getR(cell));
+      int y = geometry.centerY(layout.getR(cell));
+      Color expected = board.get(cell) == BoardLayout.BLACK ? Color.BLACK
+              : board.get(cell) == BoardLayout.WHITE ? Color.WHITE : Color.RED.darker();
+      Assert.assertEquals(expected.getRGB(), image.getRGB(x, y));
+    }
+  }
+
+  //a square board's empty cells are gray and its discs are in the middle of their cell
+  @Test
+  public void testSquareDiscs() {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    BufferedImage image = new BoardRasterizer(400, 400).render(model);
+    Assert.assertEquals(Color.GRAY.getRGB(), image.getRGB(50, 50));
+    int black = image.getRGB(150, 150);
+    int white = image.getRGB(250, 150);
+    Assert.assertTrue(black == Color.BLACK.getRGB() || black == Color.WHITE.getRGB());
+    Assert.assertTrue(white == Color.BLACK.getRGB() || white == Color.WHITE.getRGB());
+    Assert.assertNotEquals(black, white);
+  }
+
+  //batches are drawn in order and written as PNG files
+  @Test
+  public void testWriteAll() throws Exception {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    List<CompactBoard> boards = new ArrayList<>();
+    CompactBoard board = CompactBoard.of(model);
+    int[] moves = new int[board.getLayout().getCellCount()];
+    for (int i = 0; i < 8; i++) {
+      boards.add(board.copy());
+      if (board.generateMoves(moves) > 0) {
+        board.play(moves[0]);
+      } else {
+        board.pass();
+      }
+    }
+    BoardRasterizer rasterizer = new BoardRasterizer(120, 120);
+    List<BufferedImage> images = rasterizer.renderAll(boards);
+    Path directory = folder.getRoot().toPath().resolve("boards");
+    rasterizer.writeAll(boards, directory, "game-");
+    for (int i = 0; i < boards.size(); i++) {
+      BufferedImage read = ImageIO.read(directory.resolve(
+              String.format("game-%05d.png", i)).toFile());
+      Assert.assertEquals(images.get(i).getRGB(60, 60), read.getRGB(60, 60));
+    }
+    Assert.assertEquals(8, Files.list(directory).count());
+  }
+
+  //images must have a size
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSize() {
+    new BoardRasterizer(0, 100);
+  }
+}
@@ -0,0 +1,54 @@
+package view;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.Polygon;
+
+import model.Position;
+
+/**
+ * Tests the hexagon templates and the hit-test lookup in HexGeometry.
+ */
+public class HexGeometryTests {
+
+  //the center of every cell is looked up as that cell
+  @Test
+  public void testCenterHitsCell() {
+    HexGeometry geometry = new HexGeometry(20, 250, 250, 3, 500, 500);
+    for (int q = -3; q <= 3; q++) {
+      for (int r = Math.max(-3, -q - 3); r <= Math.min(3, -q + 3); r++) {
+        Assert.assertEquals(new Position(q, r, -q - r),
+                geometry.cellAt(geometry.centerX(q, r), geometry.centerY(r)));
+      }
+    }
+  }
+
+  //pixels off the board or outside the panel have no cell
+  @Test
+  public void testOffBoard() {
+    HexGeometry geometry = new HexGeometry(20, 250, 250, 3, 500, 500);
+    Assert.assertNull(geometry.cellAt(0, 0));
+    Assert.assertNull(geometry.cellAt(-1, 250));
+    Assert.assertNull(geometry.cellAt(250, 500));
+  }
+
+  //the translated template surrounds the cell's center and has six corners
+  @Test
+  public void testHexagon() {
+    HexGeometry geometry = new HexGeometry(20, 250, 250, 3, 500, 500);
+    Polygon hexagon = geometry.hexagon(1, -2);
+    Assert.assertEquals(6, hexagon.npoints);
+    Assert.assertTrue(hexagon.contains(geometry.centerX(1, -2), geometry.centerY(-2)));
+    Assert.assertFalse(hexagon.contains(geometry.centerX(0, 0), geometry.centerY(0)));
+  }
+
+  //a geometry is only reused for the size it was built for
+  @Test
+  public void testMatches() {
+    HexGeometry geometry = new HexGeometry(20, 250, 250, 3, 500, 500);
+    Assert.assertTrue(geometry.matches(20, 500, 500));
+    Assert.assertFalse(geometry.matches(21, 500, 500));
+    Assert.assertFalse(geometry.matches(20, 500, 400));
+  }
+}
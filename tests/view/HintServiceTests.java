@@ -0,0 +1,54 @@
+package view;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+import model.Cell;
+import model.IPosition;
+import model.IReversiModel;
+import model.Position;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Tests the cached capture counts given by HintService.
+ */
+public class HintServiceTests {
+
+  //every legal move is hinted with the captures the model counts for it
+  @Test
+  public void testHintsMatchModel() {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    model.executeMove(new Position(2, -1, -1));
+    HintService service = new HintService(model);
+    Map<IPosition, Integer> hints = service.getHints();
+    Assert.assertFalse(hints.isEmpty());
+    for (Map.Entry<IPosition, Integer> hint : hints.entrySet()) {
+      Assert.assertEquals(model.countCaptures(hint.getKey(), Cell.WHITE),
+              (int) hint.getValue());
+    }
+    Assert.assertEquals(0, service.getCaptures(new Position(0, 0, 0)));
+  }
+
+  //the hints are computed once per position
+  @Test
+  public void testCachedUntilMove() {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    HintService service = new HintService(model);
+    Map<IPosition, Integer> first = service.getHints();
+    Assert.assertSame(first, service.getHints());
+    model.executeMove(first.keySet().iterator().next());
+    Assert.assertNotSame(first, service.getHints());
+  }
+
+  //there are no hints before the game starts
+  @Test
+  public void testNotStarted() {
+    HintService service = new HintService(new ReversiModel(3));
+    Assert.assertTrue(service.getHints().isEmpty());
+  }
+}
@@ -0,0 +1,225 @@
+package view;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.RepaintEvent;
+import model.IReversiModel;
+import model.Position;
+import model.ReversiModel;
+import model.SquarePosition;
+import model.SquareReversiModel;
+
+/**
+ * Tests, without a screen, that the board panels ask to repaint only the cells that
+ * changed, and that a paint skips the cells outside its clip.
+ */
+public class RepaintTests {
+  private static final int PANEL_SIZE = 500;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private DirtyRegions dirty;
+
+  @Before
+  public void setUp() {
+    dirty = new DirtyRegions();
+    RepaintManager.setCurrentManager(dirty);
+  }
+
+  @After
+  public void tearDown() {
+    RepaintManager.setCurrentManager(null);
+  }
+
+  //a move repaints a small rectangle around each changed hexagon and nothing else
+  @Test
+  public void testHexRepaintsChangedCells() throws Exception {
+    ReversiPanelView panel = hexPanel();
+    Position played = new Position(1, -2, 1);
+    Position flipped = new Position(0, -1, 1);
+    panel.repaintCells(List.of(played, flipped));
+    Assert.assertEquals(2, dirty.regions.size());
+    assertAround(dirty.regions.get(0), panel.logicalToPixelCoordsX(1, -2),
+            panel.logicalToPixelCoordsY(-2));
+    assertAround(dirty.regions.get(1), panel.logicalToPixelCoordsX(0, -1),
+            panel.logicalToPixelCoordsY(-1));
+  }
+
+  //the highlighted hexagon is repainted along with the changed ones
+  @Test
+  public void testHexRepaintsHighlight() throws Exception {
+    ReversiPanelView panel = hexPanel();
+    click(panel, panel.logicalToPixelCoordsX(0, 0), panel.logicalToPixelCoordsY(0));
+    Assert.assertEquals(new Position(0, 0, 0), panel.getHighlightedCell().get());
+    dirty.regions.clear();
+    panel.repaintCells(List.of(new Position(1, -2, 1)));
+    Assert.assertEquals(2, dirty.regions.size());
+    assertAround(dirty.regions.get(1), panel.logicalToPixelCoordsX(0, 0),
+            panel.logicalToPixelCoordsY(0));
+  }
+
+  //a paint clipped to one hexagon draws it and at most its neighbors, not the whole board
+  @Test
+  public void testHexPaintSkipsCellsOutsideClip() throws Exception {
+    ReversiPanelView panel = hexPanel();
+    panel.repaintCells(List.of(new Position(1, -2, 1)));
+    Rectangle cell = dirty.regions.get(0);
+    List<Integer> drawn = cellsDrawn(panel, cell, null);
+    Assert.assertEquals(2, drawn.size());
+    Assert.assertTrue(drawn.get(0) >= 1 && drawn.get(0) <= 7);
+    Assert.assertEquals(37, (int) drawn.get(1));
+  }
+
+  //a move repaints a small rectangle around each changed square and nothing else
+  @Test
+  public void testSquareRepaintsChangedCells() throws Exception {
+    SquareReversiPanelView panel = squarePanel();
+    panel.repaintCells(List.of(new SquarePosition(1, 0), new SquarePosition(2, 3)));
+    Assert.assertEquals(2, dirty.regions.size());
+    int cellSize = SquareReversiPanelView.squareSize(PANEL_SIZE, PANEL_SIZE, 8) + 1;
+    assertAround(dirty.regions.get(0), cellSize + cellSize / 2, cellSize / 2);
+    assertAround(dirty.regions.get(1), 2 * cellSize + cellSize / 2,
+            3 * cellSize + cellSize / 2);
+  }
+
+  //a paint clipped to one square draws it and at most its neighbors, not the whole board
+  @Test
+  public void testSquarePaintSkipsCellsOutsideClip() throws Exception {
+    SquareReversiPanelView panel = squarePanel();
+    panel.repaintCells(List.of(new SquarePosition(0, 0)));
+    Rectangle cell = dirty.regions.get(0);
+    List<Integer> drawn = cellsDrawn(panel, cell, null);
+    Assert.assertEquals(2, drawn.size());
+    Assert.assertTrue(drawn.get(0) >= 1 && drawn.get(0) <= 4);
+    Assert.assertEquals(64, (int) drawn.get(1));
+  }
+
+  /**
+   * Makes a hexagonal panel of a started game of size 3, and forgets the repaints that
+   * laying it out asked for.
+   *
+   * @return the panel, laid out at PANEL_SIZE square
+   * @throws Exception if the event thread cannot be waited for
+   */
+  private ReversiPanelView hexPanel() throws Exception {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    ReversiPanelView panel = new ReversiPanelView(model);
+    panel.setSize(PANEL_SIZE, PANEL_SIZE);
+    SwingUtilities.invokeAndWait(() -> { }); //the resize is handled on the event thread
+    dirty.regions.clear();
+    return panel;
+  }
+
+  /**
+   * Makes a square panel of a started game of size 4, and forgets the repaints that
+   * laying it out asked for.
+   *
+   * @return the panel, laid out at PANEL_SIZE square
+   * @throws Exception if the event thread cannot be waited for
+   */
+  private SquareReversiPanelView squarePanel() throws Exception {
+    IReversiModel model = new SquareReversiModel(4);
+    model.startGame();
+    SquareReversiPanelView panel = new SquareReversiPanelView(model);
+    panel.setSize(PANEL_SIZE, PANEL_SIZE);
+    SwingUtilities.invokeAndWait(() -> { }); //the resize is handled on the event thread
+    dirty.regions.clear();
+    return panel;
+  }
+
+  /**
+   * Checks that a dirty region holds a point and is far smaller than the panel.
+   *
+   * @param region the region
+   * @param x      the x of the point, such as a cell's center
+   * @param y      the y of the point
+   */
+  private static void assertAround(Rectangle region, int x, int y) {
+    Assert.assertTrue(region + " should hold " + x + "," + y, region.contains(x, y));
+    Assert.assertTrue(region.width * region.height * 16 < PANEL_SIZE * PANEL_SIZE);
+  }
+
+  /**
+   * Clicks a panel as the mouse would.
+   *
+   * @param panel the panel
+   * @param x     the x of the click
+   * @param y     the y of the click
+   */
+  private static void click(JPanel panel, int x, int y) {
+    MouseEvent event = new MouseEvent(panel, MouseEvent.MOUSE_CLICKED,
+            System.currentTimeMillis(), 0, x, y, 1, false);
+    panel.getMouseListeners()[0].mouseClicked(event);
+  }
+
+  /**
+   * Paints a panel offscreen, once with each clip, and reads back how many cells each
+   * paint drew.
+   *
+   * @param panel the panel
+   * @param clips the clips, null to paint the whole panel
+   * @return the cells drawn by each paint, in order
+   * @throws Exception if the recording cannot be written or read
+   */
+  private List<Integer> cellsDrawn(IReversiPanelView panel, Rectangle... clips)
+          throws Exception {
+    Path file = folder.getRoot().toPath().resolve("repaint.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(RepaintEvent.class).withoutThreshold();
+      recording.start();
+      for (Rectangle clip : clips) {
+        BufferedImage image = new BufferedImage(PANEL_SIZE, PANEL_SIZE,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        if (clip != null) {
+          g.setClip(clip);
+        }
+        panel.paintComponent(g);
+        g.dispose();
+      }
+      recording.stop();
+      recording.dump(file);
+    }
+    List<Integer> drawn = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      if (event.getEventType().getName().equals("reversi.Repaint")) {
+        drawn.add(event.getInt("cellsDrawn"));
+      }
+    }
+    return drawn;
+  }
+
+  /**
+   * A repaint manager that keeps the regions it is asked to repaint instead of painting.
+   */
+  private static final class DirtyRegions extends RepaintManager {
+    private final List<Rectangle> regions = new ArrayList<>();
+
+    @Override
+    public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+      regions.add(new Rectangle(x, y, w, h));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package view;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import model.BoardLayout;
+import model.CompactBoard;
+import model.IReversiModel;
+import model.ReversiModel;
+import model.SquareReversiModel;
+
+/**
+ * Tests the streaming text output of TextBoardRenderer.
+ */
+public class TextBoardRendererTests {
+
+  //a stored hexagonal position is written the same way as the model it came from
+  @Test
+  public void testHexagonBoardMatchesModel() throws Exception {
+    IReversiModel model = new ReversiModel(3);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    TextBoardRenderer renderer = new TextBoardRenderer(board.getLayout());
+    StringWriter out = new StringWriter();
+    renderer.render(board, out);
+    Assert.assertEquals(renderer.render(model), out.toString());
+    Assert.assertEquals(
+            "   _ _ _ _ \n" +
+                    "  _ _ _ _ _ \n" +
+                    " _ _ X O _ _ \n" +
+                    "_ _ O _ X _ _ \n" +
+                    " _ _ X O _ _ \n" +
+                    "  _ _ _ _ _ \n" +
+                    "   _ _ _ _ \n",
+            out.toString());
+  }
+
+  //square boards have no indentation and the buffer is reused across boards
+  @Test
+  public void testSquareBoardsInSequence() throws Exception {
+    IReversiModel model = new SquareReversiModel(2);
+    model.startGame();
+    CompactBoard board = CompactBoard.of(model);
+    TextBoardRenderer renderer = new TextBoardRenderer(board.getLayout());
+    StringBuilder out = new StringBuilder();
+    renderer.render(board, out);
+    int[] moves = new int[board.getLayout().getCellCount()];
+    board.generateMoves(moves);
+    board.play(moves[0]);
+    renderer.render(board, out);
+    Assert.assertEquals(2 * 4 * 9, out.length());
+    Assert.assertEquals(new SquareReversiView(model).toString(), out.substring(0, 36));
+    Assert.assertNotEquals(out.substring(0, 36), out.substring(36));
+  }
+
+  //a board of another layout is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void testLayoutMismatch() throws Exception {
+    TextBoardRenderer renderer = new TextBoardRenderer(
+            BoardLayout.of(BoardLayout.Kind.SQUARE, 2));
+    renderer.render(new CompactBoard(BoardLayout.of(BoardLayout.Kind.SQUARE, 3)),
+            new StringBuilder());
+  }
+}